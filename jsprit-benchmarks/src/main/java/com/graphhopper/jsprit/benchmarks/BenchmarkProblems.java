@@ -0,0 +1,61 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.benchmarks;
+
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.instance.reader.ChristofidesReader;
+import com.graphhopper.jsprit.instance.reader.LiLimReader;
+import com.graphhopper.jsprit.instance.reader.SolomonReader;
+
+import java.io.File;
+
+/**
+ * Reads the benchmark instances shipped with jsprit-instances.
+ * <p>
+ * <p>Instances are referred to by their folder and name, e.g. solomon/C101, lilim/lc101 or christofides/vrpnc1. The
+ * folder containing the instances can be changed with -p instancesFolder=... and defaults to jsprit-instances/instances,
+ * i.e. benchmarks are expected to be run from the root of the project.
+ *
+ * @author stefan schroeder
+ */
+final class BenchmarkProblems {
+
+    static final String DEFAULT_INSTANCES_FOLDER = "jsprit-instances/instances";
+
+    private BenchmarkProblems() {
+    }
+
+    static VehicleRoutingProblem read(String instancesFolder, String instance) {
+        String file = instancesFolder + "/" + instance + ".txt";
+        if (!new File(file).exists()) {
+            throw new IllegalArgumentException("instance " + file + " does not exist. set instancesFolder accordingly.");
+        }
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        if (instance.startsWith("solomon/")) {
+            new SolomonReader(vrpBuilder).read(file);
+        } else if (instance.startsWith("lilim/")) {
+            new LiLimReader(vrpBuilder).read(file);
+        } else if (instance.startsWith("christofides/")) {
+            new ChristofidesReader(vrpBuilder).read(file);
+        } else {
+            throw new IllegalArgumentException("cannot read " + instance + ". only solomon, lilim and christofides instances are supported.");
+        }
+        return vrpBuilder.build();
+    }
+
+}
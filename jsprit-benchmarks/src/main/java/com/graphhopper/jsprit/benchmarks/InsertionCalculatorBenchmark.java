@@ -0,0 +1,146 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.benchmarks;
+
+import com.graphhopper.jsprit.core.algorithm.listener.VehicleRoutingAlgorithmListeners;
+import com.graphhopper.jsprit.core.algorithm.recreate.InsertionData;
+import com.graphhopper.jsprit.core.algorithm.recreate.JobInsertionCostsCalculator;
+import com.graphhopper.jsprit.core.algorithm.recreate.JobInsertionCostsCalculatorBuilder;
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionListener;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.vehicle.InfiniteFleetManagerFactory;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single call of the insertion calculator, i.e. evaluating all insertion positions of a job in a route.
+ * <p>
+ * <p>Run it with the gc profiler to see the allocations per call (gc.alloc.rate.norm):
+ * <pre>
+ * java -jar jsprit-benchmarks/target/benchmarks.jar InsertionCalculatorBenchmark -prof gc
+ * </pre>
+ *
+ * @author stefan schroeder
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InsertionCalculatorBenchmark {
+
+    @Param({"10", "50", "200"})
+    public int routeSize;
+
+    private JobInsertionCostsCalculator calculator;
+
+    private VehicleRoute serviceRoute;
+
+    private VehicleRoute shipmentRoute;
+
+    private Service serviceToInsert;
+
+    private Shipment shipmentToInsert;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(4711);
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("type").addCapacityDimension(0, 10 * routeSize).build();
+        VehicleImpl vehicle = VehicleImpl.Builder.newInstance("vehicle").setType(type)
+            .setStartLocation(Location.newInstance(0, 0)).setLatestArrival(100000).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle)
+            .setFleetSize(VehicleRoutingProblem.FleetSize.FINITE);
+        List<Service> services = new ArrayList<>();
+        List<Shipment> shipments = new ArrayList<>();
+        for (int i = 0; i <= routeSize; i++) {
+            Service service = Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(randomLocation(random)).setServiceTime(5)
+                .setTimeWindow(TimeWindow.newInstance(0, 100000)).build();
+            services.add(service);
+            vrpBuilder.addJob(service);
+            Shipment shipment = Shipment.Builder.newInstance("sh" + i).addSizeDimension(0, 1)
+                .setPickupLocation(randomLocation(random)).setDeliveryLocation(randomLocation(random))
+                .setPickupServiceTime(5).setDeliveryServiceTime(5).build();
+            shipments.add(shipment);
+            vrpBuilder.addJob(shipment);
+        }
+        VehicleRoutingProblem vrp = vrpBuilder.build();
+
+        VehicleRoute.Builder serviceRouteBuilder = VehicleRoute.Builder.newInstance(vehicle).setJobActivityFactory(vrp.getJobActivityFactory());
+        VehicleRoute.Builder shipmentRouteBuilder = VehicleRoute.Builder.newInstance(vehicle).setJobActivityFactory(vrp.getJobActivityFactory());
+        for (int i = 0; i < routeSize; i++) {
+            serviceRouteBuilder.addService(services.get(i));
+        }
+        for (int i = 0; i < routeSize / 2; i++) {
+            shipmentRouteBuilder.addPickup(shipments.get(i));
+        }
+        for (int i = 0; i < routeSize / 2; i++) {
+            shipmentRouteBuilder.addDelivery(shipments.get(i));
+        }
+        serviceRoute = serviceRouteBuilder.build();
+        shipmentRoute = shipmentRouteBuilder.build();
+        serviceToInsert = services.get(routeSize);
+        shipmentToInsert = shipments.get(routeSize);
+
+        StateManager stateManager = new StateManager(vrp);
+        stateManager.updateLoadStates();
+        stateManager.updateTimeWindowStates();
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        constraintManager.addLoadConstraint();
+        constraintManager.addTimeWindowConstraint();
+        stateManager.informInsertionStarts(Arrays.asList(serviceRoute, shipmentRoute), Collections.<Job>emptyList());
+
+        VehicleFleetManager fleetManager = new InfiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+        calculator = new JobInsertionCostsCalculatorBuilder(new ArrayList<InsertionListener>(), new ArrayList<VehicleRoutingAlgorithmListeners.PrioritizedVRAListener>())
+            .setVehicleRoutingProblem(vrp).setStateManager(stateManager).setConstraintManager(constraintManager)
+            .setVehicleFleetManager(fleetManager).setLocalLevel(true).build();
+    }
+
+    private static Location randomLocation(Random random) {
+        return Location.newInstance(random.nextInt(1000), random.nextInt(1000));
+    }
+
+    @Benchmark
+    public InsertionData insertService() {
+        return calculator.getInsertionData(serviceRoute, serviceToInsert, serviceRoute.getVehicle(), 0., null, Double.MAX_VALUE);
+    }
+
+    @Benchmark
+    public InsertionData insertShipment() {
+        return calculator.getInsertionData(shipmentRoute, shipmentToInsert, shipmentRoute.getVehicle(), 0., null, Double.MAX_VALUE);
+    }
+
+}
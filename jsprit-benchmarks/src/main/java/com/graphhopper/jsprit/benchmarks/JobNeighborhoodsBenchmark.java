@@ -0,0 +1,75 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.benchmarks;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoods;
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoodsFactory;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the initialisation of the job neighborhoods, i.e. memorizing half the number of jobs per job
+ * (JobNeighborhoodsOptimized) and memorizing a bounded number of neighbors per job as it is done by
+ * {@link com.graphhopper.jsprit.core.algorithm.box.Jsprit}.
+ *
+ * @author stefan schroeder
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JobNeighborhoodsBenchmark {
+
+    @Param({"solomon/C101", "lilim/lc101", "christofides/vrpnc1"})
+    public String instance;
+
+    @Param(BenchmarkProblems.DEFAULT_INSTANCES_FOLDER)
+    public String instancesFolder;
+
+    private VehicleRoutingProblem vrp;
+
+    private AvgServiceAndShipmentDistance jobDistance;
+
+    @Setup
+    public void setup() {
+        vrp = BenchmarkProblems.read(instancesFolder, instance);
+        jobDistance = new AvgServiceAndShipmentDistance(vrp.getTransportCosts());
+    }
+
+    @Benchmark
+    public JobNeighborhoods initialiseBounded() {
+        JobNeighborhoods neighborhoods = new JobNeighborhoodsFactory().createBoundedNeighborhoods(vrp, jobDistance,
+            Math.min((int) (vrp.getJobs().values().size() * 0.5), 200));
+        neighborhoods.initialise();
+        return neighborhoods;
+    }
+
+    @Benchmark
+    public JobNeighborhoods initialise() {
+        JobNeighborhoods neighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp, jobDistance,
+            (int) (vrp.getJobs().values().size() * 0.5));
+        neighborhoods.initialise();
+        return neighborhoods;
+    }
+
+}
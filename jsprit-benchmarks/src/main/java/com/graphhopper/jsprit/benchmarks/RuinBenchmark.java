@@ -0,0 +1,102 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.benchmarks;
+
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.algorithm.ruin.*;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single ruin of a solution with the radial, string and worst ruin strategies.
+ * <p>
+ * <p>The solution to be ruined is found once per trial with a short search. Since ruin modifies routes, it is copied in
+ * each invocation. The time of a copy alone is measured by {@link #copy()}, i.e. the time of a ruin is the difference
+ * between {@link #ruin()} and {@link #copy()}. Copying in a per-invocation setup instead would add timestamping overhead
+ * that exceeds the time of a single ruin.
+ *
+ * @author stefan schroeder
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RuinBenchmark {
+
+    @Param({"solomon/C101", "lilim/lc101"})
+    public String instance;
+
+    @Param({"radial", "string", "worst"})
+    public String ruin;
+
+    @Param(BenchmarkProblems.DEFAULT_INSTANCES_FOLDER)
+    public String instancesFolder;
+
+    private VehicleRoutingProblemSolution solution;
+
+    private RuinStrategy ruinStrategy;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        VehicleRoutingProblem vrp = BenchmarkProblems.read(instancesFolder, instance);
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setRandom(new Random(4711))
+            .setProperty(Jsprit.Parameter.ITERATIONS, "100").buildAlgorithm();
+        solution = Solutions.bestOf(vra.searchSolutions());
+
+        JobNeighborhoods neighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp,
+            new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), (int) (vrp.getJobs().values().size() * 0.5));
+        neighborhoods.initialise();
+        int noJobsToRemove = (int) (vrp.getJobs().size() * 0.2);
+        AbstractRuinStrategy strategy;
+        if (ruin.equals("radial")) {
+            strategy = new RuinRadial(vrp, noJobsToRemove, neighborhoods);
+        } else if (ruin.equals("string")) {
+            strategy = new RuinString(vrp, neighborhoods);
+        } else if (ruin.equals("worst")) {
+            strategy = new RuinWorst(vrp, noJobsToRemove);
+        } else {
+            throw new IllegalArgumentException("unknown ruin strategy " + ruin);
+        }
+        strategy.setRandom(new Random(4711));
+        ruinStrategy = strategy;
+    }
+
+    @Benchmark
+    public Collection<VehicleRoute> copy() {
+        return VehicleRoutingProblemSolution.copyOf(solution).getRoutes();
+    }
+
+    @Benchmark
+    public Collection<Job> ruin() {
+        Collection<VehicleRoute> routes = VehicleRoutingProblemSolution.copyOf(solution).getRoutes();
+        return ruinStrategy.ruin(routes);
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.benchmarks;
+
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a complete solve with a fixed number of iterations and a fixed random seed, i.e. every run searches the same
+ * solutions. This includes building the algorithm.
+ *
+ * @author stefan schroeder
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolveBenchmark {
+
+    @Param({"solomon/C101", "solomon/R101", "lilim/lc101", "christofides/vrpnc1"})
+    public String instance;
+
+    @Param({"500"})
+    public int iterations;
+
+    @Param(BenchmarkProblems.DEFAULT_INSTANCES_FOLDER)
+    public String instancesFolder;
+
+    private VehicleRoutingProblem vrp;
+
+    @Setup
+    public void setup() {
+        vrp = BenchmarkProblems.read(instancesFolder, instance);
+    }
+
+    @Benchmark
+    public VehicleRoutingProblemSolution solve() {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setRandom(new Random(4711))
+            .setProperty(Jsprit.Parameter.ITERATIONS, String.valueOf(iterations)).buildAlgorithm();
+        return Solutions.bestOf(vra.searchSolutions());
+    }
+
+}
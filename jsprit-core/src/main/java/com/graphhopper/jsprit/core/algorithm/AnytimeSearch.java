@@ -0,0 +1,261 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.algorithm.listener.AlgorithmStartsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.StrategySelectedListener;
+import com.graphhopper.jsprit.core.algorithm.termination.PrematureAlgorithmTermination;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.util.Solutions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs a {@link VehicleRoutingAlgorithm} asynchronously within a time budget, and provides the best solution found so
+ * far at any moment.
+ * <p>
+ * <p>The search ends when the time budget is used up, when {@link #stop()} is called or when the algorithm terminates
+ * otherwise (e.g. after its max. number of iterations), whichever comes first. Time budget and stop are checked after
+ * each iteration, i.e. the search ends at most one iteration (plus the construction of the initial solution) late.
+ * In any case, the returned future yields the solutions of {@link VehicleRoutingAlgorithm#searchSolutions()}.
+ * <p>
+ * <p>The best solution and the solutions passed to {@link ImprovementListener}s are copies that are not modified by
+ * the search anymore, thus they can be used by other threads.
+ * <pre>
+ * AnytimeSearch search = AnytimeSearch.Builder.newInstance(vra).setTimeBudget(2000).build();
+ * Future&lt;Collection&lt;VehicleRoutingProblemSolution&gt;&gt; result = search.start();
+ * ...
+ * VehicleRoutingProblemSolution best = search.getBestSolution();
+ * </pre>
+ *
+ * @author stefan schroeder
+ */
+public class AnytimeSearch {
+
+    /**
+     * Is informed whenever the search finds a new best solution. It is called by the thread that runs the search,
+     * thus it should return quickly.
+     */
+    public interface ImprovementListener {
+
+        public void informImprovement(VehicleRoutingProblemSolution solution);
+
+    }
+
+    public static class Builder {
+
+        public static Builder newInstance(VehicleRoutingAlgorithm algorithm) {
+            return new Builder(algorithm);
+        }
+
+        private final VehicleRoutingAlgorithm algorithm;
+
+        private long timeBudget = Long.MAX_VALUE;
+
+        private ExecutorService executorService;
+
+        private final List<ImprovementListener> listeners = new ArrayList<ImprovementListener>();
+
+        private Builder(VehicleRoutingAlgorithm algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        /**
+         * Sets the time budget, starting when the search is started. By default, it is unlimited.
+         *
+         * @param timeBudget time budget in milliseconds
+         * @return this builder
+         */
+        public Builder setTimeBudget(long timeBudget) {
+            if (timeBudget < 0) throw new IllegalArgumentException("time budget must not be negative.");
+            this.timeBudget = timeBudget;
+            return this;
+        }
+
+        /**
+         * Sets the executor that runs the search. By default, the search runs on a thread of its own.
+         *
+         * @param executorService the executor that runs the search
+         * @return this builder
+         */
+        public Builder setExecutorService(ExecutorService executorService) {
+            this.executorService = executorService;
+            return this;
+        }
+
+        public Builder addListener(ImprovementListener listener) {
+            listeners.add(listener);
+            return this;
+        }
+
+        /**
+         * Builds the search. Note that it registers listeners and a termination criterion with the algorithm, thus an
+         * algorithm can only be used for one search.
+         *
+         * @return the search
+         */
+        public AnytimeSearch build() {
+            return new AnytimeSearch(this);
+        }
+
+    }
+
+    private final VehicleRoutingAlgorithm algorithm;
+
+    private final ExecutorService executorService;
+
+    private final List<ImprovementListener> listeners = new ArrayList<ImprovementListener>();
+
+    private final long timeBudget;
+
+    private final AtomicLong deadline = new AtomicLong(Long.MAX_VALUE);
+
+    private volatile boolean stopped = false;
+
+    private volatile VehicleRoutingProblemSolution bestSolution;
+
+    private Future<Collection<VehicleRoutingProblemSolution>> result;
+
+    private AnytimeSearch(Builder builder) {
+        this.algorithm = builder.algorithm;
+        this.executorService = builder.executorService;
+        this.timeBudget = builder.timeBudget;
+        this.listeners.addAll(builder.listeners);
+        algorithm.addListener(new AlgorithmStartsListener() {
+
+            @Override
+            public void informAlgorithmStarts(VehicleRoutingProblem problem, VehicleRoutingAlgorithm algorithm, Collection<VehicleRoutingProblemSolution> solutions) {
+                VehicleRoutingProblemSolution best = Solutions.bestOf(solutions);
+                if (best != null) memorizeIfBetter(best);
+            }
+
+        });
+        algorithm.addListener(new StrategySelectedListener() {
+
+            @Override
+            public void informSelectedStrategy(SearchStrategy.DiscoveredSolution discoveredSolution, VehicleRoutingProblem vehicleRoutingProblem, Collection<VehicleRoutingProblemSolution> vehicleRoutingProblemSolutions) {
+                memorizeIfBetter(discoveredSolution.getSolution());
+            }
+
+        });
+        algorithm.addTerminationCriterion(new PrematureAlgorithmTermination() {
+
+            @Override
+            public boolean isPrematureBreak(SearchStrategy.DiscoveredSolution discoveredSolution) {
+                return stopped || System.currentTimeMillis() >= deadline.get();
+            }
+
+        });
+    }
+
+    /**
+     * Starts the search.
+     *
+     * @return future of the solutions the algorithm returns
+     * @throws IllegalStateException if the search has already been started
+     */
+    public synchronized Future<Collection<VehicleRoutingProblemSolution>> start() {
+        if (result != null) throw new IllegalStateException("search has already been started.");
+        deadline.set(addSaturated(System.currentTimeMillis(), timeBudget));
+        final ExecutorService executor = executorService == null ? Executors.newSingleThreadExecutor() : executorService;
+        result = executor.submit(new Callable<Collection<VehicleRoutingProblemSolution>>() {
+
+            @Override
+            public Collection<VehicleRoutingProblemSolution> call() throws Exception {
+                try {
+                    return algorithm.searchSolutions();
+                } finally {
+                    if (executor != executorService) executor.shutdown();
+                }
+            }
+
+        });
+        return result;
+    }
+
+    /**
+     * Returns the best solution found so far.
+     *
+     * @return best solution or null if there is none yet
+     */
+    public VehicleRoutingProblemSolution getBestSolution() {
+        return bestSolution;
+    }
+
+    /**
+     * Stops the search after the current iteration. The future returned by {@link #start()} then yields the
+     * solutions found so far.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Extends the time budget. This has no effect if the search has already ended.
+     *
+     * @param additionalTime additional time in milliseconds
+     */
+    public void extendTimeBudget(long additionalTime) {
+        if (additionalTime < 0) throw new IllegalArgumentException("additional time must not be negative.");
+        long current;
+        do {
+            current = deadline.get();
+        } while (!deadline.compareAndSet(current, addSaturated(current, additionalTime)));
+    }
+
+    /**
+     * Returns the time that is left until the time budget is used up.
+     *
+     * @return remaining time in milliseconds, or Long.MAX_VALUE if the budget is unlimited
+     */
+    public long getRemainingTime() {
+        long d = deadline.get();
+        if (d == Long.MAX_VALUE) return Long.MAX_VALUE;
+        return Math.max(0, d - System.currentTimeMillis());
+    }
+
+    public boolean isDone() {
+        return result != null && result.isDone();
+    }
+
+    private void memorizeIfBetter(VehicleRoutingProblemSolution solution) {
+        VehicleRoutingProblemSolution best = bestSolution;
+        if (best != null && solution.getCost() >= best.getCost()) return;
+        //routes of VehicleRoutingProblemSolution.copyOf(...) share activities until they are changed by the search
+        VehicleRoutingProblemSolution copy = VehicleRoutingProblemSolution.deepCopyOf(solution);
+        bestSolution = copy;
+        for (ImprovementListener l : listeners) {
+            l.informImprovement(copy);
+        }
+    }
+
+    private static long addSaturated(long a, long b) {
+        long sum = a + b;
+        if (sum < a) return Long.MAX_VALUE;
+        return sum;
+    }
+
+}
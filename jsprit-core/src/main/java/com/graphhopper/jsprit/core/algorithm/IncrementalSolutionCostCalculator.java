@@ -0,0 +1,144 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.JobInsertedListener;
+import com.graphhopper.jsprit.core.algorithm.ruin.listener.RuinListener;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Objective function that is the sum of route costs and the costs of unassigned jobs, and that memorizes the costs of
+ * each route.
+ * <p>
+ * <p>Only routes that have been changed by ruin or insertion (as reported to this listener) are evaluated again, i.e.
+ * evaluating a solution requires O(#changed routes) route evaluations instead of O(#routes). {@link SearchStrategy}
+ * passes memorized costs on to the copy of the selected solution.
+ * <p>
+ * <p>Register it as listener to the algorithm (e.g. vra.addListener(calculator)), otherwise changed routes are not
+ * recognized. It must not be used with modules that change routes without informing ruin or insertion listeners.
+ *
+ * @author stefan schroeder
+ */
+public class IncrementalSolutionCostCalculator implements SolutionCostCalculator, RuinListener, JobInsertedListener {
+
+    /**
+     * Calculates the costs of a single route. They must only depend on the route itself.
+     */
+    public interface RouteCostCalculator {
+
+        public double getCosts(VehicleRoute route);
+
+    }
+
+    /**
+     * Calculates the costs of unassigned jobs.
+     */
+    public interface UnassignedJobsCostCalculator {
+
+        /**
+         * @param unassignedJobs the unassigned jobs of the solution
+         * @param routeCosts     the sum of all route costs of the solution
+         * @return costs of unassigned jobs
+         */
+        public double getCosts(Collection<Job> unassignedJobs, double routeCosts);
+
+    }
+
+    private final RouteCostCalculator routeCostCalculator;
+
+    private final UnassignedJobsCostCalculator unassignedJobsCostCalculator;
+
+    private final Map<VehicleRoute, Double> routeCosts = Collections.synchronizedMap(new WeakHashMap<VehicleRoute, Double>());
+
+    public IncrementalSolutionCostCalculator(RouteCostCalculator routeCostCalculator, UnassignedJobsCostCalculator unassignedJobsCostCalculator) {
+        this.routeCostCalculator = routeCostCalculator;
+        this.unassignedJobsCostCalculator = unassignedJobsCostCalculator;
+    }
+
+    @Override
+    public double getCosts(VehicleRoutingProblemSolution solution) {
+        double costs = 0.;
+        for (VehicleRoute route : solution.getRoutes()) {
+            Double c = routeCosts.get(route);
+            if (c == null) {
+                c = routeCostCalculator.getCosts(route);
+                routeCosts.put(route, c);
+            }
+            costs += c;
+        }
+        return costs + unassignedJobsCostCalculator.getCosts(solution.getUnassignedJobs(), costs);
+    }
+
+    /**
+     * Passes memorized route costs on to the routes of the copy.
+     *
+     * @param solution the original solution
+     * @param copy     the copy made by {@link VehicleRoutingProblemSolution#copyOf(VehicleRoutingProblemSolution)}
+     */
+    public void informSolutionCopied(VehicleRoutingProblemSolution solution, VehicleRoutingProblemSolution copy) {
+        if (solution.getRoutes().size() != copy.getRoutes().size()) return;
+        Iterator<VehicleRoute> copiedRoutes = copy.getRoutes().iterator();
+        for (VehicleRoute route : solution.getRoutes()) {
+            VehicleRoute copiedRoute = copiedRoutes.next();
+            Double c = routeCosts.get(route);
+            if (c != null) routeCosts.put(copiedRoute, c);
+        }
+    }
+
+    /**
+     * Returns the number of routes whose costs are memorized.
+     *
+     * @return number of memorized routes
+     */
+    public int getNoMemorizedRoutes() {
+        return routeCosts.size();
+    }
+
+    @Override
+    public void ruinStarts(Collection<VehicleRoute> routes) {
+
+    }
+
+    @Override
+    public void ruinEnds(Collection<VehicleRoute> routes, Collection<Job> unassignedJobs) {
+        //breaks are removed from all routes at the end of ruin without informing listeners
+        for (VehicleRoute route : routes) {
+            if (route.getVehicle().getBreak() != null) routeCosts.remove(route);
+        }
+    }
+
+    @Override
+    public void removed(Job job, VehicleRoute fromRoute) {
+        routeCosts.remove(fromRoute);
+    }
+
+    @Override
+    public void informJobInserted(Job job2insert, VehicleRoute inRoute, double additionalCosts, double additionalTime) {
+        routeCosts.remove(inRoute);
+    }
+
+}
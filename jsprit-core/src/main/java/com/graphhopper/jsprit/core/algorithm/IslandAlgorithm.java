@@ -0,0 +1,265 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.algorithm.listener.IterationEndsListener;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * Algorithm that runs several independent {@link VehicleRoutingAlgorithm}s (islands) concurrently on the same
+ * {@link VehicleRoutingProblem}. Every <code>migrationInterval</code> iterations each island publishes its best
+ * solution and receives a migrant according to the {@link MigrationTopology}. A migrant replaces the worst solution
+ * in the island's solution memory if it is cheaper.
+ * <p>
+ * <p>Islands must not share state, constraint or fleet managers, nor search strategies, since they run on separate
+ * threads. Use {@link com.graphhopper.jsprit.core.algorithm.box.Jsprit.Builder#buildIslandAlgorithm()} to create
+ * islands with their own seeds and strategy weights.
+ *
+ * @author stefan schroeder
+ */
+public class IslandAlgorithm {
+
+    public enum MigrationTopology {
+
+        /**
+         * island i receives the best solution of island i-1 (and island 0 the one of the last island).
+         */
+        RING,
+
+        /**
+         * every island receives the best solution of all islands.
+         */
+        BROADCAST_BEST
+
+    }
+
+    public static class Builder {
+
+        private final VehicleRoutingProblem vrp;
+
+        private final List<VehicleRoutingAlgorithm> islands = new ArrayList<VehicleRoutingAlgorithm>();
+
+        private int migrationInterval = 100;
+
+        private MigrationTopology migrationTopology = MigrationTopology.RING;
+
+        private ExecutorService executorService;
+
+        public static Builder newInstance(VehicleRoutingProblem vrp) {
+            return new Builder(vrp);
+        }
+
+        private Builder(VehicleRoutingProblem vrp) {
+            this.vrp = vrp;
+        }
+
+        public Builder addIsland(VehicleRoutingAlgorithm island) {
+            if (islands.contains(island)) throw new IllegalArgumentException("island has already been added.");
+            islands.add(island);
+            return this;
+        }
+
+        /**
+         * Sets the number of iterations after which islands exchange their best solutions.
+         *
+         * @param migrationInterval number of iterations between two migrations
+         * @return this builder
+         */
+        public Builder setMigrationInterval(int migrationInterval) {
+            if (migrationInterval < 1) throw new IllegalArgumentException("migration interval must be at least 1.");
+            this.migrationInterval = migrationInterval;
+            return this;
+        }
+
+        public Builder setMigrationTopology(MigrationTopology migrationTopology) {
+            this.migrationTopology = migrationTopology;
+            return this;
+        }
+
+        /**
+         * Sets the executor that runs the islands. It needs to be able to run all islands at once. If it is not set,
+         * a fixed thread pool with one thread per island is created and shut down when the search ends.
+         *
+         * @param executorService the executor that runs the islands
+         * @return this builder
+         */
+        public Builder setExecutorService(ExecutorService executorService) {
+            this.executorService = executorService;
+            return this;
+        }
+
+        public IslandAlgorithm build() {
+            if (islands.isEmpty()) throw new IllegalStateException("at least one island is required.");
+            return new IslandAlgorithm(this);
+        }
+
+    }
+
+    private class Migration implements IterationEndsListener {
+
+        private final int islandIndex;
+
+        private final VehicleRoutingAlgorithm island;
+
+        Migration(int islandIndex, VehicleRoutingAlgorithm island) {
+            this.islandIndex = islandIndex;
+            this.island = island;
+        }
+
+        @Override
+        public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+            if (i % migrationInterval != 0) return;
+            //migrants are read by other islands concurrently, thus they must not share activities with any island
+            VehicleRoutingProblemSolution best = island.getBestEver();
+            if (best != null) bestSolutions.set(islandIndex, VehicleRoutingProblemSolution.deepCopyOf(best));
+            VehicleRoutingProblemSolution migrant = getMigrant(islandIndex);
+            if (migrant != null) immigrate(VehicleRoutingProblemSolution.deepCopyOf(migrant), solutions);
+        }
+
+    }
+
+    private final static Logger logger = LoggerFactory.getLogger(IslandAlgorithm.class);
+
+    private final VehicleRoutingProblem problem;
+
+    private final List<VehicleRoutingAlgorithm> islands;
+
+    private final int migrationInterval;
+
+    private final MigrationTopology migrationTopology;
+
+    private final ExecutorService executorService;
+
+    private final AtomicReferenceArray<VehicleRoutingProblemSolution> bestSolutions;
+
+    private IslandAlgorithm(Builder builder) {
+        this.problem = builder.vrp;
+        this.islands = new ArrayList<VehicleRoutingAlgorithm>(builder.islands);
+        this.migrationInterval = builder.migrationInterval;
+        this.migrationTopology = builder.migrationTopology;
+        this.executorService = builder.executorService;
+        this.bestSolutions = new AtomicReferenceArray<VehicleRoutingProblemSolution>(islands.size());
+        for (int i = 0; i < islands.size(); i++) {
+            islands.get(i).addListener(new Migration(i, islands.get(i)));
+        }
+    }
+
+    public List<VehicleRoutingAlgorithm> getIslands() {
+        return Collections.unmodifiableList(islands);
+    }
+
+    public int getMigrationInterval() {
+        return migrationInterval;
+    }
+
+    public MigrationTopology getMigrationTopology() {
+        return migrationTopology;
+    }
+
+    /**
+     * Sets max number of iterations of every island.
+     *
+     * @param maxIterations max number of iterations each island runs
+     */
+    public void setMaxIterations(int maxIterations) {
+        for (VehicleRoutingAlgorithm island : islands) {
+            island.setMaxIterations(maxIterations);
+        }
+    }
+
+    /**
+     * Runs all islands concurrently and returns the solutions of all islands.
+     *
+     * @return Collection<VehicleRoutingProblemSolution> the solutions
+     */
+    public Collection<VehicleRoutingProblemSolution> searchSolutions() {
+        logger.info("island algorithm starts: [islands={}][migrationInterval={}][topology={}]", islands.size(), migrationInterval, migrationTopology);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < islands.size(); i++) {
+            bestSolutions.set(i, null);
+        }
+        ExecutorService es = executorService;
+        if (es == null) es = Executors.newFixedThreadPool(islands.size());
+        List<Future<Collection<VehicleRoutingProblemSolution>>> futures = new ArrayList<Future<Collection<VehicleRoutingProblemSolution>>>();
+        for (final VehicleRoutingAlgorithm island : islands) {
+            futures.add(es.submit(new Callable<Collection<VehicleRoutingProblemSolution>>() {
+
+                @Override
+                public Collection<VehicleRoutingProblemSolution> call() throws Exception {
+                    return island.searchSolutions();
+                }
+
+            }));
+        }
+        Collection<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>();
+        try {
+            for (Future<Collection<VehicleRoutingProblemSolution>> future : futures) {
+                solutions.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (executorService == null) es.shutdownNow();
+        }
+        logger.info("island algorithm took {} seconds", ((System.currentTimeMillis() - now) / 1000.0));
+        return solutions;
+    }
+
+    private VehicleRoutingProblemSolution getMigrant(int islandIndex) {
+        if (islands.size() < 2) return null;
+        if (migrationTopology == MigrationTopology.RING) {
+            return bestSolutions.get((islandIndex + islands.size() - 1) % islands.size());
+        }
+        VehicleRoutingProblemSolution best = null;
+        for (int i = 0; i < islands.size(); i++) {
+            if (i == islandIndex) continue;
+            VehicleRoutingProblemSolution candidate = bestSolutions.get(i);
+            if (candidate == null) continue;
+            if (best == null || candidate.getCost() < best.getCost()) best = candidate;
+        }
+        return best;
+    }
+
+    private static void immigrate(VehicleRoutingProblemSolution migrant, Collection<VehicleRoutingProblemSolution> solutions) {
+        VehicleRoutingProblemSolution worst = null;
+        for (VehicleRoutingProblemSolution solution : solutions) {
+            if (worst == null || solution.getCost() > worst.getCost()) worst = solution;
+        }
+        if (worst == null) {
+            solutions.add(migrant);
+        } else if (migrant.getCost() < worst.getCost()) {
+            solutions.remove(worst);
+            solutions.add(migrant);
+        }
+    }
+
+}
@@ -27,6 +27,7 @@ import com.graphhopper.jsprit.core.algorithm.state.*;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
 import com.graphhopper.jsprit.core.problem.constraint.SwitchNotFeasible;
+import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
@@ -58,6 +59,8 @@ public class PrettyAlgorithmBuilder {
 
     private boolean coreStuff = false;
 
+    private boolean repairInitialSolutions = false;
+
     private SolutionCostCalculator objectiveFunction = null;
 
     public static PrettyAlgorithmBuilder newInstance(VehicleRoutingProblem vrp, VehicleFleetManager fleetManager, StateManager stateManager, ConstraintManager constraintManager) {
@@ -88,6 +91,18 @@ public class PrettyAlgorithmBuilder {
         return this;
     }
 
+    /**
+     * Inserts the unassigned jobs of initial solutions with the insertion strategy of the initial construction before
+     * the search starts, and recomputes their costs. Thus a solution of a previous, slightly different problem can be
+     * used as starting point.
+     *
+     * @return this builder
+     */
+    public PrettyAlgorithmBuilder repairInitialSolutions() {
+        this.repairInitialSolutions = true;
+        return this;
+    }
+
     public VehicleRoutingAlgorithm build() {
         if (coreStuff) {
             AlgorithmUtil.addCoreConstraints(constraintManager,stateManager,vrp);
@@ -114,6 +129,13 @@ public class PrettyAlgorithmBuilder {
                 public void informAlgorithmStarts(VehicleRoutingProblem problem, VehicleRoutingAlgorithm algorithm, Collection<VehicleRoutingProblemSolution> solutions) {
                     if (solutions.isEmpty()) {
                         solutions.add(new InsertionInitialSolutionFactory(iniInsertionStrategy, iniObjFunction).createSolution(vrp));
+                    } else if (repairInitialSolutions) {
+                        for (VehicleRoutingProblemSolution solution : solutions) {
+                            Collection<Job> unassignedJobs = iniInsertionStrategy.insertJobs(solution.getRoutes(), new ArrayList<Job>(solution.getUnassignedJobs()));
+                            solution.getUnassignedJobs().clear();
+                            solution.getUnassignedJobs().addAll(unassignedJobs);
+                            solution.setCost(iniObjFunction.getCosts(solution));
+                        }
                     }
                 }
             });
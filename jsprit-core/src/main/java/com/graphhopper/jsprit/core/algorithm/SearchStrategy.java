@@ -19,6 +19,8 @@ package com.graphhopper.jsprit.core.algorithm;
 
 import com.graphhopper.jsprit.core.algorithm.acceptor.SolutionAcceptor;
 import com.graphhopper.jsprit.core.algorithm.listener.SearchStrategyModuleListener;
+import com.graphhopper.jsprit.core.algorithm.metrics.SolverMetrics;
+import com.graphhopper.jsprit.core.algorithm.module.RuinAndRecreateModule;
 import com.graphhopper.jsprit.core.algorithm.selector.SolutionSelector;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
@@ -80,6 +82,10 @@ public class SearchStrategy {
 
     private String name;
 
+    private SolverMetrics.Timer selectionTimer;
+
+    private SolverMetrics.Timer objectiveTimer;
+
     public SearchStrategy(String id, SolutionSelector solutionSelector, SolutionAcceptor solutionAcceptor, SolutionCostCalculator solutionCostCalculator) {
         if (id == null) throw new IllegalStateException("strategy id cannot be null");
         this.solutionSelector = solutionSelector;
@@ -135,16 +141,58 @@ public class SearchStrategy {
      */
     @SuppressWarnings("UnusedParameters")
     public DiscoveredSolution run(VehicleRoutingProblem vrp, Collection<VehicleRoutingProblemSolution> solutions) {
+        VehicleRoutingProblemSolution lastSolution = search(vrp, solutions);
+        return accept(solutions, lastSolution);
+    }
+
+    VehicleRoutingProblemSolution search(VehicleRoutingProblem vrp, Collection<VehicleRoutingProblemSolution> solutions) {
+        return search(vrp, solutions, false);
+    }
+
+    /**
+     * Selects a solution from solutions, copies it, runs the modules on the copy and sets its costs.
+     * <p>
+     * <p>If deepCopy is true, solutions are only read, thus several strategies can search on the same collection
+     * concurrently as long as they do not share their modules. Otherwise the copy shares its activities with the
+     * selected solution until they are changed (see {@link VehicleRoutingProblemSolution#copyOf(VehicleRoutingProblemSolution)}),
+     * which writes to the selected solution.
+     *
+     * @param vrp       the underlying vehicle routing problem
+     * @param solutions from which the solution to be improved is selected
+     * @param deepCopy  true if the selected solution is to be deep-copied
+     * @return the new solution
+     * @throws java.lang.IllegalStateException if selector cannot select any solution
+     */
+    VehicleRoutingProblemSolution search(VehicleRoutingProblem vrp, Collection<VehicleRoutingProblemSolution> solutions, boolean deepCopy) {
+        long start = selectionTimer == null ? 0 : System.nanoTime();
         VehicleRoutingProblemSolution solution = solutionSelector.selectSolution(solutions);
         if (solution == null) throw new IllegalStateException(getErrMsg());
-        VehicleRoutingProblemSolution lastSolution = VehicleRoutingProblemSolution.copyOf(solution);
+        VehicleRoutingProblemSolution lastSolution = deepCopy ? VehicleRoutingProblemSolution.deepCopyOf(solution)
+            : VehicleRoutingProblemSolution.copyOf(solution);
+        if (solutionCostCalculator instanceof IncrementalSolutionCostCalculator) {
+            ((IncrementalSolutionCostCalculator) solutionCostCalculator).informSolutionCopied(solution, lastSolution);
+        }
+        if (selectionTimer != null) selectionTimer.recordSince(start);
         for (SearchStrategyModule module : searchStrategyModules) {
             lastSolution = module.runAndGetSolution(lastSolution);
         }
+        if (objectiveTimer != null) start = System.nanoTime();
         double costs = solutionCostCalculator.getCosts(lastSolution);
+        if (objectiveTimer != null) objectiveTimer.recordSince(start);
         lastSolution.setCost(costs);
-        boolean solutionAccepted = solutionAcceptor.acceptSolution(solutions, lastSolution);
-        return new DiscoveredSolution(lastSolution, solutionAccepted, getId());
+        return lastSolution;
+    }
+
+    /**
+     * Offers newSolution to the solution memory according to {@link com.graphhopper.jsprit.core.algorithm.acceptor.SolutionAcceptor}.
+     *
+     * @param solutions   the solution memory which will be modified
+     * @param newSolution the solution discovered by this strategy
+     * @return discoveredSolution
+     */
+    DiscoveredSolution accept(Collection<VehicleRoutingProblemSolution> solutions, VehicleRoutingProblemSolution newSolution) {
+        boolean solutionAccepted = solutionAcceptor.acceptSolution(solutions, newSolution);
+        return new DiscoveredSolution(newSolution, solutionAccepted, getId());
     }
 
     private String getErrMsg() {
@@ -160,6 +208,22 @@ public class SearchStrategy {
         logger.debug("module added [module={}][#modules={}]", module, searchStrategyModules.size());
     }
 
+    /**
+     * Records the time of selecting solutions and of evaluating the objective function, and the time of ruin and
+     * recreate of its {@link RuinAndRecreateModule}s.
+     *
+     * @param metrics the metrics to record to
+     */
+    public void setMetrics(SolverMetrics metrics) {
+        selectionTimer = metrics.timer(SolverMetrics.SELECTION);
+        objectiveTimer = metrics.timer(SolverMetrics.OBJECTIVE);
+        for (SearchStrategyModule module : searchStrategyModules) {
+            if (module instanceof RuinAndRecreateModule) {
+                ((RuinAndRecreateModule) module).setMetrics(metrics);
+            }
+        }
+    }
+
     public void addModuleListener(SearchStrategyModuleListener moduleListener) {
         for (SearchStrategyModule module : searchStrategyModules) {
             module.addModuleListener(moduleListener);
@@ -18,12 +18,15 @@
 package com.graphhopper.jsprit.core.algorithm;
 
 import com.graphhopper.jsprit.core.algorithm.state.InternalStates;
+import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 
+import java.util.Collection;
+
 /**
  * Default objective function which is the sum of all fixed vehicle and variable
  * transportation costs, i.e. each is generated solution is evaluated according
@@ -54,12 +57,38 @@ public class VariablePlusFixedSolutionCostCalculatorFactory {
                 return c;
             }
 
-            private double getFixedCosts(Vehicle vehicle) {
-                if (vehicle == null) return 0.0;
-                if (vehicle.getType() == null) return 0.0;
-                return vehicle.getType().getVehicleCostParams().fix;
-            }
         };
     }
 
+    /**
+     * Creates the same objective function, but only re-evaluates routes that have changed. It needs to be registered
+     * as listener to the algorithm.
+     *
+     * @return incremental objective function
+     * @see IncrementalSolutionCostCalculator
+     */
+    public IncrementalSolutionCostCalculator createIncrementalCalculator() {
+        return new IncrementalSolutionCostCalculator(new IncrementalSolutionCostCalculator.RouteCostCalculator() {
+
+            @Override
+            public double getCosts(VehicleRoute route) {
+                return stateManager.getRouteState(route, InternalStates.COSTS, Double.class) + getFixedCosts(route.getVehicle());
+            }
+
+        }, new IncrementalSolutionCostCalculator.UnassignedJobsCostCalculator() {
+
+            @Override
+            public double getCosts(Collection<Job> unassignedJobs, double routeCosts) {
+                return unassignedJobs.size() * routeCosts * .1;
+            }
+
+        });
+    }
+
+    private double getFixedCosts(Vehicle vehicle) {
+        if (vehicle == null) return 0.0;
+        if (vehicle.getType() == null) return 0.0;
+        return vehicle.getType().getVehicleCostParams().fix;
+    }
+
 }
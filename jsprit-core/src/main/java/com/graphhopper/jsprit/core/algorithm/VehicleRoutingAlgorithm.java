@@ -22,6 +22,7 @@ import com.graphhopper.jsprit.core.algorithm.listener.SearchStrategyListener;
 import com.graphhopper.jsprit.core.algorithm.listener.SearchStrategyModuleListener;
 import com.graphhopper.jsprit.core.algorithm.listener.VehicleRoutingAlgorithmListener;
 import com.graphhopper.jsprit.core.algorithm.listener.VehicleRoutingAlgorithmListeners;
+import com.graphhopper.jsprit.core.algorithm.metrics.SolverMetrics;
 import com.graphhopper.jsprit.core.algorithm.termination.PrematureAlgorithmTermination;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.job.Job;
@@ -36,7 +37,12 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 
 /**
@@ -111,6 +117,10 @@ public class VehicleRoutingAlgorithm {
 
     private final SolutionCostCalculator objectiveFunction;
 
+    private final List<VehicleRoutingAlgorithm> searchWorkers = new ArrayList<VehicleRoutingAlgorithm>();
+
+    private ExecutorService searchExecutor;
+
     public VehicleRoutingAlgorithm(VehicleRoutingProblem problem, SearchStrategyManager searchStrategyManager) {
         super();
         this.problem = problem;
@@ -194,6 +204,45 @@ public class VehicleRoutingAlgorithm {
         terminationManager.addTermination(terminationCriterion);
     }
 
+    /**
+     * Enables the parallel search mode.
+     * <p>
+     * <p>This algorithm becomes the first worker and the specified workers search in parallel to it. Each worker needs
+     * to be built for the same problem but with its own strategies, state and constraint manager and fleet manager,
+     * since a worker runs its modules on its own thread. Per iteration, workers select solutions from a snapshot of
+     * the shared solution memory; their discovered solutions are accepted into the shared memory in worker order.
+     * <p>
+     * <p>Listeners, termination criteria and initial solutions of this algorithm apply to all iterations, i.e. its
+     * listeners are informed about the start and the end of every iteration in order. Listeners of the other workers
+     * are only informed about the iterations the worker runs. Thus, iteration listeners such as acceptors or noise
+     * makers always see the iteration that their own strategies run in. Of the workers only their search strategies
+     * and their own listeners are used, and search strategy (module) listeners added to this algorithm only observe its
+     * own strategies.
+     *
+     * @param executorService the executor that runs the additional workers
+     * @param workers         the additional workers
+     */
+    public void setParallelSearch(ExecutorService executorService, Collection<VehicleRoutingAlgorithm> workers) {
+        if (executorService == null) throw new IllegalArgumentException("executorService must not be null.");
+        for (VehicleRoutingAlgorithm worker : workers) {
+            if (worker == this) throw new IllegalArgumentException("algorithm cannot be its own search worker.");
+            if (worker.problem != problem)
+                throw new IllegalArgumentException("search worker must be built for the same vehicle routing problem.");
+        }
+        searchExecutor = executorService;
+        searchWorkers.clear();
+        searchWorkers.addAll(workers);
+    }
+
+    /**
+     * Returns the number of workers that search in parallel, i.e. 1 if the parallel search mode is not enabled.
+     *
+     * @return number of search workers
+     */
+    public int getNuOfSearchWorkers() {
+        return searchWorkers.size() + 1;
+    }
+
     /**
      * Gets the {@link SearchStrategyManager}.
      *
@@ -225,23 +274,27 @@ public class VehicleRoutingAlgorithm {
             log(solutions);
         }
         logger.info("iterations start");
-        for (int i = 0; i < maxIterations; i++) {
-            iterationStarts(i + 1, problem, solutions);
-            logger.debug("start iteration: {}", i);
-            counter.incCounter();
-            SearchStrategy strategy = searchStrategyManager.getRandomStrategy();
-            DiscoveredSolution discoveredSolution = strategy.run(problem, solutions);
-            if (logger.isTraceEnabled()) {
-                log(discoveredSolution);
-            }
-            memorizeIfBestEver(discoveredSolution);
-            selectedStrategy(discoveredSolution, problem, solutions);
-            if (terminationManager.isPrematureBreak(discoveredSolution)) {
-                logger.info("premature algorithm termination at iteration {}", (i + 1));
-                noIterationsThisAlgoIsRunning = (i + 1);
-                break;
+        if (searchWorkers.isEmpty()) {
+            for (int i = 0; i < maxIterations; i++) {
+                iterationStarts(i + 1, problem, solutions);
+                logger.debug("start iteration: {}", i);
+                counter.incCounter();
+                SearchStrategy strategy = searchStrategyManager.getRandomStrategy();
+                DiscoveredSolution discoveredSolution = strategy.run(problem, solutions);
+                if (logger.isTraceEnabled()) {
+                    log(discoveredSolution);
+                }
+                memorizeIfBestEver(discoveredSolution);
+                selectedStrategy(discoveredSolution, problem, solutions);
+                if (terminationManager.isPrematureBreak(discoveredSolution)) {
+                    logger.info("premature algorithm termination at iteration {}", (i + 1));
+                    noIterationsThisAlgoIsRunning = (i + 1);
+                    break;
+                }
+                iterationEnds(i + 1, problem, solutions);
             }
-            iterationEnds(i + 1, problem, solutions);
+        } else {
+            noIterationsThisAlgoIsRunning = searchInParallel(solutions);
         }
         logger.info("iterations end at {} iterations", noIterationsThisAlgoIsRunning);
         addBestEver(solutions);
@@ -250,6 +303,102 @@ public class VehicleRoutingAlgorithm {
         return solutions;
     }
 
+    /**
+     * Runs the iterations in rounds. In each round every worker starts its iteration, selects a strategy and searches on
+     * a snapshot of the solution memory. Selected solutions are deep-copied, since copies that share their activities
+     * with the original write to it. The discovered solutions are then offered to the shared memory in worker order,
+     * each with the acceptor of the strategy that discovered it, and each worker ends its iteration. Thus for a given
+     * seed per worker the outcome does not depend on thread scheduling, and each worker sees the same sequence of
+     * iteration events as if it searched on its own.
+     * <p>
+     * <p>This algorithm runs the first iteration of each round itself. It is informed about the start of the other
+     * iterations of a round right before their solutions are offered, i.e. after its own solution has been accepted.
+     *
+     * @return the number of iterations that have been run
+     */
+    private int searchInParallel(Collection<VehicleRoutingProblemSolution> solutions) {
+        logger.info("parallel search with {} workers", getNuOfSearchWorkers());
+        for (VehicleRoutingAlgorithm worker : searchWorkers) {
+            worker.setMaxIterations(maxIterations);
+            worker.algorithmStarts(problem, solutions);
+        }
+        int i = 0;
+        while (i < maxIterations) {
+            int nuOfTasks = Math.min(getNuOfSearchWorkers(), maxIterations - i);
+            List<SearchStrategy> strategies = new ArrayList<SearchStrategy>(nuOfTasks);
+            for (int w = 0; w < nuOfTasks; w++) {
+                VehicleRoutingAlgorithm worker = getSearchWorker(w);
+                worker.iterationStarts(i + w + 1, problem, solutions);
+                logger.debug("start iteration: {}", i + w);
+                counter.incCounter();
+                strategies.add(worker.searchStrategyManager.getRandomStrategy());
+            }
+            List<VehicleRoutingProblemSolution> newSolutions = search(strategies, new ArrayList<VehicleRoutingProblemSolution>(solutions));
+            for (int w = 0; w < nuOfTasks; w++) {
+                int iteration = i + w + 1;
+                if (w > 0) iterationStarts(iteration, problem, solutions);
+                DiscoveredSolution discoveredSolution = strategies.get(w).accept(solutions, newSolutions.get(w));
+                if (logger.isTraceEnabled()) {
+                    log(discoveredSolution);
+                }
+                memorizeIfBestEver(discoveredSolution);
+                selectedStrategy(discoveredSolution, problem, solutions);
+                if (terminationManager.isPrematureBreak(discoveredSolution)) {
+                    logger.info("premature algorithm termination at iteration {}", iteration);
+                    workersEnd(solutions);
+                    return iteration;
+                }
+                iterationEnds(iteration, problem, solutions);
+                if (w > 0) getSearchWorker(w).iterationEnds(iteration, problem, solutions);
+            }
+            i += nuOfTasks;
+        }
+        workersEnd(solutions);
+        return maxIterations;
+    }
+
+    private VehicleRoutingAlgorithm getSearchWorker(int w) {
+        if (w == 0) return this;
+        return searchWorkers.get(w - 1);
+    }
+
+    private List<VehicleRoutingProblemSolution> search(List<SearchStrategy> strategies, final Collection<VehicleRoutingProblemSolution> snapshot) {
+        List<Future<VehicleRoutingProblemSolution>> futures = new ArrayList<Future<VehicleRoutingProblemSolution>>(strategies.size());
+        for (final SearchStrategy strategy : strategies.subList(1, strategies.size())) {
+            futures.add(searchExecutor.submit(new Callable<VehicleRoutingProblemSolution>() {
+
+                @Override
+                public VehicleRoutingProblemSolution call() throws Exception {
+                    return strategy.search(problem, snapshot, true);
+                }
+
+            }));
+        }
+        List<VehicleRoutingProblemSolution> newSolutions = new ArrayList<VehicleRoutingProblemSolution>(strategies.size());
+        try {
+            newSolutions.add(strategies.get(0).search(problem, snapshot, true));
+            for (Future<VehicleRoutingProblemSolution> future : futures) {
+                newSolutions.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        } finally {
+            for (Future<VehicleRoutingProblemSolution> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return newSolutions;
+    }
+
+    private void workersEnd(Collection<VehicleRoutingProblemSolution> solutions) {
+        for (VehicleRoutingAlgorithm worker : searchWorkers) {
+            worker.algorithmEnds(problem, solutions);
+        }
+    }
+
     private void addBestEver(Collection<VehicleRoutingProblemSolution> solutions) {
         if (bestEver != null) {
             solutions.add(bestEver);
@@ -322,6 +471,25 @@ public class VehicleRoutingAlgorithm {
         }
     }
 
+    /**
+     * Records time of selection, ruin, recreate and objective evaluation of all search strategies to metrics, and
+     * registers metrics as listener, i.e. it publishes them at the end of each iteration.
+     * <p>
+     * <p>Insertion data calls and state updates are only recorded if metrics are also passed to the
+     * {@link com.graphhopper.jsprit.core.algorithm.recreate.InsertionBuilder} and the
+     * {@link com.graphhopper.jsprit.core.algorithm.state.StateManager}, and constraint evaluations only if
+     * {@link SolverMetrics#countConstraintEvaluations(com.graphhopper.jsprit.core.problem.constraint.ConstraintManager)}
+     * is called ({@link com.graphhopper.jsprit.core.algorithm.box.Jsprit} does all this).
+     *
+     * @param metrics the metrics to record to
+     */
+    public void setMetrics(SolverMetrics metrics) {
+        for (SearchStrategy strategy : searchStrategyManager.getStrategies()) {
+            strategy.setMetrics(metrics);
+        }
+        addListener(metrics);
+    }
+
     private void iterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
         algoListeners.iterationEnds(i, problem, solutions);
     }
@@ -353,6 +521,15 @@ public class VehicleRoutingAlgorithm {
         return maxIterations;
     }
 
+    /**
+     * Returns the best solution discovered so far, or null if the search has not started yet.
+     *
+     * @return best solution discovered so far
+     */
+    VehicleRoutingProblemSolution getBestEver() {
+        return bestEver;
+    }
+
     public SolutionCostCalculator getObjectiveFunction(){
         return objectiveFunction;
     }
@@ -19,6 +19,7 @@
 package com.graphhopper.jsprit.core.algorithm.box;
 
 import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
+import com.graphhopper.jsprit.core.algorithm.recreate.InsertionCostsCache;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.constraint.SoftActivityConstraint;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
@@ -46,6 +47,8 @@ class ConcurrentInsertionNoiseMaker implements SoftActivityConstraint, Iteration
 
     private double maxCosts;
 
+    private InsertionCostsCache insertionCostsCache;
+
     ConcurrentInsertionNoiseMaker(VehicleRoutingProblem vrp, double maxCosts, double noiseLevel, double noiseProbability) {
         this.noiseLevel = noiseLevel;
         this.noiseProbability = noiseProbability;
@@ -63,6 +66,7 @@ class ConcurrentInsertionNoiseMaker implements SoftActivityConstraint, Iteration
         if (random.nextDouble() < noiseProbability) {
             makeNoise = true;
         } else makeNoise = false;
+        if (insertionCostsCache != null) insertionCostsCache.setEnabled(!makeNoise);
     }
 
     @Override
@@ -76,4 +80,14 @@ class ConcurrentInsertionNoiseMaker implements SoftActivityConstraint, Iteration
     public void setRandom(Random random) {
         this.random = random;
     }
+
+    /**
+     * Disables the cache in iterations with noise, since noisy insertion costs must neither be stored nor replaced by
+     * cached ones.
+     *
+     * @param insertionCostsCache the cache used by the insertion strategies
+     */
+    void setInsertionCostsCache(InsertionCostsCache insertionCostsCache) {
+        this.insertionCostsCache = insertionCostsCache;
+    }
 }
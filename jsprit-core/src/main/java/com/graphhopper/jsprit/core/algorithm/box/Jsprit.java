@@ -18,13 +18,17 @@
 
 package com.graphhopper.jsprit.core.algorithm.box;
 
+import com.graphhopper.jsprit.core.algorithm.IncrementalSolutionCostCalculator;
+import com.graphhopper.jsprit.core.algorithm.IslandAlgorithm;
 import com.graphhopper.jsprit.core.algorithm.PrettyAlgorithmBuilder;
 import com.graphhopper.jsprit.core.algorithm.SearchStrategy;
 import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
 import com.graphhopper.jsprit.core.algorithm.acceptor.SchrimpfAcceptance;
 import com.graphhopper.jsprit.core.algorithm.acceptor.SolutionAcceptor;
 import com.graphhopper.jsprit.core.algorithm.listener.AlgorithmEndsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.AlgorithmStartsListener;
 import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
+import com.graphhopper.jsprit.core.algorithm.metrics.SolverMetrics;
 import com.graphhopper.jsprit.core.algorithm.module.RuinAndRecreateModule;
 import com.graphhopper.jsprit.core.algorithm.recreate.*;
 import com.graphhopper.jsprit.core.algorithm.ruin.*;
@@ -124,7 +128,19 @@ public class Jsprit {
         STRING_K_MIN("string_kmin"),
         STRING_K_MAX("string_kmax"),
         STRING_L_MIN("string_lmin"),
-        STRING_L_MAX("string_lmax");
+        STRING_L_MAX("string_lmax"),
+        PARALLEL_SEARCH_WORKERS("parallel_search.workers"),
+        ISLANDS("islands"),
+        ISLAND_MIGRATION_INTERVAL("islands.migration_interval"),
+        ISLAND_MIGRATION_TOPOLOGY("islands.migration_topology"),
+        INSERTION_COST_CACHE("insertion.cost_cache"),
+        GRANULAR_INSERTION_NEIGHBORS("insertion.granular_neighbors"),
+        CONCURRENT_SHIPMENT_INSERTION("insertion.concurrent_shipments"),
+        INSERTION_LOWER_BOUND("insertion.lower_bound"),
+        NEIGHBORHOOD_SIZE("neighborhood.size"),
+        INCREMENTAL_OBJECTIVE("objective.incremental"),
+        ADAPTIVE_CONSTRAINT_ORDERING("constraints.adaptive_ordering"),
+        REPAIR_INITIAL_SOLUTIONS("initial_solutions.repair");
 
 
         String paraName;
@@ -173,6 +189,14 @@ public class Jsprit {
 
         private VehicleFleetManager fleetManager = null;
 
+        private Map<Integer, Properties> islandProperties = new HashMap<>();
+
+        private SolverMetrics metrics = null;
+
+        private Collection<Job> focusJobs = null;
+
+        private JobNeighborhoods jobNeighborhoods = null;
+
         public static Builder newInstance(VehicleRoutingProblem vrp) {
             return new Builder(vrp);
         }
@@ -209,6 +233,19 @@ public class Jsprit {
             defaults.put(Parameter.REGRET_DISTANCE_SCORER.toString(), ".05");
             defaults.put(Parameter.REGRET_TIME_WINDOW_SCORER.toString(), "-.1");
             defaults.put(Parameter.THREADS.toString(), "1");
+            defaults.put(Parameter.PARALLEL_SEARCH_WORKERS.toString(), "1");
+            defaults.put(Parameter.ISLANDS.toString(), String.valueOf(Runtime.getRuntime().availableProcessors()));
+            defaults.put(Parameter.ISLAND_MIGRATION_INTERVAL.toString(), "100");
+            defaults.put(Parameter.ISLAND_MIGRATION_TOPOLOGY.toString(), IslandAlgorithm.MigrationTopology.RING.toString());
+            defaults.put(Parameter.INSERTION_COST_CACHE.toString(), String.valueOf(false));
+            defaults.put(Parameter.GRANULAR_INSERTION_NEIGHBORS.toString(), "0");
+            defaults.put(Parameter.CONCURRENT_SHIPMENT_INSERTION.toString(), String.valueOf(false));
+            //only safe if transport costs do not depend on time and activity costs and soft constraints never lower insertion costs
+            defaults.put(Parameter.INSERTION_LOWER_BOUND.toString(), String.valueOf(false));
+            //max. number of nearest neighbors memorized per job (ruins asking for more extend them on demand)
+            defaults.put(Parameter.NEIGHBORHOOD_SIZE.toString(), "200");
+            defaults.put(Parameter.INCREMENTAL_OBJECTIVE.toString(), String.valueOf(true));
+            defaults.put(Parameter.ADAPTIVE_CONSTRAINT_ORDERING.toString(), String.valueOf(false));
             int minShare = (int) Math.min(20, Math.max(3, vrp.getJobs().size() * 0.05));
             int maxShare = (int) Math.min(50, Math.max(5, vrp.getJobs().size() * 0.3));
             defaults.put(Parameter.RADIAL_MIN_SHARE.toString(), String.valueOf(minShare));
@@ -233,6 +270,7 @@ public class Jsprit {
             defaults.put(Parameter.FAST_REGRET.toString(), String.valueOf(false));
             defaults.put(Parameter.BREAK_SCHEDULING.toString(), String.valueOf(true));
             defaults.put(Parameter.CONSTRUCTION.toString(), Construction.REGRET_INSERTION.toString());
+            defaults.put(Parameter.REPAIR_INITIAL_SOLUTIONS.toString(), String.valueOf(false));
             return defaults;
         }
 
@@ -278,6 +316,29 @@ public class Jsprit {
             return this;
         }
 
+        /**
+         * Sets a property that only applies to the island with the specified index when building an island algorithm.
+         * It overrides the property that is set for all islands.
+         *
+         * @param island   index of the island, starting with 0
+         * @param strategy the strategy whose weight is set
+         * @param value    the weight
+         * @return this builder
+         */
+        public Builder setIslandProperty(int island, Strategy strategy, String value) {
+            return setIslandProperty(island, strategy.toString(), value);
+        }
+
+        public Builder setIslandProperty(int island, Parameter parameter, String value) {
+            return setIslandProperty(island, parameter.toString(), value);
+        }
+
+        public Builder setIslandProperty(int island, String key, String value) {
+            if (!islandProperties.containsKey(island)) islandProperties.put(island, new Properties());
+            islandProperties.get(island).put(key, value);
+            return this;
+        }
+
         public Builder setStateAndConstraintManager(StateManager stateManager, ConstraintManager constraintManager) {
             this.stateManager = stateManager;
             this.constraintManager = constraintManager;
@@ -304,10 +365,59 @@ public class Jsprit {
             return this;
         }
 
+        /**
+         * Records time and counts per search phase to metrics, and publishes them at the end of each iteration. All
+         * search workers and islands record to the same metrics.
+         *
+         * @param metrics the metrics to record to
+         * @return this builder
+         */
+        public Builder setMetrics(SolverMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Focuses the radial ruin strategies on the neighborhood of the specified jobs, i.e. they only select the job
+         * whose neighborhood is ruined among these jobs. This is useful to re-optimise around the jobs that have
+         * changed since a previous solution.
+         *
+         * @param focusJobs the jobs to focus on
+         * @return this builder
+         */
+        public Builder setFocusJobs(Collection<? extends Job> focusJobs) {
+            this.focusJobs = new ArrayList<Job>(focusJobs);
+            return this;
+        }
+
+        /**
+         * Sets the job neighborhoods used by the ruin strategies and the granular insertion. They must be initialised
+         * and are shared by all search workers and islands. If they are not set, bounded neighborhoods of
+         * {@link Parameter#NEIGHBORHOOD_SIZE} neighbors are created.
+         *
+         * @param jobNeighborhoods initialised neighborhoods of the problem
+         * @return this builder
+         */
+        public Builder setJobNeighborhoods(JobNeighborhoods jobNeighborhoods) {
+            this.jobNeighborhoods = jobNeighborhoods;
+            return this;
+        }
+
         public VehicleRoutingAlgorithm buildAlgorithm() {
             return new Jsprit(this).create(vrp);
         }
 
+        /**
+         * Builds an {@link IslandAlgorithm} with {@link Parameter#ISLANDS} islands. Each island is built like
+         * {@link #buildAlgorithm()} but with its own seed drawn from the random number generator of this builder and
+         * with the properties set by <code>setIslandProperty(...)</code>.
+         *
+         * @return the island algorithm
+         */
+        public IslandAlgorithm buildIslandAlgorithm() {
+            return new Jsprit(this).createIslandAlgorithm(vrp);
+        }
+
     }
 
     static class RuinShareFactoryImpl implements RuinShareFactory
@@ -372,6 +482,16 @@ public class Jsprit {
 
     private VehicleFleetManager vehicleFleetManager;
 
+    private JobNeighborhoods jobNeighborhoods;
+
+    private boolean searchWorker = false;
+
+    private Map<Integer, Properties> islandProperties = new HashMap<>();
+
+    private SolverMetrics metrics;
+
+    private Collection<Job> focusJobs;
+
     private Jsprit(Builder builder) {
         this.stateManager = builder.stateManager;
         this.constraintManager = builder.constraintManager;
@@ -386,6 +506,25 @@ public class Jsprit {
         regretScorer = builder.regretScorer;
         customStrategies.putAll(builder.customStrategies);
         vehicleFleetManager = builder.fleetManager;
+        islandProperties.putAll(builder.islandProperties);
+        metrics = builder.metrics;
+        focusJobs = builder.focusJobs;
+        jobNeighborhoods = builder.jobNeighborhoods;
+    }
+
+    private Jsprit(Jsprit master, Properties properties, Random random) {
+        this.noThreads = 1;
+        this.addCoreConstraints = master.addCoreConstraints;
+        this.properties = properties;
+        this.objectiveFunction = master.objectiveFunction;
+        this.random = random;
+        this.activityInsertion = master.activityInsertion;
+        this.acceptor = master.acceptor;
+        this.regretScorer = master.regretScorer;
+        this.jobNeighborhoods = master.jobNeighborhoods;
+        this.searchWorker = true;
+        this.metrics = master.metrics;
+        this.focusJobs = master.focusJobs;
     }
 
     private void ini(VehicleRoutingProblem vrp) {
@@ -394,6 +533,11 @@ public class Jsprit {
 
     private VehicleRoutingAlgorithm create(final VehicleRoutingProblem vrp) {
         ini(vrp);
+        int nuOfSearchWorkers = searchWorker ? 1 : toInteger(getProperty(Parameter.PARALLEL_SEARCH_WORKERS.toString()));
+        if (nuOfSearchWorkers > 1 && (stateManager != null || constraintManager != null || vehicleFleetManager != null)) {
+            throw new IllegalStateException("parallel search requires each worker to have its own state, constraint and fleet manager. " +
+                "thus custom managers cannot be set if " + Parameter.PARALLEL_SEARCH_WORKERS + " > 1.");
+        }
         if (vehicleFleetManager == null) {
             if (vrp.getFleetSize().equals(VehicleRoutingProblem.FleetSize.INFINITE)) {
                 vehicleFleetManager = new InfiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
@@ -410,6 +554,13 @@ public class Jsprit {
         if (constraintManager == null) {
             constraintManager = new ConstraintManager(vrp, stateManager);
         }
+        if (toBoolean(getProperty(Parameter.ADAPTIVE_CONSTRAINT_ORDERING.toString()))) {
+            constraintManager.setAdaptiveConstraintOrdering(true);
+        }
+        if (metrics != null) {
+            stateManager.setMetrics(metrics);
+            metrics.countConstraintEvaluations(constraintManager);
+        }
 
         if (noThreads == null) {
             noThreads = toInteger(getProperty(Parameter.THREADS.toString()));
@@ -432,8 +583,15 @@ public class Jsprit {
         double noiseLevel = toDouble(getProperty(Parameter.INSERTION_NOISE_LEVEL.toString()));
         double noiseProbability = toDouble(getProperty(Parameter.INSERTION_NOISE_PROB.toString()));
 
-        JobNeighborhoods jobNeighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), (int) (vrp.getJobs().values().size() * 0.5));
-        jobNeighborhoods.initialise();
+        if (jobNeighborhoods == null) {
+            int neighborhoodSize = Math.min((int) (vrp.getJobs().values().size() * 0.5), toInteger(getProperty(Parameter.NEIGHBORHOOD_SIZE.toString())));
+            if (es != null) {
+                jobNeighborhoods = new JobNeighborhoodsFactory().createBoundedNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), neighborhoodSize, es, noThreads);
+            } else {
+                jobNeighborhoods = new JobNeighborhoodsFactory().createBoundedNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), neighborhoodSize);
+            }
+            jobNeighborhoods.initialise();
+        }
 
         final double maxCosts;
         if(properties.containsKey(Parameter.MAX_TRANSPORT_COSTS.toString())){
@@ -443,21 +601,42 @@ public class Jsprit {
             maxCosts = jobNeighborhoods.getMaxDistance();
         }
 
+        //insertion costs with increasing fixed costs depend on the number of unassigned jobs, thus they cannot be cached
+        InsertionCostsCache insertionCostsCache = null;
+        if (toBoolean(getProperty(Parameter.INSERTION_COST_CACHE.toString())) && increasingAbsoluteFixedCosts == null) {
+            insertionCostsCache = new InsertionCostsCache();
+        }
+
+        //0 means that all insertion positions are evaluated
+        int granularNeighbors = toInteger(getProperty(Parameter.GRANULAR_INSERTION_NEIGHBORS.toString()));
+        JobNeighborhoods granularNeighborhood = granularNeighbors > 0 ? jobNeighborhoods : null;
+
+        //pickup positions of long routes are evaluated by the threads that also evaluate routes concurrently
+        ExecutorService shipmentInsertionExecutor = null;
+        if (es != null && toBoolean(getProperty(Parameter.CONCURRENT_SHIPMENT_INSERTION.toString()))) {
+            shipmentInsertionExecutor = es;
+        }
+        boolean lowerBoundPruning = toBoolean(getProperty(Parameter.INSERTION_LOWER_BOUND.toString()));
+
         IterationStartsListener noiseConfigurator;
         if (noThreads > 1) {
             ConcurrentInsertionNoiseMaker noiseMaker = new ConcurrentInsertionNoiseMaker(vrp, maxCosts, noiseLevel, noiseProbability);
             noiseMaker.setRandom(random);
+            noiseMaker.setInsertionCostsCache(insertionCostsCache);
             constraintManager.addConstraint(noiseMaker);
             noiseConfigurator = noiseMaker;
         } else {
             InsertionNoiseMaker noiseMaker = new InsertionNoiseMaker(vrp, maxCosts, noiseLevel, noiseProbability);
             noiseMaker.setRandom(random);
+            noiseMaker.setInsertionCostsCache(insertionCostsCache);
             constraintManager.addConstraint(noiseMaker);
             noiseConfigurator = noiseMaker;
         }
 
         RuinRadial radial = new RuinRadial(vrp, vrp.getJobs().size(), jobNeighborhoods);
         radial.setRandom(random);
+        radial.setJobRouteIndex(stateManager.getJobRouteIndex());
+        radial.setTargetJobs(focusJobs);
         radial.setRuinShareFactory(new RuinShareFactoryImpl(
                 toInteger(properties.getProperty(Parameter.RADIAL_MIN_SHARE.toString())),
                 toInteger(properties.getProperty(Parameter.RADIAL_MAX_SHARE.toString())),
@@ -466,6 +645,7 @@ public class Jsprit {
 
         final RuinRandom random_for_regret = new RuinRandom(vrp, 0.5);
         random_for_regret.setRandom(random);
+        random_for_regret.setJobRouteIndex(stateManager.getJobRouteIndex());
         random_for_regret.setRuinShareFactory(new RuinShareFactoryImpl(
                 toInteger(properties.getProperty(Parameter.RANDOM_REGRET_MIN_SHARE.toString())),
                 toInteger(properties.getProperty(Parameter.RANDOM_REGRET_MAX_SHARE.toString())),
@@ -474,6 +654,7 @@ public class Jsprit {
 
         final RuinRandom random_for_best = new RuinRandom(vrp, 0.5);
         random_for_best.setRandom(random);
+        random_for_best.setJobRouteIndex(stateManager.getJobRouteIndex());
         random_for_best.setRuinShareFactory(new RuinShareFactoryImpl(
                 toInteger(properties.getProperty(Parameter.RANDOM_BEST_MIN_SHARE.toString())),
                 toInteger(properties.getProperty(Parameter.RANDOM_BEST_MAX_SHARE.toString())),
@@ -482,6 +663,7 @@ public class Jsprit {
 
         final RuinWorst worst = new RuinWorst(vrp, (int) (vrp.getJobs().values().size() * 0.5));
         worst.setRandom(random);
+        worst.setJobRouteIndex(stateManager.getJobRouteIndex());
         worst.setRuinShareFactory(new RuinShareFactoryImpl(
                 toInteger(properties.getProperty(Parameter.WORST_MIN_SHARE.toString())),
                 toInteger(properties.getProperty(Parameter.WORST_MAX_SHARE.toString())),
@@ -504,6 +686,7 @@ public class Jsprit {
 
         final RuinClusters clusters = new RuinClusters(vrp, (int) (vrp.getJobs().values().size() * 0.5), jobNeighborhoods);
         clusters.setRandom(random);
+        clusters.setJobRouteIndex(stateManager.getJobRouteIndex());
         clusters.setRuinShareFactory(new RuinShareFactoryImpl(
                 toInteger(properties.getProperty(Parameter.WORST_MIN_SHARE.toString())),
                 toInteger(properties.getProperty(Parameter.WORST_MAX_SHARE.toString())),
@@ -519,6 +702,7 @@ public class Jsprit {
         stringRuin.setNoRoutes(kMin, kMax);
         stringRuin.setStringLength(lMin, lMax);
         stringRuin.setRandom(random);
+        stringRuin.setJobRouteIndex(stateManager.getJobRouteIndex());
 
         AbstractInsertionStrategy regret;
         final ScoringFunction scorer;
@@ -533,6 +717,11 @@ public class Jsprit {
                     .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
                     .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
                     .setActivityInsertionCostCalculator(activityInsertion)
+                    .setInsertionCostsCache(insertionCostsCache)
+                    .setGranularNeighborhood(granularNeighborhood, granularNeighbors)
+                    .setConcurrentShipmentInsertion(shipmentInsertionExecutor, noThreads)
+                    .setLowerBoundPruning(lowerBoundPruning)
+                    .setMetrics(metrics)
                     .build();
                 scorer = regretScorer;
                 regretInsertion.setScoringFunction(scorer);
@@ -546,6 +735,11 @@ public class Jsprit {
                     .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
                     .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
                     .setActivityInsertionCostCalculator(activityInsertion)
+                    .setInsertionCostsCache(insertionCostsCache)
+                    .setGranularNeighborhood(granularNeighborhood, granularNeighbors)
+                    .setConcurrentShipmentInsertion(shipmentInsertionExecutor, noThreads)
+                    .setLowerBoundPruning(lowerBoundPruning)
+                    .setMetrics(metrics)
                     .build();
                 scorer = regretScorer;
                 regretInsertion.setScoringFunction(scorer);
@@ -559,6 +753,11 @@ public class Jsprit {
                     .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
                     .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
                     .setActivityInsertionCostCalculator(activityInsertion)
+                    .setInsertionCostsCache(insertionCostsCache)
+                    .setGranularNeighborhood(granularNeighborhood, granularNeighbors)
+                    .setConcurrentShipmentInsertion(shipmentInsertionExecutor, noThreads)
+                    .setLowerBoundPruning(lowerBoundPruning)
+                    .setMetrics(metrics)
                     .build();
                 scorer = regretScorer;
                 regretInsertion.setScoringFunction(scorer);
@@ -571,6 +770,11 @@ public class Jsprit {
                     .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
                     .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
                     .setActivityInsertionCostCalculator(activityInsertion)
+                    .setInsertionCostsCache(insertionCostsCache)
+                    .setGranularNeighborhood(granularNeighborhood, granularNeighbors)
+                    .setConcurrentShipmentInsertion(shipmentInsertionExecutor, noThreads)
+                    .setLowerBoundPruning(lowerBoundPruning)
+                    .setMetrics(metrics)
                     .build();
                 scorer = regretScorer;
                 regretInsertion.setScoringFunction(scorer);
@@ -586,6 +790,11 @@ public class Jsprit {
                 .considerFixedCosts(Double.valueOf(properties.getProperty(Parameter.FIXED_COST_PARAM.toString())))
                 .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
                 .setActivityInsertionCostCalculator(activityInsertion)
+                .setInsertionCostsCache(insertionCostsCache)
+                .setGranularNeighborhood(granularNeighborhood, granularNeighbors)
+                .setConcurrentShipmentInsertion(shipmentInsertionExecutor, noThreads)
+                .setLowerBoundPruning(lowerBoundPruning)
+                .setMetrics(metrics)
                 .build();
             best = bestInsertion;
         } else {
@@ -595,26 +804,23 @@ public class Jsprit {
                 .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
                 .setConcurrentMode(es, noThreads)
                 .setActivityInsertionCostCalculator(activityInsertion)
+                .setInsertionCostsCache(insertionCostsCache)
+                .setGranularNeighborhood(granularNeighborhood, granularNeighbors)
+                .setConcurrentShipmentInsertion(shipmentInsertionExecutor, noThreads)
+                .setLowerBoundPruning(lowerBoundPruning)
+                .setMetrics(metrics)
                 .build();
             best = bestInsertion;
         }
         best.setRandom(random);
 
-        IterationStartsListener schrimpfThreshold = null;
+        SchrimpfThresholdInitialiser schrimpfThreshold = null;
         if(acceptor == null) {
             final SchrimpfAcceptance schrimpfAcceptance = new SchrimpfAcceptance(1, toDouble(getProperty(Parameter.THRESHOLD_ALPHA.toString())));
             if (properties.containsKey(Parameter.THRESHOLD_INI_ABS.toString())) {
                 schrimpfAcceptance.setInitialThreshold(Double.valueOf(properties.getProperty(Parameter.THRESHOLD_INI_ABS.toString())));
             } else {
-                schrimpfThreshold = new IterationStartsListener() {
-                    @Override
-                    public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
-                        if (i == 1) {
-                            double initialThreshold = Solutions.bestOf(solutions).getCost() * toDouble(getProperty(Parameter.THRESHOLD_INI.toString()));
-                            schrimpfAcceptance.setInitialThreshold(initialThreshold);
-                        }
-                    }
-                };
+                schrimpfThreshold = new SchrimpfThresholdInitialiser(schrimpfAcceptance);
             }
             acceptor = schrimpfAcceptance;
         }
@@ -675,6 +881,9 @@ public class Jsprit {
         } else {
             prettyBuilder.constructInitialSolutionWith(regret, objectiveFunction);
         }
+        if (!searchWorker && toBoolean(getProperty(Parameter.REPAIR_INITIAL_SOLUTIONS.toString()))) {
+            prettyBuilder.repairInitialSolutions();
+        }
         prettyBuilder.withObjectiveFunction(objectiveFunction);
 
 
@@ -686,17 +895,56 @@ public class Jsprit {
         vra.addListener(noise);
         vra.addListener(clusters);
         if (increasingAbsoluteFixedCosts != null) vra.addListener(increasingAbsoluteFixedCosts);
+        if (objectiveFunction instanceof IncrementalSolutionCostCalculator) {
+            vra.addListener((IncrementalSolutionCostCalculator) objectiveFunction);
+        }
 
         if(toBoolean(getProperty(Parameter.BREAK_SCHEDULING.toString()))) {
             vra.addListener(new BreakScheduling(vrp, stateManager, constraintManager));
         }
+        if (metrics != null) {
+            vra.setMetrics(metrics);
+        }
         handleExecutorShutdown(vra);
         vra.setMaxIterations(Integer.valueOf(properties.getProperty(Parameter.ITERATIONS.toString())));
 
+        if (nuOfSearchWorkers > 1) {
+            addParallelSearchWorkers(vra, vrp, nuOfSearchWorkers);
+        }
+
         return vra;
 
     }
 
+    private void addParallelSearchWorkers(VehicleRoutingAlgorithm vra, VehicleRoutingProblem vrp, int nuOfSearchWorkers) {
+        List<VehicleRoutingAlgorithm> workers = new ArrayList<>();
+        for (int i = 1; i < nuOfSearchWorkers; i++) {
+            workers.add(new Jsprit(this, properties, new Random(random.nextLong())).create(vrp));
+        }
+        ExecutorService searchExecutor = Executors.newFixedThreadPool(nuOfSearchWorkers - 1);
+        vra.setParallelSearch(searchExecutor, workers);
+        shutdownWhenAlgorithmEnds(vra, searchExecutor);
+    }
+
+    private IslandAlgorithm createIslandAlgorithm(VehicleRoutingProblem vrp) {
+        if (stateManager != null || constraintManager != null || vehicleFleetManager != null || acceptor != null || !customStrategies.isEmpty()) {
+            throw new IllegalStateException("islands run concurrently and thus cannot share custom managers, acceptors or search strategies.");
+        }
+        int nuOfIslands = toInteger(getProperty(Parameter.ISLANDS.toString()));
+        IslandAlgorithm.Builder islandBuilder = IslandAlgorithm.Builder.newInstance(vrp)
+            .setMigrationInterval(toInteger(getProperty(Parameter.ISLAND_MIGRATION_INTERVAL.toString())))
+            .setMigrationTopology(IslandAlgorithm.MigrationTopology.valueOf(getProperty(Parameter.ISLAND_MIGRATION_TOPOLOGY.toString()).toUpperCase()));
+        for (int i = 0; i < nuOfIslands; i++) {
+            Properties islandProps = new Properties(properties);
+            islandProps.putAll(properties);
+            if (islandProperties.containsKey(i)) islandProps.putAll(islandProperties.get(i));
+            Jsprit island = new Jsprit(this, islandProps, new Random(random.nextLong()));
+            islandBuilder.addIsland(island.create(vrp));
+            jobNeighborhoods = island.jobNeighborhoods;
+        }
+        return islandBuilder.build();
+    }
+
     private DefaultScorer getRegretScorer(VehicleRoutingProblem vrp) {
         DefaultScorer scorer = new DefaultScorer(vrp);
         scorer.setTimeWindowParam(Double.valueOf(properties.getProperty(Parameter.REGRET_TIME_WINDOW_SCORER.toString())));
@@ -707,24 +955,7 @@ public class Jsprit {
 
     private void handleExecutorShutdown(VehicleRoutingAlgorithm vra) {
         if (setupExecutorInternally) {
-            final Thread hook = new Thread() {
-                public void run() {
-                    if (!es.isShutdown()) {
-                        System.err.println("shutdownHook shuts down executorService");
-                        es.shutdown();
-                    }
-                }
-            };
-            Runtime.getRuntime().addShutdownHook(hook);
-            vra.addListener(new AlgorithmEndsListener() {
-
-                @Override
-                public void informAlgorithmEnds(VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
-                    es.shutdown();
-                    Runtime.getRuntime().removeShutdownHook(hook);
-                }
-
-            });
+            shutdownWhenAlgorithmEnds(vra, es);
         }
 //        if (es != null) {
 //
@@ -739,6 +970,56 @@ public class Jsprit {
 //        }
     }
 
+    private void shutdownWhenAlgorithmEnds(VehicleRoutingAlgorithm vra, final ExecutorService es) {
+        final Thread hook = new Thread() {
+            public void run() {
+                if (!es.isShutdown()) {
+                    System.err.println("shutdownHook shuts down executorService");
+                    es.shutdown();
+                }
+            }
+        };
+        Runtime.getRuntime().addShutdownHook(hook);
+        vra.addListener(new AlgorithmEndsListener() {
+
+            @Override
+            public void informAlgorithmEnds(VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                es.shutdown();
+                Runtime.getRuntime().removeShutdownHook(hook);
+            }
+
+        });
+    }
+
+    /**
+     * Sets the initial threshold in the first iteration of a search. This is iteration 1, except for parallel search
+     * workers, which only run every nth iteration.
+     */
+    private class SchrimpfThresholdInitialiser implements AlgorithmStartsListener, IterationStartsListener {
+
+        private final SchrimpfAcceptance schrimpfAcceptance;
+
+        private boolean initialised = false;
+
+        SchrimpfThresholdInitialiser(SchrimpfAcceptance schrimpfAcceptance) {
+            this.schrimpfAcceptance = schrimpfAcceptance;
+        }
+
+        @Override
+        public void informAlgorithmStarts(VehicleRoutingProblem problem, VehicleRoutingAlgorithm algorithm, Collection<VehicleRoutingProblemSolution> solutions) {
+            initialised = false;
+        }
+
+        @Override
+        public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+            if (initialised) return;
+            initialised = true;
+            double initialThreshold = Solutions.bestOf(solutions).getCost() * toDouble(getProperty(Parameter.THRESHOLD_INI.toString()));
+            schrimpfAcceptance.setInitialThreshold(initialThreshold);
+        }
+
+    }
+
     String getProperty(String key) {
         return properties.getProperty(key);
     }
@@ -758,38 +1039,53 @@ public class Jsprit {
     private SolutionCostCalculator getObjectiveFunction(final VehicleRoutingProblem vrp, final double maxCosts) {
         if (objectiveFunction != null) return objectiveFunction;
 
-        SolutionCostCalculator solutionCostCalculator = new SolutionCostCalculator() {
+        final IncrementalSolutionCostCalculator.RouteCostCalculator routeCostCalculator = new IncrementalSolutionCostCalculator.RouteCostCalculator() {
             @Override
-            public double getCosts(VehicleRoutingProblemSolution solution) {
-                double costs = 0.;
-
-                for (VehicleRoute route : solution.getRoutes()) {
-                    costs += route.getVehicle().getType().getVehicleCostParams().fix;
-                    boolean hasBreak = false;
-                    TourActivity prevAct = route.getStart();
-                    for (TourActivity act : route.getActivities()) {
-                        if (act instanceof BreakActivity) hasBreak = true;
-                        costs += vrp.getTransportCosts().getTransportCost(prevAct.getLocation(), act.getLocation(), prevAct.getEndTime(), route.getDriver(), route.getVehicle());
-                        costs += vrp.getActivityCosts().getActivityCost(act, act.getArrTime(), route.getDriver(), route.getVehicle());
-                        prevAct = act;
-                    }
-                    costs += vrp.getTransportCosts().getTransportCost(prevAct.getLocation(), route.getEnd().getLocation(), prevAct.getEndTime(), route.getDriver(), route.getVehicle());
-                    if (route.getVehicle().getBreak() != null) {
-                        if (!hasBreak) {
-                            //break defined and required but not assigned penalty
-                            if (route.getEnd().getArrTime() > route.getVehicle().getBreak().getTimeWindow().getEnd()) {
-                                costs += 4 * (maxCosts * 2 + route.getVehicle().getBreak().getServiceDuration() * route.getVehicle().getType().getVehicleCostParams().perServiceTimeUnit);
-                            }
+            public double getCosts(VehicleRoute route) {
+                double costs = route.getVehicle().getType().getVehicleCostParams().fix;
+                boolean hasBreak = false;
+                TourActivity prevAct = route.getStart();
+                for (TourActivity act : route.getActivities()) {
+                    if (act instanceof BreakActivity) hasBreak = true;
+                    costs += vrp.getTransportCosts().getTransportCost(prevAct.getLocation(), act.getLocation(), prevAct.getEndTime(), route.getDriver(), route.getVehicle());
+                    costs += vrp.getActivityCosts().getActivityCost(act, act.getArrTime(), route.getDriver(), route.getVehicle());
+                    prevAct = act;
+                }
+                costs += vrp.getTransportCosts().getTransportCost(prevAct.getLocation(), route.getEnd().getLocation(), prevAct.getEndTime(), route.getDriver(), route.getVehicle());
+                if (route.getVehicle().getBreak() != null) {
+                    if (!hasBreak) {
+                        //break defined and required but not assigned penalty
+                        if (route.getEnd().getArrTime() > route.getVehicle().getBreak().getTimeWindow().getEnd()) {
+                            costs += 4 * (maxCosts * 2 + route.getVehicle().getBreak().getServiceDuration() * route.getVehicle().getType().getVehicleCostParams().perServiceTimeUnit);
                         }
                     }
                 }
-                for(Job j : solution.getUnassignedJobs()){
+                return costs;
+            }
+        };
+        final IncrementalSolutionCostCalculator.UnassignedJobsCostCalculator unassignedJobsCostCalculator = new IncrementalSolutionCostCalculator.UnassignedJobsCostCalculator() {
+            @Override
+            public double getCosts(Collection<Job> unassignedJobs, double routeCosts) {
+                double costs = 0.;
+                for (Job j : unassignedJobs) {
                     costs += maxCosts * 2 * (11 - j.getPriority());
                 }
                 return costs;
             }
         };
-        return solutionCostCalculator;
+        if (toBoolean(getProperty(Parameter.INCREMENTAL_OBJECTIVE.toString()))) {
+            return new IncrementalSolutionCostCalculator(routeCostCalculator, unassignedJobsCostCalculator);
+        }
+        return new SolutionCostCalculator() {
+            @Override
+            public double getCosts(VehicleRoutingProblemSolution solution) {
+                double costs = 0.;
+                for (VehicleRoute route : solution.getRoutes()) {
+                    costs += routeCostCalculator.getCosts(route);
+                }
+                return costs + unassignedJobsCostCalculator.getCosts(solution.getUnassignedJobs(), costs);
+            }
+        };
     }
 
 
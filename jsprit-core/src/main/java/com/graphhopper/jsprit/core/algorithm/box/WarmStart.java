@@ -0,0 +1,380 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.box;
+
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoods;
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoodsFactory;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Break;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.PickupShipment;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.util.CrowFlyCosts;
+
+import java.util.*;
+
+/**
+ * Re-optimises a solution after the problem has changed slightly, e.g. when jobs have been added or cancelled or
+ * vehicles have broken down.
+ * <p>
+ * <p>It builds the changed problem from the previous problem and the changes. Jobs and vehicles that have not changed
+ * (i.e. the very same objects) keep their position in the previous solution. Activities of removed jobs are dropped,
+ * and jobs of routes whose vehicle has been removed become unassigned just like the added jobs. Before the search
+ * starts, the unassigned jobs are inserted into the existing routes with the construction heuristic of
+ * {@link Jsprit}. The search then runs a few iterations whose radial ruin focuses on the neighborhood of the changed
+ * jobs and routes. The other ruin strategies still select their jobs from all routes.
+ * <p>
+ * <p>The transport costs of the previous problem are reused. If the job neighborhoods of the previous problem are
+ * specified, the neighbors of unchanged jobs are carried over and only the neighbors of added jobs are computed from
+ * scratch (see {@link JobNeighborhoodsFactory#createBoundedNeighborhoods(VehicleRoutingProblem,
+ * com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance, JobNeighborhoods)}). States are not reused since
+ * they are indexed by activity indices. The changed problem re-assigns job and activity indices to the unchanged jobs
+ * and their activities, thus the previous problem must not be used anymore once the changed problem has been built.
+ * <p>
+ * <p>A job or a vehicle is changed by removing it and adding its new version with the same id.
+ * <pre>
+ * JobNeighborhoods neighborhoods = new JobNeighborhoodsFactory().createBoundedNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), 200);
+ * neighborhoods.initialise();
+ * VehicleRoutingProblemSolution bestSolution = Solutions.bestOf(Jsprit.Builder.newInstance(vrp).setJobNeighborhoods(neighborhoods).buildAlgorithm().searchSolutions());
+ * ...
+ * WarmStart warmStart = WarmStart.Builder.newInstance(vrp, bestSolution).setJobNeighborhoods(neighborhoods)
+ *     .addJob(newJob).removeJob("cancelled").build();
+ * VehicleRoutingAlgorithm vra = warmStart.createAlgorithm();
+ * VehicleRoutingProblemSolution best = Solutions.bestOf(vra.searchSolutions());
+ * neighborhoods = warmStart.getJobNeighborhoods();
+ * </pre>
+ *
+ * @author stefan schroeder
+ */
+public class WarmStart {
+
+    public static class Builder {
+
+        public static Builder newInstance(VehicleRoutingProblem previousProblem, VehicleRoutingProblemSolution previousSolution) {
+            return new Builder(previousProblem, previousSolution);
+        }
+
+        private final VehicleRoutingProblem previousProblem;
+
+        private final VehicleRoutingProblemSolution previousSolution;
+
+        private final Map<String, Job> addedJobs = new LinkedHashMap<String, Job>();
+
+        private final Set<String> removedJobIds = new HashSet<String>();
+
+        private final Map<String, Vehicle> addedVehicles = new LinkedHashMap<String, Vehicle>();
+
+        private final Set<String> removedVehicleIds = new HashSet<String>();
+
+        private int iterations = 200;
+
+        private JobNeighborhoods previousNeighborhoods;
+
+        private Builder(VehicleRoutingProblem previousProblem, VehicleRoutingProblemSolution previousSolution) {
+            this.previousProblem = previousProblem;
+            this.previousSolution = previousSolution;
+        }
+
+        /**
+         * Adds a job. If a job with the same id has been removed, the job replaces it.
+         *
+         * @param job job to be added
+         * @return this builder
+         */
+        public Builder addJob(Job job) {
+            if (addedJobs.containsKey(job.getId()) || (previousProblem.getJobsInclusiveInitialJobsInRoutes().containsKey(job.getId()) && !removedJobIds.contains(job.getId())))
+                throw new IllegalArgumentException("problem already contains a job with id " + job.getId() + ". remove it first to change it.");
+            addedJobs.put(job.getId(), job);
+            return this;
+        }
+
+        /**
+         * Removes the job with the specified id from the previous problem.
+         *
+         * @param jobId id of job to be removed
+         * @return this builder
+         */
+        public Builder removeJob(String jobId) {
+            if (!previousProblem.getJobs().containsKey(jobId))
+                throw new IllegalArgumentException("previous problem does not contain a job with id " + jobId + " that can be removed.");
+            if (addedJobs.containsKey(jobId))
+                throw new IllegalArgumentException("job " + jobId + " has already been added. remove it before adding it.");
+            removedJobIds.add(jobId);
+            return this;
+        }
+
+        /**
+         * Adds a vehicle. If a vehicle with the same id has been removed, the vehicle replaces it.
+         *
+         * @param vehicle vehicle to be added
+         * @return this builder
+         */
+        public Builder addVehicle(Vehicle vehicle) {
+            if (addedVehicles.containsKey(vehicle.getId()) || (containsVehicle(previousProblem, vehicle.getId()) && !removedVehicleIds.contains(vehicle.getId())))
+                throw new IllegalArgumentException("problem already contains a vehicle with id " + vehicle.getId() + ". remove it first to change it.");
+            addedVehicles.put(vehicle.getId(), vehicle);
+            return this;
+        }
+
+        /**
+         * Removes the vehicle with the specified id from the previous problem. Its jobs become unassigned.
+         *
+         * @param vehicleId id of vehicle to be removed
+         * @return this builder
+         */
+        public Builder removeVehicle(String vehicleId) {
+            if (!containsVehicle(previousProblem, vehicleId))
+                throw new IllegalArgumentException("previous problem does not contain a vehicle with id " + vehicleId + " that can be removed.");
+            if (addedVehicles.containsKey(vehicleId))
+                throw new IllegalArgumentException("vehicle " + vehicleId + " has already been added. remove it before adding it.");
+            removedVehicleIds.add(vehicleId);
+            return this;
+        }
+
+        /**
+         * Sets the number of iterations of the focused search. By default, it is 200.
+         *
+         * @param iterations number of iterations
+         * @return this builder
+         */
+        public Builder setIterations(int iterations) {
+            if (iterations < 0) throw new IllegalArgumentException("iterations must not be negative");
+            this.iterations = iterations;
+            return this;
+        }
+
+        /**
+         * Sets the initialised job neighborhoods of the previous problem, i.e. the neighborhoods the previous solution
+         * has been searched with or those of a previous warm start. Their neighbors of unchanged jobs are carried over.
+         * They must have been created with bounded neighborhoods of {@link JobNeighborhoodsFactory}.
+         *
+         * @param previousNeighborhoods neighborhoods of the previous problem
+         * @return this builder
+         */
+        public Builder setJobNeighborhoods(JobNeighborhoods previousNeighborhoods) {
+            this.previousNeighborhoods = previousNeighborhoods;
+            return this;
+        }
+
+        public WarmStart build() {
+            return new WarmStart(this);
+        }
+
+        private static boolean containsVehicle(VehicleRoutingProblem problem, String vehicleId) {
+            for (Vehicle v : problem.getVehicles()) {
+                if (v.getId().equals(vehicleId)) return true;
+            }
+            return false;
+        }
+
+    }
+
+    private final VehicleRoutingProblem problem;
+
+    private final VehicleRoutingProblemSolution solution;
+
+    private final Set<Job> focusJobs = new LinkedHashSet<Job>();
+
+    private final Set<Job> initialRouteJobs = new HashSet<Job>();
+
+    private final int iterations;
+
+    private final JobNeighborhoods jobNeighborhoods;
+
+    private WarmStart(Builder builder) {
+        this.iterations = builder.iterations;
+        this.problem = buildProblem(builder);
+        if (builder.previousNeighborhoods != null) {
+            jobNeighborhoods = new JobNeighborhoodsFactory().createBoundedNeighborhoods(problem, new AvgServiceAndShipmentDistance(problem.getTransportCosts()), builder.previousNeighborhoods);
+            jobNeighborhoods.initialise();
+        } else {
+            jobNeighborhoods = null;
+        }
+        for (VehicleRoute initialRoute : problem.getInitialVehicleRoutes()) {
+            initialRouteJobs.addAll(jobsOf(initialRoute));
+        }
+        this.solution = translate(builder.previousSolution, builder.addedJobs.values());
+    }
+
+    private VehicleRoutingProblem buildProblem(Builder builder) {
+        VehicleRoutingProblem previous = builder.previousProblem;
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance()
+            .setFleetSize(previous.getFleetSize())
+            .setActivityCosts(previous.getActivityCosts());
+        // crow fly costs resolve missing coordinates with the locations of the previous problem only
+        if (!(previous.getTransportCosts() instanceof CrowFlyCosts)) {
+            vrpBuilder.setRoutingCost(previous.getTransportCosts());
+        }
+        for (Vehicle vehicle : previous.getVehicles()) {
+            if (!builder.removedVehicleIds.contains(vehicle.getId())) vrpBuilder.addVehicle(vehicle);
+        }
+        for (Vehicle vehicle : builder.addedVehicles.values()) {
+            vrpBuilder.addVehicle(vehicle);
+        }
+        for (VehicleRoute initialRoute : previous.getInitialVehicleRoutes()) {
+            if (builder.removedVehicleIds.contains(initialRoute.getVehicle().getId()))
+                throw new IllegalArgumentException("vehicle " + initialRoute.getVehicle().getId() + " of an initial route cannot be removed.");
+            vrpBuilder.addInitialVehicleRoute(initialRoute);
+        }
+        for (Job job : previous.getJobs().values()) {
+            if (!builder.removedJobIds.contains(job.getId())) vrpBuilder.addJob(job);
+        }
+        for (Job job : builder.addedJobs.values()) {
+            vrpBuilder.addJob(job);
+        }
+        return vrpBuilder.build();
+    }
+
+    private VehicleRoutingProblemSolution translate(VehicleRoutingProblemSolution previousSolution, Collection<Job> addedJobs) {
+        Map<String, Vehicle> vehicles = new HashMap<String, Vehicle>();
+        for (Vehicle v : problem.getVehicles()) vehicles.put(v.getId(), v);
+        Set<Job> unassignedJobs = new LinkedHashSet<Job>();
+        List<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+        for (VehicleRoute previousRoute : previousSolution.getRoutes()) {
+            Vehicle vehicle = previousRoute.getVehicle();
+            if (vehicles.get(vehicle.getId()) != vehicle) {
+                for (Job job : jobsOf(previousRoute)) {
+                    if (isUnchanged(job, null)) unassignedJobs.add(job);
+                }
+                continue;
+            }
+            VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(vehicle, previousRoute.getDriver())
+                .setJobActivityFactory(problem.getJobActivityFactory());
+            boolean changed = false;
+            for (TourActivity act : previousRoute.getActivities()) {
+                if (!(act instanceof TourActivity.JobActivity)) continue;
+                Job job = ((TourActivity.JobActivity) act).getJob();
+                if (!isUnchanged(job, vehicle)) {
+                    changed = true;
+                    continue;
+                }
+                TimeWindow timeWindow = TimeWindow.newInstance(act.getTheoreticalEarliestOperationStartTime(), act.getTheoreticalLatestOperationStartTime());
+                if (job instanceof Break) {
+                    routeBuilder.addBreak((Break) job, timeWindow, act.getLocation());
+                } else if (job instanceof Shipment) {
+                    if (act instanceof PickupShipment) routeBuilder.addPickup((Shipment) job, timeWindow);
+                    else routeBuilder.addDelivery((Shipment) job, timeWindow);
+                } else {
+                    routeBuilder.addService((Service) job, timeWindow);
+                }
+            }
+            VehicleRoute route = routeBuilder.build();
+            if (route.isEmpty()) continue;
+            if (changed) focusJobs.addAll(jobsOf(route));
+            routes.add(route);
+        }
+        for (Job job : previousSolution.getUnassignedJobs()) {
+            if (isUnchanged(job, null)) unassignedJobs.add(job);
+        }
+        unassignedJobs.addAll(addedJobs);
+        focusJobs.addAll(unassignedJobs);
+        focusJobs.retainAll(problem.getJobs().values());
+        return new VehicleRoutingProblemSolution(routes, unassignedJobs, Double.MAX_VALUE);
+    }
+
+    private boolean isUnchanged(Job job, Vehicle vehicle) {
+        if (job instanceof Break) return vehicle != null && vehicle.getBreak() == job;
+        return problem.getJobs().get(job.getId()) == job || initialRouteJobs.contains(job);
+    }
+
+    private static Set<Job> jobsOf(VehicleRoute route) {
+        Set<Job> jobs = new LinkedHashSet<Job>();
+        for (TourActivity act : route.getActivities()) {
+            if (act instanceof TourActivity.JobActivity) jobs.add(((TourActivity.JobActivity) act).getJob());
+        }
+        return jobs;
+    }
+
+    /**
+     * @return the changed problem
+     */
+    public VehicleRoutingProblem getProblem() {
+        return problem;
+    }
+
+    /**
+     * Returns the previous solution translated to the changed problem. Its unassigned jobs are the added jobs, the jobs
+     * of removed vehicles and the jobs that have already been unassigned. Its costs are computed when the search starts.
+     *
+     * @return the translated solution
+     */
+    public VehicleRoutingProblemSolution getSolution() {
+        return solution;
+    }
+
+    /**
+     * Returns the jobs the radial ruin focuses on, i.e. the unassigned jobs and the jobs of routes that have changed.
+     *
+     * @return the focus jobs
+     */
+    public Collection<Job> getFocusJobs() {
+        return Collections.unmodifiableCollection(focusJobs);
+    }
+
+    /**
+     * Returns the neighborhoods of the changed problem that have been carried over from the previous neighborhoods. They
+     * can be passed to the next warm start.
+     *
+     * @return the neighborhoods or null if no previous neighborhoods have been specified
+     */
+    public JobNeighborhoods getJobNeighborhoods() {
+        return jobNeighborhoods;
+    }
+
+    /**
+     * Returns a builder for the changed problem that is configured to repair the translated solution, to focus the
+     * radial ruin on the changed jobs (see {@link Jsprit.Builder#setFocusJobs(Collection)}), to use the carried over
+     * neighborhoods and to run the specified number of iterations. It can be further configured before it is passed to
+     * {@link #createAlgorithm(Jsprit.Builder)}.
+     *
+     * @return the algorithm builder
+     */
+    public Jsprit.Builder newAlgorithmBuilder() {
+        Jsprit.Builder builder = Jsprit.Builder.newInstance(problem)
+            .setProperty(Jsprit.Parameter.ITERATIONS, String.valueOf(iterations))
+            .setProperty(Jsprit.Parameter.REPAIR_INITIAL_SOLUTIONS, String.valueOf(true));
+        if (!focusJobs.isEmpty()) builder.setFocusJobs(focusJobs);
+        if (jobNeighborhoods != null) builder.setJobNeighborhoods(jobNeighborhoods);
+        return builder;
+    }
+
+    /**
+     * Builds the algorithm with the specified builder and adds the translated solution as initial solution.
+     *
+     * @param builder builder for the changed problem, see {@link #newAlgorithmBuilder()}
+     * @return the algorithm
+     */
+    public VehicleRoutingAlgorithm createAlgorithm(Jsprit.Builder builder) {
+        VehicleRoutingAlgorithm vra = builder.buildAlgorithm();
+        vra.addInitialSolution(solution);
+        return vra;
+    }
+
+    public VehicleRoutingAlgorithm createAlgorithm() {
+        return createAlgorithm(newAlgorithmBuilder());
+    }
+
+}
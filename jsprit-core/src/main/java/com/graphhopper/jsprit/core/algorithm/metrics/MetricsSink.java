@@ -0,0 +1,47 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.metrics;
+
+/**
+ * Receives the metrics recorded by {@link SolverMetrics}, e.g. to forward them to a monitoring system.
+ * <p>
+ * <p>Values are increments since the last time they have been published. Thus an adapter can simply add them to
+ * counters and timers of the monitoring system. Metric names are dot-separated, e.g. <code>jsprit.ruin.RuinRadial</code>.
+ *
+ * @author stefan schroeder
+ */
+public interface MetricsSink {
+
+    /**
+     * Records that an operation has been timed count times, taking totalTimeNanos in total.
+     *
+     * @param name           name of the timer
+     * @param count          number of timed operations since last publication
+     * @param totalTimeNanos total time of these operations in nanoseconds
+     */
+    public void recordTime(String name, long count, long totalTimeNanos);
+
+    /**
+     * Increments a counter.
+     *
+     * @param name      name of the counter
+     * @param increment increment since last publication
+     */
+    public void increment(String name, long increment);
+
+}
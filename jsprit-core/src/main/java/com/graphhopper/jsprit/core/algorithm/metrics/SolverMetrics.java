@@ -0,0 +1,304 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.metrics;
+
+import com.graphhopper.jsprit.core.algorithm.listener.AlgorithmEndsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.IterationEndsListener;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records time and counts per phase of the search, i.e.
+ * <ul>
+ * <li>{@link #SELECTION}: selecting and copying the solution to be improved</li>
+ * <li>{@link #RUIN} + ruin strategy: ruining a solution, e.g. <code>jsprit.ruin.RuinRadial</code></li>
+ * <li>{@link #RECREATE} + insertion strategy: recreating a solution, e.g. <code>jsprit.recreate.RegretInsertionFast</code></li>
+ * <li>{@link #INSERTION_DATA}: number of calls to calculate insertion data</li>
+ * <li>{@link #CONSTRAINT} + constraint: number of evaluations of each hard activity constraint</li>
+ * <li>{@link #STATE_UPDATE}: updating states after insertions</li>
+ * <li>{@link #OBJECTIVE}: evaluating the objective function</li>
+ * </ul>
+ * <p>
+ * <p>Register it as listener to the algorithm. Then it publishes increments to its {@link MetricsSink} at the end of
+ * each iteration and at the end of the algorithm. Timers and counters are lock-free and can be shared by concurrent
+ * search workers. Recording is only enabled for components it has been passed to, e.g. by
+ * {@link com.graphhopper.jsprit.core.algorithm.box.Jsprit.Builder#setMetrics(SolverMetrics)}.
+ *
+ * @author stefan schroeder
+ */
+public final class SolverMetrics implements IterationEndsListener, AlgorithmEndsListener {
+
+    public static final String SELECTION = "jsprit.selection";
+
+    public static final String RUIN = "jsprit.ruin.";
+
+    public static final String RECREATE = "jsprit.recreate.";
+
+    public static final String INSERTION_DATA = "jsprit.insertion.data";
+
+    public static final String CONSTRAINT = "jsprit.constraint.";
+
+    public static final String STATE_UPDATE = "jsprit.state.update";
+
+    public static final String OBJECTIVE = "jsprit.objective";
+
+    /**
+     * Measures the number and the total time of operations.
+     */
+    public static final class Timer {
+
+        private final AtomicLong count = new AtomicLong();
+
+        private final AtomicLong totalTimeNanos = new AtomicLong();
+
+        private Timer() {
+        }
+
+        /**
+         * Records an operation that started at startNanos, i.e. at {@link System#nanoTime()}.
+         *
+         * @param startNanos start of the operation in nanoseconds
+         */
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public void record(long timeNanos) {
+            count.incrementAndGet();
+            totalTimeNanos.addAndGet(timeNanos);
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getTotalTimeNanos() {
+            return totalTimeNanos.get();
+        }
+
+    }
+
+    /**
+     * Counts events.
+     */
+    public static final class Counter {
+
+        private final AtomicLong count = new AtomicLong();
+
+        private Counter() {
+        }
+
+        public void increment() {
+            count.incrementAndGet();
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+    }
+
+    /**
+     * Provides counts that are maintained elsewhere, e.g. by components that count too frequently to use shared
+     * counters.
+     */
+    public interface Source {
+
+        /**
+         * Adds the total counts of this source to counts.
+         *
+         * @param counts total counts by metric name
+         */
+        public void collectCounts(Map<String, Long> counts);
+
+    }
+
+    private final MetricsSink sink;
+
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final List<Source> sources = new CopyOnWriteArrayList<>();
+
+    private final Map<String, Long> publishedCounts = new HashMap<>();
+
+    private final Map<String, Long> publishedTimes = new HashMap<>();
+
+    /**
+     * Records metrics without publishing them. They can be read by {@link #getCounts()} and {@link #getTotalTimesNanos()}.
+     */
+    public SolverMetrics() {
+        this(null);
+    }
+
+    public SolverMetrics(MetricsSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Returns the timer with the specified name, and creates it if it does not exist yet.
+     *
+     * @param name name of the timer
+     * @return timer
+     */
+    public Timer timer(String name) {
+        Timer timer = timers.get(name);
+        if (timer == null) {
+            timers.putIfAbsent(name, new Timer());
+            timer = timers.get(name);
+        }
+        return timer;
+    }
+
+    /**
+     * Returns the counter with the specified name, and creates it if it does not exist yet.
+     *
+     * @param name name of the counter
+     * @return counter
+     */
+    public Counter counter(String name) {
+        Counter counter = counters.get(name);
+        if (counter == null) {
+            counters.putIfAbsent(name, new Counter());
+            counter = counters.get(name);
+        }
+        return counter;
+    }
+
+    public void addSource(Source source) {
+        sources.add(source);
+    }
+
+    /**
+     * Enables counting evaluations of the hard activity constraints of constraintManager, and adds them as
+     * {@link #CONSTRAINT} + constraint class, e.g. <code>jsprit.constraint.VehicleDependentTimeWindowConstraints</code>.
+     *
+     * @param constraintManager the constraint manager whose evaluations are counted
+     */
+    public void countConstraintEvaluations(final ConstraintManager constraintManager) {
+        constraintManager.setCountEvaluations(true);
+        addSource(new Source() {
+
+            @Override
+            public void collectCounts(Map<String, Long> counts) {
+                for (Map.Entry<Class<?>, Long> e : constraintManager.getNoEvaluationsPerConstraint().entrySet()) {
+                    String name = CONSTRAINT + nameOf(e.getKey());
+                    counts.put(name, get(counts, name) + e.getValue());
+                }
+            }
+
+        });
+    }
+
+    /**
+     * Returns the total counts of all counters, timers and sources by metric name.
+     *
+     * @return counts sorted by name
+     */
+    public Map<String, Long> getCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, Timer> e : timers.entrySet()) {
+            counts.put(e.getKey(), e.getValue().getCount());
+        }
+        for (Map.Entry<String, Counter> e : counters.entrySet()) {
+            counts.put(e.getKey(), e.getValue().getCount());
+        }
+        for (Source source : sources) {
+            source.collectCounts(counts);
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the total time of all timers by metric name.
+     *
+     * @return total times in nanoseconds sorted by name
+     */
+    public Map<String, Long> getTotalTimesNanos() {
+        Map<String, Long> times = new TreeMap<>();
+        for (Map.Entry<String, Timer> e : timers.entrySet()) {
+            times.put(e.getKey(), e.getValue().getTotalTimeNanos());
+        }
+        return times;
+    }
+
+    /**
+     * Publishes all increments since the last publication to the sink. Metrics that did not change are omitted.
+     */
+    public synchronized void publish() {
+        if (sink == null) return;
+        Map<String, Long> times = getTotalTimesNanos();
+        for (Map.Entry<String, Long> e : getCounts().entrySet()) {
+            String name = e.getKey();
+            long increment = e.getValue() - get(publishedCounts, name);
+            if (increment == 0) continue;
+            publishedCounts.put(name, e.getValue());
+            Long totalTime = times.get(name);
+            if (totalTime == null) {
+                sink.increment(name, increment);
+            } else {
+                sink.recordTime(name, increment, totalTime - get(publishedTimes, name));
+                publishedTimes.put(name, totalTime);
+            }
+        }
+    }
+
+    /**
+     * Returns the simple name of type, or its full name if it is anonymous.
+     *
+     * @param type the class of a strategy or constraint
+     * @return name that identifies type within metric names
+     */
+    public static String nameOf(Class<?> type) {
+        String simpleName = type.getSimpleName();
+        return simpleName.isEmpty() ? type.getName() : simpleName;
+    }
+
+    private static long get(Map<String, Long> values, String name) {
+        Long value = values.get(name);
+        return value == null ? 0 : value;
+    }
+
+    @Override
+    public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+        publish();
+    }
+
+    @Override
+    public void informAlgorithmEnds(VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+        publish();
+    }
+
+    @Override
+    public String toString() {
+        return "[counts=" + getCounts() + "][totalTimesNanos=" + getTotalTimesNanos() + "]";
+    }
+
+}
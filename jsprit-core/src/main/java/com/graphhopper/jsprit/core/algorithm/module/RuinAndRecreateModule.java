@@ -19,6 +19,7 @@ package com.graphhopper.jsprit.core.algorithm.module;
 
 import com.graphhopper.jsprit.core.algorithm.SearchStrategyModule;
 import com.graphhopper.jsprit.core.algorithm.listener.SearchStrategyModuleListener;
+import com.graphhopper.jsprit.core.algorithm.metrics.SolverMetrics;
 import com.graphhopper.jsprit.core.algorithm.recreate.InsertionStrategy;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionListener;
 import com.graphhopper.jsprit.core.algorithm.ruin.RuinStrategy;
@@ -39,6 +40,10 @@ public class RuinAndRecreateModule implements SearchStrategyModule {
 
     private String moduleName;
 
+    private SolverMetrics.Timer ruinTimer;
+
+    private SolverMetrics.Timer recreateTimer;
+
     public RuinAndRecreateModule(String moduleName, InsertionStrategy insertion, RuinStrategy ruin) {
         super();
         this.insertion = insertion;
@@ -48,11 +53,15 @@ public class RuinAndRecreateModule implements SearchStrategyModule {
 
     @Override
     public VehicleRoutingProblemSolution runAndGetSolution(VehicleRoutingProblemSolution vrpSolution) {
+        long start = ruinTimer == null ? 0 : System.nanoTime();
         Collection<Job> ruinedJobs = ruin.ruin(vrpSolution.getRoutes());
+        if (ruinTimer != null) ruinTimer.recordSince(start);
         Set<Job> ruinedJobSet = new HashSet<Job>();
         ruinedJobSet.addAll(ruinedJobs);
         ruinedJobSet.addAll(vrpSolution.getUnassignedJobs());
+        if (recreateTimer != null) start = System.nanoTime();
         Collection<Job> unassignedJobs = insertion.insertJobs(vrpSolution.getRoutes(), ruinedJobSet);
+        if (recreateTimer != null) recreateTimer.recordSince(start);
         vrpSolution.getUnassignedJobs().clear();
         vrpSolution.getUnassignedJobs().addAll(unassignedJobs);
         return vrpSolution;
@@ -81,6 +90,16 @@ public class RuinAndRecreateModule implements SearchStrategyModule {
 
     }
 
+    /**
+     * Records the time of ruin and recreate per ruin and insertion strategy, e.g. as <code>jsprit.ruin.RuinRadial</code>.
+     *
+     * @param metrics the metrics to record to
+     */
+    public void setMetrics(SolverMetrics metrics) {
+        ruinTimer = metrics.timer(SolverMetrics.RUIN + SolverMetrics.nameOf(ruin.getClass()));
+        recreateTimer = metrics.timer(SolverMetrics.RECREATE + SolverMetrics.nameOf(insertion.getClass()));
+    }
+
     public InsertionStrategy getInsertion() {
         return insertion;
     }
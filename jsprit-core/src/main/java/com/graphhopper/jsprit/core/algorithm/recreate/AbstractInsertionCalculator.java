@@ -25,8 +25,6 @@ import com.graphhopper.jsprit.core.problem.constraint.HardRouteConstraint;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 
 /**
@@ -45,51 +43,34 @@ abstract class AbstractInsertionCalculator implements JobInsertionCostsCalculato
         return null;
     }
 
-    ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime, Collection<String> failedActivityConstraints, ConstraintManager constraintManager) {
-        ConstraintsStatus notFulfilled = null;
-        List<String> failed = new ArrayList<>();
-        for (HardActivityConstraint c : constraintManager.getCriticalHardActivityConstraints()) {
-            ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
-            if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
-                failedActivityConstraints.add(c.getClass().getSimpleName());
-                return status;
-            } else {
-                if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
-                    failed.add(c.getClass().getSimpleName());
-                    notFulfilled = status;
-                }
-            }
-        }
-        if (notFulfilled != null) {
-            failedActivityConstraints.addAll(failed);
-            return notFulfilled;
-        }
+    private final ThreadLocal<InsertionWorkspace> workspaces = new ThreadLocal<InsertionWorkspace>() {
 
-        for (HardActivityConstraint c : constraintManager.getHighPrioHardActivityConstraints()) {
-            ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
-            if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
-                failedActivityConstraints.add(c.getClass().getSimpleName());
-                return status;
-            } else {
-                if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
-                    failed.add(c.getClass().getSimpleName());
-                    notFulfilled = status;
-                }
-            }
-        }
-        if (notFulfilled != null) {
-            failedActivityConstraints.addAll(failed);
-            return notFulfilled;
+        @Override
+        protected InsertionWorkspace initialValue() {
+            return new InsertionWorkspace();
         }
 
-        for (HardActivityConstraint constraint : constraintManager.getLowPrioHardActivityConstraints()) {
-            ConstraintsStatus status = constraint.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
-            if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK) || status.equals(ConstraintsStatus.NOT_FULFILLED)) {
-                failedActivityConstraints.add(constraint.getClass().getSimpleName());
-                return status;
-            }
+    };
+
+    /**
+     * Returns the workspace of the current thread. It must only be used within a single call of getInsertionData.
+     *
+     * @return workspace of the current thread
+     */
+    InsertionWorkspace getWorkspace() {
+        return workspaces.get();
+    }
+
+    ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime, List<HardActivityConstraint> failedActivityConstraints, ConstraintManager constraintManager) {
+        return constraintManager.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime, failedActivityConstraints);
+    }
+
+    InsertionData createNoInsertionFound(List<HardActivityConstraint> failedActivityConstraints) {
+        InsertionData emptyInsertionData = new InsertionData.NoInsertionFound();
+        for (HardActivityConstraint c : failedActivityConstraints) {
+            emptyInsertionData.addFailedConstrainName(c.getClass().getSimpleName());
         }
-        return ConstraintsStatus.FULFILLED;
+        return emptyInsertionData;
     }
 
 }
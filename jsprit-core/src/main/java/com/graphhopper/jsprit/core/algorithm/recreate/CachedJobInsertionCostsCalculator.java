@@ -0,0 +1,117 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+/**
+ * Looks up insertion data in an {@link InsertionCostsCache} before delegating to the underlying calculator.
+ * <p>
+ * <p>Cached insertion data is re-bound to the route it is requested for, i.e. its events refer to the current route
+ * and to a fresh copy of the activities to be inserted.
+ * <p>
+ * <p>If activity costs are weighted with the completeness of the solution to be recreated, insertion data is only
+ * re-used for the same completeness ratio.
+ */
+final class CachedJobInsertionCostsCalculator implements JobInsertionCostsCalculator {
+
+    private final JobInsertionCostsCalculator insertionCalculator;
+
+    private final InsertionCostsCache cache;
+
+    private final LocalActivityInsertionCostsCalculator localActivityInsertionCostsCalculator;
+
+    CachedJobInsertionCostsCalculator(JobInsertionCostsCalculator insertionCalculator, InsertionCostsCache cache) {
+        this(insertionCalculator, cache, null);
+    }
+
+    CachedJobInsertionCostsCalculator(JobInsertionCostsCalculator insertionCalculator, InsertionCostsCache cache,
+                                      LocalActivityInsertionCostsCalculator localActivityInsertionCostsCalculator) {
+        this.insertionCalculator = insertionCalculator;
+        this.cache = cache;
+        this.localActivityInsertionCostsCalculator = localActivityInsertionCostsCalculator;
+    }
+
+    @Override
+    public InsertionData getInsertionData(VehicleRoute currentRoute, Job newJob, Vehicle newVehicle, double newVehicleDepartureTime, Driver newDriver, double bestKnownCosts) {
+        if (!cache.isEnabled()) {
+            return insertionCalculator.getInsertionData(currentRoute, newJob, newVehicle, newVehicleDepartureTime, newDriver, bestKnownCosts);
+        }
+        InsertionCostsCache.RouteKey routeKey = new InsertionCostsCache.RouteKey(currentRoute);
+        InsertionCostsCache.InsertionKey insertionKey = new InsertionCostsCache.InsertionKey(newJob, newVehicle, newVehicleDepartureTime, newDriver, getSolutionCompletenessRatio());
+        InsertionCostsCache.Entry entry = cache.get(routeKey, insertionKey);
+        if (entry != null) {
+            InsertionData cached = entry.getInsertionData();
+            if (!(cached instanceof InsertionData.NoInsertionFound)) {
+                //the best insertion is known, thus it is valid for any bound
+                cache.recordHit();
+                if (cached.getInsertionCost() < bestKnownCosts) return rebind(cached, currentRoute);
+                return new InsertionData.NoInsertionFound();
+            }
+            //there is no insertion cheaper than the bound the entry has been calculated with
+            if (bestKnownCosts <= entry.getBestKnownCosts()) {
+                cache.recordHit();
+                InsertionData noInsertion = new InsertionData.NoInsertionFound();
+                noInsertion.getFailedConstraintNames().addAll(cached.getFailedConstraintNames());
+                return noInsertion;
+            }
+        }
+        cache.recordMiss();
+        InsertionData iData = insertionCalculator.getInsertionData(currentRoute, newJob, newVehicle, newVehicleDepartureTime, newDriver, bestKnownCosts);
+        if (isCacheable(iData)) {
+            cache.put(routeKey, insertionKey, new InsertionCostsCache.Entry(iData, bestKnownCosts));
+        }
+        return iData;
+    }
+
+    private double getSolutionCompletenessRatio() {
+        if (localActivityInsertionCostsCalculator == null) return 1.;
+        return localActivityInsertionCostsCalculator.getSolutionCompletenessRatio();
+    }
+
+    private static boolean isCacheable(InsertionData iData) {
+        for (Event e : iData.getEvents()) {
+            if (!(e instanceof InsertActivity || e instanceof InsertBreak || e instanceof SwitchVehicle)) return false;
+        }
+        return true;
+    }
+
+    private static InsertionData rebind(InsertionData cached, VehicleRoute route) {
+        InsertionData iData = new InsertionData(cached.getInsertionCost(), cached.getPickupInsertionIndex(), cached.getDeliveryInsertionIndex(),
+            cached.getSelectedVehicle(), cached.getSelectedDriver());
+        iData.setVehicleDepartureTime(cached.getVehicleDepartureTime());
+        iData.setAdditionalTime(cached.getAdditionalTime());
+        for (Event e : cached.getEvents()) {
+            if (e instanceof InsertActivity) {
+                InsertActivity insertActivity = (InsertActivity) e;
+                iData.getEvents().add(new InsertActivity(route, insertActivity.getNewVehicle(), insertActivity.getActivity().duplicate(), insertActivity.getIndex()));
+            } else if (e instanceof InsertBreak) {
+                InsertBreak insertBreak = (InsertBreak) e;
+                iData.getEvents().add(new InsertBreak(route, insertBreak.getNewVehicle(), insertBreak.getActivity().duplicate(), insertBreak.getIndex()));
+            } else if (e instanceof SwitchVehicle) {
+                SwitchVehicle switchVehicle = (SwitchVehicle) e;
+                iData.getEvents().add(new SwitchVehicle(route, switchVehicle.getVehicle(), switchVehicle.getDepartureTime()));
+            }
+        }
+        return iData;
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.metrics.SolverMetrics;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+/**
+ * Counts calls to calculate insertion data.
+ *
+ * @author stefan schroeder
+ */
+class CountingJobInsertionCostsCalculator implements JobInsertionCostsCalculator {
+
+    private final JobInsertionCostsCalculator calculator;
+
+    private final SolverMetrics.Counter counter;
+
+    CountingJobInsertionCostsCalculator(JobInsertionCostsCalculator calculator, SolverMetrics.Counter counter) {
+        this.calculator = calculator;
+        this.counter = counter;
+    }
+
+    @Override
+    public InsertionData getInsertionData(VehicleRoute currentRoute, Job newJob, Vehicle newVehicle, double newVehicleDepartureTime, Driver newDriver, double bestKnownCosts) {
+        counter.increment();
+        return calculator.getInsertionData(currentRoute, newJob, newVehicle, newVehicleDepartureTime, newDriver, bestKnownCosts);
+    }
+
+    @Override
+    public String toString() {
+        return calculator.toString();
+    }
+
+}
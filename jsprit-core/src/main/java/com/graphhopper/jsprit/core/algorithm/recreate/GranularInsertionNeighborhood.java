@@ -0,0 +1,81 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoods;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Restricts the insertion positions of a job to positions adjacent to one of its k nearest neighbors (granular insertion).
+ * Positions next to the start or the end of a route are always considered.
+ * <p>
+ * <p>Neighbors are taken from {@link JobNeighborhoods} once, when this is constructed. Thus the job neighborhoods need to
+ * be initialised.
+ *
+ * @author stefan schroeder
+ */
+class GranularInsertionNeighborhood {
+
+    private final int[][] neighbors;
+
+    GranularInsertionNeighborhood(Collection<Job> jobs, JobNeighborhoods jobNeighborhoods, int nNeighbors) {
+        if (nNeighbors < 1) throw new IllegalArgumentException("number of neighbors must be at least 1.");
+        int maxIndex = 0;
+        for (Job job : jobs) {
+            maxIndex = Math.max(maxIndex, job.getIndex());
+        }
+        neighbors = new int[maxIndex + 1][];
+        for (Job job : jobs) {
+            int[] neighborIndices = new int[nNeighbors];
+            int n = 0;
+            Iterator<Job> iterator = jobNeighborhoods.getNearestNeighborsIterator(nNeighbors, job);
+            while (iterator.hasNext() && n < nNeighbors) {
+                neighborIndices[n++] = iterator.next().getIndex();
+            }
+            neighborIndices = Arrays.copyOf(neighborIndices, n);
+            Arrays.sort(neighborIndices);
+            neighbors[job.getIndex()] = neighborIndices;
+        }
+    }
+
+    /**
+     * Returns true if the insertion of job between prevAct and nextAct should be evaluated.
+     *
+     * @param job     the job to be inserted
+     * @param prevAct activity before the insertion position
+     * @param nextAct activity after the insertion position
+     * @return true if prevAct or nextAct is a neighbor of job, or the start or end of the route
+     */
+    boolean isCandidate(Job job, TourActivity prevAct, TourActivity nextAct) {
+        if (job.getIndex() >= neighbors.length || neighbors[job.getIndex()] == null) return true;
+        return isNeighbor(job, prevAct) || isNeighbor(job, nextAct);
+    }
+
+    private boolean isNeighbor(Job job, TourActivity act) {
+        if (!(act instanceof TourActivity.JobActivity)) return true;
+        Job other = ((TourActivity.JobActivity) act).getJob();
+        if (other == job) return true;
+        return Arrays.binarySearch(neighbors[job.getIndex()], other.getIndex()) >= 0;
+    }
+
+}
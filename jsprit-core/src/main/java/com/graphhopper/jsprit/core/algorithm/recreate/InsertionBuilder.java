@@ -18,7 +18,9 @@
 package com.graphhopper.jsprit.core.algorithm.recreate;
 
 import com.graphhopper.jsprit.core.algorithm.listener.VehicleRoutingAlgorithmListeners;
+import com.graphhopper.jsprit.core.algorithm.metrics.SolverMetrics;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionListener;
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoods;
 import com.graphhopper.jsprit.core.algorithm.state.StateManager;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
@@ -76,6 +78,20 @@ public class InsertionBuilder {
 
     private boolean isFastRegret = false;
 
+    private InsertionCostsCache insertionCostsCache;
+
+    private JobNeighborhoods jobNeighborhoods;
+
+    private int nGranularNeighbors;
+
+    private ExecutorService shipmentInsertionExecutor;
+
+    private int nuOfShipmentInsertionThreads;
+
+    private boolean lowerBoundPruning = false;
+
+    private SolverMetrics metrics;
+
     public InsertionBuilder(VehicleRoutingProblem vrp, VehicleFleetManager vehicleFleetManager, StateManager stateManager, ConstraintManager constraintManager) {
         super();
         this.vrp = vrp;
@@ -139,6 +155,71 @@ public class InsertionBuilder {
         return this;
     }
 
+    /**
+     * Sets a cache that keeps insertion data of routes that have not been changed across ruin-and-recreate iterations.
+     * The same cache can be shared by insertion strategies that are based on the same constraints and costs.
+     *
+     * @param insertionCostsCache the cache to look up insertion data
+     * @return this builder
+     */
+    public InsertionBuilder setInsertionCostsCache(InsertionCostsCache insertionCostsCache) {
+        this.insertionCostsCache = insertionCostsCache;
+        return this;
+    }
+
+    /**
+     * Only evaluates insertion positions adjacent to the nNeighbors nearest neighbors of the job to be inserted.
+     *
+     * @param jobNeighborhoods initialised job neighborhoods
+     * @param nNeighbors       number of nearest neighbors to be considered
+     * @return this builder
+     */
+    public InsertionBuilder setGranularNeighborhood(JobNeighborhoods jobNeighborhoods, int nNeighbors) {
+        this.jobNeighborhoods = jobNeighborhoods;
+        this.nGranularNeighbors = nNeighbors;
+        return this;
+    }
+
+    /**
+     * Evaluates the pickup positions of a single route concurrently when inserting shipments into long routes. This is
+     * independent of {@link #setConcurrentMode(ExecutorService, int)}, i.e. both can use the same executor.
+     *
+     * @param executor    executor that runs the additional threads
+     * @param nuOfThreads max. number of threads that evaluate a single route, including the calling thread
+     * @return this builder
+     */
+    public InsertionBuilder setConcurrentShipmentInsertion(ExecutorService executor, int nuOfThreads) {
+        this.shipmentInsertionExecutor = executor;
+        this.nuOfShipmentInsertionThreads = nuOfThreads;
+        return this;
+    }
+
+    /**
+     * Discards routes whose lower bound of the insertion costs is not lower than the best insertion found so far. It
+     * lets the state manager update the max. leg costs of routes and is only considered on local level.
+     * <p>
+     * <p>It does not change the result of an insertion as long as transport costs do not depend on time and activity
+     * costs and soft constraints do not lower the costs of an insertion.
+     *
+     * @param lowerBoundPruning true if routes are to be discarded by a lower bound
+     * @return this builder
+     */
+    public InsertionBuilder setLowerBoundPruning(boolean lowerBoundPruning) {
+        this.lowerBoundPruning = lowerBoundPruning;
+        return this;
+    }
+
+    /**
+     * Counts calls to calculate insertion data as {@link SolverMetrics#INSERTION_DATA}.
+     *
+     * @param metrics the metrics to record to
+     * @return this builder
+     */
+    public InsertionBuilder setMetrics(SolverMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
     public InsertionBuilder setConcurrentMode(ExecutorService executor, int nuOfThreads) {
         this.executor = executor;
         this.nuOfThreads = nuOfThreads;
@@ -167,7 +248,21 @@ public class InsertionBuilder {
             calcBuilder.experimentalTimeScheduler(timeSlice, nNeighbors);
         }
         calcBuilder.setAllowVehicleSwitch(allowVehicleSwitch);
+        calcBuilder.setInsertionCostsCache(insertionCostsCache);
+        if (jobNeighborhoods != null) {
+            calcBuilder.setGranularNeighborhood(jobNeighborhoods, nGranularNeighbors);
+        }
+        if (shipmentInsertionExecutor != null) {
+            calcBuilder.setConcurrentShipmentInsertion(shipmentInsertionExecutor, nuOfShipmentInsertionThreads);
+        }
+        if (lowerBoundPruning && local) {
+            stateManager.updateMaxLegCostStates();
+            calcBuilder.setLowerBoundPruning(true);
+        }
         JobInsertionCostsCalculator costCalculator = calcBuilder.build();
+        if (metrics != null) {
+            costCalculator = new CountingJobInsertionCostsCalculator(costCalculator, metrics.counter(SolverMetrics.INSERTION_DATA));
+        }
 
         InsertionStrategy insertion;
         if (strategy.equals(Strategy.BEST)) {
@@ -190,7 +285,7 @@ public class InsertionBuilder {
 
             } else {
                 if(isFastRegret){
-                    RegretInsertionConcurrentFast regret = new RegretInsertionConcurrentFast(costCalculator, vrp, executor, fleetManager);
+                    RegretInsertionConcurrentFast regret = new RegretInsertionConcurrentFast(costCalculator, vrp, executor, nuOfThreads, fleetManager);
                     regret.setSwitchAllowed(allowVehicleSwitch);
                     insertion = regret;
                 }
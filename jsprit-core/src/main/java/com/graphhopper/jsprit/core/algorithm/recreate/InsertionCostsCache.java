@@ -0,0 +1,242 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionStartsListener;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores insertion data of jobs per route across ruin-and-recreate iterations.
+ * <p>
+ * <p>Entries are keyed by the state of a route (its vehicle, departure time and the version of its activity sequence,
+ * see {@link com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivities#getVersion()}) rather than by
+ * the route object. Since copies of a route keep the version of its activities, a route that has not been touched by
+ * the ruin step re-uses the insertion data computed for it in the previous iteration. Only routes that have been
+ * modified (by ruin or by inserting a job) miss the cache.
+ * <p>
+ * <p>Activity costs might be weighted with the completeness of the solution to be recreated (see
+ * {@link CachedJobInsertionCostsCalculator}), thus entries are also keyed by this ratio.
+ * <p>
+ * <p>This is only valid if the insertion costs of a job in a route solely depend on the route itself, i.e. hard and soft
+ * constraints must not depend on other routes or on the number of unassigned jobs, and they must not be random. Disable
+ * the cache (see {@link #setEnabled(boolean)}) in iterations where this does not hold (e.g. when making insertion noise).
+ * <p>
+ * <p>When the insertion starts, entries of routes that are not part of the solution to be recreated are evicted.
+ *
+ * @author stefan schroeder
+ */
+public class InsertionCostsCache implements InsertionStartsListener {
+
+    static class RouteKey {
+
+        private final String vehicleId;
+
+        private final double departureTime;
+
+        private final long version;
+
+        private final int hash;
+
+        RouteKey(VehicleRoute route) {
+            this.vehicleId = route.getVehicle().getId();
+            this.departureTime = route.getDepartureTime();
+            this.version = route.getTourActivities().getVersion();
+            int h = vehicleId.hashCode();
+            long bits = Double.doubleToLongBits(departureTime);
+            h = 31 * h + (int) (bits ^ (bits >>> 32));
+            h = 31 * h + (int) (version ^ (version >>> 32));
+            this.hash = h;
+        }
+
+        boolean isEmpty() {
+            return version == 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RouteKey)) return false;
+            RouteKey routeKey = (RouteKey) o;
+            return hash == routeKey.hash && Double.compare(departureTime, routeKey.departureTime) == 0
+                && version == routeKey.version && vehicleId.equals(routeKey.vehicleId);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    static class InsertionKey {
+
+        private final Job job;
+
+        private final String newVehicleId;
+
+        private final double newDepartureTime;
+
+        private final String newDriverId;
+
+        private final double solutionCompletenessRatio;
+
+        InsertionKey(Job job, Vehicle newVehicle, double newDepartureTime, Driver newDriver, double solutionCompletenessRatio) {
+            this.job = job;
+            this.newVehicleId = newVehicle.getId();
+            this.newDepartureTime = newDepartureTime;
+            this.newDriverId = newDriver == null ? null : newDriver.getId();
+            this.solutionCompletenessRatio = solutionCompletenessRatio;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof InsertionKey)) return false;
+            InsertionKey that = (InsertionKey) o;
+            return job == that.job && Double.compare(newDepartureTime, that.newDepartureTime) == 0
+                && Double.compare(solutionCompletenessRatio, that.solutionCompletenessRatio) == 0
+                && newVehicleId.equals(that.newVehicleId)
+                && (newDriverId == null ? that.newDriverId == null : newDriverId.equals(that.newDriverId));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = job.hashCode();
+            result = 31 * result + newVehicleId.hashCode();
+            long bits = Double.doubleToLongBits(newDepartureTime);
+            result = 31 * result + (int) (bits ^ (bits >>> 32));
+            result = 31 * result + (newDriverId == null ? 0 : newDriverId.hashCode());
+            bits = Double.doubleToLongBits(solutionCompletenessRatio);
+            result = 31 * result + (int) (bits ^ (bits >>> 32));
+            return result;
+        }
+    }
+
+    static class Entry {
+
+        private final InsertionData insertionData;
+
+        private final double bestKnownCosts;
+
+        Entry(InsertionData insertionData, double bestKnownCosts) {
+            this.insertionData = insertionData;
+            this.bestKnownCosts = bestKnownCosts;
+        }
+
+        InsertionData getInsertionData() {
+            return insertionData;
+        }
+
+        /**
+         * Returns the bound the insertion data has been calculated with. This is relevant if no insertion has been found,
+         * since then it is only known that there is no insertion cheaper than this bound.
+         *
+         * @return bound the insertion data has been calculated with
+         */
+        double getBestKnownCosts() {
+            return bestKnownCosts;
+        }
+    }
+
+    private final ConcurrentMap<RouteKey, ConcurrentMap<InsertionKey, Entry>> entries = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled = true;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the cache. If disabled, insertion data is neither looked up nor stored.
+     *
+     * @param enabled true if the cache should be used
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getNuOfHits() {
+        return hits.get();
+    }
+
+    public long getNuOfMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of route states for which insertion data is stored.
+     *
+     * @return number of cached route states
+     */
+    public int getNuOfRoutes() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    Entry get(RouteKey routeKey, InsertionKey insertionKey) {
+        Map<InsertionKey, Entry> routeEntries = entries.get(routeKey);
+        if (routeEntries == null) return null;
+        return routeEntries.get(insertionKey);
+    }
+
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    void put(RouteKey routeKey, InsertionKey insertionKey, Entry entry) {
+        ConcurrentMap<InsertionKey, Entry> routeEntries = entries.get(routeKey);
+        if (routeEntries == null) {
+            ConcurrentMap<InsertionKey, Entry> newEntries = new ConcurrentHashMap<>();
+            routeEntries = entries.putIfAbsent(routeKey, newEntries);
+            if (routeEntries == null) routeEntries = newEntries;
+        }
+        routeEntries.put(insertionKey, entry);
+    }
+
+    @Override
+    public void informInsertionStarts(Collection<VehicleRoute> vehicleRoutes, Collection<Job> unassignedJobs) {
+        Set<RouteKey> routeKeys = new HashSet<>();
+        for (VehicleRoute route : vehicleRoutes) {
+            routeKeys.add(new RouteKey(route));
+        }
+        Iterator<RouteKey> iterator = entries.keySet().iterator();
+        while (iterator.hasNext()) {
+            RouteKey routeKey = iterator.next();
+            if (!routeKey.isEmpty() && !routeKeys.contains(routeKey)) iterator.remove();
+        }
+    }
+
+}
@@ -31,7 +31,7 @@ import java.util.*;
  */
 class InsertionDataUpdater {
 
-    static boolean update(boolean addAllAvailable, Set<String> initialVehicleIds, VehicleFleetManager fleetManager, JobInsertionCostsCalculator insertionCostsCalculator, TreeSet<VersionedInsertionData> insertionDataSet, int updateRound, Job unassignedJob, Collection<VehicleRoute> routes) {
+    static boolean update(boolean addAllAvailable, Set<String> initialVehicleIds, VehicleFleetManager fleetManager, JobInsertionCostsCalculator insertionCostsCalculator, VersionedInsertionDataQueue insertionDataQueue, int updateRound, Job unassignedJob, Collection<VehicleRoute> routes) {
         for(VehicleRoute route : routes) {
             Collection<Vehicle> relevantVehicles = new ArrayList<>();
             if (!(route.getVehicle() instanceof VehicleImpl.NoVehicle)) {
@@ -46,7 +46,7 @@ class InsertionDataUpdater {
                 if (iData instanceof InsertionData.NoInsertionFound) {
                     continue;
                 }
-                insertionDataSet.add(new VersionedInsertionData(iData, updateRound, route));
+                insertionDataQueue.add(new VersionedInsertionData(iData, updateRound, route));
             }
         }
         return true;
@@ -61,27 +61,17 @@ class InsertionDataUpdater {
         return null;
     }
 
-    static Comparator<VersionedInsertionData> getComparator(){
-        return new Comparator<VersionedInsertionData>() {
-            @Override
-            public int compare(VersionedInsertionData o1, VersionedInsertionData o2) {
-                if(o1.getiData().getInsertionCost() < o2.getiData().getInsertionCost()) return -1;
-                return 1;
-            }
-        };
-    }
-
-    static ScoredJob getBest(boolean switchAllowed, Set<String> initialVehicleIds, VehicleFleetManager fleetManager, JobInsertionCostsCalculator insertionCostsCalculator, ScoringFunction scoringFunction, TreeSet<VersionedInsertionData>[] priorityQueues, Map<VehicleRoute, Integer> updates, List<Job> unassignedJobList, List<ScoredJob> badJobs) {
+    static ScoredJob getBest(boolean switchAllowed, Set<String> initialVehicleIds, VehicleFleetManager fleetManager, JobInsertionCostsCalculator insertionCostsCalculator, ScoringFunction scoringFunction, VersionedInsertionDataQueue[] priorityQueues, Map<VehicleRoute, Integer> updates, List<Job> unassignedJobList, List<ScoredJob> badJobs) {
         ScoredJob bestScoredJob = null;
         for(Job j : unassignedJobList){
             VehicleRoute bestRoute = null;
             InsertionData best = null;
             InsertionData secondBest = null;
-            TreeSet<VersionedInsertionData> priorityQueue = priorityQueues[j.getIndex()];
-            Iterator<VersionedInsertionData> iterator = priorityQueue.iterator();
+            VersionedInsertionDataQueue priorityQueue = priorityQueues[j.getIndex()];
             List<String> failedConstraintNames = new ArrayList<>();
-            while(iterator.hasNext()){
-                VersionedInsertionData versionedIData = iterator.next();
+            VersionedInsertionData versionedIData;
+            //only returns insertion data that is up-to-date, i.e. computed after the last change of its route
+            while((versionedIData = priorityQueue.next(updates)) != null){
                 if(bestRoute != null){
                     if(versionedIData.getRoute() == bestRoute){
                         continue;
@@ -115,18 +105,16 @@ class InsertionDataUpdater {
                         } else continue;
                     }
                 }
-                int currentDataVersion = updates.get(versionedIData.getRoute());
-                if(versionedIData.getVersion() == currentDataVersion){
-                    if(best == null) {
-                        best = versionedIData.getiData();
-                        bestRoute = versionedIData.getRoute();
-                    }
-                    else {
-                        secondBest = versionedIData.getiData();
-                        break;
-                    }
+                if(best == null) {
+                    best = versionedIData.getiData();
+                    bestRoute = versionedIData.getRoute();
+                }
+                else {
+                    secondBest = versionedIData.getiData();
+                    break;
                 }
             }
+            priorityQueue.resetScan();
             VehicleRoute emptyRoute = VehicleRoute.emptyRoute();
             InsertionData iData = insertionCostsCalculator.getInsertionData(emptyRoute, j, null, -1, null, Double.MAX_VALUE);
             if(!(iData instanceof InsertionData.NoInsertionFound)){
@@ -0,0 +1,144 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
+import com.graphhopper.jsprit.core.problem.JobActivityFactory;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.misc.ActivityContext;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.End;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.Start;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Thread-confined objects that are re-used while evaluating insertion positions, i.e. evaluating a position does not
+ * allocate anything. Only the activities of the best insertion are copied (see {@link AbstractInsertionCalculator}).
+ * <p>
+ * <p>Activities to be inserted are created once per job and thread. They are probes that are modified during the evaluation
+ * and must never be inserted into a route. They are memorized by job index, i.e. a workspace holds at most one set of
+ * probes per job index, and the probes of a job are replaced if another job with the same index is evaluated.
+ *
+ * @author stefan schroeder
+ */
+final class InsertionWorkspace {
+
+    private final Start start = new Start((Location) null, 0., Double.MAX_VALUE);
+
+    private final End end = new End((Location) null, 0., Double.MAX_VALUE);
+
+    private final ActivityContext activityContext = new ActivityContext();
+
+    private final ActivityContext relatedActivityContext = new ActivityContext();
+
+    private final List<HardActivityConstraint> failedConstraints = new ArrayList<>();
+
+    private Job[] probeJobs = new Job[0];
+
+    private List<?>[] probeActivities = new List<?>[0];
+
+    private final List<TimeWindow> timeWindows = new ArrayList<>();
+
+    private final List<TimeWindow> deliveryTimeWindows = new ArrayList<>();
+
+    Start start(Vehicle newVehicle, double theoreticalLatest, double departureTime) {
+        start.setLocation(newVehicle.getStartLocation());
+        start.setTheoreticalEarliestOperationStartTime(newVehicle.getEarliestDeparture());
+        start.setTheoreticalLatestOperationStartTime(theoreticalLatest);
+        start.setArrTime(0.);
+        start.setEndTime(departureTime);
+        return start;
+    }
+
+    End end(Vehicle newVehicle) {
+        end.setLocation(newVehicle.getEndLocation());
+        end.setTheoreticalEarliestOperationStartTime(0.);
+        end.setTheoreticalLatestOperationStartTime(newVehicle.getLatestArrival());
+        end.setArrTime(0.);
+        end.setEndTime(newVehicle.getLatestArrival());
+        return end;
+    }
+
+    ActivityContext activityContext(int insertionIndex) {
+        activityContext.setArrivalTime(0.);
+        activityContext.setEndTime(0.);
+        activityContext.setInsertionIndex(insertionIndex);
+        return activityContext;
+    }
+
+    ActivityContext relatedActivityContext() {
+        return relatedActivityContext;
+    }
+
+    /**
+     * Returns the cleared list of failed constraints. Constraints are collected instead of their names, since names
+     * are only required if no insertion can be found.
+     *
+     * @return empty list of failed constraints
+     */
+    List<HardActivityConstraint> failedConstraints() {
+        failedConstraints.clear();
+        return failedConstraints;
+    }
+
+    /**
+     * Copies the time windows of the (first) activity to be inserted into a re-used list, such that they can be iterated
+     * for every insertion position without creating an iterator.
+     *
+     * @param jobTimeWindows time windows of the job
+     * @return list of time windows
+     */
+    List<TimeWindow> timeWindows(Collection<TimeWindow> jobTimeWindows) {
+        return copy(jobTimeWindows, timeWindows);
+    }
+
+    List<TimeWindow> deliveryTimeWindows(Collection<TimeWindow> jobTimeWindows) {
+        return copy(jobTimeWindows, deliveryTimeWindows);
+    }
+
+    private static List<TimeWindow> copy(Collection<TimeWindow> jobTimeWindows, List<TimeWindow> target) {
+        target.clear();
+        for (TimeWindow timeWindow : jobTimeWindows) {
+            target.add(timeWindow);
+        }
+        return target;
+    }
+
+    @SuppressWarnings("unchecked")
+    List<AbstractActivity> probeActivities(Job job, JobActivityFactory activityFactory) {
+        int index = job.getIndex();
+        if (index >= probeJobs.length) {
+            int length = Math.max(index + 1, 2 * probeJobs.length);
+            probeJobs = Arrays.copyOf(probeJobs, length);
+            probeActivities = Arrays.copyOf(probeActivities, length);
+        }
+        if (probeJobs[index] != job) {
+            probeJobs[index] = job;
+            probeActivities[index] = activityFactory.createActivities(job);
+        }
+        return (List<AbstractActivity>) probeActivities[index];
+    }
+
+}
@@ -19,6 +19,7 @@ package com.graphhopper.jsprit.core.algorithm.recreate;
 
 import com.graphhopper.jsprit.core.algorithm.listener.VehicleRoutingAlgorithmListeners.PrioritizedVRAListener;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionListener;
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoods;
 import com.graphhopper.jsprit.core.problem.AbstractActivity;
 import com.graphhopper.jsprit.core.problem.JobActivityFactory;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
@@ -31,6 +32,7 @@ import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 
 public class JobInsertionCostsCalculatorBuilder {
@@ -94,6 +96,18 @@ public class JobInsertionCostsCalculatorBuilder {
 
     private boolean addDefaultCostCalc = true;
 
+    private InsertionCostsCache insertionCostsCache;
+
+    private JobNeighborhoods jobNeighborhoods;
+
+    private int nGranularNeighbors;
+
+    private ExecutorService shipmentInsertionExecutor;
+
+    private int nuOfShipmentInsertionThreads;
+
+    private boolean lowerBoundPruning = false;
+
     /**
      * Constructs the builder.
      * <p>
@@ -186,6 +200,61 @@ public class JobInsertionCostsCalculatorBuilder {
         return this;
     }
 
+    /**
+     * Sets a cache that keeps insertion data of unchanged routes across iterations. It is only considered on local level.
+     * <p>
+     * <p>Note that activity costs are weighted with the completeness of the solution to be recreated, thus insertion
+     * data is only re-used for the same completeness ratio.
+     *
+     * @param insertionCostsCache the cache to look up insertion data
+     * @return this builder
+     */
+    public JobInsertionCostsCalculatorBuilder setInsertionCostsCache(InsertionCostsCache insertionCostsCache) {
+        this.insertionCostsCache = insertionCostsCache;
+        return this;
+    }
+
+    /**
+     * Sets a flag to build a calculator that only evaluates insertion positions adjacent to the nNeighbors nearest
+     * neighbors of the job to be inserted (granular insertion). It is only considered on local level.
+     *
+     * @param jobNeighborhoods initialised job neighborhoods
+     * @param nNeighbors       number of nearest neighbors to be considered
+     * @return this builder
+     */
+    public JobInsertionCostsCalculatorBuilder setGranularNeighborhood(JobNeighborhoods jobNeighborhoods, int nNeighbors) {
+        this.jobNeighborhoods = jobNeighborhoods;
+        this.nGranularNeighbors = nNeighbors;
+        return this;
+    }
+
+    /**
+     * Sets a flag to build a calculator that evaluates the pickup positions of a single route concurrently when inserting
+     * shipments into long routes. It is only considered on local level.
+     *
+     * @param executor    executor that runs the additional threads
+     * @param nuOfThreads max. number of threads that evaluate a single route, including the calling thread
+     * @return this builder
+     */
+    public JobInsertionCostsCalculatorBuilder setConcurrentShipmentInsertion(ExecutorService executor, int nuOfThreads) {
+        this.shipmentInsertionExecutor = executor;
+        this.nuOfShipmentInsertionThreads = nuOfThreads;
+        return this;
+    }
+
+    /**
+     * Sets a flag to build a calculator that discards a route before evaluating its insertion positions if a lower bound
+     * of the insertion costs is not lower than the best known costs. It is only considered on local level and requires
+     * the max. leg costs of routes to be updated (see {@link com.graphhopper.jsprit.core.algorithm.state.StateManager#updateMaxLegCostStates()}).
+     *
+     * @param lowerBoundPruning true if routes are to be discarded by a lower bound
+     * @return this builder
+     */
+    public JobInsertionCostsCalculatorBuilder setLowerBoundPruning(boolean lowerBoundPruning) {
+        this.lowerBoundPruning = lowerBoundPruning;
+        return this;
+    }
+
     public JobInsertionCostsCalculatorBuilder experimentalTimeScheduler(double timeSlice, int neighbors) {
         timeScheduling = true;
         this.timeSlice = timeSlice;
@@ -289,8 +358,16 @@ public class JobInsertionCostsCalculatorBuilder {
         };
         ShipmentInsertionCalculator shipmentInsertion = new ShipmentInsertionCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(),actInsertionCalc, constraintManager);
         shipmentInsertion.setJobActivityFactory(activityFactory);
+        if (shipmentInsertionExecutor != null) {
+            shipmentInsertion.setConcurrentMode(shipmentInsertionExecutor, nuOfShipmentInsertionThreads, ShipmentInsertionCalculator.DEFAULT_MIN_ACTIVITIES_FOR_CONCURRENCY);
+        }
         ServiceInsertionCalculator serviceInsertion = new ServiceInsertionCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(), actInsertionCalc, constraintManager);
         serviceInsertion.setJobActivityFactory(activityFactory);
+        if (jobNeighborhoods != null) {
+            GranularInsertionNeighborhood granularNeighborhood = new GranularInsertionNeighborhood(vrp.getJobs().values(), jobNeighborhoods, nGranularNeighbors);
+            serviceInsertion.setGranularNeighborhood(granularNeighborhood);
+            shipmentInsertion.setGranularNeighborhood(granularNeighborhood);
+        }
 
         BreakInsertionCalculator breakInsertionCalculator = new BreakInsertionCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(), actInsertionCalc, constraintManager);
         breakInsertionCalculator.setJobActivityFactory(activityFactory);
@@ -302,13 +379,25 @@ public class JobInsertionCostsCalculatorBuilder {
         switcher.put(Delivery.class, serviceInsertion);
         switcher.put(Break.class, breakInsertionCalculator);
 
-        CalculatorPlusListeners calculatorPlusListeners = new CalculatorPlusListeners(switcher);
+        CalculatorPlusListeners calculatorPlusListeners;
+        if (insertionCostsCache != null) {
+            LocalActivityInsertionCostsCalculator localCalc = configLocal == null ? null : (LocalActivityInsertionCostsCalculator) actInsertionCalc;
+            calculatorPlusListeners = new CalculatorPlusListeners(withLowerBound(new CachedJobInsertionCostsCalculator(switcher, insertionCostsCache, localCalc), statesManager));
+            calculatorPlusListeners.insertionListener.add(insertionCostsCache);
+        } else {
+            calculatorPlusListeners = new CalculatorPlusListeners(withLowerBound(switcher, statesManager));
+        }
         if (configLocal != null) {
             calculatorPlusListeners.insertionListener.add(configLocal);
         }
         return calculatorPlusListeners;
     }
 
+    private JobInsertionCostsCalculator withLowerBound(JobInsertionCostsCalculator calculator, RouteAndActivityStateGetter statesManager) {
+        if (!lowerBoundPruning) return calculator;
+        return new LowerBoundJobInsertionCostsCalculator(calculator, vrp.getTransportCosts(), statesManager);
+    }
+
     private CalculatorPlusListeners createStandardRoute(final VehicleRoutingProblem vrp, RouteAndActivityStateGetter activityStates2, int forwardLooking, int solutionMemory) {
         ActivityInsertionCostsCalculator routeLevelCostEstimator;
         if (activityInsertionCostCalculator == null && addDefaultCostCalc) {
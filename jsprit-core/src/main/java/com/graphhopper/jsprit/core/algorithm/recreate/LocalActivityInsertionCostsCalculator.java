@@ -26,6 +26,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.DeliverShipme
 import com.graphhopper.jsprit.core.problem.solution.route.activity.End;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
+import com.graphhopper.jsprit.core.problem.solution.route.state.TypedRouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 
 /**
@@ -47,13 +48,13 @@ class LocalActivityInsertionCostsCalculator implements ActivityInsertionCostsCal
 
     private double solutionCompletenessRatio = 1.;
 
-    private RouteAndActivityStateGetter stateManager;
+    private TypedRouteAndActivityStateGetter stateManager;
 
     public LocalActivityInsertionCostsCalculator(VehicleRoutingTransportCosts routingCosts, VehicleRoutingActivityCosts actCosts, RouteAndActivityStateGetter stateManager) {
         super();
         this.routingCosts = routingCosts;
         this.activityCosts = actCosts;
-        this.stateManager = stateManager;
+        this.stateManager = TypedRouteAndActivityStateGetter.Adapter.of(stateManager);
     }
 
     @Override
@@ -89,8 +90,7 @@ class LocalActivityInsertionCostsCalculator implements ActivityInsertionCostsCal
             double actCost_nextAct = activityCosts.getActivityCost(nextAct, arrTime_nextAct, iFacts.getRoute().getDriver(), iFacts.getRoute().getVehicle());
 
             double endTimeDelay_nextAct = Math.max(0, endTime_nextAct_new - endTime_nextAct_old);
-            Double futureWaiting = stateManager.getActivityState(nextAct, iFacts.getRoute().getVehicle(), InternalStates.FUTURE_WAITING, Double.class);
-            if (futureWaiting == null) futureWaiting = 0.;
+            double futureWaiting = stateManager.getActivityState(nextAct, iFacts.getRoute().getVehicle(), InternalStates.Typed.FUTURE_WAITING, 0.);
             double waitingTime_savings_timeUnit = Math.min(futureWaiting, endTimeDelay_nextAct);
             double waitingTime_savings = waitingTime_savings_timeUnit * iFacts.getRoute().getVehicle().getType().getVehicleCostParams().perWaitingTimeUnit;
             oldCosts += solutionCompletenessRatio * activityCostsWeight * waitingTime_savings;
@@ -110,4 +110,8 @@ class LocalActivityInsertionCostsCalculator implements ActivityInsertionCostsCal
     public void setSolutionCompletenessRatio(double solutionCompletenessRatio) {
         this.solutionCompletenessRatio = solutionCompletenessRatio;
     }
+
+    public double getSolutionCompletenessRatio() {
+        return solutionCompletenessRatio;
+    }
 }
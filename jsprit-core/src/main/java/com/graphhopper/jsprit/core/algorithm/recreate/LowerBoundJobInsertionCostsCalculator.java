@@ -0,0 +1,143 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.state.InternalStates;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.job.Break;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
+import com.graphhopper.jsprit.core.problem.solution.route.state.TypedRouteAndActivityStateGetter;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+import java.util.List;
+
+/**
+ * Discards a route before its insertion positions are evaluated if a lower bound of the costs of inserting the job
+ * into this route is not lower than the best known costs. Since the underlying calculators only return insertions
+ * that are cheaper than the best known costs, the resulting insertion data are the same as without this filter.
+ * <p>
+ * <p>Inserting a location between two activities costs at least the min. transport costs from any activity of the route
+ * to the location plus the min. transport costs from the location to any activity of the route minus the max.
+ * transport costs of a single leg of the route ({@link InternalStates#MAX_LEG_COSTS}). Thus, the bound is only valid if
+ * transport costs do not depend on time and if activity costs and soft constraints do not lower the costs of an
+ * insertion. Empty routes and routes that are evaluated with another vehicle than their own are never discarded.
+ */
+final class LowerBoundJobInsertionCostsCalculator implements JobInsertionCostsCalculator {
+
+    private static final double RELATIVE_TOLERANCE = 1e-12;
+
+    private final JobInsertionCostsCalculator insertionCalculator;
+
+    private final VehicleRoutingTransportCosts transportCosts;
+
+    private final TypedRouteAndActivityStateGetter states;
+
+    LowerBoundJobInsertionCostsCalculator(JobInsertionCostsCalculator insertionCalculator, VehicleRoutingTransportCosts transportCosts, RouteAndActivityStateGetter states) {
+        this.insertionCalculator = insertionCalculator;
+        this.transportCosts = transportCosts;
+        this.states = TypedRouteAndActivityStateGetter.Adapter.of(states);
+    }
+
+    @Override
+    public InsertionData getInsertionData(VehicleRoute currentRoute, Job newJob, Vehicle newVehicle, double newVehicleDepartureTime, Driver newDriver, double bestKnownCosts) {
+        if (bestKnownCosts != Double.MAX_VALUE && newVehicle == currentRoute.getVehicle() && !currentRoute.isEmpty()
+            && exceeds(lowerBound(currentRoute, newJob, bestKnownCosts), bestKnownCosts)) {
+            return new InsertionData.NoInsertionFound();
+        }
+        return insertionCalculator.getInsertionData(currentRoute, newJob, newVehicle, newVehicleDepartureTime, newDriver, bestKnownCosts);
+    }
+
+    private static boolean exceeds(double lowerBound, double bestKnownCosts) {
+        return lowerBound >= bestKnownCosts + Math.abs(bestKnownCosts) * RELATIVE_TOLERANCE;
+    }
+
+    /**
+     * Returns a lower bound of the insertion costs or -Double.MAX_VALUE as soon as it is apparent that it would be
+     * lower than bestKnownCosts.
+     */
+    private double lowerBound(VehicleRoute route, Job job, double bestKnownCosts) {
+        if (job instanceof Break) return -Double.MAX_VALUE;
+        double maxLegCosts = states.getRouteState(route, InternalStates.MAX_LEG_COSTS, Double.NaN);
+        if (Double.isNaN(maxLegCosts)) return -Double.MAX_VALUE;
+        if (job instanceof Service) {
+            Location location = ((Service) job).getLocation();
+            return lowerBound(route, location, location, false, 0., maxLegCosts, bestKnownCosts);
+        }
+        if (job instanceof Shipment) {
+            Shipment shipment = (Shipment) job;
+            double pickupToDelivery = transportCosts.getTransportCost(shipment.getPickupLocation(), shipment.getDeliveryLocation(),
+                route.getDepartureTime(), route.getDriver(), route.getVehicle());
+            return lowerBound(route, shipment.getPickupLocation(), shipment.getDeliveryLocation(), true, pickupToDelivery, maxLegCosts, bestKnownCosts);
+        }
+        return -Double.MAX_VALUE;
+    }
+
+    /*
+     * A service is handled as a shipment whose pickup and delivery location is the same. If the delivery directly
+     * follows the pickup, the insertion costs at least minCosts(route -> pickup) + costs(pickup -> delivery) +
+     * minCosts(delivery -> route) - maxLegCosts, otherwise both detours are paid separately. If the vehicle does not
+     * return to its depot, the last detour may end at the new activity.
+     */
+    private double lowerBound(VehicleRoute route, Location pickup, Location delivery, boolean shipment, double pickupToDelivery, double maxLegCosts, double bestKnownCosts) {
+        Vehicle vehicle = route.getVehicle();
+        Driver driver = route.getDriver();
+        boolean openRoute = !vehicle.isReturnToDepot();
+        TourActivity start = route.getStart();
+        double minToPickup = transportCosts.getTransportCost(start.getLocation(), pickup, start.getEndTime(), driver, vehicle);
+        double minToDelivery = shipment ? transportCosts.getTransportCost(start.getLocation(), delivery, start.getEndTime(), driver, vehicle) : 0.;
+        double minFromPickup = Double.MAX_VALUE;
+        double minFromDelivery = Double.MAX_VALUE;
+        double lowerBound = -Double.MAX_VALUE;
+        List<TourActivity> activities = route.getActivities();
+        for (TourActivity act : activities) {
+            minToPickup = Math.min(minToPickup, transportCosts.getTransportCost(act.getLocation(), pickup, act.getEndTime(), driver, vehicle));
+            minFromDelivery = Math.min(minFromDelivery, transportCosts.getTransportCost(delivery, act.getLocation(), act.getArrTime(), driver, vehicle));
+            if (shipment) {
+                minToDelivery = Math.min(minToDelivery, transportCosts.getTransportCost(act.getLocation(), delivery, act.getEndTime(), driver, vehicle));
+                minFromPickup = Math.min(minFromPickup, transportCosts.getTransportCost(pickup, act.getLocation(), act.getArrTime(), driver, vehicle));
+            }
+            lowerBound = lowerBound(minToPickup, minFromPickup, minToDelivery, minFromDelivery, pickupToDelivery, maxLegCosts, openRoute, shipment);
+            if (lowerBound < bestKnownCosts) return -Double.MAX_VALUE;
+        }
+        if (!openRoute) {
+            TourActivity end = route.getEnd();
+            minFromDelivery = Math.min(minFromDelivery, transportCosts.getTransportCost(delivery, end.getLocation(), end.getArrTime(), driver, vehicle));
+            if (shipment) {
+                minFromPickup = Math.min(minFromPickup, transportCosts.getTransportCost(pickup, end.getLocation(), end.getArrTime(), driver, vehicle));
+            }
+            lowerBound = lowerBound(minToPickup, minFromPickup, minToDelivery, minFromDelivery, pickupToDelivery, maxLegCosts, false, shipment);
+        }
+        return lowerBound;
+    }
+
+    private static double lowerBound(double minToPickup, double minFromPickup, double minToDelivery, double minFromDelivery,
+                                     double pickupToDelivery, double maxLegCosts, boolean openRoute, boolean shipment) {
+        double lastDetour = minFromDelivery - maxLegCosts;
+        if (openRoute) lastDetour = Math.min(lastDetour, 0.);
+        if (!shipment) return minToPickup + lastDetour;
+        return minToPickup + lastDetour + Math.min(pickupToDelivery, minFromPickup - maxLegCosts + minToDelivery);
+    }
+
+}
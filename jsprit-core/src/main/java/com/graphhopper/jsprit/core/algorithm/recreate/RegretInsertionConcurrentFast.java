@@ -29,7 +29,9 @@ import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Insertion based on regret approach.
@@ -38,6 +40,10 @@ import java.util.concurrent.ExecutorService;
  * between secondBest and firstBest, plus additional scoring variables that can defined in this.ScoringFunction.
  * The idea is that if the cost of the secondBest alternative is way higher than the first best, it seems to be important to insert this
  * customer immediatedly. If difference is not that high, it might not impact solution if this customer is inserted later.
+ * <p>
+ * <p>Both updating insertion data and scoring unassigned jobs are distributed among the threads of the executor. Scoring
+ * is split into batches of jobs whose best jobs are compared in the order of the batches, i.e. the selected job does
+ * not depend on the number of batches.
  *
  * @author stefan schroeder
  */
@@ -46,6 +52,8 @@ public class RegretInsertionConcurrentFast extends AbstractInsertionStrategy {
 
     private static Logger logger = LoggerFactory.getLogger(RegretInsertionConcurrentFast.class);
 
+    private static final int MIN_JOBS_PER_BATCH = 10;
+
     private ScoringFunction scoringFunction;
 
     private final JobInsertionCostsCalculator insertionCostsCalculator;
@@ -60,6 +68,8 @@ public class RegretInsertionConcurrentFast extends AbstractInsertionStrategy {
 
     private DependencyType[] dependencyTypes = null;
 
+    private final int nuOfBatches;
+
 
     /**
      * Sets the scoring function.
@@ -73,7 +83,19 @@ public class RegretInsertionConcurrentFast extends AbstractInsertionStrategy {
     }
 
     public RegretInsertionConcurrentFast(JobInsertionCostsCalculator jobInsertionCalculator, VehicleRoutingProblem vehicleRoutingProblem, ExecutorService executorService, VehicleFleetManager fleetManager) {
+        this(jobInsertionCalculator, vehicleRoutingProblem, executorService, 1, fleetManager);
+    }
+
+    /**
+     * @param jobInsertionCalculator the insertion costs calculator
+     * @param vehicleRoutingProblem  the problem
+     * @param executorService        executor used to update insertion data and to score jobs
+     * @param nuOfBatches            max. number of batches unassigned jobs are scored in, typically the number of threads
+     * @param fleetManager           the fleet manager
+     */
+    public RegretInsertionConcurrentFast(JobInsertionCostsCalculator jobInsertionCalculator, VehicleRoutingProblem vehicleRoutingProblem, ExecutorService executorService, int nuOfBatches, VehicleFleetManager fleetManager) {
         super(vehicleRoutingProblem);
+        this.nuOfBatches = nuOfBatches;
         this.scoringFunction = new DefaultScorer(vehicleRoutingProblem);
         this.insertionCostsCalculator = jobInsertionCalculator;
         this.vrp = vehicleRoutingProblem;
@@ -137,7 +159,7 @@ public class RegretInsertionConcurrentFast extends AbstractInsertionStrategy {
         }
 
         List<Job> jobs = new ArrayList<Job>(unassignedJobs);
-        TreeSet<VersionedInsertionData>[] priorityQueues = new TreeSet[vrp.getJobs().values().size() + 2];
+        VersionedInsertionDataQueue[] priorityQueues = new VersionedInsertionDataQueue[vrp.getJobs().values().size() + 2];
         VehicleRoute lastModified = null;
         boolean firstRun = true;
         int updateRound = 0;
@@ -149,7 +171,7 @@ public class RegretInsertionConcurrentFast extends AbstractInsertionStrategy {
             updateInsertionData(priorityQueues, routes, unassignedJobList, updateRound,firstRun,lastModified,updates);
             if(firstRun) firstRun = false;
             updateRound++;
-            ScoredJob bestScoredJob = InsertionDataUpdater.getBest(switchAllowed,initialVehicleIds,fleetManager, insertionCostsCalculator, scoringFunction, priorityQueues, updates, unassignedJobList, badJobList);
+            ScoredJob bestScoredJob = getBest(priorityQueues, updates, unassignedJobList, badJobList);
             if (bestScoredJob != null) {
                 if (bestScoredJob.isNewRoute()) {
                     routes.add(bestScoredJob.getRoute());
@@ -169,12 +191,12 @@ public class RegretInsertionConcurrentFast extends AbstractInsertionStrategy {
         return badJobs;
     }
 
-    private void updateInsertionData(final TreeSet<VersionedInsertionData>[] priorityQueues, final Collection<VehicleRoute> routes, List<Job> unassignedJobList, final int updateRound, final boolean firstRun, final VehicleRoute lastModified, Map<VehicleRoute, Integer> updates) {
+    private void updateInsertionData(final VersionedInsertionDataQueue[] priorityQueues, final Collection<VehicleRoute> routes, List<Job> unassignedJobList, final int updateRound, final boolean firstRun, final VehicleRoute lastModified, Map<VehicleRoute, Integer> updates) {
         List<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>();
         boolean updatedAllRoutes = false;
         for (final Job unassignedJob : unassignedJobList) {
             if(priorityQueues[unassignedJob.getIndex()] == null){
-                priorityQueues[unassignedJob.getIndex()] = new TreeSet<>(InsertionDataUpdater.getComparator());
+                priorityQueues[unassignedJob.getIndex()] = new VersionedInsertionDataQueue();
             }
             if(firstRun) {
                 updatedAllRoutes = true;
@@ -209,7 +231,44 @@ public class RegretInsertionConcurrentFast extends AbstractInsertionStrategy {
         }
     }
 
-    private void makeCallables(List<Callable<Boolean>> tasks, boolean updateAll, final TreeSet<VersionedInsertionData> priorityQueue, final int updateRound, final Job unassignedJob, final Collection<VehicleRoute> routes, final VehicleRoute lastModified) {
+    private ScoredJob getBest(final VersionedInsertionDataQueue[] priorityQueues, final Map<VehicleRoute, Integer> updates, List<Job> unassignedJobList, List<ScoredJob> badJobList) {
+        int nuOfBatches = Math.min(this.nuOfBatches, unassignedJobList.size() / MIN_JOBS_PER_BATCH);
+        if (nuOfBatches <= 1) {
+            return InsertionDataUpdater.getBest(switchAllowed, initialVehicleIds, fleetManager, insertionCostsCalculator, scoringFunction, priorityQueues, updates, unassignedJobList, badJobList);
+        }
+        List<Future<ScoredJob>> futures = new ArrayList<>(nuOfBatches);
+        List<List<ScoredJob>> badJobsOfBatches = new ArrayList<>(nuOfBatches);
+        for (int i = 0; i < nuOfBatches; i++) {
+            final List<Job> batch = unassignedJobList.subList(unassignedJobList.size() * i / nuOfBatches, unassignedJobList.size() * (i + 1) / nuOfBatches);
+            final List<ScoredJob> badJobsOfBatch = new ArrayList<>();
+            badJobsOfBatches.add(badJobsOfBatch);
+            futures.add(executor.submit(new Callable<ScoredJob>() {
+                @Override
+                public ScoredJob call() {
+                    return InsertionDataUpdater.getBest(switchAllowed, initialVehicleIds, fleetManager, insertionCostsCalculator, scoringFunction, priorityQueues, updates, batch, badJobsOfBatch);
+                }
+            }));
+        }
+        ScoredJob bestScoredJob = null;
+        try {
+            for (int i = 0; i < nuOfBatches; i++) {
+                ScoredJob scoredJob = futures.get(i).get();
+                badJobList.addAll(badJobsOfBatches.get(i));
+                //only a higher score replaces the best of previous batches, as it is the case when scoring sequentially
+                if (scoredJob != null && (bestScoredJob == null || scoredJob.getScore() > bestScoredJob.getScore())) {
+                    bestScoredJob = scoredJob;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+        return bestScoredJob;
+    }
+
+    private void makeCallables(List<Callable<Boolean>> tasks, boolean updateAll, final VersionedInsertionDataQueue priorityQueue, final int updateRound, final Job unassignedJob, final Collection<VehicleRoute> routes, final VehicleRoute lastModified) {
         if(updateAll) {
             tasks.add(new Callable<Boolean>() {
                 @Override
@@ -57,7 +57,7 @@ class RouteLevelActivityInsertionCostsEstimator implements ActivityInsertionCost
         path.add(nextAct);
         int actIndex;
         if (prevAct instanceof Start) actIndex = 0;
-        else actIndex = iFacts.getRoute().getTourActivities().getActivities().indexOf(nextAct);
+        else actIndex = iFacts.getRoute().getTourActivities().indexOf(nextAct);
         if (nuOfActivities2LookForward > 0 && !(nextAct instanceof End)) {
             path.addAll(getForwardLookingPath(iFacts.getRoute(), actIndex));
         }
@@ -19,6 +19,7 @@ package com.graphhopper.jsprit.core.algorithm.recreate;
 
 import com.graphhopper.jsprit.core.problem.JobActivityFactory;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint.ConstraintsStatus;
 import com.graphhopper.jsprit.core.problem.constraint.SoftActivityConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.SoftRouteConstraint;
@@ -27,7 +28,6 @@ import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import com.graphhopper.jsprit.core.problem.driver.Driver;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.job.Service;
-import com.graphhopper.jsprit.core.problem.misc.ActivityContext;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.End;
@@ -38,9 +38,8 @@ import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * Calculator that calculates the best insertion position for a {@link Service}.
@@ -71,6 +70,8 @@ final class ServiceInsertionCalculator extends AbstractInsertionCalculator {
 
     private ConstraintManager constraintManager;
 
+    private GranularInsertionNeighborhood granularNeighborhood;
+
     public ServiceInsertionCalculator(VehicleRoutingTransportCosts routingCosts, VehicleRoutingActivityCosts activityCosts, ActivityInsertionCostsCalculator additionalTransportCostsCalculator, ConstraintManager constraintManager) {
         super();
         this.transportCosts = routingCosts;
@@ -87,6 +88,16 @@ final class ServiceInsertionCalculator extends AbstractInsertionCalculator {
         this.activityFactory = jobActivityFactory;
     }
 
+    /**
+     * Restricts insertion positions to those adjacent to the nearest neighbors of the job to be inserted. If it is not set,
+     * all positions are evaluated.
+     *
+     * @param granularNeighborhood the neighborhood that determines candidate positions
+     */
+    void setGranularNeighborhood(GranularInsertionNeighborhood granularNeighborhood) {
+        this.granularNeighborhood = granularNeighborhood;
+    }
+
     @Override
     public String toString() {
         return "[name=calculatesServiceInsertion]";
@@ -98,11 +109,12 @@ final class ServiceInsertionCalculator extends AbstractInsertionCalculator {
      */
     @Override
     public InsertionData getInsertionData(final VehicleRoute currentRoute, final Job jobToInsert, final Vehicle newVehicle, double newVehicleDepartureTime, final Driver newDriver, final double bestKnownCosts) {
+        InsertionWorkspace workspace = getWorkspace();
         JobInsertionContext insertionContext = new JobInsertionContext(currentRoute, jobToInsert, newVehicle, newDriver, newVehicleDepartureTime);
         Service service = (Service) jobToInsert;
         int insertionIndex = InsertionData.NO_INDEX;
 
-        TourActivity deliveryAct2Insert = activityFactory.createActivities(service).get(0);
+        TourActivity deliveryAct2Insert = workspace.probeActivities(service, activityFactory).get(0);
         insertionContext.getAssociatedActivities().add(deliveryAct2Insert);
 
         /*
@@ -111,7 +123,7 @@ final class ServiceInsertionCalculator extends AbstractInsertionCalculator {
         InsertionData noInsertion = checkRouteContraints(insertionContext, constraintManager);
         if (noInsertion != null) return noInsertion;
 
-        Collection<String> failedActivityConstraints = new ArrayList<>();
+        List<HardActivityConstraint> failedActivityConstraints = workspace.failedConstraints();
 
         /*
         check soft constraints at route level
@@ -120,14 +132,15 @@ final class ServiceInsertionCalculator extends AbstractInsertionCalculator {
 
         double bestCost = bestKnownCosts;
         additionalICostsAtRouteLevel += additionalAccessEgressCalculator.getCosts(insertionContext);
-		TimeWindow bestTimeWindow = null;
+        TimeWindow bestTimeWindow = null;
 
         /*
         generate new start and end for new vehicle
          */
-        Start start = new Start(newVehicle.getStartLocation(), newVehicle.getEarliestDeparture(), Double.MAX_VALUE);
-        start.setEndTime(newVehicleDepartureTime);
-        End end = new End(newVehicle.getEndLocation(), 0.0, newVehicle.getLatestArrival());
+        Start start = workspace.start(newVehicle, Double.MAX_VALUE, newVehicleDepartureTime);
+        End end = workspace.end(newVehicle);
+
+        List<TimeWindow> timeWindows = workspace.timeWindows(service.getTimeWindows());
 
         TourActivity prevAct = start;
         double prevActStartTime = newVehicleDepartureTime;
@@ -142,26 +155,29 @@ final class ServiceInsertionCalculator extends AbstractInsertionCalculator {
                 tourEnd = true;
             }
             boolean not_fulfilled_break = true;
-			for(TimeWindow timeWindow : service.getTimeWindows()) {
-                deliveryAct2Insert.setTheoreticalEarliestOperationStartTime(timeWindow.getStart());
-                deliveryAct2Insert.setTheoreticalLatestOperationStartTime(timeWindow.getEnd());
-                ActivityContext activityContext = new ActivityContext();
-                activityContext.setInsertionIndex(actIndex);
-                insertionContext.setActivityContext(activityContext);
-                ConstraintsStatus status = fulfilled(insertionContext, prevAct, deliveryAct2Insert, nextAct, prevActStartTime, failedActivityConstraints, constraintManager);
-                if (status.equals(ConstraintsStatus.FULFILLED)) {
-                    double additionalICostsAtActLevel = softActivityConstraint.getCosts(insertionContext, prevAct, deliveryAct2Insert, nextAct, prevActStartTime);
-                    double additionalTransportationCosts = additionalTransportCostsCalculator.getCosts(insertionContext, prevAct, nextAct, deliveryAct2Insert, prevActStartTime);
-                    if (additionalICostsAtRouteLevel + additionalICostsAtActLevel + additionalTransportationCosts < bestCost) {
-                        bestCost = additionalICostsAtRouteLevel + additionalICostsAtActLevel + additionalTransportationCosts;
-                        insertionIndex = actIndex;
-                        bestTimeWindow = timeWindow;
+            if (granularNeighborhood != null && !granularNeighborhood.isCandidate(service, prevAct, nextAct)) {
+                not_fulfilled_break = false;
+            } else {
+                for (int t = 0; t < timeWindows.size(); t++) {
+                    TimeWindow timeWindow = timeWindows.get(t);
+                    deliveryAct2Insert.setTheoreticalEarliestOperationStartTime(timeWindow.getStart());
+                    deliveryAct2Insert.setTheoreticalLatestOperationStartTime(timeWindow.getEnd());
+                    insertionContext.setActivityContext(workspace.activityContext(actIndex));
+                    ConstraintsStatus status = fulfilled(insertionContext, prevAct, deliveryAct2Insert, nextAct, prevActStartTime, failedActivityConstraints, constraintManager);
+                    if (status.equals(ConstraintsStatus.FULFILLED)) {
+                        double additionalICostsAtActLevel = softActivityConstraint.getCosts(insertionContext, prevAct, deliveryAct2Insert, nextAct, prevActStartTime);
+                        double additionalTransportationCosts = additionalTransportCostsCalculator.getCosts(insertionContext, prevAct, nextAct, deliveryAct2Insert, prevActStartTime);
+                        if (additionalICostsAtRouteLevel + additionalICostsAtActLevel + additionalTransportationCosts < bestCost) {
+                            bestCost = additionalICostsAtRouteLevel + additionalICostsAtActLevel + additionalTransportationCosts;
+                            insertionIndex = actIndex;
+                            bestTimeWindow = timeWindow;
+                        }
+                        not_fulfilled_break = false;
+                    } else if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
+                        not_fulfilled_break = false;
                     }
-                    not_fulfilled_break = false;
-                } else if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
-                    not_fulfilled_break = false;
                 }
-			}
+            }
             if(not_fulfilled_break) break;
             double nextActArrTime = prevActStartTime + transportCosts.getTransportTime(prevAct.getLocation(), nextAct.getLocation(), prevActStartTime, newDriver, newVehicle);
             prevActStartTime = Math.max(nextActArrTime, nextAct.getTheoreticalEarliestOperationStartTime()) + activityCosts.getActivityDuration(nextAct,nextActArrTime,newDriver,newVehicle);
@@ -169,11 +185,10 @@ final class ServiceInsertionCalculator extends AbstractInsertionCalculator {
             actIndex++;
         }
         if(insertionIndex == InsertionData.NO_INDEX) {
-            InsertionData emptyInsertionData = new InsertionData.NoInsertionFound();
-            emptyInsertionData.getFailedConstraintNames().addAll(failedActivityConstraints);
-            return emptyInsertionData;
+            return createNoInsertionFound(failedActivityConstraints);
         }
         InsertionData insertionData = new InsertionData(bestCost, InsertionData.NO_INDEX, insertionIndex, newVehicle, newDriver);
+        deliveryAct2Insert = deliveryAct2Insert.duplicate();
         deliveryAct2Insert.setTheoreticalEarliestOperationStartTime(bestTimeWindow.getStart());
         deliveryAct2Insert.setTheoreticalLatestOperationStartTime(bestTimeWindow.getEnd());
         insertionData.getEvents().add(new InsertActivity(currentRoute, newVehicle, deliveryAct2Insert, insertionIndex));
@@ -17,8 +17,10 @@
  */
 package com.graphhopper.jsprit.core.algorithm.recreate;
 
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
 import com.graphhopper.jsprit.core.problem.JobActivityFactory;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint.ConstraintsStatus;
 import com.graphhopper.jsprit.core.problem.constraint.SoftActivityConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.SoftRouteConstraint;
@@ -40,12 +42,21 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 final class ShipmentInsertionCalculator extends AbstractInsertionCalculator {
 
     private static final Logger logger = LoggerFactory.getLogger(ShipmentInsertionCalculator.class);
 
+    /**
+     * Routes with fewer activities are evaluated by the calling thread only, since distributing the pickup positions
+     * costs more than it saves.
+     */
+    static final int DEFAULT_MIN_ACTIVITIES_FOR_CONCURRENCY = 50;
+
     private final ConstraintManager constraintManager;
 
 //    private HardRouteConstraint hardRouteLevelConstraint;
@@ -66,6 +77,14 @@ final class ShipmentInsertionCalculator extends AbstractInsertionCalculator {
 
     private AdditionalAccessEgressCalculator additionalAccessEgressCalculator;
 
+    private GranularInsertionNeighborhood granularNeighborhood;
+
+    private ExecutorService executor;
+
+    private int nuOfThreads = 1;
+
+    private int minNuOfActivities = DEFAULT_MIN_ACTIVITIES_FOR_CONCURRENCY;
+
     public ShipmentInsertionCalculator(VehicleRoutingTransportCosts routingCosts, VehicleRoutingActivityCosts activityCosts, ActivityInsertionCostsCalculator activityInsertionCostsCalculator, ConstraintManager constraintManager) {
         super();
         this.activityInsertionCostsCalculator = activityInsertionCostsCalculator;
@@ -82,6 +101,32 @@ final class ShipmentInsertionCalculator extends AbstractInsertionCalculator {
         this.activityFactory = activityFactory;
     }
 
+    /**
+     * Restricts insertion positions to those adjacent to the nearest neighbors of the job to be inserted. If it is not set,
+     * all positions are evaluated.
+     *
+     * @param granularNeighborhood the neighborhood that determines candidate positions
+     */
+    void setGranularNeighborhood(GranularInsertionNeighborhood granularNeighborhood) {
+        this.granularNeighborhood = granularNeighborhood;
+    }
+
+    /**
+     * Evaluates the pickup positions of a route concurrently if the route has at least minNuOfActivities activities.
+     * The calling thread evaluates pickup positions as well, and takes over all positions that are not claimed by other
+     * threads. Thus, the executor can be the one that already evaluates routes concurrently (e.g. in
+     * {@link BestInsertionConcurrent}) without the risk of a deadlock.
+     *
+     * @param executor          executor that runs the additional threads
+     * @param nuOfThreads       max. number of threads that evaluate the positions of a single route, including the calling thread
+     * @param minNuOfActivities min. number of activities of a route to evaluate its positions concurrently
+     */
+    void setConcurrentMode(ExecutorService executor, int nuOfThreads, int minNuOfActivities) {
+        this.executor = executor;
+        this.nuOfThreads = nuOfThreads;
+        this.minNuOfActivities = minNuOfActivities;
+    }
+
     @Override
     public String toString() {
         return "[name=calculatesServiceInsertion]";
@@ -93,10 +138,12 @@ final class ShipmentInsertionCalculator extends AbstractInsertionCalculator {
      */
     @Override
     public InsertionData getInsertionData(final VehicleRoute currentRoute, final Job jobToInsert, final Vehicle newVehicle, double newVehicleDepartureTime, final Driver newDriver, final double bestKnownCosts) {
+        InsertionWorkspace workspace = getWorkspace();
         JobInsertionContext insertionContext = new JobInsertionContext(currentRoute, jobToInsert, newVehicle, newDriver, newVehicleDepartureTime);
         Shipment shipment = (Shipment) jobToInsert;
-        TourActivity pickupShipment = activityFactory.createActivities(shipment).get(0);
-        TourActivity deliverShipment = activityFactory.createActivities(shipment).get(1);
+        List<AbstractActivity> probeActivities = workspace.probeActivities(shipment, activityFactory);
+        TourActivity pickupShipment = probeActivities.get(0);
+        TourActivity deliverShipment = probeActivities.get(1);
         insertionContext.getAssociatedActivities().add(pickupShipment);
         insertionContext.getAssociatedActivities().add(deliverShipment);
 
@@ -110,33 +157,200 @@ final class ShipmentInsertionCalculator extends AbstractInsertionCalculator {
          */
         double additionalICostsAtRouteLevel = softRouteConstraint.getCosts(insertionContext);
 
-        double bestCost = bestKnownCosts;
         additionalICostsAtRouteLevel += additionalAccessEgressCalculator.getCosts(insertionContext);
 
-        int pickupInsertionIndex = InsertionData.NO_INDEX;
-        int deliveryInsertionIndex = InsertionData.NO_INDEX;
+        Start start = workspace.start(newVehicle, newVehicle.getLatestArrival(), newVehicleDepartureTime);
 
-        TimeWindow bestPickupTimeWindow = null;
-        TimeWindow bestDeliveryTimeWindow = null;
+        End end = workspace.end(newVehicle);
 
-        Start start = new Start(newVehicle.getStartLocation(), newVehicle.getEarliestDeparture(), newVehicle.getLatestArrival());
-        start.setEndTime(newVehicleDepartureTime);
+        List<TimeWindow> pickupTimeWindows = workspace.timeWindows(shipment.getPickupTimeWindows());
+        List<TimeWindow> deliveryTimeWindows = workspace.deliveryTimeWindows(shipment.getDeliveryTimeWindows());
 
-        End end = new End(newVehicle.getEndLocation(), 0.0, newVehicle.getLatestArrival());
+        List<TourActivity> activities = currentRoute.getTourActivities().getActivities();
 
-        ActivityContext pickupContext = new ActivityContext();
+        List<HardActivityConstraint> failedActivityConstraints = workspace.failedConstraints();
+
+        Candidate best;
+        if (executor != null && nuOfThreads > 1 && activities.size() >= minNuOfActivities) {
+            best = evaluateConcurrently(workspace, insertionContext, shipment, pickupShipment, deliverShipment, start, end, pickupTimeWindows,
+                deliveryTimeWindows, activities, additionalICostsAtRouteLevel, bestKnownCosts, failedActivityConstraints);
+        } else {
+            best = new Candidate(bestKnownCosts, null);
+            TourActivity prevAct = start;
+            double prevActEndTime = newVehicleDepartureTime;
+
+            //loops
+            int i = 0;
+            boolean tourEnd = false;
+            //pickupShipmentLoop
+            while (!tourEnd) {
+                TourActivity nextAct;
+                if (i < activities.size()) {
+                    nextAct = activities.get(i);
+                } else {
+                    nextAct = end;
+                    tourEnd = true;
+                }
 
-        TourActivity prevAct = start;
-        double prevActEndTime = newVehicleDepartureTime;
+                boolean pickupInsertionNotFulfilledBreak = true;
+                if (granularNeighborhood != null && !granularNeighborhood.isCandidate(shipment, prevAct, nextAct)) {
+                    pickupInsertionNotFulfilledBreak = false;
+                } else {
+                    for (int pt = 0; pt < pickupTimeWindows.size(); pt++) {
+                        TimeWindow pickupTimeWindow = pickupTimeWindows.get(pt);
+                        pickupShipment.setTheoreticalEarliestOperationStartTime(pickupTimeWindow.getStart());
+                        pickupShipment.setTheoreticalLatestOperationStartTime(pickupTimeWindow.getEnd());
+                        insertionContext.setActivityContext(workspace.activityContext(i));
+                        ConstraintsStatus pickupShipmentConstraintStatus = fulfilled(insertionContext, prevAct, pickupShipment, nextAct, prevActEndTime, failedActivityConstraints, constraintManager);
+                        if (pickupShipmentConstraintStatus.equals(ConstraintsStatus.NOT_FULFILLED)) {
+                            pickupInsertionNotFulfilledBreak = false;
+                            continue;
+                        } else if(pickupShipmentConstraintStatus.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
+                            continue;
+                        }
+                        else if (pickupShipmentConstraintStatus.equals(ConstraintsStatus.FULFILLED)) {
+                            pickupInsertionNotFulfilledBreak = false;
+                        }
+                        evaluateDeliveries(workspace, insertionContext, shipment, pickupShipment, deliverShipment, pickupTimeWindow, deliveryTimeWindows,
+                            activities, end, i, prevAct, nextAct, prevActEndTime, additionalICostsAtRouteLevel, failedActivityConstraints, best);
+                    }
+                }
+                if(pickupInsertionNotFulfilledBreak){
+                    break;
+                }
+                //update prevAct and endTime
+                double nextActArrTime = prevActEndTime + transportCosts.getTransportTime(prevAct.getLocation(), nextAct.getLocation(), prevActEndTime, newDriver, newVehicle);
+                prevActEndTime = Math.max(nextActArrTime, nextAct.getTheoreticalEarliestOperationStartTime()) + activityCosts.getActivityDuration(nextAct,nextActArrTime,newDriver,newVehicle);
+                prevAct = nextAct;
+                i++;
+            }
+        }
+        if (best.pickupInsertionIndex == InsertionData.NO_INDEX) {
+            return createNoInsertionFound(failedActivityConstraints);
+        }
+        InsertionData insertionData = new InsertionData(best.costs, best.pickupInsertionIndex, best.deliveryInsertionIndex, newVehicle, newDriver);
+        pickupShipment = pickupShipment.duplicate();
+        deliverShipment = deliverShipment.duplicate();
+        pickupShipment.setTheoreticalEarliestOperationStartTime(best.pickupTimeWindow.getStart());
+        pickupShipment.setTheoreticalLatestOperationStartTime(best.pickupTimeWindow.getEnd());
+        deliverShipment.setTheoreticalEarliestOperationStartTime(best.deliveryTimeWindow.getStart());
+        deliverShipment.setTheoreticalLatestOperationStartTime(best.deliveryTimeWindow.getEnd());
+        insertionData.setVehicleDepartureTime(newVehicleDepartureTime);
+        insertionData.getEvents().add(new InsertActivity(currentRoute, newVehicle, deliverShipment, best.deliveryInsertionIndex));
+        insertionData.getEvents().add(new InsertActivity(currentRoute, newVehicle, pickupShipment, best.pickupInsertionIndex));
+        insertionData.getEvents().add(new SwitchVehicle(currentRoute, newVehicle, newVehicleDepartureTime));
+        return insertionData;
+    }
 
-        //loops
-        int i = 0;
-        boolean tourEnd = false;
-        //pickupShipmentLoop
-        List<TourActivity> activities = currentRoute.getTourActivities().getActivities();
+    /**
+     * Evaluates the insertion of the pickup between prevAct and nextAct with its current time window, and of the
+     * delivery at every subsequent position. Improvements are recorded in best.
+     */
+    private void evaluateDeliveries(InsertionWorkspace workspace, JobInsertionContext insertionContext, Shipment shipment, TourActivity pickupShipment,
+                                    TourActivity deliverShipment, TimeWindow pickupTimeWindow, List<TimeWindow> deliveryTimeWindows, List<TourActivity> activities,
+                                    End end, int i, TourActivity prevAct, TourActivity nextAct, double prevActEndTime, double additionalICostsAtRouteLevel,
+                                    List<HardActivityConstraint> failedActivityConstraints, Candidate best) {
+        Vehicle newVehicle = insertionContext.getNewVehicle();
+        Driver newDriver = insertionContext.getNewDriver();
+        double additionalPickupICosts = softActivityConstraint.getCosts(insertionContext, prevAct, pickupShipment, nextAct, prevActEndTime);
+        double pickupAIC = calculate(insertionContext, prevAct, pickupShipment, nextAct, prevActEndTime);
+
+        TourActivity prevAct_deliveryLoop = pickupShipment;
+        double prevActEndTime_deliveryLoop = setPickupContext(workspace, insertionContext, pickupShipment, i, prevAct, prevActEndTime);
+
+        //deliverShipmentLoop
+        int j = i;
+        boolean tourEnd_deliveryLoop = false;
+        while (!tourEnd_deliveryLoop) {
+            TourActivity nextAct_deliveryLoop;
+            if (j < activities.size()) {
+                nextAct_deliveryLoop = activities.get(j);
+            } else {
+                nextAct_deliveryLoop = end;
+                tourEnd_deliveryLoop = true;
+            }
+
+            boolean deliveryInsertionNotFulfilledBreak = true;
+            if (granularNeighborhood != null && !granularNeighborhood.isCandidate(shipment, prevAct_deliveryLoop, nextAct_deliveryLoop)) {
+                deliveryInsertionNotFulfilledBreak = false;
+            } else {
+                for (int dt = 0; dt < deliveryTimeWindows.size(); dt++) {
+                    TimeWindow deliveryTimeWindow = deliveryTimeWindows.get(dt);
+                    deliverShipment.setTheoreticalEarliestOperationStartTime(deliveryTimeWindow.getStart());
+                    deliverShipment.setTheoreticalLatestOperationStartTime(deliveryTimeWindow.getEnd());
+                    insertionContext.setActivityContext(workspace.activityContext(j));
+                    ConstraintsStatus deliverShipmentConstraintStatus = fulfilled(insertionContext, prevAct_deliveryLoop, deliverShipment, nextAct_deliveryLoop, prevActEndTime_deliveryLoop, failedActivityConstraints, constraintManager);
+                    if (deliverShipmentConstraintStatus.equals(ConstraintsStatus.FULFILLED)) {
+                        double additionalDeliveryICosts = softActivityConstraint.getCosts(insertionContext, prevAct_deliveryLoop, deliverShipment, nextAct_deliveryLoop, prevActEndTime_deliveryLoop);
+                        double deliveryAIC = calculate(insertionContext, prevAct_deliveryLoop, deliverShipment, nextAct_deliveryLoop, prevActEndTime_deliveryLoop);
+                        double totalActivityInsertionCosts = pickupAIC + deliveryAIC
+                            + additionalICostsAtRouteLevel + additionalPickupICosts + additionalDeliveryICosts;
+                        if (best.isImprovedBy(totalActivityInsertionCosts)) {
+                            best.set(totalActivityInsertionCosts, i, j, pickupTimeWindow, deliveryTimeWindow);
+                        }
+                        deliveryInsertionNotFulfilledBreak = false;
+                    } else if (deliverShipmentConstraintStatus.equals(ConstraintsStatus.NOT_FULFILLED)) {
+                        deliveryInsertionNotFulfilledBreak = false;
+                    }
+                }
+            }
+            if (deliveryInsertionNotFulfilledBreak) break;
+            //update prevAct and endTime
+            double nextActArrTime = prevActEndTime_deliveryLoop + transportCosts.getTransportTime(prevAct_deliveryLoop.getLocation(), nextAct_deliveryLoop.getLocation(), prevActEndTime_deliveryLoop, newDriver, newVehicle);
+            prevActEndTime_deliveryLoop = Math.max(nextActArrTime, nextAct_deliveryLoop.getTheoreticalEarliestOperationStartTime()) + activityCosts.getActivityDuration(nextAct_deliveryLoop,nextActArrTime,newDriver,newVehicle);
+            prevAct_deliveryLoop = nextAct_deliveryLoop;
+            j++;
+        }
+    }
+
+    /**
+     * Sets the context of the pickup inserted at position i as related activity context, i.e. as the context the
+     * delivery is checked with.
+     *
+     * @return end time of the pickup
+     */
+    private double setPickupContext(InsertionWorkspace workspace, JobInsertionContext insertionContext, TourActivity pickupShipment, int i,
+                                    TourActivity prevAct, double prevActEndTime) {
+        Vehicle newVehicle = insertionContext.getNewVehicle();
+        Driver newDriver = insertionContext.getNewDriver();
+        double shipmentPickupArrTime = prevActEndTime + transportCosts.getTransportTime(prevAct.getLocation(), pickupShipment.getLocation(), prevActEndTime, newDriver, newVehicle);
+        double shipmentPickupEndTime = Math.max(shipmentPickupArrTime, pickupShipment.getTheoreticalEarliestOperationStartTime()) + activityCosts.getActivityDuration(pickupShipment, shipmentPickupArrTime, newDriver, newVehicle);
+
+        ActivityContext pickupContext = workspace.relatedActivityContext();
+        pickupContext.setArrivalTime(shipmentPickupArrTime);
+        pickupContext.setEndTime(shipmentPickupEndTime);
+        pickupContext.setInsertionIndex(i);
+        insertionContext.setRelatedActivityContext(pickupContext);
+        return shipmentPickupEndTime;
+    }
+
+    /**
+     * Evaluates the pickup positions of a route concurrently. First, the calling thread walks along the route to determine
+     * the departure times at all pickup positions and the pickup time windows that fulfill the hard activity constraints.
+     * This also determines where the sequential evaluation would stop. Afterwards, the delivery loops of these pickup
+     * positions are distributed among the calling thread and the threads of the executor.
+     * <p>
+     * <p>The best costs found so far are shared among the threads. A thread only records candidates that do not exceed
+     * them. Candidates are merged such that the result equals the result of the sequential evaluation.
+     */
+    private Candidate evaluateConcurrently(InsertionWorkspace workspace, JobInsertionContext insertionContext, final Shipment shipment,
+                                           TourActivity pickupShipment, TourActivity deliverShipment, Start start, End end,
+                                           final List<TimeWindow> pickupTimeWindows, List<TimeWindow> deliveryTimeWindows,
+                                           final List<TourActivity> activities, final double additionalICostsAtRouteLevel, final double bestKnownCosts,
+                                           List<HardActivityConstraint> failedActivityConstraints) {
+        final Vehicle newVehicle = insertionContext.getNewVehicle();
+        final Driver newDriver = insertionContext.getNewDriver();
+        int nuOfTimeWindows = pickupTimeWindows.size();
+        final TourActivity[] prevActs = new TourActivity[activities.size() + 1];
+        final double[] prevActEndTimes = new double[activities.size() + 1];
+        final boolean[] pickupFulfilled = new boolean[(activities.size() + 1) * nuOfTimeWindows];
 
-        List<String> failedActivityConstraints = new ArrayList<>();
+        TourActivity prevAct = start;
+        double prevActEndTime = insertionContext.getNewDepTime();
+        int nuOfPositions = 0;
+        boolean tourEnd = false;
         while (!tourEnd) {
+            int i = nuOfPositions;
             TourActivity nextAct;
             if (i < activities.size()) {
                 nextAct = activities.get(i);
@@ -144,110 +358,226 @@ final class ShipmentInsertionCalculator extends AbstractInsertionCalculator {
                 nextAct = end;
                 tourEnd = true;
             }
+            prevActs[i] = prevAct;
+            prevActEndTimes[i] = prevActEndTime;
+            nuOfPositions++;
 
             boolean pickupInsertionNotFulfilledBreak = true;
-            for(TimeWindow pickupTimeWindow : shipment.getPickupTimeWindows()) {
-                pickupShipment.setTheoreticalEarliestOperationStartTime(pickupTimeWindow.getStart());
-                pickupShipment.setTheoreticalLatestOperationStartTime(pickupTimeWindow.getEnd());
-                ActivityContext activityContext = new ActivityContext();
-                activityContext.setInsertionIndex(i);
-                insertionContext.setActivityContext(activityContext);
-                ConstraintsStatus pickupShipmentConstraintStatus = fulfilled(insertionContext, prevAct, pickupShipment, nextAct, prevActEndTime, failedActivityConstraints, constraintManager);
-                if (pickupShipmentConstraintStatus.equals(ConstraintsStatus.NOT_FULFILLED)) {
-                    pickupInsertionNotFulfilledBreak = false;
-                    continue;
-                } else if(pickupShipmentConstraintStatus.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
-                    continue;
-                }
-                else if (pickupShipmentConstraintStatus.equals(ConstraintsStatus.FULFILLED)) {
-                    pickupInsertionNotFulfilledBreak = false;
-                }
-                double additionalPickupICosts = softActivityConstraint.getCosts(insertionContext, prevAct, pickupShipment, nextAct, prevActEndTime);
-                double pickupAIC = calculate(insertionContext, prevAct, pickupShipment, nextAct, prevActEndTime);
-
-                TourActivity prevAct_deliveryLoop = pickupShipment;
-                double shipmentPickupArrTime = prevActEndTime + transportCosts.getTransportTime(prevAct.getLocation(), pickupShipment.getLocation(), prevActEndTime, newDriver, newVehicle);
-                double shipmentPickupEndTime = Math.max(shipmentPickupArrTime, pickupShipment.getTheoreticalEarliestOperationStartTime()) + activityCosts.getActivityDuration(pickupShipment, shipmentPickupArrTime, newDriver, newVehicle);
-
-                pickupContext.setArrivalTime(shipmentPickupArrTime);
-                pickupContext.setEndTime(shipmentPickupEndTime);
-                pickupContext.setInsertionIndex(i);
-                insertionContext.setRelatedActivityContext(pickupContext);
-
-                double prevActEndTime_deliveryLoop = shipmentPickupEndTime;
-
-			/*
-            --------------------------------
-			 */
-                //deliverShipmentLoop
-                int j = i;
-                boolean tourEnd_deliveryLoop = false;
-                while (!tourEnd_deliveryLoop) {
-                    TourActivity nextAct_deliveryLoop;
-                    if (j < activities.size()) {
-                        nextAct_deliveryLoop = activities.get(j);
-                    } else {
-                        nextAct_deliveryLoop = end;
-                        tourEnd_deliveryLoop = true;
-                    }
-
-                    boolean deliveryInsertionNotFulfilledBreak = true;
-                    for (TimeWindow deliveryTimeWindow : shipment.getDeliveryTimeWindows()) {
-                        deliverShipment.setTheoreticalEarliestOperationStartTime(deliveryTimeWindow.getStart());
-                        deliverShipment.setTheoreticalLatestOperationStartTime(deliveryTimeWindow.getEnd());
-                        ActivityContext activityContext_ = new ActivityContext();
-                        activityContext_.setInsertionIndex(j);
-                        insertionContext.setActivityContext(activityContext_);
-                        ConstraintsStatus deliverShipmentConstraintStatus = fulfilled(insertionContext, prevAct_deliveryLoop, deliverShipment, nextAct_deliveryLoop, prevActEndTime_deliveryLoop, failedActivityConstraints, constraintManager);
-                        if (deliverShipmentConstraintStatus.equals(ConstraintsStatus.FULFILLED)) {
-                            double additionalDeliveryICosts = softActivityConstraint.getCosts(insertionContext, prevAct_deliveryLoop, deliverShipment, nextAct_deliveryLoop, prevActEndTime_deliveryLoop);
-                            double deliveryAIC = calculate(insertionContext, prevAct_deliveryLoop, deliverShipment, nextAct_deliveryLoop, prevActEndTime_deliveryLoop);
-                            double totalActivityInsertionCosts = pickupAIC + deliveryAIC
-                                + additionalICostsAtRouteLevel + additionalPickupICosts + additionalDeliveryICosts;
-                            if (totalActivityInsertionCosts < bestCost) {
-                                bestCost = totalActivityInsertionCosts;
-                                pickupInsertionIndex = i;
-                                deliveryInsertionIndex = j;
-                                bestPickupTimeWindow = pickupTimeWindow;
-                                bestDeliveryTimeWindow = deliveryTimeWindow;
-                            }
-                            deliveryInsertionNotFulfilledBreak = false;
-                        } else if (deliverShipmentConstraintStatus.equals(ConstraintsStatus.NOT_FULFILLED)) {
-                            deliveryInsertionNotFulfilledBreak = false;
-                        }
+            if (granularNeighborhood != null && !granularNeighborhood.isCandidate(shipment, prevAct, nextAct)) {
+                pickupInsertionNotFulfilledBreak = false;
+            } else {
+                for (int pt = 0; pt < nuOfTimeWindows; pt++) {
+                    TimeWindow pickupTimeWindow = pickupTimeWindows.get(pt);
+                    pickupShipment.setTheoreticalEarliestOperationStartTime(pickupTimeWindow.getStart());
+                    pickupShipment.setTheoreticalLatestOperationStartTime(pickupTimeWindow.getEnd());
+                    insertionContext.setActivityContext(workspace.activityContext(i));
+                    ConstraintsStatus pickupShipmentConstraintStatus = fulfilled(insertionContext, prevAct, pickupShipment, nextAct, prevActEndTime, failedActivityConstraints, constraintManager);
+                    if (pickupShipmentConstraintStatus.equals(ConstraintsStatus.NOT_FULFILLED)) {
+                        pickupInsertionNotFulfilledBreak = false;
+                    } else if (pickupShipmentConstraintStatus.equals(ConstraintsStatus.FULFILLED)) {
+                        pickupInsertionNotFulfilledBreak = false;
+                        pickupFulfilled[i * nuOfTimeWindows + pt] = true;
+                        //the sequential evaluation checks subsequent pickups with the related context of this pickup
+                        setPickupContext(workspace, insertionContext, pickupShipment, i, prevAct, prevActEndTime);
                     }
-                    if (deliveryInsertionNotFulfilledBreak) break;
-                    //update prevAct and endTime
-                    double nextActArrTime = prevActEndTime_deliveryLoop + transportCosts.getTransportTime(prevAct_deliveryLoop.getLocation(), nextAct_deliveryLoop.getLocation(), prevActEndTime_deliveryLoop, newDriver, newVehicle);
-                    prevActEndTime_deliveryLoop = Math.max(nextActArrTime, nextAct_deliveryLoop.getTheoreticalEarliestOperationStartTime()) + activityCosts.getActivityDuration(nextAct_deliveryLoop,nextActArrTime,newDriver,newVehicle);
-                    prevAct_deliveryLoop = nextAct_deliveryLoop;
-                    j++;
                 }
             }
-            if(pickupInsertionNotFulfilledBreak){
+            if (pickupInsertionNotFulfilledBreak) {
                 break;
             }
-            //update prevAct and endTime
             double nextActArrTime = prevActEndTime + transportCosts.getTransportTime(prevAct.getLocation(), nextAct.getLocation(), prevActEndTime, newDriver, newVehicle);
-            prevActEndTime = Math.max(nextActArrTime, nextAct.getTheoreticalEarliestOperationStartTime()) + activityCosts.getActivityDuration(nextAct,nextActArrTime,newDriver,newVehicle);
+            prevActEndTime = Math.max(nextActArrTime, nextAct.getTheoreticalEarliestOperationStartTime()) + activityCosts.getActivityDuration(nextAct, nextActArrTime, newDriver, newVehicle);
             prevAct = nextAct;
-            i++;
         }
-        if (pickupInsertionIndex == InsertionData.NO_INDEX) {
-            InsertionData emptyInsertionData = new InsertionData.NoInsertionFound();
-            emptyInsertionData.getFailedConstraintNames().addAll(failedActivityConstraints);
-            return emptyInsertionData;
+
+        final VehicleRoute route = insertionContext.getRoute();
+        final double departureTime = insertionContext.getNewDepTime();
+        final Thread callingThread = Thread.currentThread();
+        final ConcurrentEvaluation evaluation = new ConcurrentEvaluation(nuOfPositions, Math.min(nuOfThreads, nuOfPositions), bestKnownCosts);
+        for (int k = 1; k < evaluation.candidates.length; k++) {
+            final int worker = k;
+            executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    //an executor that runs tasks in the calling thread would use the workspace of the calling thread
+                    if (Thread.currentThread() == callingThread || !evaluation.enter()) return;
+                    try {
+                        InsertionWorkspace workspace = getWorkspace();
+                        JobInsertionContext insertionContext = new JobInsertionContext(route, shipment, newVehicle, newDriver, departureTime);
+                        List<AbstractActivity> probeActivities = workspace.probeActivities(shipment, activityFactory);
+                        insertionContext.getAssociatedActivities().add(probeActivities.get(0));
+                        insertionContext.getAssociatedActivities().add(probeActivities.get(1));
+                        List<HardActivityConstraint> failedActivityConstraints = workspace.failedConstraints();
+                        Candidate candidate = new Candidate(bestKnownCosts, evaluation.bestCosts);
+                        evaluatePositions(evaluation, workspace, insertionContext, shipment, probeActivities.get(0), probeActivities.get(1),
+                            pickupTimeWindows, workspace.deliveryTimeWindows(shipment.getDeliveryTimeWindows()), activities, workspace.end(newVehicle),
+                            prevActs, prevActEndTimes, pickupFulfilled, additionalICostsAtRouteLevel, failedActivityConstraints, candidate);
+                        candidate.failedConstraints = new ArrayList<HardActivityConstraint>(failedActivityConstraints);
+                        evaluation.candidates[worker] = candidate;
+                    } catch (Throwable e) {
+                        evaluation.failure = e;
+                    } finally {
+                        evaluation.leave();
+                    }
+                }
+
+            });
         }
-        InsertionData insertionData = new InsertionData(bestCost, pickupInsertionIndex, deliveryInsertionIndex, newVehicle, newDriver);
-        pickupShipment.setTheoreticalEarliestOperationStartTime(bestPickupTimeWindow.getStart());
-        pickupShipment.setTheoreticalLatestOperationStartTime(bestPickupTimeWindow.getEnd());
-        deliverShipment.setTheoreticalEarliestOperationStartTime(bestDeliveryTimeWindow.getStart());
-        deliverShipment.setTheoreticalLatestOperationStartTime(bestDeliveryTimeWindow.getEnd());
-        insertionData.setVehicleDepartureTime(newVehicleDepartureTime);
-        insertionData.getEvents().add(new InsertActivity(currentRoute, newVehicle, deliverShipment, deliveryInsertionIndex));
-        insertionData.getEvents().add(new InsertActivity(currentRoute, newVehicle, pickupShipment, pickupInsertionIndex));
-        insertionData.getEvents().add(new SwitchVehicle(currentRoute, newVehicle, newVehicleDepartureTime));
-        return insertionData;
+        Candidate best = new Candidate(bestKnownCosts, evaluation.bestCosts);
+        try {
+            evaluatePositions(evaluation, workspace, insertionContext, shipment, pickupShipment, deliverShipment, pickupTimeWindows,
+                deliveryTimeWindows, activities, end, prevActs, prevActEndTimes, pickupFulfilled, additionalICostsAtRouteLevel,
+                failedActivityConstraints, best);
+        } finally {
+            evaluation.close();
+        }
+        if (evaluation.failure instanceof RuntimeException) throw (RuntimeException) evaluation.failure;
+        if (evaluation.failure instanceof Error) throw (Error) evaluation.failure;
+        if (evaluation.failure != null) throw new IllegalStateException(evaluation.failure);
+        for (int k = 1; k < evaluation.candidates.length; k++) {
+            Candidate candidate = evaluation.candidates[k];
+            if (candidate == null) continue;
+            failedActivityConstraints.addAll(candidate.failedConstraints);
+            if (candidate.pickupInsertionIndex == InsertionData.NO_INDEX) continue;
+            if (best.pickupInsertionIndex == InsertionData.NO_INDEX || candidate.costs < best.costs
+                || (candidate.costs == best.costs && candidate.pickupInsertionIndex < best.pickupInsertionIndex)) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Evaluates the pickup positions that are claimed from the specified evaluation until there are no positions left.
+     */
+    private void evaluatePositions(ConcurrentEvaluation evaluation, InsertionWorkspace workspace, JobInsertionContext insertionContext, Shipment shipment,
+                                   TourActivity pickupShipment, TourActivity deliverShipment, List<TimeWindow> pickupTimeWindows,
+                                   List<TimeWindow> deliveryTimeWindows, List<TourActivity> activities, End end, TourActivity[] prevActs,
+                                   double[] prevActEndTimes, boolean[] pickupFulfilled, double additionalICostsAtRouteLevel,
+                                   List<HardActivityConstraint> failedActivityConstraints, Candidate best) {
+        int nuOfTimeWindows = pickupTimeWindows.size();
+        int i;
+        while ((i = evaluation.nextPosition()) >= 0) {
+            TourActivity nextAct = i < activities.size() ? activities.get(i) : end;
+            for (int pt = 0; pt < nuOfTimeWindows; pt++) {
+                if (!pickupFulfilled[i * nuOfTimeWindows + pt]) continue;
+                TimeWindow pickupTimeWindow = pickupTimeWindows.get(pt);
+                pickupShipment.setTheoreticalEarliestOperationStartTime(pickupTimeWindow.getStart());
+                pickupShipment.setTheoreticalLatestOperationStartTime(pickupTimeWindow.getEnd());
+                insertionContext.setActivityContext(workspace.activityContext(i));
+                evaluateDeliveries(workspace, insertionContext, shipment, pickupShipment, deliverShipment, pickupTimeWindow, deliveryTimeWindows,
+                    activities, end, i, prevActs[i], nextAct, prevActEndTimes[i], additionalICostsAtRouteLevel, failedActivityConstraints, best);
+            }
+        }
+    }
+
+    /**
+     * Best insertion found by a thread.
+     */
+    private static final class Candidate {
+
+        private double costs;
+
+        private int pickupInsertionIndex = InsertionData.NO_INDEX;
+
+        private int deliveryInsertionIndex = InsertionData.NO_INDEX;
+
+        private TimeWindow pickupTimeWindow;
+
+        private TimeWindow deliveryTimeWindow;
+
+        //best costs of all threads (as long bits), null if a single thread evaluates all positions
+        private final AtomicLong bestCosts;
+
+        private List<HardActivityConstraint> failedConstraints;
+
+        Candidate(double bestKnownCosts, AtomicLong bestCosts) {
+            this.costs = bestKnownCosts;
+            this.bestCosts = bestCosts;
+        }
+
+        boolean isImprovedBy(double totalCosts) {
+            if (!(totalCosts < costs)) return false;
+            //equal costs are recorded, since they might belong to an earlier pickup position than the best of another thread
+            return bestCosts == null || totalCosts <= Double.longBitsToDouble(bestCosts.get());
+        }
+
+        void set(double totalCosts, int pickupInsertionIndex, int deliveryInsertionIndex, TimeWindow pickupTimeWindow, TimeWindow deliveryTimeWindow) {
+            this.costs = totalCosts;
+            this.pickupInsertionIndex = pickupInsertionIndex;
+            this.deliveryInsertionIndex = deliveryInsertionIndex;
+            this.pickupTimeWindow = pickupTimeWindow;
+            this.deliveryTimeWindow = deliveryTimeWindow;
+            if (bestCosts == null) return;
+            long current = bestCosts.get();
+            while (totalCosts < Double.longBitsToDouble(current) && !bestCosts.compareAndSet(current, Double.doubleToLongBits(totalCosts))) {
+                current = bestCosts.get();
+            }
+        }
+
+    }
+
+    /**
+     * Pickup positions of a single route that are claimed by the calling thread and the threads of the executor. Once the
+     * calling thread has no positions left, the evaluation is closed, i.e. it waits for threads that are still evaluating
+     * claimed positions, and threads that start afterwards do not claim anything.
+     */
+    private static final class ConcurrentEvaluation {
+
+        private final int nuOfPositions;
+
+        private final AtomicInteger nextPosition = new AtomicInteger();
+
+        private final AtomicLong bestCosts;
+
+        private final Candidate[] candidates;
+
+        private volatile Throwable failure;
+
+        private int nuOfActiveThreads = 0;
+
+        private boolean closed = false;
+
+        ConcurrentEvaluation(int nuOfPositions, int nuOfThreads, double bestKnownCosts) {
+            this.nuOfPositions = nuOfPositions;
+            this.candidates = new Candidate[nuOfThreads];
+            this.bestCosts = new AtomicLong(Double.doubleToLongBits(bestKnownCosts));
+        }
+
+        /**
+         * @return the next pickup position to be evaluated or -1 if there is none left
+         */
+        int nextPosition() {
+            if (failure != null) return -1;
+            int position = nextPosition.getAndIncrement();
+            return position < nuOfPositions ? position : -1;
+        }
+
+        synchronized boolean enter() {
+            if (closed) return false;
+            nuOfActiveThreads++;
+            return true;
+        }
+
+        synchronized void leave() {
+            nuOfActiveThreads--;
+            notifyAll();
+        }
+
+        synchronized void close() {
+            closed = true;
+            boolean interrupted = false;
+            while (nuOfActiveThreads > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+
     }
 
     private double calculate(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double departureTimeAtPrevAct) {
@@ -0,0 +1,202 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Priority queue of the insertion data of one job, ordered by insertion costs. Insertion data with equal costs are
+ * ordered by the sequence they have been added in.
+ * <p>
+ * <p>It is a binary heap whose keys are stored in primitive arrays. Insertion data is outdated if its version is not
+ * the current version of its route anymore. Outdated data is removed lazily, i.e. when it is polled while scanning the
+ * queue, and when the queue has doubled its size since the last compaction. Then all data of routes that have been
+ * added again with a newer version is removed, thus the queue does not grow with each update round.
+ * <p>
+ * <p>It is not thread-safe, but queues of different jobs can be used concurrently.
+ *
+ * @author stefan schroeder
+ */
+final class VersionedInsertionDataQueue {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private double[] costs = new double[INITIAL_CAPACITY];
+
+    private int[] sequence = new int[INITIAL_CAPACITY];
+
+    private VersionedInsertionData[] data = new VersionedInsertionData[INITIAL_CAPACITY];
+
+    private int size = 0;
+
+    private int sequenceCounter = 0;
+
+    private int compactionSize = INITIAL_CAPACITY;
+
+    private final Map<VehicleRoute, Integer> latestVersions = new IdentityHashMap<>();
+
+    private double[] scannedCosts = new double[INITIAL_CAPACITY];
+
+    private int[] scannedSequence = new int[INITIAL_CAPACITY];
+
+    private VersionedInsertionData[] scannedData = new VersionedInsertionData[INITIAL_CAPACITY];
+
+    private int noScanned = 0;
+
+    void add(VersionedInsertionData versionedInsertionData) {
+        Integer latestVersion = latestVersions.get(versionedInsertionData.getRoute());
+        if (latestVersion == null || latestVersion < versionedInsertionData.getVersion()) {
+            latestVersions.put(versionedInsertionData.getRoute(), versionedInsertionData.getVersion());
+        }
+        if (size >= compactionSize) {
+            compact();
+        }
+        insert(versionedInsertionData.getiData().getInsertionCost(), sequenceCounter++, versionedInsertionData);
+    }
+
+    /**
+     * Returns the next insertion data that is up-to-date, i.e. whose version is the current version of its route, in
+     * the order of insertion costs. Outdated data is removed. Returned data is memorized until
+     * {@link #resetScan()} is called.
+     *
+     * @param currentVersions current version of each route
+     * @return the next up-to-date insertion data or null if there is none
+     */
+    VersionedInsertionData next(Map<VehicleRoute, Integer> currentVersions) {
+        while (size > 0) {
+            double cost = costs[0];
+            int seq = sequence[0];
+            VersionedInsertionData versionedInsertionData = data[0];
+            removeFirst();
+            Integer currentVersion = currentVersions.get(versionedInsertionData.getRoute());
+            if (currentVersion == null || currentVersion != versionedInsertionData.getVersion()) {
+                continue;
+            }
+            if (noScanned == scannedData.length) {
+                scannedCosts = Arrays.copyOf(scannedCosts, noScanned * 2);
+                scannedSequence = Arrays.copyOf(scannedSequence, noScanned * 2);
+                scannedData = Arrays.copyOf(scannedData, noScanned * 2);
+            }
+            scannedCosts[noScanned] = cost;
+            scannedSequence[noScanned] = seq;
+            scannedData[noScanned] = versionedInsertionData;
+            noScanned++;
+            return versionedInsertionData;
+        }
+        return null;
+    }
+
+    /**
+     * Puts the insertion data returned by {@link #next(Map)} back into the queue.
+     */
+    void resetScan() {
+        for (int i = 0; i < noScanned; i++) {
+            insert(scannedCosts[i], scannedSequence[i], scannedData[i]);
+            scannedData[i] = null;
+        }
+        noScanned = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void compact() {
+        int newSize = 0;
+        for (int i = 0; i < size; i++) {
+            if (data[i].getVersion() == latestVersions.get(data[i].getRoute())) {
+                costs[newSize] = costs[i];
+                sequence[newSize] = sequence[i];
+                data[newSize] = data[i];
+                newSize++;
+            }
+        }
+        Arrays.fill(data, newSize, size, null);
+        size = newSize;
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        compactionSize = Math.max(INITIAL_CAPACITY, 2 * size);
+    }
+
+    private void insert(double cost, int seq, VersionedInsertionData versionedInsertionData) {
+        if (size == data.length) {
+            costs = Arrays.copyOf(costs, size * 2);
+            sequence = Arrays.copyOf(sequence, size * 2);
+            data = Arrays.copyOf(data, size * 2);
+        }
+        costs[size] = cost;
+        sequence[size] = seq;
+        data[size] = versionedInsertionData;
+        siftUp(size);
+        size++;
+    }
+
+    private void removeFirst() {
+        size--;
+        costs[0] = costs[size];
+        sequence[0] = sequence[size];
+        data[0] = data[size];
+        data[size] = null;
+        if (size > 0) siftDown(0);
+    }
+
+    private boolean isLess(int i, int j) {
+        if (costs[i] < costs[j]) return true;
+        return costs[i] == costs[j] && sequence[i] < sequence[j];
+    }
+
+    private void siftUp(int pos) {
+        while (pos > 0) {
+            int parent = (pos - 1) / 2;
+            if (!isLess(pos, parent)) return;
+            swap(pos, parent);
+            pos = parent;
+        }
+    }
+
+    private void siftDown(int pos) {
+        while (true) {
+            int smallest = pos;
+            int left = 2 * pos + 1;
+            int right = left + 1;
+            if (left < size && isLess(left, smallest)) smallest = left;
+            if (right < size && isLess(right, smallest)) smallest = right;
+            if (smallest == pos) return;
+            swap(pos, smallest);
+            pos = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        double cost = costs[i];
+        costs[i] = costs[j];
+        costs[j] = cost;
+        int seq = sequence[i];
+        sequence[i] = sequence[j];
+        sequence[j] = seq;
+        VersionedInsertionData d = data[i];
+        data[i] = data[j];
+        data[j] = d;
+    }
+
+}
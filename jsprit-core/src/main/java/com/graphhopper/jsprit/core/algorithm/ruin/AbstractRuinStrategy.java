@@ -21,6 +21,7 @@ package com.graphhopper.jsprit.core.algorithm.ruin;
 
 import com.graphhopper.jsprit.core.algorithm.ruin.listener.RuinListener;
 import com.graphhopper.jsprit.core.algorithm.ruin.listener.RuinListeners;
+import com.graphhopper.jsprit.core.algorithm.state.JobRouteIndex;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
@@ -41,6 +42,8 @@ public abstract class AbstractRuinStrategy implements RuinStrategy {
 
     protected VehicleRoutingProblem vrp;
 
+    protected JobRouteIndex jobRouteIndex;
+
     public void setRandom(Random random) {
         this.random = random;
     }
@@ -55,9 +58,23 @@ public abstract class AbstractRuinStrategy implements RuinStrategy {
         return ruinShareFactory;
     }
 
+    /**
+     * Looks up routes of jobs with the specified index instead of an index of its own, which is then not maintained
+     * anymore. The specified index must be informed about ruin and insertion, as the index of
+     * {@link com.graphhopper.jsprit.core.algorithm.state.StateManager#getJobRouteIndex()} is.
+     *
+     * @param jobRouteIndex the index to be shared
+     */
+    public void setJobRouteIndex(JobRouteIndex jobRouteIndex) {
+        ruinListeners.removeListener(this.jobRouteIndex);
+        this.jobRouteIndex = jobRouteIndex;
+    }
+
     protected AbstractRuinStrategy(VehicleRoutingProblem vrp) {
         this.vrp = vrp;
         ruinListeners = new RuinListeners();
+        jobRouteIndex = new JobRouteIndex(vrp);
+        ruinListeners.addListener(jobRouteIndex);
     }
 
     @Override
@@ -88,6 +105,10 @@ public abstract class AbstractRuinStrategy implements RuinStrategy {
 
     protected boolean removeJob(Job job, Collection<VehicleRoute> vehicleRoutes) {
         if (jobIsInitial(job)) return false;
+        if (jobRouteIndex.isIndexed(vehicleRoutes)) {
+            VehicleRoute route = jobRouteIndex.getRoute(job);
+            return route != null && removeJob(job, route);
+        }
         for (VehicleRoute route : vehicleRoutes) {
             if (removeJob(job, route)) {
                 return true;
@@ -96,6 +117,21 @@ public abstract class AbstractRuinStrategy implements RuinStrategy {
         return false;
     }
 
+    /**
+     * Returns the route that serves the specified job.
+     *
+     * @param job           the job
+     * @param vehicleRoutes the routes to be ruined
+     * @return the route or null if job is not served by any of vehicleRoutes
+     */
+    protected VehicleRoute getRouteOf(Job job, Collection<VehicleRoute> vehicleRoutes) {
+        if (jobRouteIndex.isIndexed(vehicleRoutes) && !jobIsInitial(job)) return jobRouteIndex.getRoute(job);
+        for (VehicleRoute route : vehicleRoutes) {
+            if (route.getTourActivities().servesJob(job)) return route;
+        }
+        return null;
+    }
+
     private boolean jobIsInitial(Job job) {
         return !vrp.getJobs().containsKey(job.getId()); //for initial jobs (being not contained in problem
     }
@@ -0,0 +1,303 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.util.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Memorizes the k nearest neighbors of each job, where k does not depend on the number of jobs.
+ * <p>
+ * <p>Neighbors are selected with a bounded heap, i.e. each job requires O(n log k) instead of a full sort of all n jobs,
+ * and only n*k job indices are stored. If an executor is specified, jobs are processed in parallel. The result does not
+ * depend on the number of threads, since jobs with the same distance are ordered by their index.
+ * <p>
+ * <p>If more than k neighbors are requested for a job, its neighbors are extended on demand (to at least twice as many).
+ * This is thread-safe, thus neighborhoods can be shared by concurrent searches.
+ * <p>
+ * <p>If created from the neighborhoods of a previous problem, the neighbors of jobs that are contained in both problems
+ * (i.e. the very same objects) are carried over. Only added jobs are compared to all jobs, whereas the carried over
+ * neighbors of the other jobs are merged with the added jobs. This requires that the distance between two jobs has not
+ * changed. The max. distance is the max. of the previous max. distance and the distances computed for the changed problem.
+ *
+ * @author stefan schroeder
+ */
+class JobNeighborhoodsBounded implements JobNeighborhoods {
+
+    private static Logger logger = LoggerFactory.getLogger(JobNeighborhoodsBounded.class);
+
+    private final VehicleRoutingProblem vrp;
+
+    private final JobDistance jobDistance;
+
+    private final int k;
+
+    private final ExecutorService executorService;
+
+    private final JobNeighborhoodsBounded previous;
+
+    private final int noThreads;
+
+    private Job[] jobs;
+
+    private Job[] jobsByIndex;
+
+    private AtomicReferenceArray<int[]> neighbors;
+
+    private double maxDistance = 0.;
+
+    JobNeighborhoodsBounded(VehicleRoutingProblem vrp, JobDistance jobDistance, int k) {
+        this(vrp, jobDistance, k, null, 1);
+    }
+
+    JobNeighborhoodsBounded(VehicleRoutingProblem vrp, JobDistance jobDistance, int k, ExecutorService executorService, int noThreads) {
+        this(vrp, jobDistance, k, null, executorService, noThreads);
+    }
+
+    JobNeighborhoodsBounded(VehicleRoutingProblem vrp, JobDistance jobDistance, JobNeighborhoodsBounded previous) {
+        this(vrp, jobDistance, previous.k, previous, null, 1);
+    }
+
+    private JobNeighborhoodsBounded(VehicleRoutingProblem vrp, JobDistance jobDistance, int k, JobNeighborhoodsBounded previous, ExecutorService executorService, int noThreads) {
+        if (k < 0) throw new IllegalArgumentException("number of neighbors must not be negative");
+        if (previous != null && previous.neighbors == null)
+            throw new IllegalStateException("previous neighborhoods have not been initialised");
+        this.vrp = vrp;
+        this.jobDistance = jobDistance;
+        this.k = k;
+        this.previous = previous;
+        this.executorService = executorService;
+        this.noThreads = noThreads;
+        logger.debug("initialise {}", this);
+    }
+
+    @Override
+    public Iterator<Job> getNearestNeighborsIterator(int nNeighbors, Job neighborTo) {
+        int[] jobNeighbors = neighbors.get(neighborTo.getIndex());
+        if (nNeighbors > jobNeighbors.length && jobNeighbors.length < jobs.length - 1) {
+            int extendedK = Math.min(jobs.length - 1, Math.max(nNeighbors, 2 * jobNeighbors.length));
+            jobNeighbors = findNearestNeighbors(neighborTo, extendedK, null);
+            neighbors.set(neighborTo.getIndex(), jobNeighbors);
+        }
+        return new JobNeighborhoodsOptimized.ArrayIterator(nNeighbors, jobNeighbors, jobsByIndex);
+    }
+
+    @Override
+    public void initialise() {
+        logger.debug("calculates distances from EACH job to EACH job --> n^2={} calculations, but 'only' {} are cached.", Math.pow(vrp.getJobs().values().size(), 2), (vrp.getJobs().values().size() * k));
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        jobs = vrp.getJobsInclusiveInitialJobsInRoutes().values().toArray(new Job[0]);
+        int maxIndex = 0;
+        for (Job job : jobs) {
+            maxIndex = Math.max(maxIndex, job.getIndex());
+        }
+        jobsByIndex = new Job[maxIndex + 1];
+        for (Job job : jobs) {
+            jobsByIndex[job.getIndex()] = job;
+        }
+        neighbors = new AtomicReferenceArray<>(maxIndex + 1);
+        if (previous != null) {
+            carryOver();
+        } else {
+            maxDistance = JobNeighborhoodsInitialiser.process(jobs.length, new JobNeighborhoodsInitialiser.Chunk() {
+                @Override
+                public double process(int from, int to) {
+                    return findNearestNeighbors(from, to);
+                }
+            }, executorService, noThreads);
+        }
+        stopWatch.stop();
+        logger.debug("pre-processing comp-time: {}", stopWatch);
+    }
+
+    private void carryOver() {
+        Map<Job, int[]> previousNeighbors = new IdentityHashMap<>();
+        for (int index = 0; index < previous.jobsByIndex.length; index++) {
+            if (previous.jobsByIndex[index] != null) {
+                previousNeighbors.put(previous.jobsByIndex[index], previous.neighbors.get(index));
+            }
+        }
+        List<Job> addedJobs = new ArrayList<>();
+        for (Job job : jobs) {
+            if (!previousNeighbors.containsKey(job)) addedJobs.add(job);
+        }
+        double[] maxDistance = new double[]{previous.maxDistance};
+        for (Job job : jobs) {
+            int[] jobNeighbors = previousNeighbors.get(job);
+            if (jobNeighbors == null) {
+                neighbors.set(job.getIndex(), findNearestNeighbors(job, Math.min(k, jobs.length - 1), maxDistance));
+            } else {
+                neighbors.set(job.getIndex(), mergeNeighbors(job, jobNeighbors, addedJobs, maxDistance));
+            }
+        }
+        this.maxDistance = maxDistance[0];
+        logger.debug("carried over neighbors of {} jobs, {} jobs added", jobs.length - addedJobs.size(), addedJobs.size());
+    }
+
+    /**
+     * Merges the previous neighbors of job that are still contained in the problem with the added jobs. If the previous
+     * neighbors did not comprise all previous jobs, only neighbors not farther than the farthest remaining previous
+     * neighbor are known to be correct. Farther neighbors are determined on demand.
+     */
+    private int[] mergeNeighbors(Job job, int[] previousNeighbors, List<Job> addedJobs, double[] maxDistance) {
+        int[] candidates = new int[previousNeighbors.length + addedJobs.size()];
+        double[] distances = new double[candidates.length];
+        int size = 0;
+        double threshold = 0.;
+        for (int previousIndex : previousNeighbors) {
+            Job neighbor = previous.jobsByIndex[previousIndex];
+            if (!contains(neighbor)) continue;
+            candidates[size] = neighbor.getIndex();
+            distances[size] = jobDistance.getDistance(job, neighbor);
+            threshold = distances[size];
+            size++;
+        }
+        boolean complete = previousNeighbors.length >= previous.jobs.length - 1;
+        for (Job added : addedJobs) {
+            double distance = jobDistance.getDistance(job, added);
+            if (distance > maxDistance[0]) maxDistance[0] = distance;
+            candidates[size] = added.getIndex();
+            distances[size] = distance;
+            size++;
+        }
+        //heap sort of all candidates, i.e. repeatedly moves the farthest to the end
+        for (int i = 1; i < size; i++) {
+            siftUp(candidates, distances, i);
+        }
+        for (int end = size - 1; end > 0; end--) {
+            swap(candidates, distances, 0, end);
+            siftDown(candidates, distances, 0, end);
+        }
+        int noNeighbors = 0;
+        while (noNeighbors < Math.min(size, k) && (complete || distances[noNeighbors] <= threshold)) {
+            noNeighbors++;
+        }
+        int[] jobNeighbors = new int[noNeighbors];
+        System.arraycopy(candidates, 0, jobNeighbors, 0, noNeighbors);
+        return jobNeighbors;
+    }
+
+    private boolean contains(Job job) {
+        return job.getIndex() < jobsByIndex.length && jobsByIndex[job.getIndex()] == job;
+    }
+
+    private double findNearestNeighbors(int from, int to) {
+        double[] maxDistance = new double[1];
+        for (int i = from; i < to; i++) {
+            neighbors.set(jobs[i].getIndex(), findNearestNeighbors(jobs[i], Math.min(k, jobs.length - 1), maxDistance));
+        }
+        return maxDistance[0];
+    }
+
+    /**
+     * Selects the k nearest neighbors with a max-heap whose root is the farthest of the k nearest neighbors found so far.
+     */
+    private int[] findNearestNeighbors(Job job, int k, double[] maxDistance) {
+        int[] heapJobs = new int[k];
+        double[] heapDistances = new double[k];
+        int size = 0;
+        if (k == 0 && maxDistance == null) return heapJobs;
+        for (Job other : jobs) {
+            if (other == job) continue;
+            double distance = jobDistance.getDistance(job, other);
+            if (maxDistance != null && distance > maxDistance[0]) maxDistance[0] = distance;
+            if (k == 0) continue;
+            int index = other.getIndex();
+            if (size < k) {
+                heapJobs[size] = index;
+                heapDistances[size] = distance;
+                siftUp(heapJobs, heapDistances, size);
+                size++;
+            } else if (isCloser(distance, index, heapDistances[0], heapJobs[0])) {
+                heapJobs[0] = index;
+                heapDistances[0] = distance;
+                siftDown(heapJobs, heapDistances, 0, size);
+            }
+        }
+        //heap sort, i.e. repeatedly moves the farthest to the end
+        for (int end = size - 1; end > 0; end--) {
+            swap(heapJobs, heapDistances, 0, end);
+            siftDown(heapJobs, heapDistances, 0, end);
+        }
+        return heapJobs;
+    }
+
+    private static boolean isCloser(double distance, int index, double otherDistance, int otherIndex) {
+        if (distance < otherDistance) return true;
+        return distance == otherDistance && index < otherIndex;
+    }
+
+    private static void siftUp(int[] heapJobs, double[] heapDistances, int pos) {
+        while (pos > 0) {
+            int parent = (pos - 1) / 2;
+            if (!isCloser(heapDistances[parent], heapJobs[parent], heapDistances[pos], heapJobs[pos])) return;
+            swap(heapJobs, heapDistances, parent, pos);
+            pos = parent;
+        }
+    }
+
+    private static void siftDown(int[] heapJobs, double[] heapDistances, int pos, int size) {
+        while (true) {
+            int farthest = pos;
+            int left = 2 * pos + 1;
+            int right = left + 1;
+            if (left < size && isCloser(heapDistances[farthest], heapJobs[farthest], heapDistances[left], heapJobs[left])) {
+                farthest = left;
+            }
+            if (right < size && isCloser(heapDistances[farthest], heapJobs[farthest], heapDistances[right], heapJobs[right])) {
+                farthest = right;
+            }
+            if (farthest == pos) return;
+            swap(heapJobs, heapDistances, pos, farthest);
+            pos = farthest;
+        }
+    }
+
+    private static void swap(int[] heapJobs, double[] heapDistances, int i, int j) {
+        int job = heapJobs[i];
+        heapJobs[i] = heapJobs[j];
+        heapJobs[j] = job;
+        double distance = heapDistances[i];
+        heapDistances[i] = heapDistances[j];
+        heapDistances[j] = distance;
+    }
+
+    @Override
+    public double getMaxDistance() {
+        return maxDistance;
+    }
+
+    @Override
+    public String toString() {
+        return "[name=boundedNeighborhood][k=" + k + "]";
+    }
+
+}
@@ -21,6 +21,8 @@ package com.graphhopper.jsprit.core.algorithm.ruin;
 import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 
+import java.util.concurrent.ExecutorService;
+
 /**
  * Created by schroeder on 05/03/15.
  */
@@ -35,4 +37,63 @@ public class JobNeighborhoodsFactory {
         return new JobNeighborhoodsOptimized(vrp, jobDistance, capacity);
     }
 
+    /**
+     * Creates neighborhoods that are initialised in parallel with the specified executor. The result does not depend on
+     * the number of threads.
+     */
+    public JobNeighborhoods createNeighborhoods(VehicleRoutingProblem vrp, JobDistance jobDistance, ExecutorService es, int noThreads) {
+        return new JobNeighborhoodsImpl(vrp, jobDistance, es, noThreads);
+    }
+
+    /**
+     * Creates neighborhoods memorizing capacity neighbors per job that are initialised in parallel with the specified
+     * executor. The result does not depend on the number of threads.
+     */
+    public JobNeighborhoods createNeighborhoods(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity, ExecutorService es, int noThreads) {
+        return new JobNeighborhoodsOptimized(vrp, jobDistance, capacity, es, noThreads);
+    }
+
+    /**
+     * Creates neighborhoods that memorize the k nearest neighbors of each job, independent of the number of jobs. If more
+     * neighbors are requested, they are determined on demand.
+     *
+     * @param vrp         the problem
+     * @param jobDistance distance between jobs
+     * @param k           number of nearest neighbors memorized per job
+     * @return neighborhoods
+     */
+    public JobNeighborhoods createBoundedNeighborhoods(VehicleRoutingProblem vrp, JobDistance jobDistance, int k) {
+        return new JobNeighborhoodsBounded(vrp, jobDistance, k);
+    }
+
+    /**
+     * Creates neighborhoods that memorize the k nearest neighbors of each job. They are initialised in parallel with the
+     * specified executor. The result does not depend on the number of threads.
+     *
+     * @param vrp         the problem
+     * @param jobDistance distance between jobs
+     * @param k           number of nearest neighbors memorized per job
+     * @param es          executor used to initialise the neighborhoods
+     * @param noThreads   number of threads of the executor
+     * @return neighborhoods
+     */
+    public JobNeighborhoods createBoundedNeighborhoods(VehicleRoutingProblem vrp, JobDistance jobDistance, int k, ExecutorService es, int noThreads) {
+        return new JobNeighborhoodsBounded(vrp, jobDistance, k, es, noThreads);
+    }
+
+    /**
+     * Creates neighborhoods for a changed problem that carry over the neighbors of the jobs the changed problem shares
+     * with the previous problem. They memorize as many neighbors per job as the previous neighborhoods.
+     *
+     * @param vrp         the changed problem
+     * @param jobDistance distance between jobs, which must not have changed for jobs of the previous problem
+     * @param previous    initialised neighborhoods of the previous problem created with createBoundedNeighborhoods(...)
+     * @return neighborhoods
+     */
+    public JobNeighborhoods createBoundedNeighborhoods(VehicleRoutingProblem vrp, JobDistance jobDistance, JobNeighborhoods previous) {
+        if (!(previous instanceof JobNeighborhoodsBounded))
+            throw new IllegalArgumentException("neighbors can only be carried over from bounded neighborhoods");
+        return new JobNeighborhoodsBounded(vrp, jobDistance, (JobNeighborhoodsBounded) previous);
+    }
+
 }
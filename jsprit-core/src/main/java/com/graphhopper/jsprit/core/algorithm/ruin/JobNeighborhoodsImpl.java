@@ -26,6 +26,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Created by schroeder on 07/01/15.
@@ -42,8 +43,22 @@ class JobNeighborhoodsImpl implements JobNeighborhoods {
 
     private double maxDistance = 0.;
 
+    private final ExecutorService executorService;
+
+    private final int noThreads;
+
     public JobNeighborhoodsImpl(VehicleRoutingProblem vrp, JobDistance jobDistance) {
+        this(vrp, jobDistance, null, 1);
+    }
+
+    /**
+     * Neighborhoods that are initialised in parallel with the specified executor. The result does not depend on the
+     * number of threads.
+     */
+    public JobNeighborhoodsImpl(VehicleRoutingProblem vrp, JobDistance jobDistance, ExecutorService executorService, int noThreads) {
         super();
+        this.executorService = executorService;
+        this.noThreads = noThreads;
         this.vrp = vrp;
         this.jobDistance = jobDistance;
         logger.debug("intialise {}", this);
@@ -87,8 +102,29 @@ class JobNeighborhoodsImpl implements JobNeighborhoods {
         logger.debug("preprocess distances between locations ...");
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
+        final Job[] jobs = vrp.getJobs().values().toArray(new Job[0]);
+        final List<TreeSet<ReferencedJob>> treeSets = new ArrayList<TreeSet<ReferencedJob>>(Collections.<TreeSet<ReferencedJob>>nCopies(jobs.length, null));
+        double maxDistance = JobNeighborhoodsInitialiser.process(jobs.length, new JobNeighborhoodsInitialiser.Chunk() {
+            @Override
+            public double process(int from, int to) {
+                return calculateDistancesFromJob2Job(jobs, from, to, treeSets);
+            }
+        }, executorService, noThreads);
+        if (maxDistance > this.maxDistance) this.maxDistance = maxDistance;
         int nuOfDistancesStored = 0;
-        for (Job i : vrp.getJobs().values()) {
+        for (int i = 0; i < jobs.length; i++) {
+            distanceNodeTree.put(jobs[i].getId(), treeSets.get(i));
+            nuOfDistancesStored += treeSets.get(i).size();
+        }
+        stopWatch.stop();
+        logger.debug("preprocessing comp-time: {}; nuOfDistances stored: {}; estimated memory: {}" +
+            " bytes", stopWatch, nuOfDistancesStored, (distanceNodeTree.keySet().size() * 64 + nuOfDistancesStored * 92));
+    }
+
+    private double calculateDistancesFromJob2Job(Job[] jobs, int from, int to, List<TreeSet<ReferencedJob>> treeSets) {
+        double maxDistance = 0.;
+        for (int index = from; index < to; index++) {
+            Job i = jobs[index];
             TreeSet<ReferencedJob> treeSet = new TreeSet<ReferencedJob>(
                 new Comparator<ReferencedJob>() {
                     @Override
@@ -100,20 +136,16 @@ class JobNeighborhoodsImpl implements JobNeighborhoods {
                         }
                     }
                 });
-            distanceNodeTree.put(i.getId(), treeSet);
-            for (Job j : vrp.getJobs().values()) {
+            for (Job j : jobs) {
                 if (i == j) continue;
                 double distance = jobDistance.getDistance(i, j);
                 if (distance > maxDistance) maxDistance = distance;
                 ReferencedJob refNode = new ReferencedJob(j, distance);
                 treeSet.add(refNode);
-                nuOfDistancesStored++;
             }
-
+            treeSets.set(index, treeSet);
         }
-        stopWatch.stop();
-        logger.debug("preprocessing comp-time: {}; nuOfDistances stored: {}; estimated memory: {}" +
-            " bytes", stopWatch, nuOfDistancesStored, (distanceNodeTree.keySet().size() * 64 + nuOfDistancesStored * 92));
+        return maxDistance;
     }
 
 }
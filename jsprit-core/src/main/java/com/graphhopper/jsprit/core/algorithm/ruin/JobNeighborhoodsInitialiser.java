@@ -0,0 +1,90 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Splits the initialisation of job neighborhoods into chunks of jobs that are processed by an executor.
+ * <p>
+ * <p>The neighbors of a job must only depend on the job itself, i.e. chunks need to be independent. Then the result does
+ * not depend on the number of threads.
+ *
+ * @author stefan schroeder
+ */
+final class JobNeighborhoodsInitialiser {
+
+    interface Chunk {
+
+        /**
+         * Determines the neighbors of jobs[from] to jobs[to-1].
+         *
+         * @param from first job (inclusive)
+         * @param to   last job (exclusive)
+         * @return the max. distance found
+         */
+        double process(int from, int to);
+
+    }
+
+    private JobNeighborhoodsInitialiser() {
+    }
+
+    /**
+     * Processes all jobs, i.e. in the calling thread if there is no executor and otherwise in 4*noThreads chunks.
+     *
+     * @param noJobs    number of jobs
+     * @param chunk     processes a range of jobs
+     * @param es        executor, can be null
+     * @param noThreads number of threads of the executor
+     * @return the max. distance of all chunks
+     */
+    static double process(int noJobs, final Chunk chunk, ExecutorService es, int noThreads) {
+        if (es == null || noThreads <= 1 || noJobs < 2) return chunk.process(0, noJobs);
+        int noChunks = Math.min(noJobs, 4 * noThreads);
+        List<Future<Double>> futures = new ArrayList<>(noChunks);
+        for (int i = 0; i < noChunks; i++) {
+            final int from = (int) ((long) noJobs * i / noChunks);
+            final int to = (int) ((long) noJobs * (i + 1) / noChunks);
+            futures.add(es.submit(new Callable<Double>() {
+                @Override
+                public Double call() {
+                    return chunk.process(from, to);
+                }
+            }));
+        }
+        double maxDistance = 0.;
+        try {
+            for (Future<Double> future : futures) {
+                maxDistance = Math.max(maxDistance, future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+        return maxDistance;
+    }
+
+}
@@ -26,6 +26,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Created by schroeder on 07/01/15.
@@ -83,8 +84,22 @@ class JobNeighborhoodsOptimized implements JobNeighborhoods {
 
     private double maxDistance = 0.;
 
+    private final ExecutorService executorService;
+
+    private final int noThreads;
+
     public JobNeighborhoodsOptimized(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity) {
+        this(vrp, jobDistance, capacity, null, 1);
+    }
+
+    /**
+     * Neighborhoods that are initialised in parallel with the specified executor. The result does not depend on the
+     * number of threads.
+     */
+    public JobNeighborhoodsOptimized(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity, ExecutorService executorService, int noThreads) {
         super();
+        this.executorService = executorService;
+        this.noThreads = noThreads;
         this.vrp = vrp;
         this.jobDistance = jobDistance;
         this.capacity = capacity;
@@ -115,25 +130,40 @@ class JobNeighborhoodsOptimized implements JobNeighborhoods {
         logger.debug("pre-process distances between locations ...");
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
-        for (Job job_i : vrp.getJobsInclusiveInitialJobsInRoutes().values()) {
-            jobs[job_i.getIndex()] = job_i;
-            List<ReferencedJob> jobList = new ArrayList<ReferencedJob>(vrp.getJobsInclusiveInitialJobsInRoutes().values().size());
-            for (Job job_j : vrp.getJobsInclusiveInitialJobsInRoutes().values()) {
+        final Job[] jobList = vrp.getJobsInclusiveInitialJobsInRoutes().values().toArray(new Job[0]);
+        for (Job job : jobList) {
+            jobs[job.getIndex()] = job;
+        }
+        maxDistance = JobNeighborhoodsInitialiser.process(jobList.length, new JobNeighborhoodsInitialiser.Chunk() {
+            @Override
+            public double process(int from, int to) {
+                return calculateDistancesFromJob2Job(jobList, from, to);
+            }
+        }, executorService, noThreads);
+        stopWatch.stop();
+        logger.debug("pre-processing comp-time: {}", stopWatch);
+    }
+
+    private double calculateDistancesFromJob2Job(Job[] jobList, int from, int to) {
+        double maxDistance = 0.;
+        for (int i = from; i < to; i++) {
+            Job job_i = jobList[i];
+            List<ReferencedJob> referencedJobs = new ArrayList<ReferencedJob>(jobList.length);
+            for (Job job_j : jobList) {
                 if (job_i == job_j) continue;
                 double distance = jobDistance.getDistance(job_i, job_j);
                 if (distance > maxDistance) maxDistance = distance;
                 ReferencedJob referencedJob = new ReferencedJob(job_j, distance);
-                jobList.add(referencedJob);
+                referencedJobs.add(referencedJob);
             }
-            Collections.sort(jobList,getComparator());
+            Collections.sort(referencedJobs, getComparator());
             int[] jobIndices = new int[capacity];
             for(int index=0;index<capacity;index++){
-                jobIndices[index] = jobList.get(index).getJob().getIndex();
+                jobIndices[index] = referencedJobs.get(index).getJob().getIndex();
             }
             neighbors[job_i.getIndex()-1] = jobIndices;
         }
-        stopWatch.stop();
-        logger.debug("pre-processing comp-time: {}", stopWatch);
+        return maxDistance;
     }
 
     private Comparator<ReferencedJob> getComparator(){
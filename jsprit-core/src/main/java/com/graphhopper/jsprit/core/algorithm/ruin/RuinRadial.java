@@ -45,6 +45,8 @@ public final class RuinRadial extends AbstractRuinStrategy {
 
     private final int noJobsToMemorize;
 
+    private List<Job> targetJobs = null;
+
     /**
      * Constructs RuinRadial.
      *
@@ -105,6 +107,17 @@ public final class RuinRadial extends AbstractRuinStrategy {
         logger.debug("initialise {}", this);
     }
 
+    /**
+     * Restricts the randomly selected job whose neighborhood is ruined to the specified jobs. This focuses the search
+     * on the neighborhood of these jobs, e.g. on the jobs that have changed since a previous solution.
+     *
+     * @param targetJobs jobs the randomly selected job is drawn from, or null or empty to draw from all jobs
+     */
+    public void setTargetJobs(Collection<? extends Job> targetJobs) {
+        if (targetJobs == null || targetJobs.isEmpty()) this.targetJobs = null;
+        else this.targetJobs = new ArrayList<Job>(targetJobs);
+    }
+
     @Override
     public String toString() {
         return "[name=radialRuin][noJobsToBeRemoved=" + noJobsToMemorize + "]";
@@ -123,7 +136,9 @@ public final class RuinRadial extends AbstractRuinStrategy {
         if (nOfJobs2BeRemoved == 0) {
             return Collections.emptyList();
         }
-        Job randomJob = RandomUtils.nextJob(vrp.getJobs().values(), random);
+        Job randomJob;
+        if (targetJobs != null) randomJob = RandomUtils.nextJob(targetJobs, random);
+        else randomJob = RandomUtils.nextJob(vrp.getJobs().values(), random);
         return ruinRoutes(vehicleRoutes, randomJob, nOfJobs2BeRemoved);
     }
 
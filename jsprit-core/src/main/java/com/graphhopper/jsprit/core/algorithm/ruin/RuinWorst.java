@@ -43,13 +43,7 @@ public final class RuinWorst extends AbstractRuinStrategy {
 
     private VehicleRoutingProblem vrp;
 
-    private NoiseMaker noiseMaker = new NoiseMaker() {
-
-        @Override
-        public double makeNoise() {
-            return 0;
-        }
-    };
+    private NoiseMaker noiseMaker = NO_NOISE;
 
     public void setNoiseMaker(NoiseMaker noiseMaker) {
         this.noiseMaker = noiseMaker;
@@ -80,67 +74,297 @@ public final class RuinWorst extends AbstractRuinStrategy {
         return unassignedJobs;
     }
 
+    /**
+     * Removes the job with the highest savings one after another. The savings of each activity are computed once and
+     * only recomputed for the neighbors of removed activities. Without noise, jobs are kept in a max-heap of their
+     * savings. With noise, the noise is drawn for each activity in each step as before, thus the result is the same
+     * for the same random numbers.
+     */
     private void ruin(Collection<VehicleRoute> vehicleRoutes, int nOfJobs2BeRemoved, List<Job> unassignedJobs) {
-        LinkedList<Job> availableJobs = new LinkedList<Job>(vrp.getJobs().values());
+        List<RouteSavings> routeSavings = new ArrayList<RouteSavings>(vehicleRoutes.size());
+        for (VehicleRoute route : vehicleRoutes) {
+            routeSavings.add(new RouteSavings(route, routeSavings.size()));
+        }
+        SavingsHeap heap = null;
+        if (noiseMaker == NO_NOISE) {
+            heap = new SavingsHeap();
+            for (RouteSavings rs : routeSavings) rs.addTo(heap);
+        }
         int toRemove = nOfJobs2BeRemoved;
         while (toRemove > 0) {
-            Job worst = getWorst(vehicleRoutes);
+            JobSavings worst = heap == null ? getWorst(routeSavings) : getWorst(heap);
             if (worst == null) break;
-            if (removeJob(worst, vehicleRoutes)) {
-                availableJobs.remove(worst);
-                unassignedJobs.add(worst);
+            if (removeJob(worst.job, worst.route.route)) {
+                unassignedJobs.add(worst.job);
+                worst.route.removed(worst.job, heap);
             }
             toRemove--;
         }
     }
 
-    private Job getWorst(Collection<VehicleRoute> copied) {
-        Job worst = null;
+    private JobSavings getWorst(List<RouteSavings> routeSavings) {
+        JobSavings worst = null;
         double bestSavings = Double.MIN_VALUE;
+        for (RouteSavings rs : routeSavings) {
+            if (rs.size == 0) continue;
+            JobSavings routeWorst = null;
+            boolean tie = false;
+            for (JobSavings js : rs.jobSavings) js.savings = 0.;
+            for (int i = 0; i < rs.size; i++) {
+                rs.jobSavingsOfActivity[i].savings += Math.max(0, rs.savings[i] + noiseMaker.makeNoise());
+            }
+            for (JobSavings js : rs.jobSavings) {
+                if (js.savings > bestSavings) {
+                    bestSavings = js.savings;
+                    routeWorst = js;
+                    tie = false;
+                } else if (routeWorst != null && js.savings == bestSavings) tie = true;
+            }
+            if (routeWorst != null) {
+                worst = tie ? rs.firstInMapOrder(bestSavings) : routeWorst;
+            }
+        }
+        return worst;
+    }
 
-        for (VehicleRoute route : copied) {
-            if (route.isEmpty()) continue;
-            Map<Job, Double> savingsMap = new HashMap<Job, Double>();
-            TourActivity actBefore = route.getStart();
-            TourActivity actToEval = null;
-            for (TourActivity act : route.getActivities()) {
-                if (actToEval == null) {
-                    actToEval = act;
+    private JobSavings getWorst(SavingsHeap heap) {
+        if (heap.isEmpty() || heap.peek().savings <= Double.MIN_VALUE) return null;
+        List<JobSavings> ties = heap.peekAll();
+        if (ties.size() == 1) return ties.get(0);
+        RouteSavings first = ties.get(0).route;
+        for (JobSavings js : ties) {
+            if (js.route.index < first.index) first = js.route;
+        }
+        return first.firstInMapOrder(ties.get(0).savings);
+    }
+
+    private static final NoiseMaker NO_NOISE = new NoiseMaker() {
+
+        @Override
+        public double makeNoise() {
+            return 0;
+        }
+    };
+
+    private static class JobSavings {
+
+        final Job job;
+
+        final RouteSavings route;
+
+        double savings;
+
+        int heapIndex = -1;
+
+        JobSavings(Job job, RouteSavings route) {
+            this.job = job;
+            this.route = route;
+        }
+
+    }
+
+    /**
+     * Savings of each activity of a route, i.e. the costs saved when removing the activity without noise.
+     */
+    private class RouteSavings {
+
+        final VehicleRoute route;
+
+        final int index;
+
+        int size;
+
+        double[] savings;
+
+        JobSavings[] jobSavingsOfActivity;
+
+        List<JobSavings> jobSavings;
+
+        RouteSavings(VehicleRoute route, int index) {
+            this.route = route;
+            this.index = index;
+            List<TourActivity> acts = route.getActivities();
+            size = acts.size();
+            savings = new double[size];
+            jobSavingsOfActivity = new JobSavings[size];
+            jobSavings = new ArrayList<JobSavings>();
+            Map<Job, JobSavings> jobSavingsMap = new HashMap<Job, JobSavings>();
+            for (int i = 0; i < size; i++) {
+                savings[i] = savings(acts, i);
+                Job job = ((TourActivity.JobActivity) acts.get(i)).getJob();
+                JobSavings js = jobSavingsMap.get(job);
+                if (js == null) {
+                    js = new JobSavings(job, this);
+                    jobSavingsMap.put(job, js);
+                    jobSavings.add(js);
+                }
+                jobSavingsOfActivity[i] = js;
+            }
+            sumUp();
+        }
+
+        void addTo(SavingsHeap heap) {
+            for (JobSavings js : jobSavings) heap.add(js);
+        }
+
+        /**
+         * Removes the activities of job and recomputes the savings of the activities next to them.
+         */
+        void removed(Job job, SavingsHeap heap) {
+            List<TourActivity> acts = route.getActivities();
+            int newSize = acts.size();
+            double[] newSavings = new double[newSize];
+            JobSavings[] newJobSavingsOfActivity = new JobSavings[newSize];
+            JobSavings removed = null;
+            int j = 0;
+            for (int i = 0; i < size; i++) {
+                if (jobSavingsOfActivity[i].job.equals(job)) {
+                    removed = jobSavingsOfActivity[i];
                     continue;
                 }
-                double savings = savings(route, actBefore, actToEval, act);
-                Job job = ((TourActivity.JobActivity) actToEval).getJob();
-                if (!savingsMap.containsKey(job)) {
-                    savingsMap.put(job, savings);
-                } else {
-                    double s = savingsMap.get(job);
-                    savingsMap.put(job, s + savings);
+                boolean neighborsKept = (i == 0 || !jobSavingsOfActivity[i - 1].job.equals(job))
+                    && (i == size - 1 || !jobSavingsOfActivity[i + 1].job.equals(job));
+                newSavings[j] = neighborsKept ? savings[i] : savings(acts, j);
+                newJobSavingsOfActivity[j] = jobSavingsOfActivity[i];
+                j++;
+            }
+            assert j == newSize : "activities of route do not match its savings";
+            size = newSize;
+            savings = newSavings;
+            jobSavingsOfActivity = newJobSavingsOfActivity;
+            jobSavings.remove(removed);
+            if (heap != null) {
+                heap.remove(removed);
+                Map<JobSavings, Double> sums = sums();
+                // change one key at a time, otherwise sifting may compare against keys that are not in place yet
+                for (JobSavings js : jobSavings) {
+                    double s = sums.get(js);
+                    if (s == js.savings) continue;
+                    js.savings = s;
+                    heap.update(js);
                 }
-                actBefore = actToEval;
-                actToEval = act;
             }
-            double savings = savings(route, actBefore, actToEval, route.getEnd());
-            Job job = ((TourActivity.JobActivity) actToEval).getJob();
-            if (!savingsMap.containsKey(job)) {
-                savingsMap.put(job, savings);
-            } else {
-                double s = savingsMap.get(job);
-                savingsMap.put(job, s + savings);
+        }
+
+        private void sumUp() {
+            Map<JobSavings, Double> sums = sums();
+            for (JobSavings js : jobSavings) js.savings = sums.get(js);
+        }
+
+        private Map<JobSavings, Double> sums() {
+            Map<JobSavings, Double> sums = new IdentityHashMap<JobSavings, Double>();
+            for (int i = 0; i < size; i++) {
+                Double s = sums.get(jobSavingsOfActivity[i]);
+                sums.put(jobSavingsOfActivity[i], (s == null ? 0. : s) + Math.max(0, savings[i]));
             }
-            //getCounts best
-            for (Job j : savingsMap.keySet()) {
-                if (savingsMap.get(j) > bestSavings) {
-                    bestSavings = savingsMap.get(j);
-                    worst = j;
-                }
+            return sums;
+        }
+
+        /**
+         * Returns the first job with the specified savings in the iteration order of a HashMap of this route's jobs,
+         * which decides ties in the same way as removing the worst job has always done.
+         */
+        JobSavings firstInMapOrder(double savings) {
+            Map<Job, JobSavings> map = new HashMap<Job, JobSavings>();
+            for (JobSavings js : jobSavings) map.put(js.job, js);
+            for (JobSavings js : map.values()) {
+                if (js.savings == savings) return js;
             }
+            throw new IllegalStateException("route does not contain a job with savings " + savings);
         }
-        return worst;
+
+        private double savings(List<TourActivity> acts, int i) {
+            TourActivity actBefore = i == 0 ? route.getStart() : acts.get(i - 1);
+            TourActivity act = i == acts.size() - 1 ? route.getEnd() : acts.get(i + 1);
+            TourActivity actToEval = acts.get(i);
+            return c(actBefore, actToEval, route.getVehicle()) + c(actToEval, act, route.getVehicle()) - c(actBefore, act, route.getVehicle());
+        }
+
     }
 
-    private double savings(VehicleRoute route, TourActivity actBefore, TourActivity actToEval, TourActivity act) {
-        double savings = c(actBefore, actToEval, route.getVehicle()) + c(actToEval, act, route.getVehicle()) - c(actBefore, act, route.getVehicle());
-        return Math.max(0, savings + noiseMaker.makeNoise());
+    /**
+     * Max-heap of job savings that knows the position of each of its entries.
+     */
+    private static class SavingsHeap {
+
+        private final ArrayList<JobSavings> heap = new ArrayList<JobSavings>();
+
+        boolean isEmpty() {
+            return heap.isEmpty();
+        }
+
+        JobSavings peek() {
+            return heap.get(0);
+        }
+
+        /**
+         * @return all entries with the highest savings
+         */
+        List<JobSavings> peekAll() {
+            List<JobSavings> ties = new ArrayList<JobSavings>();
+            collectTies(0, heap.get(0).savings, ties);
+            return ties;
+        }
+
+        private void collectTies(int i, double savings, List<JobSavings> ties) {
+            if (i >= heap.size() || heap.get(i).savings != savings) return;
+            ties.add(heap.get(i));
+            collectTies(2 * i + 1, savings, ties);
+            collectTies(2 * i + 2, savings, ties);
+        }
+
+        void add(JobSavings js) {
+            js.heapIndex = heap.size();
+            heap.add(js);
+            siftUp(js.heapIndex);
+        }
+
+        void remove(JobSavings js) {
+            int i = js.heapIndex;
+            JobSavings last = heap.remove(heap.size() - 1);
+            js.heapIndex = -1;
+            if (last != js) {
+                heap.set(i, last);
+                last.heapIndex = i;
+                update(last);
+            }
+        }
+
+        void update(JobSavings js) {
+            siftUp(js.heapIndex);
+            siftDown(js.heapIndex);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (heap.get(parent).savings >= heap.get(i).savings) break;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int largest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < heap.size() && heap.get(left).savings > heap.get(largest).savings) largest = left;
+                if (right < heap.size() && heap.get(right).savings > heap.get(largest).savings) largest = right;
+                if (largest == i) break;
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            JobSavings tmp = heap.get(i);
+            heap.set(i, heap.get(j));
+            heap.set(j, tmp);
+            heap.get(i).heapIndex = i;
+            heap.get(j).heapIndex = j;
+        }
+
     }
 
     private double c(TourActivity from, TourActivity to, Vehicle vehicle) {
@@ -0,0 +1,58 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.state;
+
+/**
+ * Identifies a state whose value is a primitive int. Activity states of this id are stored in typed arrays
+ * indexed by activity index, i.e. they can be read without casting or unboxing.
+ * <p>
+ * <p>Create it with {@link StateManager#createIntStateId(String)}.
+ */
+public final class IntStateId implements StateId {
+
+    private final String name;
+
+    private final int index;
+
+    IntStateId(String name, int index) {
+        this.name = name;
+        this.index = index;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        return name.equals(((IntStateId) obj).name);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -20,26 +20,54 @@ package com.graphhopper.jsprit.core.algorithm.state;
 
 public class InternalStates {
 
+    /**
+     * Typed ids of internal states. They are the very same ids as the corresponding {@link StateId} fields of
+     * {@link InternalStates}, but can be passed to the typed getters and putters of {@link StateManager} that neither
+     * cast nor unbox.
+     */
+    public static final class Typed {
 
-    public final static StateId MAXLOAD = new StateFactory.StateIdImpl("max_load", 0);
+        public final static CapacityStateId MAXLOAD = new CapacityStateId("max_load", 0);
 
-    public final static StateId LOAD = new StateFactory.StateIdImpl("load", 1);
+        public final static CapacityStateId LOAD = new CapacityStateId("load", 1);
 
-    public final static StateId COSTS = new StateFactory.StateIdImpl("costs", 2);
+        public final static DoubleStateId COSTS = new DoubleStateId("costs", 2);
 
-    public final static StateId LOAD_AT_BEGINNING = new StateFactory.StateIdImpl("load_at_beginning", 3);
+        public final static CapacityStateId LOAD_AT_BEGINNING = new CapacityStateId("load_at_beginning", 3);
 
-    public final static StateId LOAD_AT_END = new StateFactory.StateIdImpl("load_at_end", 4);
+        public final static CapacityStateId LOAD_AT_END = new CapacityStateId("load_at_end", 4);
+
+        public final static DoubleStateId LATEST_OPERATION_START_TIME = new DoubleStateId("latest_operation_start_time", 6);
+
+        public final static CapacityStateId FUTURE_MAXLOAD = new CapacityStateId("future_max_load", 8);
+
+        public final static CapacityStateId PAST_MAXLOAD = new CapacityStateId("past_max_load", 9);
+
+        public static final DoubleStateId FUTURE_WAITING = new DoubleStateId("future_waiting", 13);
+
+        private Typed() {
+        }
+    }
+
+    public final static StateId MAXLOAD = Typed.MAXLOAD;
+
+    public final static StateId LOAD = Typed.LOAD;
+
+    public final static StateId COSTS = Typed.COSTS;
+
+    public final static StateId LOAD_AT_BEGINNING = Typed.LOAD_AT_BEGINNING;
+
+    public final static StateId LOAD_AT_END = Typed.LOAD_AT_END;
 
     public final static StateId DURATION = new StateFactory.StateIdImpl("duration", 5);
 
-    public final static StateId LATEST_OPERATION_START_TIME = new StateFactory.StateIdImpl("latest_operation_start_time", 6);
+    public final static StateId LATEST_OPERATION_START_TIME = Typed.LATEST_OPERATION_START_TIME;
 
     public final static StateId EARLIEST_OPERATION_START_TIME = new StateFactory.StateIdImpl("earliest_operation_start_time", 7);
 
-    public final static StateId FUTURE_MAXLOAD = new StateFactory.StateIdImpl("future_max_load", 8);
+    public final static StateId FUTURE_MAXLOAD = Typed.FUTURE_MAXLOAD;
 
-    public final static StateId PAST_MAXLOAD = new StateFactory.StateIdImpl("past_max_load", 9);
+    public final static StateId PAST_MAXLOAD = Typed.PAST_MAXLOAD;
 
     public static final StateId SKILLS = new StateFactory.StateIdImpl("skills", 10);
 
@@ -47,9 +75,11 @@ public class InternalStates {
 
     public static final StateId TIME_SLACK = new StateFactory.StateIdImpl("time_slack", 12);
 
-    public static final StateId FUTURE_WAITING = new StateFactory.StateIdImpl("future_waiting", 13);
+    public static final StateId FUTURE_WAITING = Typed.FUTURE_WAITING;
 
     public static final StateId EARLIEST_WITHOUT_WAITING = new StateFactory.StateIdImpl("earliest_without_waiting", 14);
 
     public static final StateId SWITCH_NOT_FEASIBLE = new StateFactory.StateIdImpl("switch_not_feasible", 15);
+
+    public static final DoubleStateId MAX_LEG_COSTS = new DoubleStateId("max_leg_costs", 16);
 }
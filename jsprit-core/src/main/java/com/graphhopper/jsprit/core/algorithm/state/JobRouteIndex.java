@@ -0,0 +1,127 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.state;
+
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionStartsListener;
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.JobInsertedListener;
+import com.graphhopper.jsprit.core.algorithm.ruin.listener.RuinListener;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Index of the route that serves a job.
+ * <p>
+ * <p>The index is built from all routes when a collection of routes is ruined or inserted into for the first time, and
+ * then kept up to date by the removed and inserted jobs it is informed about. Routes are looked up by job index, the
+ * positions of a job's activities are provided by the route's
+ * {@link com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivities}. Only jobs of the problem are
+ * indexed, i.e. neither jobs of initial routes nor breaks.
+ * <p>
+ * <p>{@link StateManager} keeps an index that all ruin strategies of an algorithm share.
+ *
+ * @author schroeder
+ */
+public class JobRouteIndex implements RuinListener, InsertionStartsListener, JobInsertedListener {
+
+    private final VehicleRoutingProblem vrp;
+
+    private final VehicleRoute[] routes;
+
+    private Collection<VehicleRoute> indexedRoutes;
+
+    public JobRouteIndex(VehicleRoutingProblem vrp) {
+        this.vrp = vrp;
+        int maxIndex = 0;
+        for (Job job : vrp.getJobs().values()) {
+            maxIndex = Math.max(maxIndex, job.getIndex());
+        }
+        routes = new VehicleRoute[maxIndex + 1];
+    }
+
+    /**
+     * Indexes the specified routes, i.e. clears everything that has been indexed before.
+     *
+     * @param vehicleRoutes routes to be indexed
+     */
+    public void index(Collection<VehicleRoute> vehicleRoutes) {
+        Arrays.fill(routes, null);
+        indexedRoutes = vehicleRoutes;
+        for (VehicleRoute route : vehicleRoutes) {
+            for (Job job : route.getTourActivities().getJobs()) {
+                if (isIndexed(job)) routes[job.getIndex()] = route;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the specified collection is the one that has been indexed last, i.e. if lookups are consistent
+     * with it as long as its routes are only changed by ruin and insertion.
+     *
+     * @param vehicleRoutes the routes
+     * @return true if vehicleRoutes have been indexed
+     */
+    public boolean isIndexed(Collection<VehicleRoute> vehicleRoutes) {
+        return indexedRoutes == vehicleRoutes;
+    }
+
+    /**
+     * @param job the job
+     * @return the route serving the job or null if job is not served or not part of the problem
+     */
+    public VehicleRoute getRoute(Job job) {
+        if (!isIndexed(job)) return null;
+        return routes[job.getIndex()];
+    }
+
+    private boolean isIndexed(Job job) {
+        int index = job.getIndex();
+        return index > 0 && index < routes.length && vrp.getJobs().get(job.getId()) == job;
+    }
+
+    @Override
+    public void ruinStarts(Collection<VehicleRoute> routes) {
+        if (!isIndexed(routes)) index(routes);
+    }
+
+    @Override
+    public void ruinEnds(Collection<VehicleRoute> routes, Collection<Job> unassignedJobs) {
+
+    }
+
+    @Override
+    public void removed(Job job, VehicleRoute fromRoute) {
+        if (!isIndexed(job)) return;
+        routes[job.getIndex()] = null;
+    }
+
+    @Override
+    public void informInsertionStarts(Collection<VehicleRoute> vehicleRoutes, Collection<Job> unassignedJobs) {
+        if (!isIndexed(vehicleRoutes)) index(vehicleRoutes);
+    }
+
+    @Override
+    public void informJobInserted(Job job2insert, VehicleRoute inRoute, double additionalCosts, double additionalTime) {
+        if (!isIndexed(job2insert)) return;
+        routes[job2insert.getIndex()] = inRoute;
+    }
+
+}
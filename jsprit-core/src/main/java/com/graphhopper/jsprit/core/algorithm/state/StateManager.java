@@ -18,9 +18,11 @@
 package com.graphhopper.jsprit.core.algorithm.state;
 
 import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
+import com.graphhopper.jsprit.core.algorithm.metrics.SolverMetrics;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.*;
 import com.graphhopper.jsprit.core.algorithm.ruin.listener.RuinListener;
 import com.graphhopper.jsprit.core.algorithm.ruin.listener.RuinListeners;
+import com.graphhopper.jsprit.core.problem.Capacity;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
@@ -31,7 +33,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ReverseActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
-import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
+import com.graphhopper.jsprit.core.problem.solution.route.state.TypedRouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 
 import java.util.*;
@@ -44,7 +46,7 @@ import java.util.*;
  *
  * @author schroeder
  */
-public class StateManager implements RouteAndActivityStateGetter, IterationStartsListener, RuinListener, InsertionStartsListener, JobInsertedListener, InsertionEndsListener {
+public class StateManager implements TypedRouteAndActivityStateGetter, IterationStartsListener, RuinListener, InsertionStartsListener, JobInsertedListener, InsertionEndsListener {
 
     private RouteActivityVisitor routeActivityVisitor = new RouteActivityVisitor();
 
@@ -60,6 +62,10 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 
     private boolean updateLoad = false;
 
+    private boolean updateMaxLegCosts = false;
+
+    private SolverMetrics.Timer stateUpdateTimer;
+
     private boolean updateTWs = false;
 
     private final int initialNoStates = 21;
@@ -78,6 +84,31 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 
     private Object[][][] vehicleDependentActivityStates;
 
+    /*
+     * typed activity states are stored per state, i.e. [stateIndex][activityIndex] and
+     * [stateIndex][activityIndex * nuVehicleTypeKeys + vehicleTypeIndex] respectively. rows are allocated lazily.
+     * which double and int states are present is kept in a bitset per row, null marks absent capacities.
+     */
+    private double[][] doubleActivityStates;
+
+    private double[][] vehicleDependentDoubleActivityStates;
+
+    private int[][] intActivityStates;
+
+    private int[][] vehicleDependentIntActivityStates;
+
+    private BitSet[] doubleActivityStatesPresent;
+
+    private BitSet[] vehicleDependentDoubleActivityStatesPresent;
+
+    private BitSet[] intActivityStatesPresent;
+
+    private BitSet[] vehicleDependentIntActivityStatesPresent;
+
+    private Capacity[][] capacityActivityStates;
+
+    private Capacity[][] vehicleDependentCapacityActivityStates;
+
     private Map<VehicleRoute, Object[]> routeStateMap;
 
     private Map<VehicleRoute, Object[][]> vehicleDependentRouteStateMap;
@@ -90,6 +121,8 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 
     private final boolean isIndexedBased;
 
+    private final JobRouteIndex jobRouteIndex;
+
     int getMaxIndexOfVehicleTypeIdentifiers() {
         return nuVehicleTypeKeys;
     }
@@ -106,17 +139,91 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      */
     public StateId createStateId(String name) {
         if (createdStateIds.containsKey(name)) return createdStateIds.get(name);
+        StateId id = StateFactory.createId(name, nextStateIndex());
+        createdStateIds.put(name, id);
+        return id;
+    }
+
+    /**
+     * Creates and returns a stateId for primitive double states with the specified state-name.
+     * <p>
+     * <p>Activity states of this id are stored in a double array indexed by activity index. Read them with
+     * {@link #getActivityState(TourActivity, DoubleStateId, double)} to avoid casting and unboxing.</p>
+     *
+     * @param name the specified name of the state
+     * @return the double stateId
+     * @throws java.lang.IllegalStateException if name is already used internally or if a state with this name but of another type has already been created
+     */
+    public DoubleStateId createDoubleStateId(String name) {
+        DoubleStateId id = getCreatedStateId(name, DoubleStateId.class);
+        if (id != null) return id;
+        if (StateFactory.isReservedId(name)) StateFactory.throwReservedIdException(name);
+        id = new DoubleStateId(name, nextStateIndex());
+        createdStateIds.put(name, id);
+        return id;
+    }
+
+    /**
+     * Creates and returns a stateId for primitive int states with the specified state-name.
+     *
+     * @param name the specified name of the state
+     * @return the int stateId
+     * @throws java.lang.IllegalStateException if name is already used internally or if a state with this name but of another type has already been created
+     */
+    public IntStateId createIntStateId(String name) {
+        IntStateId id = getCreatedStateId(name, IntStateId.class);
+        if (id != null) return id;
+        if (StateFactory.isReservedId(name)) StateFactory.throwReservedIdException(name);
+        id = new IntStateId(name, nextStateIndex());
+        createdStateIds.put(name, id);
+        return id;
+    }
+
+    /**
+     * Creates and returns a stateId for capacity states with the specified state-name.
+     *
+     * @param name the specified name of the state
+     * @return the capacity stateId
+     * @throws java.lang.IllegalStateException if name is already used internally or if a state with this name but of another type has already been created
+     */
+    public CapacityStateId createCapacityStateId(String name) {
+        CapacityStateId id = getCreatedStateId(name, CapacityStateId.class);
+        if (id != null) return id;
+        if (StateFactory.isReservedId(name)) StateFactory.throwReservedIdException(name);
+        id = new CapacityStateId(name, nextStateIndex());
+        createdStateIds.put(name, id);
+        return id;
+    }
+
+    private <S extends StateId> S getCreatedStateId(String name, Class<S> type) {
+        StateId id = createdStateIds.get(name);
+        if (id == null) return null;
+        if (!type.isInstance(id))
+            throw new IllegalStateException("state-id with name '" + name + "' has already been created as " + id.getClass().getSimpleName() + ".");
+        return type.cast(id);
+    }
+
+    private int nextStateIndex() {
         if (stateIndexCounter >= activityStates[0].length) {
             activityStates = new Object[nuActivities][stateIndexCounter + 1];
             vehicleDependentActivityStates = new Object[nuActivities][nuVehicleTypeKeys][stateIndexCounter + 1];
             routeStatesArr = new Object[vrp.getVehicles().size() + 2][stateIndexCounter+1];
             vehicleDependentRouteStatesArr = new Object[vrp.getVehicles().size() + 2][nuVehicleTypeKeys][stateIndexCounter+1];
             problemStates = new Object[stateIndexCounter+1];
+            doubleActivityStates = Arrays.copyOf(doubleActivityStates, stateIndexCounter + 1);
+            vehicleDependentDoubleActivityStates = Arrays.copyOf(vehicleDependentDoubleActivityStates, stateIndexCounter + 1);
+            intActivityStates = Arrays.copyOf(intActivityStates, stateIndexCounter + 1);
+            vehicleDependentIntActivityStates = Arrays.copyOf(vehicleDependentIntActivityStates, stateIndexCounter + 1);
+            doubleActivityStatesPresent = Arrays.copyOf(doubleActivityStatesPresent, stateIndexCounter + 1);
+            vehicleDependentDoubleActivityStatesPresent = Arrays.copyOf(vehicleDependentDoubleActivityStatesPresent, stateIndexCounter + 1);
+            intActivityStatesPresent = Arrays.copyOf(intActivityStatesPresent, stateIndexCounter + 1);
+            vehicleDependentIntActivityStatesPresent = Arrays.copyOf(vehicleDependentIntActivityStatesPresent, stateIndexCounter + 1);
+            capacityActivityStates = Arrays.copyOf(capacityActivityStates, stateIndexCounter + 1);
+            vehicleDependentCapacityActivityStates = Arrays.copyOf(vehicleDependentCapacityActivityStates, stateIndexCounter + 1);
         }
-        StateId id = StateFactory.createId(name, stateIndexCounter);
+        int index = stateIndexCounter;
         incStateIndexCounter();
-        createdStateIds.put(name, id);
-        return id;
+        return index;
     }
 
     private void incStateIndexCounter() {
@@ -137,6 +244,16 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
         nuVehicleTypeKeys = Math.max(3, getNuVehicleTypes(vrp) + 2);
         activityStates = new Object[nuActivities][initialStateArrayLength];
         vehicleDependentActivityStates = new Object[nuActivities][nuVehicleTypeKeys][initialStateArrayLength];
+        doubleActivityStates = new double[initialStateArrayLength][];
+        vehicleDependentDoubleActivityStates = new double[initialStateArrayLength][];
+        intActivityStates = new int[initialStateArrayLength][];
+        vehicleDependentIntActivityStates = new int[initialStateArrayLength][];
+        doubleActivityStatesPresent = new BitSet[initialStateArrayLength];
+        vehicleDependentDoubleActivityStatesPresent = new BitSet[initialStateArrayLength];
+        intActivityStatesPresent = new BitSet[initialStateArrayLength];
+        vehicleDependentIntActivityStatesPresent = new BitSet[initialStateArrayLength];
+        capacityActivityStates = new Capacity[initialStateArrayLength][];
+        vehicleDependentCapacityActivityStates = new Capacity[initialStateArrayLength][];
 //        if(vehicleRoutingProblem.getFleetSize().equals(VehicleRoutingProblem.FleetSize.FINITE)){
 //            isIndexedBased = true;
 //            routeStatesArr = new Object[vrp.getVehicles().size() + 2][initialStateArrayLength];
@@ -148,6 +265,20 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
             vehicleDependentRouteStateMap = new HashMap<VehicleRoute, Object[][]>();
 //        }
         problemStates = new Object[initialStateArrayLength];
+        jobRouteIndex = new JobRouteIndex(vehicleRoutingProblem);
+        addListener((RuinListener) jobRouteIndex);
+        addListener((InsertionListener) jobRouteIndex);
+    }
+
+    /**
+     * Returns the index of the routes that serve the jobs. It is kept up to date by the ruin and insertion this
+     * stateManager is informed about, thus ruin strategies can share it (see
+     * {@link com.graphhopper.jsprit.core.algorithm.ruin.AbstractRuinStrategy#setJobRouteIndex(JobRouteIndex)}).
+     *
+     * @return the job route index
+     */
+    public JobRouteIndex getJobRouteIndex() {
+        return jobRouteIndex;
     }
 
     private int getNuVehicleTypes(VehicleRoutingProblem vrp) {
@@ -191,6 +322,12 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
     public void clear() {
         fill_twoDimArr(activityStates, null);
         fill_threeDimArr(vehicleDependentActivityStates, null);
+        clear_rows(doubleActivityStatesPresent);
+        clear_rows(vehicleDependentDoubleActivityStatesPresent);
+        clear_rows(intActivityStatesPresent);
+        clear_rows(vehicleDependentIntActivityStatesPresent);
+        fill_twoDimArr(capacityActivityStates, null);
+        fill_twoDimArr(vehicleDependentCapacityActivityStates, null);
         if(isIndexedBased) {
             fill_twoDimArr(routeStatesArr, null);
             fill_threeDimArr(vehicleDependentRouteStatesArr, null);
@@ -212,10 +349,92 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 
     private void fill_twoDimArr(Object[][] states, Object o) {
         for (Object[] rows : states) {
-            Arrays.fill(rows, o);
+            if (rows != null) Arrays.fill(rows, o);
         }
     }
 
+    private void clear_rows(BitSet[] present) {
+        for (BitSet row : present) {
+            if (row != null) row.clear();
+        }
+    }
+
+    private int vehicleDependentIndex(TourActivity act, Vehicle vehicle) {
+        return act.getIndex() * nuVehicleTypeKeys + vehicle.getVehicleTypeIdentifier().getIndex();
+    }
+
+    private static double[] getOrCreateRow(double[][] states, BitSet[] present, int stateIndex, int length) {
+        double[] row = states[stateIndex];
+        if (row == null) {
+            row = new double[length];
+            states[stateIndex] = row;
+            present[stateIndex] = new BitSet(length);
+        }
+        return row;
+    }
+
+    private static int[] getOrCreateRow(int[][] states, BitSet[] present, int stateIndex, int length) {
+        int[] row = states[stateIndex];
+        if (row == null) {
+            row = new int[length];
+            states[stateIndex] = row;
+            present[stateIndex] = new BitSet(length);
+        }
+        return row;
+    }
+
+    private static Capacity[] getOrCreateRow(Capacity[][] states, int stateIndex, int length) {
+        Capacity[] row = states[stateIndex];
+        if (row == null) {
+            row = new Capacity[length];
+            states[stateIndex] = row;
+        }
+        return row;
+    }
+
+    private static boolean isPresent(BitSet[] present, int stateIndex, int index) {
+        BitSet row = present[stateIndex];
+        return row != null && row.get(index);
+    }
+
+    private static void setPresent(BitSet[] present, int stateIndex, int index, boolean isPresent) {
+        BitSet row = present[stateIndex];
+        if (row != null) row.set(index, isPresent);
+    }
+
+    private Object getTypedActivityState(TourActivity act, StateId stateId) {
+        int stateIndex = stateId.getIndex();
+        if (stateId instanceof DoubleStateId) {
+            if (!isPresent(doubleActivityStatesPresent, stateIndex, act.getIndex())) return null;
+            return doubleActivityStates[stateIndex][act.getIndex()];
+        }
+        if (stateId instanceof IntStateId) {
+            if (!isPresent(intActivityStatesPresent, stateIndex, act.getIndex())) return null;
+            return intActivityStates[stateIndex][act.getIndex()];
+        }
+        Capacity[] row = capacityActivityStates[stateIndex];
+        return row == null ? null : row[act.getIndex()];
+    }
+
+    private Object getTypedActivityState(TourActivity act, Vehicle vehicle, StateId stateId) {
+        int stateIndex = stateId.getIndex();
+        int index = vehicleDependentIndex(act, vehicle);
+        if (stateId instanceof DoubleStateId) {
+            if (!isPresent(vehicleDependentDoubleActivityStatesPresent, stateIndex, index)) return null;
+            return vehicleDependentDoubleActivityStates[stateIndex][index];
+        }
+        if (stateId instanceof IntStateId) {
+            if (!isPresent(vehicleDependentIntActivityStatesPresent, stateIndex, index)) return null;
+            return vehicleDependentIntActivityStates[stateIndex][index];
+        }
+        Capacity[] row = vehicleDependentCapacityActivityStates[stateIndex];
+        return row == null ? null : row[index];
+    }
+
+    private static boolean isTyped(StateId stateId) {
+        return stateId instanceof DoubleStateId || stateId instanceof IntStateId || stateId instanceof CapacityStateId;
+    }
+
     /**
      * Returns associated state for the specified activity and stateId, or it returns null if no value is associated.
      * <p>If type class is not equal to the associated type class of the requested state value, it throws a ClassCastException.</p>
@@ -232,15 +451,119 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
     public <T> T getActivityState(TourActivity act, StateId stateId, Class<T> type) {
         if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
         if (act.getIndex() < 0) return null;
+        Object stored = isTyped(stateId) ? getTypedActivityState(act, stateId) : activityStates[act.getIndex()][stateId.getIndex()];
         T state;
         try {
-            state = type.cast(activityStates[act.getIndex()][stateId.getIndex()]);
+            state = type.cast(stored);
         } catch (ClassCastException e) {
-            throw getClassCastException(e, stateId, type.toString(), activityStates[act.getIndex()][stateId.getIndex()].getClass().toString());
+            throw getClassCastException(e, stateId, type.toString(), stored.getClass().toString());
         }
         return state;
     }
 
+    /**
+     * Returns the double state associated to the specified activity and stateId, or the default value if no state is associated.
+     *
+     * @param act          the activity for which a state value is associated to
+     * @param stateId      the double stateId
+     * @param defaultValue the value that is returned if no state is associated
+     * @return the associated state or defaultValue
+     * @throws java.lang.IllegalStateException if <code>act.getIndex()==0</code> since this suggests that act has no index at all
+     */
+    @Override
+    public double getActivityState(TourActivity act, DoubleStateId stateId, double defaultValue) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (act.getIndex() < 0) return defaultValue;
+        if (!isPresent(doubleActivityStatesPresent, stateId.getIndex(), act.getIndex())) return defaultValue;
+        return doubleActivityStates[stateId.getIndex()][act.getIndex()];
+    }
+
+    /**
+     * Returns the double state associated to the specified activity, vehicle and stateId, or the default value if no state is associated.
+     *
+     * @param act          the activity for which a state value is associated to
+     * @param vehicle      the vehicle for which a state value is associated to
+     * @param stateId      the double stateId
+     * @param defaultValue the value that is returned if no state is associated
+     * @return the associated state or defaultValue
+     * @throws java.lang.IllegalStateException if <code>act.getIndex()==0</code> since this suggests that act has no index at all
+     */
+    @Override
+    public double getActivityState(TourActivity act, Vehicle vehicle, DoubleStateId stateId, double defaultValue) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (act.getIndex() < 0) return defaultValue;
+        int index = vehicleDependentIndex(act, vehicle);
+        if (!isPresent(vehicleDependentDoubleActivityStatesPresent, stateId.getIndex(), index)) return defaultValue;
+        return vehicleDependentDoubleActivityStates[stateId.getIndex()][index];
+    }
+
+    /**
+     * Returns the int state associated to the specified activity and stateId, or the default value if no state is associated.
+     *
+     * @param act          the activity for which a state value is associated to
+     * @param stateId      the int stateId
+     * @param defaultValue the value that is returned if no state is associated
+     * @return the associated state or defaultValue
+     * @throws java.lang.IllegalStateException if <code>act.getIndex()==0</code> since this suggests that act has no index at all
+     */
+    public int getActivityState(TourActivity act, IntStateId stateId, int defaultValue) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (act.getIndex() < 0) return defaultValue;
+        if (!isPresent(intActivityStatesPresent, stateId.getIndex(), act.getIndex())) return defaultValue;
+        return intActivityStates[stateId.getIndex()][act.getIndex()];
+    }
+
+    /**
+     * Returns the int state associated to the specified activity, vehicle and stateId, or the default value if no state is associated.
+     *
+     * @param act          the activity for which a state value is associated to
+     * @param vehicle      the vehicle for which a state value is associated to
+     * @param stateId      the int stateId
+     * @param defaultValue the value that is returned if no state is associated
+     * @return the associated state or defaultValue
+     * @throws java.lang.IllegalStateException if <code>act.getIndex()==0</code> since this suggests that act has no index at all
+     */
+    public int getActivityState(TourActivity act, Vehicle vehicle, IntStateId stateId, int defaultValue) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (act.getIndex() < 0) return defaultValue;
+        int index = vehicleDependentIndex(act, vehicle);
+        if (!isPresent(vehicleDependentIntActivityStatesPresent, stateId.getIndex(), index)) return defaultValue;
+        return vehicleDependentIntActivityStates[stateId.getIndex()][index];
+    }
+
+    /**
+     * Returns the capacity state associated to the specified activity and stateId, or null if no state is associated.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param stateId the capacity stateId
+     * @return the associated state or null
+     * @throws java.lang.IllegalStateException if <code>act.getIndex()==0</code> since this suggests that act has no index at all
+     */
+    @Override
+    public Capacity getActivityState(TourActivity act, CapacityStateId stateId) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (act.getIndex() < 0) return null;
+        Capacity[] row = capacityActivityStates[stateId.getIndex()];
+        return row == null ? null : row[act.getIndex()];
+    }
+
+    /**
+     * Returns the capacity state associated to the specified activity, vehicle and stateId, or null if no state is associated.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param vehicle the vehicle for which a state value is associated to
+     * @param stateId the capacity stateId
+     * @return the associated state or null
+     * @throws java.lang.IllegalStateException if <code>act.getIndex()==0</code> since this suggests that act has no index at all
+     */
+    @Override
+    public Capacity getActivityState(TourActivity act, Vehicle vehicle, CapacityStateId stateId) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (act.getIndex() < 0) return null;
+        Capacity[] row = vehicleDependentCapacityActivityStates[stateId.getIndex()];
+        return row == null ? null : row[vehicleDependentIndex(act, vehicle)];
+    }
+
     /**
      * Returns true if a state value is associated to the specified activity, vehicle and stateId.
      *
@@ -252,6 +575,7 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      */
     public boolean hasActivityState(TourActivity act, Vehicle vehicle, StateId stateId) {
         if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (isTyped(stateId)) return getTypedActivityState(act, vehicle, stateId) != null;
         return vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] != null;
     }
 
@@ -273,12 +597,13 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
     public <T> T getActivityState(TourActivity act, Vehicle vehicle, StateId stateId, Class<T> type) {
         if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
         if (act.getIndex() < 0) return null; //act.getIndex() < 0 indicates that act is either Start (-1) or End (-2)
+        Object stored = isTyped(stateId) ? getTypedActivityState(act, vehicle, stateId)
+            : vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()];
         T state;
         try {
-            state = type.cast(vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()]);
+            state = type.cast(stored);
         } catch (ClassCastException e) {
-            Object state_class = vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()];
-            throw getClassCastException(e, stateId, type.toString(), state_class.getClass().toString());
+            throw getClassCastException(e, stateId, type.toString(), stored.getClass().toString());
         }
         return state;
     }
@@ -322,6 +647,32 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
         return state;
     }
 
+    /**
+     * Returns the double route state associated to the route and stateId, or the default value if no state is associated.
+     *
+     * @param route        the route for which the state is requested
+     * @param stateId      the double stateId
+     * @param defaultValue the value that is returned if no state is associated
+     * @return the associated state or defaultValue
+     */
+    @Override
+    public double getRouteState(VehicleRoute route, DoubleStateId stateId, double defaultValue) {
+        Double state = getRouteState(route, stateId, Double.class);
+        return state == null ? defaultValue : state;
+    }
+
+    /**
+     * Returns the capacity route state associated to the route and stateId, or null if no state is associated.
+     *
+     * @param route   the route for which the state is requested
+     * @param stateId the capacity stateId
+     * @return the associated state or null
+     */
+    @Override
+    public Capacity getRouteState(VehicleRoute route, CapacityStateId stateId) {
+        return getRouteState(route, stateId, Capacity.class);
+    }
+
     /**
      * Returns true if a state is assigned to the specified route, vehicle and stateId. Otherwise it returns false.
      *
@@ -417,12 +768,125 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
         putInternalTypedActivityState(act, vehicle, stateId, state);
     }
 
+    /**
+     * Associates the specified activity and double stateId to the state value.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param stateId the double stateId
+     * @param state   the state
+     * @throws java.lang.IllegalStateException if <code>act.getIndex() == 0</code>
+     *                                         || stateId.getIndex < noInternalStates
+     */
+    public void putActivityState(TourActivity act, DoubleStateId stateId, double state) {
+        checkActivityStateToBePut(act, stateId);
+        putInternalTypedActivityState(act, stateId, state);
+    }
+
+    /**
+     * Associates the specified activity, vehicle and double stateId to the state value.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param vehicle the vehicle for which a state value is associated to
+     * @param stateId the double stateId
+     * @param state   the state
+     * @throws java.lang.IllegalStateException if <code>act.getIndex() == 0</code>
+     *                                         || stateId.getIndex < noInternalStates
+     */
+    public void putActivityState(TourActivity act, Vehicle vehicle, DoubleStateId stateId, double state) {
+        checkActivityStateToBePut(act, stateId);
+        putInternalTypedActivityState(act, vehicle, stateId, state);
+    }
+
+    /**
+     * Associates the specified activity and int stateId to the state value.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param stateId the int stateId
+     * @param state   the state
+     * @throws java.lang.IllegalStateException if <code>act.getIndex() == 0</code>
+     *                                         || stateId.getIndex < noInternalStates
+     */
+    public void putActivityState(TourActivity act, IntStateId stateId, int state) {
+        checkActivityStateToBePut(act, stateId);
+        putInternalTypedActivityState(act, stateId, state);
+    }
+
+    /**
+     * Associates the specified activity, vehicle and int stateId to the state value.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param vehicle the vehicle for which a state value is associated to
+     * @param stateId the int stateId
+     * @param state   the state
+     * @throws java.lang.IllegalStateException if <code>act.getIndex() == 0</code>
+     *                                         || stateId.getIndex < noInternalStates
+     */
+    public void putActivityState(TourActivity act, Vehicle vehicle, IntStateId stateId, int state) {
+        checkActivityStateToBePut(act, stateId);
+        putInternalTypedActivityState(act, vehicle, stateId, state);
+    }
+
+    private void checkActivityStateToBePut(TourActivity act, StateId stateId) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (stateId.getIndex() < initialNoStates) StateFactory.throwReservedIdException(stateId.toString());
+    }
+
     <T> void putInternalTypedActivityState(TourActivity act, StateId stateId, T state) {
-        activityStates[act.getIndex()][stateId.getIndex()] = state;
+        if (stateId instanceof DoubleStateId) {
+            if (state == null) setPresent(doubleActivityStatesPresent, stateId.getIndex(), act.getIndex(), false);
+            else putInternalTypedActivityState(act, (DoubleStateId) stateId, (Double) state);
+        } else if (stateId instanceof IntStateId) {
+            if (state == null) setPresent(intActivityStatesPresent, stateId.getIndex(), act.getIndex(), false);
+            else putInternalTypedActivityState(act, (IntStateId) stateId, (Integer) state);
+        } else if (stateId instanceof CapacityStateId) {
+            putInternalTypedActivityState(act, (CapacityStateId) stateId, (Capacity) state);
+        } else {
+            activityStates[act.getIndex()][stateId.getIndex()] = state;
+        }
     }
 
     <T> void putInternalTypedActivityState(TourActivity act, Vehicle vehicle, StateId stateId, T state) {
-        vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] = state;
+        if (stateId instanceof DoubleStateId) {
+            if (state == null) setPresent(vehicleDependentDoubleActivityStatesPresent, stateId.getIndex(), vehicleDependentIndex(act, vehicle), false);
+            else putInternalTypedActivityState(act, vehicle, (DoubleStateId) stateId, (Double) state);
+        } else if (stateId instanceof IntStateId) {
+            if (state == null) setPresent(vehicleDependentIntActivityStatesPresent, stateId.getIndex(), vehicleDependentIndex(act, vehicle), false);
+            else putInternalTypedActivityState(act, vehicle, (IntStateId) stateId, (Integer) state);
+        } else if (stateId instanceof CapacityStateId) {
+            putInternalTypedActivityState(act, vehicle, (CapacityStateId) stateId, (Capacity) state);
+        } else {
+            vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] = state;
+        }
+    }
+
+    void putInternalTypedActivityState(TourActivity act, DoubleStateId stateId, double state) {
+        getOrCreateRow(doubleActivityStates, doubleActivityStatesPresent, stateId.getIndex(), nuActivities)[act.getIndex()] = state;
+        setPresent(doubleActivityStatesPresent, stateId.getIndex(), act.getIndex(), true);
+    }
+
+    void putInternalTypedActivityState(TourActivity act, Vehicle vehicle, DoubleStateId stateId, double state) {
+        int index = vehicleDependentIndex(act, vehicle);
+        getOrCreateRow(vehicleDependentDoubleActivityStates, vehicleDependentDoubleActivityStatesPresent, stateId.getIndex(), nuActivities * nuVehicleTypeKeys)[index] = state;
+        setPresent(vehicleDependentDoubleActivityStatesPresent, stateId.getIndex(), index, true);
+    }
+
+    void putInternalTypedActivityState(TourActivity act, IntStateId stateId, int state) {
+        getOrCreateRow(intActivityStates, intActivityStatesPresent, stateId.getIndex(), nuActivities)[act.getIndex()] = state;
+        setPresent(intActivityStatesPresent, stateId.getIndex(), act.getIndex(), true);
+    }
+
+    void putInternalTypedActivityState(TourActivity act, Vehicle vehicle, IntStateId stateId, int state) {
+        int index = vehicleDependentIndex(act, vehicle);
+        getOrCreateRow(vehicleDependentIntActivityStates, vehicleDependentIntActivityStatesPresent, stateId.getIndex(), nuActivities * nuVehicleTypeKeys)[index] = state;
+        setPresent(vehicleDependentIntActivityStatesPresent, stateId.getIndex(), index, true);
+    }
+
+    void putInternalTypedActivityState(TourActivity act, CapacityStateId stateId, Capacity state) {
+        getOrCreateRow(capacityActivityStates, stateId.getIndex(), nuActivities)[act.getIndex()] = state;
+    }
+
+    void putInternalTypedActivityState(TourActivity act, Vehicle vehicle, CapacityStateId stateId, Capacity state) {
+        getOrCreateRow(vehicleDependentCapacityActivityStates, stateId.getIndex(), nuActivities * nuVehicleTypeKeys)[vehicleDependentIndex(act, vehicle)] = state;
     }
 
     /**
@@ -557,16 +1021,19 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
     public void informJobInserted(Job job2insert, VehicleRoute inRoute, double additionalCosts, double additionalTime) {
 //		log.debug("insert " + job2insert + " in " + inRoute);
         insertionListeners.informJobInserted(job2insert, inRoute, additionalCosts, additionalTime);
+        long start = stateUpdateTimer == null ? 0 : System.nanoTime();
         for (RouteVisitor v : routeVisitors) {
             v.visit(inRoute);
         }
         routeActivityVisitor.visit(inRoute);
         revRouteActivityVisitor.visit(inRoute);
+        if (stateUpdateTimer != null) stateUpdateTimer.recordSince(start);
     }
 
     @Override
     public void informInsertionStarts(Collection<VehicleRoute> vehicleRoutes, Collection<Job> unassignedJobs) {
         insertionListeners.informInsertionStarts(vehicleRoutes, unassignedJobs);
+        long start = stateUpdateTimer == null ? 0 : System.nanoTime();
         for (VehicleRoute route : vehicleRoutes) {
             for (RouteVisitor v : routeVisitors) {
                 v.visit(route);
@@ -574,6 +1041,16 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
             routeActivityVisitor.visit(route);
             revRouteActivityVisitor.visit(route);
         }
+        if (stateUpdateTimer != null) stateUpdateTimer.recordSince(start);
+    }
+
+    /**
+     * Records the time of updating states of routes, i.e. when insertion starts and after each insertion.
+     *
+     * @param metrics the metrics to record to
+     */
+    public void setMetrics(SolverMetrics metrics) {
+        stateUpdateTimer = metrics.timer(SolverMetrics.STATE_UPDATE);
     }
 
     public void reCalculateStates(VehicleRoute route){
@@ -621,6 +1098,16 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
         }
     }
 
+    /**
+     * Updates the max. transport costs of a single leg of each route (see {@link InternalStates#MAX_LEG_COSTS}).
+     */
+    public void updateMaxLegCostStates() {
+        if (!updateMaxLegCosts) {
+            updateMaxLegCosts = true;
+            addStateUpdater(new UpdateMaxLegCosts(vrp.getTransportCosts(), vrp.getActivityCosts(), this));
+        }
+    }
+
     /**
      * Updates time-window states.
      */
@@ -52,7 +52,7 @@ public class UpdateFutureWaitingTimes implements ReverseActivityVisitor, StateUp
 
     @Override
     public void visit(TourActivity activity) {
-        states.putInternalTypedActivityState(activity, route.getVehicle(), InternalStates.FUTURE_WAITING, futureWaiting);
+        states.putInternalTypedActivityState(activity, route.getVehicle(), InternalStates.Typed.FUTURE_WAITING, futureWaiting);
 		if(!(activity instanceof BreakActivity)) {
             futureWaiting += Math.max(activity.getTheoreticalEarliestOperationStartTime() - activity.getArrTime(), 0);
 		}
@@ -62,7 +62,7 @@ class UpdateLoads implements ActivityVisitor, StateUpdater, InsertionStartsListe
 
     @Override
     public void begin(VehicleRoute route) {
-        currentLoad = stateManager.getRouteState(route, InternalStates.LOAD_AT_BEGINNING, Capacity.class);
+        currentLoad = stateManager.getRouteState(route, InternalStates.Typed.LOAD_AT_BEGINNING);
         if (currentLoad == null) currentLoad = defaultValue;
         this.route = route;
     }
@@ -70,7 +70,7 @@ class UpdateLoads implements ActivityVisitor, StateUpdater, InsertionStartsListe
     @Override
     public void visit(TourActivity act) {
         currentLoad = Capacity.addup(currentLoad, act.getSize());
-        stateManager.putInternalTypedActivityState(act, InternalStates.LOAD, currentLoad);
+        stateManager.putInternalTypedActivityState(act, InternalStates.Typed.LOAD, currentLoad);
 //		assert currentLoad.isLessOrEqual(route.getVehicle().getType().getCapacityDimensions()) : "currentLoad at activity must not be > vehicleCapacity";
 //		assert currentLoad.isGreaterOrEqual(Capacity.Builder.newInstance().build()) : "currentLoad at act must not be < 0 in one of the applied dimensions";
     }
@@ -90,8 +90,8 @@ class UpdateLoads implements ActivityVisitor, StateUpdater, InsertionStartsListe
                 loadAtEnd = Capacity.addup(loadAtEnd, j.getSize());
             }
         }
-        stateManager.putTypedInternalRouteState(route, InternalStates.LOAD_AT_BEGINNING, loadAtDepot);
-        stateManager.putTypedInternalRouteState(route, InternalStates.LOAD_AT_END, loadAtEnd);
+        stateManager.putTypedInternalRouteState(route, InternalStates.Typed.LOAD_AT_BEGINNING, loadAtDepot);
+        stateManager.putTypedInternalRouteState(route, InternalStates.Typed.LOAD_AT_END, loadAtEnd);
     }
 
     @Override
@@ -104,13 +104,13 @@ class UpdateLoads implements ActivityVisitor, StateUpdater, InsertionStartsListe
     @Override
     public void informJobInserted(Job job2insert, VehicleRoute inRoute, double additionalCosts, double additionalTime) {
         if (job2insert instanceof Delivery) {
-            Capacity loadAtDepot = stateManager.getRouteState(inRoute, InternalStates.LOAD_AT_BEGINNING, Capacity.class);
+            Capacity loadAtDepot = stateManager.getRouteState(inRoute, InternalStates.Typed.LOAD_AT_BEGINNING);
             if (loadAtDepot == null) loadAtDepot = defaultValue;
-            stateManager.putTypedInternalRouteState(inRoute, InternalStates.LOAD_AT_BEGINNING, Capacity.addup(loadAtDepot, job2insert.getSize()));
+            stateManager.putTypedInternalRouteState(inRoute, InternalStates.Typed.LOAD_AT_BEGINNING, Capacity.addup(loadAtDepot, job2insert.getSize()));
         } else if (job2insert instanceof Pickup || job2insert instanceof Service) {
-            Capacity loadAtEnd = stateManager.getRouteState(inRoute, InternalStates.LOAD_AT_END, Capacity.class);
+            Capacity loadAtEnd = stateManager.getRouteState(inRoute, InternalStates.Typed.LOAD_AT_END);
             if (loadAtEnd == null) loadAtEnd = defaultValue;
-            stateManager.putTypedInternalRouteState(inRoute, InternalStates.LOAD_AT_END, Capacity.addup(loadAtEnd, job2insert.getSize()));
+            stateManager.putTypedInternalRouteState(inRoute, InternalStates.Typed.LOAD_AT_END, Capacity.addup(loadAtEnd, job2insert.getSize()));
         }
     }
 
@@ -58,14 +58,14 @@ class UpdateMaxCapacityUtilisationAtActivitiesByLookingForwardInRoute implements
     @Override
     public void begin(VehicleRoute route) {
         this.route = route;
-        maxLoad = stateManager.getRouteState(route, InternalStates.LOAD_AT_END, Capacity.class);
+        maxLoad = stateManager.getRouteState(route, InternalStates.Typed.LOAD_AT_END);
         if (maxLoad == null) maxLoad = defaultValue;
     }
 
     @Override
     public void visit(TourActivity act) {
-        maxLoad = Capacity.max(maxLoad, stateManager.getActivityState(act, InternalStates.LOAD, Capacity.class));
-        stateManager.putInternalTypedActivityState(act, InternalStates.FUTURE_MAXLOAD, maxLoad);
+        maxLoad = Capacity.max(maxLoad, stateManager.getActivityState(act, InternalStates.Typed.LOAD));
+        stateManager.putInternalTypedActivityState(act, InternalStates.Typed.FUTURE_MAXLOAD, maxLoad);
 //		assert maxLoad.isLessOrEqual(route.getVehicle().getType().getCapacityDimensions()) : "maxLoad can in every capacity dimension never be bigger than vehicleCap";
 //		assert maxLoad.isGreaterOrEqual(Capacity.Builder.newInstance().build()) : "maxLoad can never be smaller than 0";
     }
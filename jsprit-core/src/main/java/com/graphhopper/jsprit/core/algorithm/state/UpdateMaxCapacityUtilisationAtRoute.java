@@ -52,7 +52,7 @@ class UpdateMaxCapacityUtilisationAtRoute implements ActivityVisitor, StateUpdat
 
     @Override
     public void begin(VehicleRoute route) {
-        currentLoad = stateManager.getRouteState(route, InternalStates.LOAD_AT_BEGINNING, Capacity.class);
+        currentLoad = stateManager.getRouteState(route, InternalStates.Typed.LOAD_AT_BEGINNING);
         if (currentLoad == null) currentLoad = defaultValue;
         maxLoad = currentLoad;
         this.route = route;
@@ -66,6 +66,6 @@ class UpdateMaxCapacityUtilisationAtRoute implements ActivityVisitor, StateUpdat
 
     @Override
     public void finish() {
-        stateManager.putTypedInternalRouteState(route, InternalStates.MAXLOAD, maxLoad);
+        stateManager.putTypedInternalRouteState(route, InternalStates.Typed.MAXLOAD, maxLoad);
     }
 }
@@ -0,0 +1,85 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.state;
+
+import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingActivityCosts;
+import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.ActivityVisitor;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.util.ActivityTimeTracker;
+
+/**
+ * Updates the max. transport costs of a single leg of a route, i.e. <code>stateManager.getRouteState(route, InternalStates.MAX_LEG_COSTS, 0.)</code>.
+ * <p>
+ * <p>The leg back to the depot is only considered if the vehicle returns to its depot.
+ */
+class UpdateMaxLegCosts implements ActivityVisitor, StateUpdater {
+
+    private final StateManager states;
+
+    private final VehicleRoutingTransportCosts transportCosts;
+
+    private final ActivityTimeTracker timeTracker;
+
+    private VehicleRoute route;
+
+    private TourActivity prevAct;
+
+    private double prevActEndTime;
+
+    private double maxLegCosts;
+
+    UpdateMaxLegCosts(VehicleRoutingTransportCosts transportCosts, VehicleRoutingActivityCosts activityCosts, StateManager states) {
+        this.transportCosts = transportCosts;
+        this.states = states;
+        this.timeTracker = new ActivityTimeTracker(transportCosts, activityCosts);
+    }
+
+    @Override
+    public void begin(VehicleRoute route) {
+        this.route = route;
+        timeTracker.begin(route);
+        prevAct = route.getStart();
+        prevActEndTime = timeTracker.getActEndTime();
+        maxLegCosts = 0.;
+    }
+
+    @Override
+    public void visit(TourActivity activity) {
+        timeTracker.visit(activity);
+        addLeg(activity);
+        prevAct = activity;
+        prevActEndTime = timeTracker.getActEndTime();
+    }
+
+    @Override
+    public void finish() {
+        timeTracker.finish();
+        if (route.getVehicle().isReturnToDepot()) addLeg(route.getEnd());
+        states.putTypedInternalRouteState(route, InternalStates.MAX_LEG_COSTS, maxLegCosts);
+        route = null;
+        prevAct = null;
+    }
+
+    private void addLeg(TourActivity activity) {
+        double legCosts = transportCosts.getTransportCost(prevAct.getLocation(), activity.getLocation(), prevActEndTime, route.getDriver(), route.getVehicle());
+        if (legCosts > maxLegCosts) maxLegCosts = legCosts;
+    }
+
+}
@@ -61,7 +61,7 @@ class UpdatePracticalTimeWindows implements ReverseActivityVisitor, StateUpdater
         double potentialLatestArrivalTimeAtCurrAct = latestArrTimeAtPrevAct - transportCosts.getBackwardTransportTime(activity.getLocation(), prevAct.getLocation(), latestArrTimeAtPrevAct, route.getDriver(), route.getVehicle()) - activityCosts.getActivityDuration(activity,latestArrTimeAtPrevAct,route.getDriver(),route.getVehicle());
         double latestArrivalTime = Math.min(activity.getTheoreticalLatestOperationStartTime(), potentialLatestArrivalTimeAtCurrAct);
 
-        states.putInternalTypedActivityState(activity, InternalStates.LATEST_OPERATION_START_TIME, latestArrivalTime);
+        states.putInternalTypedActivityState(activity, InternalStates.Typed.LATEST_OPERATION_START_TIME, latestArrivalTime);
 
         latestArrTimeAtPrevAct = latestArrivalTime;
         prevAct = activity;
@@ -25,6 +25,7 @@ import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.cost.TransportDistance;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingActivityCosts;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
@@ -444,6 +445,8 @@ public class SolutionAnalyser {
 
     private StateManager stateManager;
 
+    private JobRouteIndex jobRouteIndex;
+
     private TransportDistance distanceCalculator;
 
     private StateId waiting_time_id;
@@ -527,6 +530,7 @@ public class SolutionAnalyser {
 
     private void initialise() {
         this.stateManager = new StateManager(vrp);
+        this.jobRouteIndex = new JobRouteIndex(vrp);
         this.stateManager.updateTimeWindowStates();
         this.stateManager.updateLoadStates();
         this.stateManager.updateSkillStates();
@@ -557,6 +561,7 @@ public class SolutionAnalyser {
     private void refreshStates() {
         stateManager.clear();
         stateManager.informInsertionStarts(solution.getRoutes(), null);
+        jobRouteIndex.index(solution.getRoutes());
         clearSolutionIndicators();
         recalculateSolutionIndicators();
     }
@@ -623,6 +628,21 @@ public class SolutionAnalyser {
         refreshStates();
     }
 
+    /**
+     * @param job to get the route from
+     * @return route serving the specified job or null if job is unassigned
+     */
+    public VehicleRoute getRoute(Job job) {
+        if (job == null) throw new IllegalArgumentException("job is missing.");
+        VehicleRoute route = jobRouteIndex.getRoute(job);
+        if (route != null) return route;
+        //jobs of initial routes are not indexed
+        for (VehicleRoute r : solution.getRoutes()) {
+            if (r.getTourActivities().servesJob(job)) return r;
+        }
+        return null;
+    }
+
     /**
      * @param route to get the load at beginning from
      * @return load at start location of specified route
@@ -47,6 +47,42 @@ public class Capacity {
         return capacityBuilder.build();
     }
 
+    /**
+     * Returns true if the sum of cap1 and cap2 is less or equal than toCompare. This is equal to
+     * <code>Capacity.addup(cap1, cap2).isLessOrEqual(toCompare)</code>, but no new capacity is created.
+     *
+     * @param cap1      capacity to be added up
+     * @param cap2      capacity to be added up
+     * @param toCompare the capacity to compare
+     * @return true if cap1 + cap2 is less or equal than toCompare
+     * @throws NullPointerException if one of the args is null
+     */
+    public static boolean isSumLessOrEqual(Capacity cap1, Capacity cap2, Capacity toCompare) {
+        if (cap1 == null || cap2 == null || toCompare == null) throw new NullPointerException("arguments must not be null");
+        for (int i = 0; i < Math.max(cap1.getNuOfDimensions(), cap2.getNuOfDimensions()); i++) {
+            if (cap1.get(i) + cap2.get(i) > toCompare.get(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if cap minus cap2subtract is less or equal than toCompare. This is equal to
+     * <code>Capacity.subtract(cap, cap2subtract).isLessOrEqual(toCompare)</code>, but no new capacity is created.
+     *
+     * @param cap          capacity to be subtracted from
+     * @param cap2subtract capacity to subtract
+     * @param toCompare    the capacity to compare
+     * @return true if cap - cap2subtract is less or equal than toCompare
+     * @throws NullPointerException if one of the args is null
+     */
+    public static boolean isDifferenceLessOrEqual(Capacity cap, Capacity cap2subtract, Capacity toCompare) {
+        if (cap == null || cap2subtract == null || toCompare == null) throw new NullPointerException("arguments must not be null");
+        for (int i = 0; i < Math.max(cap.getNuOfDimensions(), cap2subtract.getNuOfDimensions()); i++) {
+            if (cap.get(i) - cap2subtract.get(i) > toCompare.get(i)) return false;
+        }
+        return true;
+    }
+
     /**
      * Subtracts cap2subtract from cap and returns the resulting Capacity.
      *
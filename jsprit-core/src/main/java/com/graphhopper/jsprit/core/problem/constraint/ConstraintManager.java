@@ -28,7 +28,9 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Manager that manage hard- and soft constraints, both on route and activity level.
@@ -81,15 +83,15 @@ public class ConstraintManager implements HardActivityConstraint, HardRouteConst
         return hardRouteConstraintManager.getConstraints();
     }
 
-    public Collection<HardActivityConstraint> getCriticalHardActivityConstraints() {
+    public List<HardActivityConstraint> getCriticalHardActivityConstraints() {
         return actLevelConstraintManager.getCriticalConstraints();
     }
 
-    public Collection<HardActivityConstraint> getHighPrioHardActivityConstraints() {
+    public List<HardActivityConstraint> getHighPrioHardActivityConstraints() {
         return actLevelConstraintManager.getHighPrioConstraints();
     }
 
-    public Collection<HardActivityConstraint> getLowPrioHardActivityConstraints() {
+    public List<HardActivityConstraint> getLowPrioHardActivityConstraints() {
         return actLevelConstraintManager.getLowPrioConstraints();
     }
 //    public Collection<HardActivityConstraint> getHardActivityConstraints() {
@@ -193,6 +195,79 @@ public class ConstraintManager implements HardActivityConstraint, HardRouteConst
         return actLevelConstraintManager.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
     }
 
+    /**
+     * Evaluates hard activity constraints like {@link #fulfilled(JobInsertionContext, TourActivity, TourActivity, TourActivity, double)},
+     * and memorizes the constraints that are not fulfilled.
+     *
+     * @param failedConstraints constraints that are not fulfilled are added to it. if one returns NOT_FULFILLED_BREAK,
+     *                          only this one is kept.
+     * @return constraints status
+     */
+    public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime, List<HardActivityConstraint> failedConstraints) {
+        return actLevelConstraintManager.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime, failedConstraints);
+    }
+
+    /**
+     * Enables or disables counting how often each hard activity constraint is evaluated and how often it rejects an
+     * insertion. Counting is thread-safe and cheap, but it is disabled by default.
+     *
+     * @param countEvaluations true if evaluations should be counted
+     */
+    public void setCountEvaluations(boolean countEvaluations) {
+        actLevelConstraintManager.setCountEvaluations(countEvaluations);
+    }
+
+    /**
+     * Enables or disables profiling of hard activity constraints, i.e. counting evaluations and rejections and
+     * measuring evaluation time. Time is only measured for a sample of evaluations, but it still adds some overhead if
+     * constraints are cheap.
+     *
+     * @param profiling true if constraints should be profiled
+     */
+    public void setConstraintProfiling(boolean profiling) {
+        actLevelConstraintManager.setProfiling(profiling);
+    }
+
+    /**
+     * Enables or disables adaptive ordering of critical and high prio hard activity constraints. If enabled,
+     * constraints are profiled and periodically re-ordered within their priority such that cheap constraints that
+     * frequently reject insertions are evaluated first. Low prio constraints keep their order.
+     * <p>
+     * <p>This does not change whether an insertion is feasible as long as constraints have no side effects. However,
+     * which constraint is reported as reason for unassigned jobs might differ.
+     *
+     * @param adaptiveOrdering true if constraints should be re-ordered
+     */
+    public void setAdaptiveConstraintOrdering(boolean adaptiveOrdering) {
+        actLevelConstraintManager.setAdaptiveOrdering(adaptiveOrdering);
+    }
+
+    /**
+     * Returns the evaluation statistics of each hard activity constraint, recorded since counting, profiling or
+     * adaptive ordering has been enabled.
+     *
+     * @return statistics in order of registration
+     */
+    public List<ConstraintStatistics> getConstraintStatistics() {
+        return actLevelConstraintManager.getStatistics();
+    }
+
+    /**
+     * Returns the number of evaluations of hard activity constraints by constraint class.
+     *
+     * @return number of evaluations by constraint class
+     * @see #getConstraintStatistics()
+     */
+    public Map<Class<?>, Long> getNoEvaluationsPerConstraint() {
+        Map<Class<?>, Long> evaluations = new HashMap<Class<?>, Long>();
+        for (ConstraintStatistics statistics : getConstraintStatistics()) {
+            Class<?> constraintClass = statistics.getConstraint().getClass();
+            Long n = evaluations.get(constraintClass);
+            evaluations.put(constraintClass, n == null ? statistics.getNoEvaluations() : n + statistics.getNoEvaluations());
+        }
+        return evaluations;
+    }
+
     public Collection<Constraint> getConstraints() {
         List<Constraint> constraints = new ArrayList<Constraint>();
         constraints.addAll(actLevelConstraintManager.getAllConstraints());
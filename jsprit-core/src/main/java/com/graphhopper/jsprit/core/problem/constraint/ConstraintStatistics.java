@@ -0,0 +1,90 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem.constraint;
+
+/**
+ * Evaluation statistics of a hard activity constraint, see {@link ConstraintManager#getConstraintStatistics()}.
+ * <p>
+ * <p>A rejection is an evaluation that returned NOT_FULFILLED or NOT_FULFILLED_BREAK. Evaluation time is only measured
+ * if constraint profiling is enabled. It is extrapolated from a sample of evaluations.
+ *
+ * @author stefan schroeder
+ */
+public class ConstraintStatistics {
+
+    private final HardActivityConstraint constraint;
+
+    private final ConstraintManager.Priority priority;
+
+    private final long noEvaluations;
+
+    private final long noRejections;
+
+    private final long totalTimeNanos;
+
+    ConstraintStatistics(HardActivityConstraint constraint, ConstraintManager.Priority priority, long noEvaluations, long noRejections, long totalTimeNanos) {
+        this.constraint = constraint;
+        this.priority = priority;
+        this.noEvaluations = noEvaluations;
+        this.noRejections = noRejections;
+        this.totalTimeNanos = totalTimeNanos;
+    }
+
+    public HardActivityConstraint getConstraint() {
+        return constraint;
+    }
+
+    public ConstraintManager.Priority getPriority() {
+        return priority;
+    }
+
+    public long getNoEvaluations() {
+        return noEvaluations;
+    }
+
+    public long getNoRejections() {
+        return noRejections;
+    }
+
+    public long getTotalTimeNanos() {
+        return totalTimeNanos;
+    }
+
+    /**
+     * @return share of evaluations that rejected an insertion, or 0 if the constraint has not been evaluated
+     */
+    public double getRejectionRate() {
+        if (noEvaluations == 0) return 0.;
+        return (double) noRejections / noEvaluations;
+    }
+
+    /**
+     * @return average evaluation time in nanoseconds, or 0 if it has not been measured
+     */
+    public double getAvgTimeNanos() {
+        if (noEvaluations == 0) return 0.;
+        return (double) totalTimeNanos / noEvaluations;
+    }
+
+    @Override
+    public String toString() {
+        return "[constraint=" + constraint.getClass().getSimpleName() + "][priority=" + priority + "][#evaluations=" + noEvaluations
+            + "][#rejections=" + noRejections + "][totalTimeNanos=" + totalTimeNanos + "]";
+    }
+
+}
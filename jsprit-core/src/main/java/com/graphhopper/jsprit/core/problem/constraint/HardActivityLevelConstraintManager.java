@@ -21,84 +21,311 @@ import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 
 class HardActivityLevelConstraintManager implements HardActivityConstraint {
 
-    private Collection<HardActivityConstraint> criticalConstraints = new ArrayList<HardActivityConstraint>();
+    //number of evaluations per thread after which constraints are re-ordered if adaptive ordering is enabled
+    static final int REORDERING_INTERVAL = 10000;
 
-    private Collection<HardActivityConstraint> highPrioConstraints = new ArrayList<HardActivityConstraint>();
+    //evaluation time is measured for every 16th evaluation of a constraint only since measuring costs as much as
+    //evaluating cheap constraints
+    private static final int TIME_SAMPLING_MASK = 15;
 
-    private Collection<HardActivityConstraint> lowPrioConstraints = new ArrayList<HardActivityConstraint>();
+    //constraints of a priority class are evaluated in the order of an immutable snapshot. it is replaced when
+    //constraints are added or re-ordered, thus re-ordering does not interfere with concurrent evaluations.
+    private static final class Ordering {
 
-    public void addConstraint(HardActivityConstraint constraint, ConstraintManager.Priority priority) {
+        private final HardActivityConstraint[] constraints;
+
+        private final int[] ids;
+
+        private final List<HardActivityConstraint> view;
+
+        private Ordering(HardActivityConstraint[] constraints, int[] ids) {
+            this.constraints = constraints;
+            this.ids = ids;
+            this.view = Collections.unmodifiableList(Arrays.asList(constraints));
+        }
+
+        private Ordering add(HardActivityConstraint constraint, int id) {
+            HardActivityConstraint[] newConstraints = Arrays.copyOf(constraints, constraints.length + 1);
+            newConstraints[constraints.length] = constraint;
+            int[] newIds = Arrays.copyOf(ids, ids.length + 1);
+            newIds[ids.length] = id;
+            return new Ordering(newConstraints, newIds);
+        }
+
+    }
+
+    //statistics are recorded per thread without synchronization and indexed by constraint id, i.e. by registration
+    //order. they are summed up when they are read.
+    private static final class Statistics {
+
+        private long[] evaluations = new long[0];
+
+        private long[] rejections = new long[0];
+
+        private long[] timeNanos = new long[0];
+
+        private int evaluationsSinceReordering = 0;
+
+    }
+
+    private final List<HardActivityConstraint> constraints = new ArrayList<HardActivityConstraint>();
+
+    private final List<ConstraintManager.Priority> priorities = new ArrayList<ConstraintManager.Priority>();
+
+    private volatile int noConstraints = 0;
+
+    private volatile Ordering criticalConstraints = new Ordering(new HardActivityConstraint[0], new int[0]);
+
+    private volatile Ordering highPrioConstraints = criticalConstraints;
+
+    private volatile Ordering lowPrioConstraints = criticalConstraints;
+
+    private boolean countEvaluations = false;
+
+    private boolean profiling = false;
+
+    private volatile boolean adaptiveOrdering = false;
+
+    //derived from the settings above
+    private volatile boolean recordStatistics = false;
+
+    private volatile boolean measureTime = false;
+
+    private final List<Statistics> statistics = Collections.synchronizedList(new ArrayList<Statistics>());
+
+    private final ThreadLocal<Statistics> threadStatistics = new ThreadLocal<Statistics>() {
+
+        @Override
+        protected Statistics initialValue() {
+            Statistics s = new Statistics();
+            statistics.add(s);
+            return s;
+        }
+
+    };
+
+    public synchronized void addConstraint(HardActivityConstraint constraint, ConstraintManager.Priority priority) {
+        int id = constraints.size();
+        constraints.add(constraint);
+        priorities.add(priority);
         if (priority.equals(ConstraintManager.Priority.CRITICAL)) {
-            criticalConstraints.add(constraint);
+            criticalConstraints = criticalConstraints.add(constraint, id);
         } else if (priority.equals(ConstraintManager.Priority.HIGH)) {
-            highPrioConstraints.add(constraint);
+            highPrioConstraints = highPrioConstraints.add(constraint, id);
         } else {
-            lowPrioConstraints.add(constraint);
+            lowPrioConstraints = lowPrioConstraints.add(constraint, id);
         }
+        noConstraints = constraints.size();
     }
 
-    Collection<HardActivityConstraint> getCriticalConstraints() {
-        return Collections.unmodifiableCollection(criticalConstraints);
+    List<HardActivityConstraint> getCriticalConstraints() {
+        return criticalConstraints.view;
     }
 
-    Collection<HardActivityConstraint> getHighPrioConstraints() {
-        return Collections.unmodifiableCollection(highPrioConstraints);
+    List<HardActivityConstraint> getHighPrioConstraints() {
+        return highPrioConstraints.view;
     }
 
-    Collection<HardActivityConstraint> getLowPrioConstraints() {
-        return Collections.unmodifiableCollection(lowPrioConstraints);
+    List<HardActivityConstraint> getLowPrioConstraints() {
+        return lowPrioConstraints.view;
     }
 
-    Collection<HardActivityConstraint> getAllConstraints() {
+    synchronized Collection<HardActivityConstraint> getAllConstraints() {
         List<HardActivityConstraint> c = new ArrayList<HardActivityConstraint>();
-        c.addAll(criticalConstraints);
-        c.addAll(highPrioConstraints);
-        c.addAll(lowPrioConstraints);
+        for (ConstraintManager.Priority priority : ConstraintManager.Priority.values()) {
+            for (int id = 0; id < constraints.size(); id++) {
+                if (priorities.get(id).equals(priority)) c.add(constraints.get(id));
+            }
+        }
         return Collections.unmodifiableCollection(c);
     }
 
-    @Override
-    public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
-        ConstraintsStatus notFulfilled = null;
-        for (HardActivityConstraint c : criticalConstraints) {
-            ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
-            if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
-                return status;
-            } else {
-                if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
-                    notFulfilled = status;
+    synchronized void setCountEvaluations(boolean countEvaluations) {
+        this.countEvaluations = countEvaluations;
+        updateRecording();
+    }
+
+    synchronized void setProfiling(boolean profiling) {
+        this.profiling = profiling;
+        updateRecording();
+    }
+
+    synchronized void setAdaptiveOrdering(boolean adaptiveOrdering) {
+        this.adaptiveOrdering = adaptiveOrdering;
+        updateRecording();
+    }
+
+    private void updateRecording() {
+        measureTime = profiling || adaptiveOrdering;
+        recordStatistics = countEvaluations || measureTime;
+    }
+
+    /**
+     * Returns the statistics of all constraints summed up over all threads, in registration order.
+     *
+     * @return statistics of each constraint
+     */
+    synchronized List<ConstraintStatistics> getStatistics() {
+        long[] evaluations = new long[constraints.size()];
+        long[] rejections = new long[constraints.size()];
+        long[] timeNanos = new long[constraints.size()];
+        sumUpStatistics(evaluations, rejections, timeNanos);
+        List<ConstraintStatistics> result = new ArrayList<ConstraintStatistics>(constraints.size());
+        for (int id = 0; id < constraints.size(); id++) {
+            result.add(new ConstraintStatistics(constraints.get(id), priorities.get(id), evaluations[id], rejections[id], timeNanos[id]));
+        }
+        return result;
+    }
+
+    private void sumUpStatistics(long[] evaluations, long[] rejections, long[] timeNanos) {
+        synchronized (statistics) {
+            for (Statistics s : statistics) {
+                long[] e = s.evaluations;
+                long[] r = s.rejections;
+                long[] t = s.timeNanos;
+                for (int id = 0; id < evaluations.length && id < e.length && id < r.length && id < t.length; id++) {
+                    evaluations[id] += e[id];
+                    rejections[id] += r[id];
+                    timeNanos[id] += t[id];
                 }
             }
         }
-        if (notFulfilled != null) return notFulfilled;
+    }
 
-        for (HardActivityConstraint c : highPrioConstraints) {
-            ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
-            if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
-                return status;
-            } else {
-                if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
-                    notFulfilled = status;
-                }
+    /**
+     * Re-orders critical and high prio constraints such that constraints with the least expected time to reject an
+     * insertion are evaluated first, i.e. by average evaluation time divided by rejection rate. Constraints that have
+     * not rejected anything yet keep their relative order at the end.
+     * <p>
+     * <p>Low prio constraints are not re-ordered since the first one that is not fulfilled determines the status. For
+     * critical and high prio constraints the status does not depend on the order as long as constraints have no side
+     * effects.
+     */
+    synchronized void reorder() {
+        long[] evaluations = new long[constraints.size()];
+        long[] rejections = new long[constraints.size()];
+        long[] timeNanos = new long[constraints.size()];
+        sumUpStatistics(evaluations, rejections, timeNanos);
+        final double[] expectedTimeToReject = new double[constraints.size()];
+        for (int id = 0; id < constraints.size(); id++) {
+            if (rejections[id] == 0) expectedTimeToReject[id] = Double.MAX_VALUE;
+            else expectedTimeToReject[id] = (double) timeNanos[id] / rejections[id];
+        }
+        criticalConstraints = reorder(criticalConstraints, expectedTimeToReject);
+        highPrioConstraints = reorder(highPrioConstraints, expectedTimeToReject);
+    }
+
+    private static Ordering reorder(Ordering ordering, final double[] expectedTimeToReject) {
+        Integer[] positions = new Integer[ordering.ids.length];
+        for (int i = 0; i < positions.length; i++) positions[i] = i;
+        final int[] ids = ordering.ids;
+        //stable sort, i.e. ties keep their order
+        Arrays.sort(positions, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer p1, Integer p2) {
+                return Double.compare(expectedTimeToReject[ids[p1]], expectedTimeToReject[ids[p2]]);
             }
+        });
+        boolean changed = false;
+        HardActivityConstraint[] newConstraints = new HardActivityConstraint[positions.length];
+        int[] newIds = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            newConstraints[i] = ordering.constraints[positions[i]];
+            newIds[i] = ids[positions[i]];
+            if (positions[i] != i) changed = true;
         }
-        if (notFulfilled != null) return notFulfilled;
+        if (!changed) return ordering;
+        return new Ordering(newConstraints, newIds);
+    }
 
-        for (HardActivityConstraint constraint : lowPrioConstraints) {
-            ConstraintsStatus status = constraint.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
-            if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK) || status.equals(ConstraintsStatus.NOT_FULFILLED)) {
+    private Statistics getThreadStatistics() {
+        Statistics s = threadStatistics.get();
+        int n = noConstraints;
+        if (s.evaluations.length < n) {
+            s.evaluations = Arrays.copyOf(s.evaluations, n);
+            s.rejections = Arrays.copyOf(s.rejections, n);
+            s.timeNanos = Arrays.copyOf(s.timeNanos, n);
+        }
+        return s;
+    }
+
+    @Override
+    public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
+        return fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime, null);
+    }
+
+    /**
+     * Evaluates critical, then high prio and then low prio constraints.
+     *
+     * @param failedConstraints if not null, constraints that are not fulfilled are added. if one returns
+     *                          NOT_FULFILLED_BREAK, only this one is kept.
+     */
+    ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime, List<HardActivityConstraint> failedConstraints) {
+        Statistics s = recordStatistics ? getThreadStatistics() : null;
+        int noFailedBefore = failedConstraints == null ? 0 : failedConstraints.size();
+        ConstraintsStatus status = fulfilled(criticalConstraints, false, s, iFacts, prevAct, newAct, nextAct, prevActDepTime, failedConstraints, noFailedBefore);
+        if (status.equals(ConstraintsStatus.FULFILLED)) {
+            status = fulfilled(highPrioConstraints, false, s, iFacts, prevAct, newAct, nextAct, prevActDepTime, failedConstraints, noFailedBefore);
+        }
+        if (status.equals(ConstraintsStatus.FULFILLED)) {
+            status = fulfilled(lowPrioConstraints, true, s, iFacts, prevAct, newAct, nextAct, prevActDepTime, failedConstraints, noFailedBefore);
+        }
+        if (s != null && adaptiveOrdering && ++s.evaluationsSinceReordering >= REORDERING_INTERVAL) {
+            s.evaluationsSinceReordering = 0;
+            reorder();
+        }
+        return status;
+    }
+
+    private ConstraintsStatus fulfilled(Ordering ordering, boolean firstRejectionDecides, Statistics s, JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime, List<HardActivityConstraint> failedConstraints, int noFailedBefore) {
+        HardActivityConstraint[] constraints = ordering.constraints;
+        boolean notFulfilled = false;
+        for (int i = 0; i < constraints.length; i++) {
+            HardActivityConstraint c = constraints[i];
+            ConstraintsStatus status;
+            if (s == null) {
+                status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
+            } else {
+                status = fulfilledAndRecorded(c, ordering.ids[i], s, iFacts, prevAct, newAct, nextAct, prevActDepTime);
+            }
+            if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
+                if (failedConstraints != null) {
+                    while (failedConstraints.size() > noFailedBefore) failedConstraints.remove(failedConstraints.size() - 1);
+                    failedConstraints.add(c);
+                }
                 return status;
+            } else if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
+                if (failedConstraints != null) failedConstraints.add(c);
+                if (firstRejectionDecides) return status;
+                notFulfilled = true;
             }
         }
-
+        if (notFulfilled) return ConstraintsStatus.NOT_FULFILLED;
         return ConstraintsStatus.FULFILLED;
     }
 
+    private ConstraintsStatus fulfilledAndRecorded(HardActivityConstraint c, int id, Statistics s, JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
+        if (!measureTime || (s.evaluations[id] & TIME_SAMPLING_MASK) != 0) {
+            ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
+            s.evaluations[id]++;
+            if (!status.equals(ConstraintsStatus.FULFILLED)) s.rejections[id]++;
+            return status;
+        }
+        long start = System.nanoTime();
+        ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
+        s.timeNanos[id] += (System.nanoTime() - start) * (TIME_SAMPLING_MASK + 1);
+        s.evaluations[id]++;
+        if (!status.equals(ConstraintsStatus.FULFILLED)) s.rejections[id]++;
+        return status;
+    }
+
 }
@@ -25,6 +25,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.PickupShipmen
 import com.graphhopper.jsprit.core.problem.solution.route.activity.Start;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
+import com.graphhopper.jsprit.core.problem.solution.route.state.TypedRouteAndActivityStateGetter;
 
 
 /**
@@ -37,7 +38,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivity
  */
 public class PickupAndDeliverShipmentLoadActivityLevelConstraint implements HardActivityConstraint {
 
-    private RouteAndActivityStateGetter stateManager;
+    private TypedRouteAndActivityStateGetter stateManager;
 
     private Capacity defaultValue;
 
@@ -51,7 +52,7 @@ public class PickupAndDeliverShipmentLoadActivityLevelConstraint implements Hard
      */
     public PickupAndDeliverShipmentLoadActivityLevelConstraint(RouteAndActivityStateGetter stateManager) {
         super();
-        this.stateManager = stateManager;
+        this.stateManager = TypedRouteAndActivityStateGetter.Adapter.of(stateManager);
         defaultValue = Capacity.Builder.newInstance().build();
     }
 
@@ -65,19 +66,19 @@ public class PickupAndDeliverShipmentLoadActivityLevelConstraint implements Hard
         }
         Capacity loadAtPrevAct;
         if (prevAct instanceof Start) {
-            loadAtPrevAct = stateManager.getRouteState(iFacts.getRoute(), InternalStates.LOAD_AT_BEGINNING, Capacity.class);
+            loadAtPrevAct = stateManager.getRouteState(iFacts.getRoute(), InternalStates.Typed.LOAD_AT_BEGINNING);
             if (loadAtPrevAct == null) loadAtPrevAct = defaultValue;
         } else {
-            loadAtPrevAct = stateManager.getActivityState(prevAct, InternalStates.LOAD, Capacity.class);
+            loadAtPrevAct = stateManager.getActivityState(prevAct, InternalStates.Typed.LOAD);
             if (loadAtPrevAct == null) loadAtPrevAct = defaultValue;
         }
         if (newAct instanceof PickupShipment) {
-            if (!Capacity.addup(loadAtPrevAct, newAct.getSize()).isLessOrEqual(iFacts.getNewVehicle().getType().getCapacityDimensions())) {
+            if (!Capacity.isSumLessOrEqual(loadAtPrevAct, newAct.getSize(), iFacts.getNewVehicle().getType().getCapacityDimensions())) {
                 return ConstraintsStatus.NOT_FULFILLED;
             }
         }
         if (newAct instanceof DeliverShipment) {
-            if (!Capacity.addup(loadAtPrevAct, Capacity.invert(newAct.getSize())).isLessOrEqual(iFacts.getNewVehicle().getType().getCapacityDimensions()))
+            if (!Capacity.isDifferenceLessOrEqual(loadAtPrevAct, newAct.getSize(), iFacts.getNewVehicle().getType().getCapacityDimensions()))
                 return ConstraintsStatus.NOT_FULFILLED_BREAK;
         }
         return ConstraintsStatus.FULFILLED;
@@ -22,6 +22,7 @@ import com.graphhopper.jsprit.core.problem.Capacity;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.*;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
+import com.graphhopper.jsprit.core.problem.solution.route.state.TypedRouteAndActivityStateGetter;
 
 
 /**
@@ -33,13 +34,13 @@ import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivity
  */
 public class ServiceLoadActivityLevelConstraint implements HardActivityConstraint {
 
-    private RouteAndActivityStateGetter stateManager;
+    private TypedRouteAndActivityStateGetter stateManager;
 
     private Capacity defaultValue;
 
     public ServiceLoadActivityLevelConstraint(RouteAndActivityStateGetter stateManager) {
         super();
-        this.stateManager = stateManager;
+        this.stateManager = TypedRouteAndActivityStateGetter.Adapter.of(stateManager);
         defaultValue = Capacity.Builder.newInstance().build();
     }
 
@@ -48,24 +49,24 @@ public class ServiceLoadActivityLevelConstraint implements HardActivityConstrain
         Capacity futureMaxLoad;
         Capacity prevMaxLoad;
         if (prevAct instanceof Start) {
-            futureMaxLoad = stateManager.getRouteState(iFacts.getRoute(), InternalStates.MAXLOAD, Capacity.class);
+            futureMaxLoad = stateManager.getRouteState(iFacts.getRoute(), InternalStates.Typed.MAXLOAD);
             if (futureMaxLoad == null) futureMaxLoad = defaultValue;
-            prevMaxLoad = stateManager.getRouteState(iFacts.getRoute(), InternalStates.LOAD_AT_BEGINNING, Capacity.class);
+            prevMaxLoad = stateManager.getRouteState(iFacts.getRoute(), InternalStates.Typed.LOAD_AT_BEGINNING);
             if (prevMaxLoad == null) prevMaxLoad = defaultValue;
         } else {
-            futureMaxLoad = stateManager.getActivityState(prevAct, InternalStates.FUTURE_MAXLOAD, Capacity.class);
+            futureMaxLoad = stateManager.getActivityState(prevAct, InternalStates.Typed.FUTURE_MAXLOAD);
             if (futureMaxLoad == null) futureMaxLoad = defaultValue;
-            prevMaxLoad = stateManager.getActivityState(prevAct, InternalStates.PAST_MAXLOAD, Capacity.class);
+            prevMaxLoad = stateManager.getActivityState(prevAct, InternalStates.Typed.PAST_MAXLOAD);
             if (prevMaxLoad == null) prevMaxLoad = defaultValue;
 
         }
         if (newAct instanceof PickupService || newAct instanceof ServiceActivity) {
-            if (!Capacity.addup(newAct.getSize(), futureMaxLoad).isLessOrEqual(iFacts.getNewVehicle().getType().getCapacityDimensions())) {
+            if (!Capacity.isSumLessOrEqual(newAct.getSize(), futureMaxLoad, iFacts.getNewVehicle().getType().getCapacityDimensions())) {
                 return ConstraintsStatus.NOT_FULFILLED;
             }
         }
         if (newAct instanceof DeliverService) {
-            if (!Capacity.addup(Capacity.invert(newAct.getSize()), prevMaxLoad).isLessOrEqual(iFacts.getNewVehicle().getType().getCapacityDimensions())) {
+            if (!Capacity.isDifferenceLessOrEqual(prevMaxLoad, newAct.getSize(), iFacts.getNewVehicle().getType().getCapacityDimensions())) {
                 return ConstraintsStatus.NOT_FULFILLED_BREAK;
             }
         }
@@ -26,6 +26,7 @@ import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.End;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
+import com.graphhopper.jsprit.core.problem.solution.route.state.TypedRouteAndActivityStateGetter;
 
 
 /**
@@ -33,7 +34,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivity
  */
 public class VehicleDependentTimeWindowConstraints implements HardActivityConstraint {
 
-    private RouteAndActivityStateGetter states;
+    private TypedRouteAndActivityStateGetter states;
 
     private VehicleRoutingTransportCosts routingCosts;
 
@@ -41,7 +42,7 @@ public class VehicleDependentTimeWindowConstraints implements HardActivityConstr
 
     public VehicleDependentTimeWindowConstraints(RouteAndActivityStateGetter states, VehicleRoutingTransportCosts routingCosts, VehicleRoutingActivityCosts activityCosts) {
         super();
-        this.states = states;
+        this.states = TypedRouteAndActivityStateGetter.Adapter.of(states);
         this.routingCosts = routingCosts;
         this.activityCosts = activityCosts;
     }
@@ -49,7 +50,7 @@ public class VehicleDependentTimeWindowConstraints implements HardActivityConstr
     @Override
     public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
         double latestVehicleArrival = iFacts.getNewVehicle().getLatestArrival();
-        Double latestArrTimeAtNextAct;
+        double latestArrTimeAtNextAct;
         Location nextActLocation;
         if (nextAct instanceof End) {
             latestArrTimeAtNextAct = latestVehicleArrival;
@@ -58,10 +59,8 @@ public class VehicleDependentTimeWindowConstraints implements HardActivityConstr
                 nextActLocation = newAct.getLocation();
             }
         } else {
-            latestArrTimeAtNextAct = states.getActivityState(nextAct, iFacts.getNewVehicle(), InternalStates.LATEST_OPERATION_START_TIME, Double.class);
-            if (latestArrTimeAtNextAct == null) {//otherwise set it to theoretical_latest_operation_startTime
-                latestArrTimeAtNextAct = nextAct.getTheoreticalLatestOperationStartTime();
-            }
+            //if not set, it is the theoretical_latest_operation_startTime
+            latestArrTimeAtNextAct = states.getActivityState(nextAct, iFacts.getNewVehicle(), InternalStates.Typed.LATEST_OPERATION_START_TIME, nextAct.getTheoreticalLatestOperationStartTime());
             nextActLocation = nextAct.getLocation();
         }
 
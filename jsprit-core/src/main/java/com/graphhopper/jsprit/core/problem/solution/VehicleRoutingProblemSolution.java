@@ -32,13 +32,27 @@ import java.util.Collection;
 public class VehicleRoutingProblemSolution {
 
     /**
-     * Makes a deep copy of the solution to be copied.
+     * Makes a copy of the solution to be copied. Its routes are copies that share their activities with the original
+     * routes until they are changed (see {@link VehicleRoute#copyOnWrite(VehicleRoute)}), i.e. only the routes that
+     * are actually changed are deep-copied.
      *
      * @param solution2copy solution to be copied
      * @return solution
      */
     public static VehicleRoutingProblemSolution copyOf(VehicleRoutingProblemSolution solution2copy) {
-        return new VehicleRoutingProblemSolution(solution2copy);
+        return new VehicleRoutingProblemSolution(solution2copy, true);
+    }
+
+    /**
+     * Makes a copy of the solution to be copied whose routes do not share anything with the original routes (see
+     * {@link VehicleRoute#copyOf(VehicleRoute)}). The original is only read, thus several threads can copy the same
+     * solution concurrently.
+     *
+     * @param solution2copy solution to be copied
+     * @return solution
+     */
+    public static VehicleRoutingProblemSolution deepCopyOf(VehicleRoutingProblemSolution solution2copy) {
+        return new VehicleRoutingProblemSolution(solution2copy, false);
     }
 
     private final Collection<VehicleRoute> routes;
@@ -47,10 +61,10 @@ public class VehicleRoutingProblemSolution {
 
     private double cost;
 
-    private VehicleRoutingProblemSolution(VehicleRoutingProblemSolution solution) {
+    private VehicleRoutingProblemSolution(VehicleRoutingProblemSolution solution, boolean copyOnWrite) {
         routes = new ArrayList<VehicleRoute>();
         for (VehicleRoute r : solution.getRoutes()) {
-            VehicleRoute route = VehicleRoute.copyOf(r);
+            VehicleRoute route = copyOnWrite ? VehicleRoute.copyOnWrite(r) : VehicleRoute.copyOf(r);
             routes.add(route);
         }
         this.cost = solution.getCost();
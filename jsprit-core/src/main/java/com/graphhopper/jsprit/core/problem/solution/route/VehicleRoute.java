@@ -45,7 +45,20 @@ public class VehicleRoute {
      */
     public static VehicleRoute copyOf(VehicleRoute route) {
         if (route == null) throw new IllegalArgumentException("route must not be null");
-        return new VehicleRoute(route);
+        return new VehicleRoute(route, false);
+    }
+
+    /**
+     * Returns a copy of this vehicleRoute that shares its activities with the original route until one of them is
+     * changed (see {@link TourActivities#copyOnWrite(TourActivities)}). Start and end are copied.
+     *
+     * @param route route to copy
+     * @return copied route
+     * @throws IllegalArgumentException if route is null
+     */
+    public static VehicleRoute copyOnWrite(VehicleRoute route) {
+        if (route == null) throw new IllegalArgumentException("route must not be null");
+        return new VehicleRoute(route, true);
     }
 
     /**
@@ -338,12 +351,14 @@ public class VehicleRoute {
     /**
      * Copy constructor copying a route.
      *
-     * @param route to copy
+     * @param route       to copy
+     * @param copyOnWrite true if activities are shared until the route is changed
      */
-    private VehicleRoute(VehicleRoute route) {
+    private VehicleRoute(VehicleRoute route, boolean copyOnWrite) {
         this.start = Start.copyOf(route.getStart());
         this.end = End.copyOf(route.getEnd());
-        this.tourActivities = TourActivities.copyOf(route.getTourActivities());
+        if (copyOnWrite) this.tourActivities = TourActivities.copyOnWrite(route.getTourActivities());
+        else this.tourActivities = TourActivities.copyOf(route.getTourActivities());
         this.vehicle = route.getVehicle();
         this.driver = route.getDriver();
     }
@@ -413,6 +428,8 @@ public class VehicleRoute {
      * @param vehicleDepTime of employed vehicle
      */
     public void setVehicleAndDepartureTime(Vehicle vehicle, double vehicleDepTime) {
+        //activity times change, thus they must not be shared anymore
+        tourActivities.unshare();
         this.vehicle = vehicle;
         setStartAndEnd(vehicle, vehicleDepTime);
     }
@@ -21,6 +21,7 @@ import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity.JobActivity;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -33,6 +34,31 @@ public class TourActivities {
         return new TourActivities(tourActivities);
     }
 
+    /**
+     * Returns a copy that shares its activities with the specified tourActivities until one of them is changed.
+     * <p>
+     * <p>Adding or removing activities, i.e. changing the sequence of either of them, first duplicates its activities
+     * as {@link #copyOf(TourActivities)} does. Activities are not duplicated when their times are updated. This is fine
+     * as long as times only depend on the activity sequence, vehicle and departure time, as it is the case with the
+     * state updaters of the algorithm. Otherwise, call {@link #unshare()} first.
+     * <p>
+     * <p>Note that this marks the specified tourActivities as shared, i.e. it must not be called while other threads
+     * access tourActivities. Use {@link #copyOf(TourActivities)} instead.
+     *
+     * @param tourActivities the activities to be copied
+     * @return the copy
+     */
+    public static TourActivities copyOnWrite(TourActivities tourActivities) {
+        TourActivities copy = new TourActivities();
+        copy.tourActivities = tourActivities.tourActivities;
+        copy.jobs = tourActivities.jobs;
+        copy.validPositions = tourActivities.validPositions;
+        copy.version = tourActivities.version;
+        copy.shared = true;
+        tourActivities.shared = true;
+        return copy;
+    }
+
     public static class ReverseActivityIterator implements Iterator<TourActivity> {
 
         private List<TourActivity> acts;
@@ -67,18 +93,32 @@ public class TourActivities {
         }
     }
 
-    private final ArrayList<TourActivity> tourActivities = new ArrayList<TourActivity>();
+    private static final int[] NO_POSITIONS = new int[0];
 
-    private final Set<Job> jobs = new HashSet<Job>();
+    private static final AtomicLong versions = new AtomicLong();
+
+    private ArrayList<TourActivity> tourActivities = new ArrayList<TourActivity>();
+
+    //served jobs and positions of their activities, positions of activities before validPositions are up to date
+    private HashMap<Job, int[]> jobs = new HashMap<Job, int[]>();
+
+    private int validPositions = 0;
 
     private ReverseActivityIterator backward;
 
+    //true if tourActivities and jobs might be shared with another instance
+    private boolean shared = false;
+
+    //0 if there are no activities, otherwise unique for every sequence of activities that has been built
+    private long version = 0;
+
     private TourActivities(TourActivities tour2copy) {
         for (TourActivity tourAct : tour2copy.getActivities()) {
             TourActivity newAct = tourAct.duplicate();
             this.tourActivities.add(newAct);
-            addJob(newAct);
+            addJob(newAct, tourActivities.size() - 1);
         }
+        this.version = tour2copy.version;
     }
 
     public TourActivities() {
@@ -90,15 +130,57 @@ public class TourActivities {
     }
 
     public Iterator<TourActivity> iterator() {
-        return tourActivities.iterator();
+        unshare();
+        return new Iterator<TourActivity>() {
+
+            private int next = 0;
+
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next < tourActivities.size();
+            }
+
+            @Override
+            public TourActivity next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                last = next;
+                return tourActivities.get(next++);
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) throw new IllegalStateException();
+                removeActivityAt(last);
+                next = last;
+                last = -1;
+            }
+        };
     }
 
     public boolean isEmpty() {
         return (tourActivities.size() == 0);
     }
 
+    /**
+     * Returns the version of this activity sequence. It changes whenever activities are added or removed, and it is
+     * kept by copies (see {@link #copyOf(TourActivities)} and {@link #copyOnWrite(TourActivities)}). Thus, two activity
+     * sequences with the same version consist of the same activities, whereas the same activities built up
+     * independently have different versions. An empty sequence has version 0.
+     *
+     * @return version of this activity sequence
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    private void nextVersion() {
+        version = tourActivities.isEmpty() ? 0 : versions.incrementAndGet();
+    }
+
     public Collection<Job> getJobs() {
-        return Collections.unmodifiableSet(jobs);
+        return Collections.unmodifiableSet(jobs.keySet());
     }
 
     /**
@@ -106,7 +188,48 @@ public class TourActivities {
      * @return true if job is in jobList, otherwise false.
      */
     public boolean servesJob(Job job) {
-        return jobs.contains(job);
+        return jobs.containsKey(job);
+    }
+
+    /**
+     * Returns the positions of the activities of the specified job in ascending order, i.e. their indices in
+     * {@link #getActivities()}. The returned array must not be modified.
+     *
+     * @param job the job
+     * @return positions of job's activities or an empty array if job is not served
+     */
+    public int[] getActivityPositions(Job job) {
+        int[] positions = jobs.get(job);
+        if (positions == null) return NO_POSITIONS;
+        if (positions.length > 0 && positions[positions.length - 1] < validPositions) return positions;
+        if (shared) {
+            //the map of positions might be read by a copy, thus positions are determined into a new map
+            jobs = determinePositions();
+            validPositions = tourActivities.size();
+        } else {
+            updatePositions();
+        }
+        return jobs.get(job);
+    }
+
+    /**
+     * Returns the position of the specified activity, i.e. its index in {@link #getActivities()}.
+     *
+     * @param activity the activity to be looked up
+     * @return position of activity or -1 if it is not part of this activity sequence
+     */
+    public int indexOf(TourActivity activity) {
+        Job job = getJob(activity);
+        if (job == null) {
+            for (int i = 0; i < tourActivities.size(); i++) {
+                if (tourActivities.get(i) == activity) return i;
+            }
+            return -1;
+        }
+        for (int position : getActivityPositions(job)) {
+            if (tourActivities.get(position) == activity) return position;
+        }
+        return -1;
     }
 
     @Override
@@ -123,26 +246,17 @@ public class TourActivities {
      * @return true if job has been removed, otherwise false.
      */
     public boolean removeJob(Job job) {
-        boolean jobRemoved = false;
-        if (!jobs.contains(job)) {
-            return false;
-        } else {
-            jobRemoved = jobs.remove(job);
-        }
-        boolean activityRemoved = false;
-        Iterator<TourActivity> iterator = tourActivities.iterator();
-        while (iterator.hasNext()) {
-            TourActivity c = iterator.next();
-            if (c instanceof JobActivity) {
-                Job underlyingJob = ((JobActivity) c).getJob();
-                if (job.equals(underlyingJob)) {
-                    iterator.remove();
-                    activityRemoved = true;
-                }
-            }
+        if (!servesJob(job)) return false;
+        unshare();
+        int[] positions = getActivityPositions(job);
+        for (int i = positions.length - 1; i >= 0; i--) {
+            tourActivities.remove(positions[i]);
         }
-        assert jobRemoved == activityRemoved : "job removed, but belonging activity not.";
-        return activityRemoved;
+        jobs.remove(job);
+        if (positions.length > 0) validPositions = Math.min(validPositions, positions[0]);
+        nextVersion();
+        assert positions.length > 0 : "job removed, but belonging activity not.";
+        return positions.length > 0;
     }
 
 
@@ -155,29 +269,31 @@ public class TourActivities {
      * @return true if activity has been removed, false otherwise
      */
     public boolean removeActivity(TourActivity activity) {
-        Job job = null;
-        if (activity instanceof JobActivity) {
-            job = ((JobActivity) activity).getJob();
-        }
-        boolean jobIsAlsoAssociateToOtherActs = false;
-        boolean actRemoved = false;
-        List<TourActivity> acts = new ArrayList<TourActivity>(tourActivities);
-        for (TourActivity act : acts) {
-            if (act == activity) {
-                tourActivities.remove(act);
-                actRemoved = true;
-            } else {
-                if (act instanceof JobActivity && job != null) {
-                    if (((JobActivity) act).getJob().equals(job)) {
-                        jobIsAlsoAssociateToOtherActs = true;
-                    }
-                }
-            }
-        }
-        if (!jobIsAlsoAssociateToOtherActs && actRemoved) {
+        //if activity is one of the shared activities, its duplicate at the same position is removed
+        int index = indexOf(activity);
+        if (index < 0) return false;
+        unshare();
+        removeActivityAt(index);
+        return true;
+    }
+
+    private void removeActivityAt(int index) {
+        Job job = getJob(tourActivities.get(index));
+        int[] positions = job == null ? null : getActivityPositions(job);
+        tourActivities.remove(index);
+        validPositions = Math.min(validPositions, index);
+        nextVersion();
+        if (job == null) return;
+        if (positions.length == 1) {
             jobs.remove(job);
+            return;
+        }
+        int[] remaining = new int[positions.length - 1];
+        int j = 0;
+        for (int position : positions) {
+            if (position != index) remaining[j++] = position;
         }
-        return actRemoved;
+        jobs.put(job, remaining);
     }
 
 
@@ -194,6 +310,7 @@ public class TourActivities {
     public void addActivity(int insertionIndex, TourActivity act) {
 
         assert insertionIndex >= 0 : "insertionIndex < 0, this cannot be";
+        unshare();
 
 		/*
          * if 1 --> between start and act(0) --> act(0)
@@ -204,10 +321,12 @@ public class TourActivities {
 		 */
         if (insertionIndex < tourActivities.size()) {
             tourActivities.add(insertionIndex, act);
+            addJob(act, insertionIndex);
         } else if (insertionIndex >= tourActivities.size()) {
             tourActivities.add(act);
+            addJob(act, tourActivities.size() - 1);
         }
-        addJob(act);
+        nextVersion();
     }
 
     /**
@@ -218,20 +337,112 @@ public class TourActivities {
      * @throws IllegalArgumentException if activity-list already contains act.
      */
     public void addActivity(TourActivity act) {
-        if (tourActivities.contains(act))
+        if (contains(act))
             throw new IllegalArgumentException("act " + act + " already in tour. cannot add act twice.");
+        unshare();
         tourActivities.add(act);
-        addJob(act);
+        addJob(act, tourActivities.size() - 1);
+        nextVersion();
+    }
+
+    /**
+     * Duplicates the activities if they are shared with a copy (see {@link #copyOnWrite(TourActivities)}), i.e.
+     * afterwards activities can be changed without affecting the copy.
+     */
+    public void unshare() {
+        if (!shared) return;
+        List<TourActivity> sharedActivities = tourActivities;
+        tourActivities = new ArrayList<TourActivity>(sharedActivities.size());
+        jobs = new HashMap<Job, int[]>();
+        validPositions = 0;
+        backward = null;
+        shared = false;
+        for (TourActivity tourAct : sharedActivities) {
+            TourActivity newAct = tourAct.duplicate();
+            tourActivities.add(newAct);
+            addJob(newAct, tourActivities.size() - 1);
+        }
+    }
+
+    private boolean contains(TourActivity act) {
+        Job job = getJob(act);
+        if (job == null) return tourActivities.contains(act);
+        for (int position : getActivityPositions(job)) {
+            if (tourActivities.get(position).equals(act)) return true;
+        }
+        return false;
     }
 
-    private void addJob(TourActivity act) {
-        if (act instanceof JobActivity) {
-            Job job = ((JobActivity) act).getJob();
-//            if(job instanceof Service) assert !jobs.contains(job);
-            jobs.add(job);
+    private void addJob(TourActivity act, int position) {
+        boolean appended = position == tourActivities.size() - 1 && validPositions == position;
+        validPositions = appended ? position + 1 : Math.min(validPositions, position);
+        Job job = getJob(act);
+        if (job == null) return;
+        int[] positions = jobs.get(job);
+        if (positions == null) {
+            jobs.put(job, appended ? new int[]{position} : NO_POSITIONS);
+        } else {
+            //appended positions that are not valid anymore are determined again when positions are updated
+            int[] extended = Arrays.copyOf(positions, positions.length + 1);
+            extended[positions.length] = position;
+            jobs.put(job, extended);
         }
     }
 
+    /**
+     * Determines the positions of all activities from validPositions to the end of the activity sequence again.
+     */
+    private void updatePositions() {
+        for (int i = validPositions; i < tourActivities.size(); i++) {
+            Job job = getJob(tourActivities.get(i));
+            if (job == null) continue;
+            int[] positions = jobs.get(job);
+            int noValid = 0;
+            for (int position : positions) {
+                if (position < validPositions) noValid++;
+            }
+            if (noValid < positions.length) {
+                int[] valid = new int[noValid];
+                int j = 0;
+                for (int position : positions) {
+                    if (position < validPositions) valid[j++] = position;
+                }
+                jobs.put(job, valid);
+            }
+        }
+        for (int i = validPositions; i < tourActivities.size(); i++) {
+            Job job = getJob(tourActivities.get(i));
+            if (job == null) continue;
+            int[] positions = jobs.get(job);
+            int[] extended = Arrays.copyOf(positions, positions.length + 1);
+            extended[positions.length] = i;
+            jobs.put(job, extended);
+        }
+        validPositions = tourActivities.size();
+    }
+
+    private HashMap<Job, int[]> determinePositions() {
+        HashMap<Job, int[]> positions = new HashMap<Job, int[]>(jobs.size() * 2);
+        for (int i = 0; i < tourActivities.size(); i++) {
+            Job job = getJob(tourActivities.get(i));
+            if (job == null) continue;
+            int[] jobPositions = positions.get(job);
+            if (jobPositions == null) {
+                positions.put(job, new int[]{i});
+            } else {
+                int[] extended = Arrays.copyOf(jobPositions, jobPositions.length + 1);
+                extended[jobPositions.length] = i;
+                positions.put(job, extended);
+            }
+        }
+        return positions;
+    }
+
+    private static Job getJob(TourActivity act) {
+        if (act instanceof JobActivity) return ((JobActivity) act).getJob();
+        return null;
+    }
+
     /**
      * Returns number of jobs assiciated to activities in this activity sequence.
      *
@@ -0,0 +1,125 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem.solution.route.state;
+
+import com.graphhopper.jsprit.core.algorithm.state.CapacityStateId;
+import com.graphhopper.jsprit.core.algorithm.state.DoubleStateId;
+import com.graphhopper.jsprit.core.algorithm.state.StateId;
+import com.graphhopper.jsprit.core.problem.Capacity;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+/**
+ * Getter of states that returns double and capacity states without casting or unboxing them.
+ * <p>
+ * <p>Callers that are given a {@link RouteAndActivityStateGetter} use {@link Adapter#of(RouteAndActivityStateGetter)},
+ * which falls back to its generic getters if it does not implement this interface.
+ */
+public interface TypedRouteAndActivityStateGetter extends RouteAndActivityStateGetter {
+
+    public double getActivityState(TourActivity act, DoubleStateId stateId, double defaultValue);
+
+    public double getActivityState(TourActivity act, Vehicle vehicle, DoubleStateId stateId, double defaultValue);
+
+    public Capacity getActivityState(TourActivity act, CapacityStateId stateId);
+
+    public Capacity getActivityState(TourActivity act, Vehicle vehicle, CapacityStateId stateId);
+
+    public double getRouteState(VehicleRoute route, DoubleStateId stateId, double defaultValue);
+
+    public Capacity getRouteState(VehicleRoute route, CapacityStateId stateId);
+
+    /**
+     * Provides the typed getters by means of the generic getters of a {@link RouteAndActivityStateGetter}.
+     */
+    public static class Adapter implements TypedRouteAndActivityStateGetter {
+
+        /**
+         * Returns the specified getter if it implements {@link TypedRouteAndActivityStateGetter}, otherwise an adapter.
+         *
+         * @param getter the getter of states
+         * @return typed getter of states
+         */
+        public static TypedRouteAndActivityStateGetter of(RouteAndActivityStateGetter getter) {
+            if (getter instanceof TypedRouteAndActivityStateGetter) return (TypedRouteAndActivityStateGetter) getter;
+            return new Adapter(getter);
+        }
+
+        private final RouteAndActivityStateGetter getter;
+
+        private Adapter(RouteAndActivityStateGetter getter) {
+            this.getter = getter;
+        }
+
+        @Override
+        public <T> T getActivityState(TourActivity act, StateId stateId, Class<T> type) {
+            return getter.getActivityState(act, stateId, type);
+        }
+
+        @Override
+        public <T> T getActivityState(TourActivity act, Vehicle vehicle, StateId stateId, Class<T> type) {
+            return getter.getActivityState(act, vehicle, stateId, type);
+        }
+
+        @Override
+        public <T> T getRouteState(VehicleRoute route, StateId stateId, Class<T> type) {
+            return getter.getRouteState(route, stateId, type);
+        }
+
+        @Override
+        public <T> T getRouteState(VehicleRoute route, Vehicle vehicle, StateId stateId, Class<T> type) {
+            return getter.getRouteState(route, vehicle, stateId, type);
+        }
+
+        @Override
+        public double getActivityState(TourActivity act, DoubleStateId stateId, double defaultValue) {
+            Double state = getter.getActivityState(act, stateId, Double.class);
+            return state == null ? defaultValue : state;
+        }
+
+        @Override
+        public double getActivityState(TourActivity act, Vehicle vehicle, DoubleStateId stateId, double defaultValue) {
+            Double state = getter.getActivityState(act, vehicle, stateId, Double.class);
+            return state == null ? defaultValue : state;
+        }
+
+        @Override
+        public Capacity getActivityState(TourActivity act, CapacityStateId stateId) {
+            return getter.getActivityState(act, stateId, Capacity.class);
+        }
+
+        @Override
+        public Capacity getActivityState(TourActivity act, Vehicle vehicle, CapacityStateId stateId) {
+            return getter.getActivityState(act, vehicle, stateId, Capacity.class);
+        }
+
+        @Override
+        public double getRouteState(VehicleRoute route, DoubleStateId stateId, double defaultValue) {
+            Double state = getter.getRouteState(route, stateId, Double.class);
+            return state == null ? defaultValue : state;
+        }
+
+        @Override
+        public Capacity getRouteState(VehicleRoute route, CapacityStateId stateId) {
+            return getter.getRouteState(route, stateId, Capacity.class);
+        }
+
+    }
+
+}
@@ -28,6 +28,10 @@ import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
  * CostMatrix that allows pre-compiled time and distance-matrices to be considered as {@link com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts}
  * in the {@link com.graphhopper.jsprit.core.problem.VehicleRoutingProblem}.
  * <p>Note that you can also use it with distance matrix only (or time matrix).
+ * <p>Distances and times are stored in two separate flat arrays (planes) that are only allocated if at least one value
+ * of the corresponding kind is added. If the matrix is symmetric, only the upper triangle (inclusive diagonal) is stored,
+ * i.e. n*(n+1)/2 instead of n*n values. Values can optionally be stored with float precision which halves the memory
+ * again. For 10,000 locations, a symmetric distance and time matrix with float precision requires about 400 MB.
  *
  * @author schroeder
  */
@@ -42,10 +46,20 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
 
         private boolean isSymmetric;
 
-        private double[][][] matrix;
+        private final boolean floatPrecision;
 
         private final int noLocations;
 
+        private final int size;
+
+        private double[] distances;
+
+        private double[] times;
+
+        private float[] floatDistances;
+
+        private float[] floatTimes;
+
         /**
          * Creates a new builder returning the matrix-builder.
          * <p>If you want to consider symmetric matrices, set isSymmetric to true.
@@ -54,13 +68,34 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
          * @return builder
          */
         public static Builder newInstance(int noLocations, boolean isSymmetric) {
-            return new Builder(noLocations, isSymmetric);
+            return new Builder(noLocations, isSymmetric, false);
+        }
+
+        /**
+         * Creates a new builder returning the matrix-builder.
+         * <p>If floatPrecision is true, values are stored as float. This halves the memory required by the matrix, but
+         * values are only accurate to about 7 significant digits.
+         *
+         * @param noLocations    number of locations
+         * @param isSymmetric    true if matrix is symmetric, false otherwise
+         * @param floatPrecision true if values should be stored with float precision
+         * @return builder
+         */
+        public static Builder newInstance(int noLocations, boolean isSymmetric, boolean floatPrecision) {
+            return new Builder(noLocations, isSymmetric, floatPrecision);
         }
 
-        private Builder(int noLocations, boolean isSymmetric) {
+        private Builder(int noLocations, boolean isSymmetric, boolean floatPrecision) {
+            if (noLocations < 0) throw new IllegalArgumentException("number of locations must not be negative");
+            long size = isSymmetric ? (long) noLocations * (noLocations + 1) / 2 : (long) noLocations * noLocations;
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("matrix with " + noLocations + " locations is too large. it requires "
+                    + size + " entries, but only " + Integer.MAX_VALUE + " are supported.");
+            }
             this.isSymmetric = isSymmetric;
-            matrix = new double[noLocations][noLocations][2];
+            this.floatPrecision = floatPrecision;
             this.noLocations = noLocations;
+            this.size = (int) size;
         }
 
         /**
@@ -72,15 +107,22 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
          * @return builder
          */
         public Builder addTransportDistance(int fromIndex, int toIndex, double distance) {
-            add(fromIndex, toIndex, 0, distance);
+            int index = index(fromIndex, toIndex);
+            if (floatPrecision) {
+                if (floatDistances == null) floatDistances = new float[size];
+                floatDistances[index] = (float) distance;
+            } else {
+                if (distances == null) distances = new double[size];
+                distances[index] = distance;
+            }
             return this;
         }
 
-        private void add(int fromIndex, int toIndex, int indicatorIndex, double value) {
-            if (isSymmetric) {
-                if (fromIndex < toIndex) matrix[fromIndex][toIndex][indicatorIndex] = value;
-                else matrix[toIndex][fromIndex][indicatorIndex] = value;
-            } else matrix[fromIndex][toIndex][indicatorIndex] = value;
+        private int index(int fromIndex, int toIndex) {
+            if (fromIndex < 0 || toIndex < 0 || fromIndex >= noLocations || toIndex >= noLocations) {
+                throw new IllegalArgumentException("index of from " + fromIndex + " or to " + toIndex + " is out of range [0," + noLocations + ")");
+            }
+            return FastVehicleRoutingTransportCostsMatrix.index(fromIndex, toIndex, noLocations, isSymmetric);
         }
 
         /**
@@ -92,7 +134,14 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
          * @return builder
          */
         public Builder addTransportTime(int fromIndex, int toIndex, double time) {
-            add(fromIndex, toIndex, 1, time);
+            int index = index(fromIndex, toIndex);
+            if (floatPrecision) {
+                if (floatTimes == null) floatTimes = new float[size];
+                floatTimes[index] = (float) time;
+            } else {
+                if (times == null) times = new double[size];
+                times[index] = time;
+            }
             return this;
         }
 
@@ -115,22 +164,63 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
 
     private final boolean isSymmetric;
 
-    private final double[][][] matrix;
+    private final boolean floatPrecision;
+
+    private final double[] distances;
+
+    private final double[] times;
+
+    private final float[] floatDistances;
+
+    private final float[] floatTimes;
+
+    private final int size;
 
     private int noLocations;
 
     private FastVehicleRoutingTransportCostsMatrix(Builder builder) {
         this.isSymmetric = builder.isSymmetric;
-        matrix = builder.matrix;
+        this.floatPrecision = builder.floatPrecision;
+        distances = builder.distances;
+        times = builder.times;
+        floatDistances = builder.floatDistances;
+        floatTimes = builder.floatTimes;
         noLocations = builder.noLocations;
+        size = builder.size;
+    }
+
+    static int index(int from, int to, int noLocations, boolean isSymmetric) {
+        if (!isSymmetric) return from * noLocations + to;
+        int row = from;
+        int col = to;
+        if (from > to) {
+            row = to;
+            col = from;
+        }
+        //row starts after sum_{k<row}(noLocations-k) entries of the upper triangle
+        return (int) ((long) row * noLocations - (long) row * (row + 1) / 2 + col);
     }
 
     /**
      * First dim is from, second to and third indicates whether it is a distance value (index=0) or time value (index=1).
+     * <p>Note that the matrix is not stored like this (anymore), i.e. this creates a copy with noLocations^2 small arrays.
      *
      * @return
+     * @deprecated use {@link #getDistance(int, int)} and {@link #getTransportTime(int, int)} instead
      */
+    @Deprecated
     public double[][][] getMatrix() {
+        double[][][] matrix = new double[noLocations][noLocations][2];
+        for (int from = 0; from < noLocations; from++) {
+            for (int to = 0; to < noLocations; to++) {
+                if (isSymmetric && from > to) {
+                    matrix[from][to] = matrix[to][from];
+                } else {
+                    matrix[from][to][0] = getDistance(from, to);
+                    matrix[from][to][1] = getTransportTime(from, to);
+                }
+            }
+        }
         return matrix;
     }
 
@@ -138,19 +228,30 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
     public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
         if (from.getIndex() < 0 || to.getIndex() < 0)
             throw new IllegalArgumentException("index of from " + from + " to " + to + " < 0 ");
-        int timeIndex = 1;
-        return get(from.getIndex(), to.getIndex(), timeIndex);
+        return getTransportTime(from.getIndex(), to.getIndex());
+    }
+
+    /**
+     * Returns the transport time from to to.
+     *
+     * @param fromIndex from location index
+     * @param toIndex   to location index
+     * @return the transport time
+     */
+    public double getTransportTime(int fromIndex, int toIndex) {
+        return get(fromIndex, toIndex, times, floatTimes);
     }
 
-    private double get(int from, int to, int indicatorIndex) {
-        double value;
-        if (isSymmetric) {
-            if (from < to) value = matrix[from][to][indicatorIndex];
-            else value = matrix[to][from][indicatorIndex];
-        } else {
-            value = matrix[from][to][indicatorIndex];
+    private double get(int from, int to, double[] values, float[] floatValues) {
+        if (from < 0 || to < 0 || from >= noLocations || to >= noLocations) {
+            throw new IllegalArgumentException("index of from " + from + " or to " + to + " is out of range [0," + noLocations + ")");
         }
-        return value;
+        if (floatPrecision) {
+            if (floatValues == null) return 0.;
+            return floatValues[index(from, to, noLocations, isSymmetric)];
+        }
+        if (values == null) return 0.;
+        return values[index(from, to, noLocations, isSymmetric)];
     }
 
     /**
@@ -161,8 +262,7 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
      * @return the distance
      */
     public double getDistance(int fromIndex, int toIndex) {
-        int distanceIndex = 0;
-        return get(fromIndex, toIndex, distanceIndex);
+        return get(fromIndex, toIndex, distances, floatDistances);
     }
 
     @Override
@@ -176,12 +276,30 @@ public class FastVehicleRoutingTransportCostsMatrix extends AbstractForwardVehic
             throw new IllegalArgumentException("index of from " + from + " to " + to + " < 0 ");
         if (vehicle == null) return getDistance(from.getIndex(), to.getIndex());
         VehicleTypeImpl.VehicleCostParams costParams = vehicle.getType().getVehicleCostParams();
-        return costParams.perDistanceUnit * getDistance(from.getIndex(), to.getIndex()) + costParams.perTransportTimeUnit * getTransportTime(from, to, departureTime, driver, vehicle);
+        return costParams.perDistanceUnit * getDistance(from.getIndex(), to.getIndex()) + costParams.perTransportTimeUnit * getTransportTime(from.getIndex(), to.getIndex());
     }
 
     public int getNoLocations() {
         return noLocations;
     }
 
+    /**
+     * Returns true if values are stored with float precision.
+     *
+     * @return true if values are stored with float precision
+     */
+    public boolean hasFloatPrecision() {
+        return floatPrecision;
+    }
+
+    /**
+     * Returns the number of values stored per plane (distance or time), i.e. n*n or n*(n+1)/2 if the matrix is symmetric.
+     *
+     * @return number of values per plane
+     */
+    public int getNoEntriesPerPlane() {
+        return size;
+    }
+
 
 }
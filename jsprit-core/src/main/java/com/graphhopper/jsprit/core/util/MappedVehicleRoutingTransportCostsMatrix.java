@@ -0,0 +1,376 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.cost.AbstractForwardVehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * CostMatrix that reads pre-compiled time and distance-matrices from a memory-mapped binary file. The matrix is not
+ * loaded into the heap, i.e. opening it takes no time and many JVMs on the same host share the same (page-cached) matrix.
+ * <p>Files are written with {@link Writer}. Relations are indexed by {@link Location#getIndex()}, like in
+ * {@link FastVehicleRoutingTransportCostsMatrix}.
+ * <p>The file consists of a header of 16 bytes (magic number, version, number of locations, symmetric and float flags)
+ * followed by the distance plane and the time plane. Values are stored little-endian. Symmetric matrices only store the
+ * upper triangle (inclusive diagonal).
+ * <p>Reading the matrix is thread-safe.
+ *
+ * @author schroeder
+ */
+public class MappedVehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRoutingTransportCosts implements Closeable {
+
+    /**
+     * Writes a matrix file that can be read with {@link MappedVehicleRoutingTransportCostsMatrix#read(File)}. Values are
+     * written directly into the mapped file, i.e. the matrix is never held in the heap. Relations that are not added are 0.
+     * <p>The file is complete when the writer is closed.
+     *
+     * @author schroeder
+     */
+    public static class Writer implements Closeable {
+
+        /**
+         * Creates a writer and the (empty) matrix file. An existing file is overwritten.
+         *
+         * @param file           the file to be written
+         * @param noLocations    number of locations
+         * @param isSymmetric    true if matrix is symmetric, false otherwise
+         * @param floatPrecision true if values should be stored with float precision
+         * @return writer
+         */
+        public static Writer newInstance(File file, int noLocations, boolean isSymmetric, boolean floatPrecision) {
+            return new Writer(file, noLocations, isSymmetric, floatPrecision);
+        }
+
+        private final RandomAccessFile randomAccessFile;
+
+        private final Plane distances;
+
+        private final Plane times;
+
+        private final int noLocations;
+
+        private final boolean isSymmetric;
+
+        private Writer(File file, int noLocations, boolean isSymmetric, boolean floatPrecision) {
+            if (noLocations < 0) throw new IllegalArgumentException("number of locations must not be negative");
+            this.noLocations = noLocations;
+            this.isSymmetric = isSymmetric;
+            long noEntries = noEntries(noLocations, isSymmetric);
+            if (noEntries > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("matrix with " + noLocations + " locations is too large. it requires "
+                    + noEntries + " entries, but only " + Integer.MAX_VALUE + " are supported.");
+            }
+            int width = floatPrecision ? 4 : 8;
+            RandomAccessFile randomAccessFile = null;
+            try {
+                randomAccessFile = new RandomAccessFile(file, "rw");
+                randomAccessFile.setLength(0);
+                randomAccessFile.setLength(HEADER_SIZE + 2 * noEntries * width);
+                FileChannel channel = randomAccessFile.getChannel();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(noLocations);
+                header.put((byte) (isSymmetric ? 1 : 0)).put((byte) (floatPrecision ? 1 : 0));
+                header.rewind();
+                channel.write(header, 0);
+                distances = new Plane(channel, FileChannel.MapMode.READ_WRITE, HEADER_SIZE, noEntries, floatPrecision);
+                times = new Plane(channel, FileChannel.MapMode.READ_WRITE, HEADER_SIZE + noEntries * width, noEntries, floatPrecision);
+            } catch (IOException e) {
+                closeQuietly(randomAccessFile);
+                throw new RuntimeException(e);
+            } catch (RuntimeException e) {
+                closeQuietly(randomAccessFile);
+                throw e;
+            }
+            this.randomAccessFile = randomAccessFile;
+        }
+
+        /**
+         * Adds a transport-distance for a particular relation.
+         *
+         * @param fromIndex from location index
+         * @param toIndex   to location index
+         * @param distance  the distance to be added
+         * @return writer
+         */
+        public Writer addTransportDistance(int fromIndex, int toIndex, double distance) {
+            distances.put(index(fromIndex, toIndex, noLocations, isSymmetric), distance);
+            return this;
+        }
+
+        /**
+         * Adds transport-time for a particular relation.
+         *
+         * @param fromIndex from location index
+         * @param toIndex   to location index
+         * @param time      the time to be added
+         * @return writer
+         */
+        public Writer addTransportTime(int fromIndex, int toIndex, double time) {
+            times.put(index(fromIndex, toIndex, noLocations, isSymmetric), time);
+            return this;
+        }
+
+        public Writer addTransportTimeAndDistance(int fromIndex, int toIndex, double time, double distance) {
+            addTransportTime(fromIndex, toIndex, time);
+            addTransportDistance(fromIndex, toIndex, distance);
+            return this;
+        }
+
+        /**
+         * Flushes the matrix to the file and closes it.
+         */
+        @Override
+        public void close() {
+            try {
+                distances.force();
+                times.force();
+                randomAccessFile.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+    }
+
+    /**
+     * Values of one kind (distance or time), mapped in segments since a single mapping cannot exceed 2 GB.
+     */
+    private static final class Plane {
+
+        private static final int SEGMENT_SHIFT = 30;
+
+        private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+        private final MappedByteBuffer[] segments;
+
+        private final boolean floatPrecision;
+
+        private final int width;
+
+        Plane(FileChannel channel, FileChannel.MapMode mode, long position, long noEntries, boolean floatPrecision) throws IOException {
+            this.floatPrecision = floatPrecision;
+            this.width = floatPrecision ? 4 : 8;
+            long size = noEntries * width;
+            int noSegments = (int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            segments = new MappedByteBuffer[noSegments];
+            for (int i = 0; i < noSegments; i++) {
+                long segmentStart = (long) i << SEGMENT_SHIFT;
+                long segmentSize = Math.min(SEGMENT_MASK + 1, size - segmentStart);
+                segments[i] = channel.map(mode, position + segmentStart, segmentSize);
+                segments[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        double get(int entry) {
+            long offset = (long) entry * width;
+            MappedByteBuffer segment = segments[(int) (offset >>> SEGMENT_SHIFT)];
+            if (floatPrecision) return segment.getFloat((int) (offset & SEGMENT_MASK));
+            return segment.getDouble((int) (offset & SEGMENT_MASK));
+        }
+
+        void put(int entry, double value) {
+            long offset = (long) entry * width;
+            MappedByteBuffer segment = segments[(int) (offset >>> SEGMENT_SHIFT)];
+            if (floatPrecision) segment.putFloat((int) (offset & SEGMENT_MASK), (float) value);
+            else segment.putDouble((int) (offset & SEGMENT_MASK), value);
+        }
+
+        void force() {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        }
+
+    }
+
+    static final int MAGIC = 0x4a535052;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 16;
+
+    /**
+     * Opens a matrix file written with {@link Writer}. Only the header is read, values are read from the mapped file on
+     * demand.
+     *
+     * @param file the matrix file
+     * @return matrix
+     * @throws IllegalArgumentException if the file is not a matrix file or its length does not match its header
+     */
+    public static MappedVehicleRoutingTransportCostsMatrix read(File file) {
+        return new MappedVehicleRoutingTransportCostsMatrix(file);
+    }
+
+    private static long noEntries(int noLocations, boolean isSymmetric) {
+        return isSymmetric ? (long) noLocations * (noLocations + 1) / 2 : (long) noLocations * noLocations;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) return;
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            //the original exception is more relevant
+        }
+    }
+
+    private static int index(int from, int to, int noLocations, boolean isSymmetric) {
+        if (from < 0 || to < 0 || from >= noLocations || to >= noLocations) {
+            throw new IllegalArgumentException("index of from " + from + " or to " + to + " is out of range [0," + noLocations + ")");
+        }
+        return FastVehicleRoutingTransportCostsMatrix.index(from, to, noLocations, isSymmetric);
+    }
+
+    private final RandomAccessFile randomAccessFile;
+
+    private final Plane distances;
+
+    private final Plane times;
+
+    private final int noLocations;
+
+    private final boolean isSymmetric;
+
+    private final boolean floatPrecision;
+
+    private MappedVehicleRoutingTransportCostsMatrix(File file) {
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "r");
+            FileChannel channel = randomAccessFile.getChannel();
+            if (channel.size() < HEADER_SIZE) {
+                throw new IllegalArgumentException(file + " is not a matrix file. it is too short.");
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) throw new IOException("unexpected end of " + file);
+            }
+            header.flip();
+            int magic = header.getInt();
+            int version = header.getInt();
+            if (magic != MAGIC || version != VERSION) {
+                throw new IllegalArgumentException(file + " is not a matrix file of version " + VERSION + ".");
+            }
+            noLocations = header.getInt();
+            byte symmetricFlag = header.get();
+            byte floatFlag = header.get();
+            if (noLocations < 0 || symmetricFlag > 1 || symmetricFlag < 0 || floatFlag > 1 || floatFlag < 0) {
+                throw new IllegalArgumentException(file + " has an invalid header. number of locations " + noLocations
+                    + ", symmetric flag " + symmetricFlag + ", float flag " + floatFlag + ".");
+            }
+            isSymmetric = symmetricFlag == 1;
+            floatPrecision = floatFlag == 1;
+            long noEntries = noEntries(noLocations, isSymmetric);
+            if (noEntries > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(file + " has an invalid header. " + noLocations + " locations require "
+                    + noEntries + " entries, but only " + Integer.MAX_VALUE + " are supported.");
+            }
+            int width = floatPrecision ? 4 : 8;
+            if (channel.size() != HEADER_SIZE + 2 * noEntries * width) {
+                throw new IllegalArgumentException(file + " does not match its header. expected " + (HEADER_SIZE + 2 * noEntries * width)
+                    + " bytes for " + noLocations + " locations, but it has " + channel.size() + " bytes.");
+            }
+            distances = new Plane(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE, noEntries, floatPrecision);
+            times = new Plane(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE + noEntries * width, noEntries, floatPrecision);
+        } catch (IOException e) {
+            closeQuietly(randomAccessFile);
+            throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            closeQuietly(randomAccessFile);
+            throw e;
+        }
+        this.randomAccessFile = randomAccessFile;
+    }
+
+    @Override
+    public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        return getTransportTime(from.getIndex(), to.getIndex());
+    }
+
+    /**
+     * Returns the transport time from to to.
+     *
+     * @param fromIndex from location index
+     * @param toIndex   to location index
+     * @return the transport time
+     */
+    public double getTransportTime(int fromIndex, int toIndex) {
+        return times.get(index(fromIndex, toIndex, noLocations, isSymmetric));
+    }
+
+    /**
+     * Returns the distance from to to.
+     *
+     * @param fromIndex from location index
+     * @param toIndex   to location index
+     * @return the distance
+     */
+    public double getDistance(int fromIndex, int toIndex) {
+        return distances.get(index(fromIndex, toIndex, noLocations, isSymmetric));
+    }
+
+    @Override
+    public double getDistance(Location from, Location to, double departureTime, Vehicle vehicle) {
+        return getDistance(from.getIndex(), to.getIndex());
+    }
+
+    @Override
+    public double getTransportCost(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        if (vehicle == null) return getDistance(from.getIndex(), to.getIndex());
+        VehicleTypeImpl.VehicleCostParams costParams = vehicle.getType().getVehicleCostParams();
+        return costParams.perDistanceUnit * getDistance(from.getIndex(), to.getIndex()) + costParams.perTransportTimeUnit * getTransportTime(from.getIndex(), to.getIndex());
+    }
+
+    public int getNoLocations() {
+        return noLocations;
+    }
+
+    public boolean isSymmetric() {
+        return isSymmetric;
+    }
+
+    public boolean hasFloatPrecision() {
+        return floatPrecision;
+    }
+
+    /**
+     * Closes the underlying file. Note that the mapping itself is released when this matrix is garbage collected.
+     */
+    @Override
+    public void close() {
+        try {
+            randomAccessFile.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -25,8 +25,7 @@ import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl.VehicleCostPa
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 
 /**
@@ -36,6 +35,9 @@ import java.util.Map;
  * you set a particular distance, this expects distance-entries for all relations. This counts also
  * for a particular time. If the method getTransportCosts(...) is then invoked for a relation, where no distance can be found, an
  * IllegalStateException will be thrown. Thus if you want to only use distances only, do not use addTransportTime(...).
+ * <p>When built, location ids are mapped to dense indices and values are stored in arrays, i.e. looking up a relation
+ * does not create keys. If locations have an index ({@link Location#getIndex()}), the mapping from location index to
+ * dense index is cached such that lookups do not even hash the location ids.
  *
  * @author schroeder
  */
@@ -184,9 +186,27 @@ public class VehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRo
 
     }
 
-    private Map<RelationKey, Double> distances = new HashMap<RelationKey, Double>();
+    private final Map<String, Integer> locationIndices = new HashMap<String, Integer>();
 
-    private Map<RelationKey, Double> times = new HashMap<RelationKey, Double>();
+    private final String[] locationIds;
+
+    private final int noLocations;
+
+    /*
+     * a dense plane takes 8 bytes per relation of all pairs of locations, whereas a map entry takes roughly ten times
+     * more per relation that is actually set. thus, values are kept in a plane if at least every MAX_CELLS_PER_VALUE-th
+     * relation is set and the plane is addressable, otherwise in a map.
+     */
+    private static final int MAX_CELLS_PER_VALUE = 8;
+
+    //dense planes [from * noLocations + to], null if values are kept in the map
+    private final double[] distances;
+
+    private final double[] times;
+
+    private final Map<RelationKey, Double> distanceMap;
+
+    private final Map<RelationKey, Double> timeMap;
 
     private boolean isSymmetric;
 
@@ -194,38 +214,117 @@ public class VehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRo
 
     private boolean distancesSet;
 
+    /**
+     * Maps Location.getIndex() to the dense index of the location's id. It is filled on demand and every hit is verified
+     * against the location's id, thus (benign) races of concurrent lookups cannot return wrong values.
+     */
+    private volatile int[] locationIndexCache = new int[0];
+
     private VehicleRoutingTransportCostsMatrix(Builder builder) {
         this.isSymmetric = builder.isSymmetric;
-        distances.putAll(builder.distances);
-        times.putAll(builder.times);
         timesSet = builder.timesSet;
         distancesSet = builder.distancesSet;
+        List<String> ids = new ArrayList<String>();
+        addLocationIds(builder.distances.keySet(), ids);
+        addLocationIds(builder.times.keySet(), ids);
+        locationIds = ids.toArray(new String[ids.size()]);
+        noLocations = locationIds.length;
+        distances = isDense(builder.distances) ? toArray(builder.distances) : null;
+        times = isDense(builder.times) ? toArray(builder.times) : null;
+        distanceMap = distances == null ? new HashMap<RelationKey, Double>(builder.distances) : null;
+        timeMap = times == null ? new HashMap<RelationKey, Double>(builder.times) : null;
+    }
+
+    private boolean isDense(Map<RelationKey, Double> values) {
+        if (values.isEmpty()) return false;
+        long noCells = (long) noLocations * noLocations;
+        if (noCells > Integer.MAX_VALUE) return false;
+        long noValues = isSymmetric ? 2L * values.size() : values.size();
+        return noCells <= MAX_CELLS_PER_VALUE * noValues;
+    }
+
+    private void addLocationIds(Collection<RelationKey> keys, List<String> ids) {
+        for (RelationKey key : keys) {
+            addLocationId(key.from, ids);
+            addLocationId(key.to, ids);
+        }
+    }
+
+    private void addLocationId(String id, List<String> ids) {
+        if (!locationIndices.containsKey(id)) {
+            locationIndices.put(id, ids.size());
+            ids.add(id);
+        }
+    }
+
+    private double[] toArray(Map<RelationKey, Double> values) {
+        double[] array = new double[noLocations * noLocations];
+        Arrays.fill(array, Double.NaN);
+        for (Map.Entry<RelationKey, Double> e : values.entrySet()) {
+            int from = locationIndices.get(e.getKey().from);
+            int to = locationIndices.get(e.getKey().to);
+            array[from * noLocations + to] = e.getValue();
+            //the reverse relation is only taken if it has not been set explicitly
+            if (isSymmetric && !values.containsKey(RelationKey.newKey(e.getKey().to, e.getKey().from))) {
+                array[to * noLocations + from] = e.getValue();
+            }
+        }
+        return array;
+    }
+
+    private int getLocationIndex(Location location) {
+        String id = location.getId();
+        int index = location.getIndex();
+        if (index >= 0) {
+            int[] cache = locationIndexCache;
+            if (index < cache.length) {
+                int locationIndex = cache[index] - 1;
+                if (locationIndex >= 0 && locationIds[locationIndex].equals(id)) return locationIndex;
+            }
+        }
+        Integer locationIndex = locationIndices.get(id);
+        if (locationIndex == null) return -1;
+        if (index >= 0) cacheLocationIndex(index, locationIndex);
+        return locationIndex;
     }
 
+    private void cacheLocationIndex(int index, int locationIndex) {
+        int[] cache = locationIndexCache;
+        if (index >= cache.length) {
+            cache = Arrays.copyOf(cache, Math.max(index + 1, 2 * cache.length));
+            locationIndexCache = cache;
+        }
+        //0 means not cached
+        cache[index] = locationIndex + 1;
+    }
 
     @Override
     public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
-        return getTime(from.getId(), to.getId());
+        if (from.getId().equals(to.getId())) return 0.0;
+        if (!timesSet) return 0.0;
+        if (times == null) return get(timeMap, "time", from.getId(), to.getId());
+        return get(times, getLocationIndex(from), getLocationIndex(to), "time", from.getId(), to.getId());
     }
 
+    private int getLocationIndex(String id) {
+        Integer locationIndex = locationIndices.get(id);
+        if (locationIndex == null) return -1;
+        return locationIndex;
+    }
 
-    private double getTime(String fromId, String toId) {
-        if (fromId.equals(toId)) return 0.0;
-        if (!timesSet) return 0.0;
-        RelationKey key = RelationKey.newKey(fromId, toId);
-        if (!isSymmetric) {
-            if (times.containsKey(key)) return times.get(key);
-            else
-                throw new IllegalStateException("time value for relation from " + fromId + " to " + toId + " does not exist");
-        } else {
-            Double time = times.get(key);
-            if (time == null) {
-                time = times.get(RelationKey.newKey(toId, fromId));
-            }
-            if (time != null) return time;
-            else
-                throw new IllegalStateException("time value for relation from " + fromId + " to " + toId + " does not exist");
+    private double get(double[] values, int from, int to, String kind, String fromId, String toId) {
+        if (from >= 0 && to >= 0) {
+            double value = values[from * noLocations + to];
+            if (!Double.isNaN(value)) return value;
         }
+        throw new IllegalStateException(kind + " value for relation from " + fromId + " to " + toId + " does not exist");
+    }
+
+    private double get(Map<RelationKey, Double> values, String kind, String fromId, String toId) {
+        Double value = values.get(RelationKey.newKey(fromId, toId));
+        if (value == null && isSymmetric) value = values.get(RelationKey.newKey(toId, fromId));
+        if (value != null) return value;
+        throw new IllegalStateException(kind + " value for relation from " + fromId + " to " + toId + " does not exist");
     }
 
     /**
@@ -239,32 +338,27 @@ public class VehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRo
     public double getDistance(String fromId, String toId) {
         if (fromId.equals(toId)) return 0.0;
         if (!distancesSet) return 0.0;
-        RelationKey key = RelationKey.newKey(fromId, toId);
-        if (!isSymmetric) {
-            if (distances.containsKey(key)) return distances.get(key);
-            else
-                throw new IllegalStateException("distance value for relation from " + fromId + " to " + toId + " does not exist");
-        } else {
-            Double time = distances.get(key);
-            if (time == null) {
-                time = distances.get(RelationKey.newKey(toId, fromId));
-            }
-            if (time != null) return time;
-            else
-                throw new IllegalStateException("distance value for relation from " + fromId + " to " + toId + " does not exist");
-        }
+        if (distances == null) return get(distanceMap, "distance", fromId, toId);
+        return get(distances, getLocationIndex(fromId), getLocationIndex(toId), "distance", fromId, toId);
+    }
+
+    private double getDistance(Location from, Location to) {
+        if (from.getId().equals(to.getId())) return 0.0;
+        if (!distancesSet) return 0.0;
+        if (distances == null) return get(distanceMap, "distance", from.getId(), to.getId());
+        return get(distances, getLocationIndex(from), getLocationIndex(to), "distance", from.getId(), to.getId());
     }
 
     @Override
     public double getTransportCost(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
-        if (vehicle == null) return getDistance(from.getId(), to.getId());
+        if (vehicle == null) return getDistance(from, to);
         VehicleCostParams costParams = vehicle.getType().getVehicleCostParams();
-        return costParams.perDistanceUnit * getDistance(from.getId(), to.getId()) + costParams.perTransportTimeUnit * getTime(from.getId(), to.getId());
+        return costParams.perDistanceUnit * getDistance(from, to) + costParams.perTransportTimeUnit * getTransportTime(from, to, departureTime, driver, vehicle);
     }
 
     @Override
     public double getDistance(Location from, Location to, double departureTime, Vehicle vehicle) {
-        return getDistance(from.getId(), to.getId());
+        return getDistance(from, to);
     }
 
 }
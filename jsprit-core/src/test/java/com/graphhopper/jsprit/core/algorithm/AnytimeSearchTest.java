@@ -0,0 +1,108 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AnytimeSearchTest {
+
+    private VehicleRoutingAlgorithm createAlgorithm() {
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        Random random = new Random(4711);
+        for (int i = 0; i < 20; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(random.nextInt(100), random.nextInt(100))).build());
+        }
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("type").addCapacityDimension(0, 5).build();
+        vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setType(type).setStartLocation(Location.newInstance(50, 50)).build());
+        VehicleRoutingAlgorithm vra = Jsprit.createAlgorithm(vrpBuilder.build());
+        vra.setMaxIterations(Integer.MAX_VALUE);
+        return vra;
+    }
+
+    @Test(timeout = 20000)
+    public void whenStopped_futureShouldYieldBestSolution() throws Exception {
+        final List<Double> improvements = Collections.synchronizedList(new ArrayList<Double>());
+        AnytimeSearch search = AnytimeSearch.Builder.newInstance(createAlgorithm())
+            .addListener(new AnytimeSearch.ImprovementListener() {
+                @Override
+                public void informImprovement(VehicleRoutingProblemSolution solution) {
+                    improvements.add(solution.getCost());
+                }
+            }).build();
+        Future<Collection<VehicleRoutingProblemSolution>> result = search.start();
+        while (search.getBestSolution() == null) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        search.stop();
+        Collection<VehicleRoutingProblemSolution> solutions = result.get(10, TimeUnit.SECONDS);
+        assertTrue(search.isDone());
+        assertEquals(Solutions.bestOf(solutions).getCost(), search.getBestSolution().getCost(), 0.);
+        for (int i = 1; i < improvements.size(); i++) {
+            assertTrue(improvements.get(i) < improvements.get(i - 1));
+        }
+        assertEquals(improvements.get(improvements.size() - 1), search.getBestSolution().getCost(), 0.);
+    }
+
+    @Test
+    public void whenTimeBudgetIsUsedUp_searchShouldEnd() throws Exception {
+        AnytimeSearch search = AnytimeSearch.Builder.newInstance(createAlgorithm()).setTimeBudget(100).build();
+        Collection<VehicleRoutingProblemSolution> solutions = search.start().get(10, TimeUnit.SECONDS);
+        assertFalse(solutions.isEmpty());
+        assertNotNull(search.getBestSolution());
+        assertEquals(0, search.getRemainingTime());
+    }
+
+    @Test
+    public void whenExtendingTimeBudget_remainingTimeShouldIncrease() throws Exception {
+        AnytimeSearch search = AnytimeSearch.Builder.newInstance(createAlgorithm()).setTimeBudget(60000).build();
+        Future<Collection<VehicleRoutingProblemSolution>> result = search.start();
+        search.extendTimeBudget(60000);
+        assertTrue(search.getRemainingTime() > 60000);
+        search.stop();
+        result.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenStartingTwice_itShouldThrowException() throws Exception {
+        AnytimeSearch search = AnytimeSearch.Builder.newInstance(createAlgorithm()).setTimeBudget(0).build();
+        search.start().get(10, TimeUnit.SECONDS);
+        search.start();
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class IncrementalSolutionCostCalculatorTest {
+
+    private List<VehicleRoute> evaluatedRoutes;
+
+    private IncrementalSolutionCostCalculator calculator;
+
+    private VehicleRoutingProblemSolution solution;
+
+    private Service s1;
+
+    @Before
+    public void doBefore() {
+        evaluatedRoutes = new ArrayList<>();
+        calculator = new IncrementalSolutionCostCalculator(new IncrementalSolutionCostCalculator.RouteCostCalculator() {
+            @Override
+            public double getCosts(VehicleRoute route) {
+                evaluatedRoutes.add(route);
+                return 10. * route.getActivities().size();
+            }
+        }, new IncrementalSolutionCostCalculator.UnassignedJobsCostCalculator() {
+            @Override
+            public double getCosts(Collection<Job> unassignedJobs, double routeCosts) {
+                return 100. * unassignedJobs.size();
+            }
+        });
+        s1 = Service.Builder.newInstance("s1").setLocation(Location.newInstance(1, 0)).build();
+        Service s2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance(2, 0)).build();
+        Service s3 = Service.Builder.newInstance("s3").setLocation(Location.newInstance(3, 0)).build();
+        VehicleImpl v1 = VehicleImpl.Builder.newInstance("v1").setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleImpl v2 = VehicleImpl.Builder.newInstance("v2").setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleRoute r1 = VehicleRoute.Builder.newInstance(v1).addService(s1).addService(s2).build();
+        VehicleRoute r2 = VehicleRoute.Builder.newInstance(v2).addService(s3).build();
+        solution = new VehicleRoutingProblemSolution(new ArrayList<>(Arrays.asList(r1, r2)), new ArrayList<Job>(), 0.);
+    }
+
+    @Test
+    public void whenRoutesOfCopyAreUnchanged_theyShouldNotBeEvaluatedAgain() {
+        assertEquals(30., calculator.getCosts(solution), 0.);
+        VehicleRoutingProblemSolution copy = VehicleRoutingProblemSolution.copyOf(solution);
+        calculator.informSolutionCopied(solution, copy);
+        assertEquals(30., calculator.getCosts(copy), 0.);
+        assertEquals(2, evaluatedRoutes.size());
+    }
+
+    @Test
+    public void whenJobIsRemovedFromCopy_onlyItsRouteShouldBeEvaluatedAgain() {
+        calculator.getCosts(solution);
+        VehicleRoutingProblemSolution copy = VehicleRoutingProblemSolution.copyOf(solution);
+        calculator.informSolutionCopied(solution, copy);
+        VehicleRoute changedRoute = copy.getRoutes().iterator().next();
+        changedRoute.getTourActivities().removeJob(s1);
+        calculator.removed(s1, changedRoute);
+        copy.getUnassignedJobs().add(s1);
+        assertEquals(120., calculator.getCosts(copy), 0.);
+        assertEquals(3, evaluatedRoutes.size());
+        assertEquals(Collections.singletonList(changedRoute), evaluatedRoutes.subList(2, 3));
+        assertEquals(30., calculator.getCosts(solution), 0.);
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.algorithm.listener.IterationEndsListener;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class IslandAlgorithmTest {
+
+    private VehicleRoutingProblem createProblem() {
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        Random random = new Random(4711);
+        for (int i = 0; i < 20; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(random.nextInt(100), random.nextInt(100))).build());
+        }
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("type").addCapacityDimension(0, 5).build();
+        vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setType(type).setStartLocation(Location.newInstance(50, 50)).build());
+        return vrpBuilder.build();
+    }
+
+    @Test
+    public void whenBuildingIslands_propertiesShouldBeApplied() {
+        IslandAlgorithm algorithm = Jsprit.Builder.newInstance(createProblem())
+            .setProperty(Jsprit.Parameter.ISLANDS, "3")
+            .setProperty(Jsprit.Parameter.ISLAND_MIGRATION_INTERVAL, "5")
+            .setProperty(Jsprit.Parameter.ISLAND_MIGRATION_TOPOLOGY, "broadcast_best")
+            .setIslandProperty(1, Jsprit.Strategy.RADIAL_BEST, "10.")
+            .buildIslandAlgorithm();
+        assertEquals(3, algorithm.getIslands().size());
+        assertEquals(5, algorithm.getMigrationInterval());
+        assertEquals(IslandAlgorithm.MigrationTopology.BROADCAST_BEST, algorithm.getMigrationTopology());
+        assertEquals(0., algorithm.getIslands().get(0).getSearchStrategyManager().getWeight(Jsprit.Strategy.RADIAL_BEST.toString()), 0.01);
+        assertEquals(10., algorithm.getIslands().get(1).getSearchStrategyManager().getWeight(Jsprit.Strategy.RADIAL_BEST.toString()), 0.01);
+        assertEquals(0., algorithm.getIslands().get(2).getSearchStrategyManager().getWeight(Jsprit.Strategy.RADIAL_BEST.toString()), 0.01);
+    }
+
+    @Test
+    public void whenRunningIslands_eachIslandShouldRunAllIterations() {
+        IslandAlgorithm algorithm = Jsprit.Builder.newInstance(createProblem())
+            .setProperty(Jsprit.Parameter.ISLANDS, "3")
+            .setProperty(Jsprit.Parameter.ISLAND_MIGRATION_INTERVAL, "5")
+            .buildIslandAlgorithm();
+        algorithm.setMaxIterations(30);
+        final AtomicInteger iterations = new AtomicInteger();
+        for (VehicleRoutingAlgorithm island : algorithm.getIslands()) {
+            island.addListener(new IterationEndsListener() {
+                @Override
+                public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                    iterations.incrementAndGet();
+                }
+            });
+        }
+        Collection<VehicleRoutingProblemSolution> solutions = algorithm.searchSolutions();
+        assertEquals(90, iterations.get());
+        assertTrue(Solutions.bestOf(solutions).getUnassignedJobs().isEmpty());
+    }
+
+    @Test
+    public void whenMigrating_islandShouldReceiveBestOfPreviousIsland() {
+        VehicleRoutingProblem vrp = createProblem();
+        final VehicleRoutingAlgorithm first = Jsprit.Builder.newInstance(vrp).setRandom(new Random(1)).buildAlgorithm();
+        VehicleRoutingAlgorithm second = Jsprit.Builder.newInstance(vrp).setRandom(new Random(2)).buildAlgorithm();
+        //islands run one after another, thus the second island receives the final best of the first one
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        IslandAlgorithm algorithm = IslandAlgorithm.Builder.newInstance(vrp)
+            .addIsland(first)
+            .addIsland(second)
+            .setMigrationInterval(10)
+            .setMigrationTopology(IslandAlgorithm.MigrationTopology.RING)
+            .setExecutorService(executor)
+            .build();
+        algorithm.setMaxIterations(20);
+        final double[] bestOfSecondAfterMigration = new double[1];
+        second.addListener(new IterationEndsListener() {
+            @Override
+            public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                if (i == 10) bestOfSecondAfterMigration[0] = Solutions.bestOf(solutions).getCost();
+            }
+        });
+        algorithm.searchSolutions();
+        executor.shutdown();
+        assertTrue(bestOfSecondAfterMigration[0] <= first.getBestEver().getCost());
+    }
+
+    @Test
+    public void whenMigrating_immigrantShouldNotShareActivitiesWithOtherIsland() {
+        VehicleRoutingProblem vrp = createProblem();
+        final VehicleRoutingAlgorithm first = Jsprit.Builder.newInstance(vrp).setRandom(new Random(1)).buildAlgorithm();
+        VehicleRoutingAlgorithm second = Jsprit.Builder.newInstance(vrp).setRandom(new Random(2)).buildAlgorithm();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        IslandAlgorithm algorithm = IslandAlgorithm.Builder.newInstance(vrp)
+            .addIsland(first)
+            .addIsland(second)
+            .setMigrationInterval(10)
+            .setMigrationTopology(IslandAlgorithm.MigrationTopology.RING)
+            .setExecutorService(executor)
+            .build();
+        algorithm.setMaxIterations(20);
+        final List<TourActivity> activitiesOfSecond = new ArrayList<TourActivity>();
+        second.addListener(new IterationEndsListener() {
+            @Override
+            public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                if (i != 10) return;
+                for (VehicleRoutingProblemSolution solution : solutions) {
+                    for (VehicleRoute route : solution.getRoutes()) {
+                        activitiesOfSecond.addAll(route.getActivities());
+                        activitiesOfSecond.add(route.getStart());
+                    }
+                }
+            }
+        });
+        algorithm.searchSolutions();
+        executor.shutdown();
+        Set<TourActivity> activitiesOfFirst = Collections.newSetFromMap(new IdentityHashMap<TourActivity, Boolean>());
+        for (VehicleRoute route : first.getBestEver().getRoutes()) {
+            activitiesOfFirst.addAll(route.getActivities());
+            activitiesOfFirst.add(route.getStart());
+        }
+        assertFalse(activitiesOfSecond.isEmpty());
+        for (TourActivity act : activitiesOfSecond) {
+            assertFalse(activitiesOfFirst.contains(act));
+        }
+    }
+
+}
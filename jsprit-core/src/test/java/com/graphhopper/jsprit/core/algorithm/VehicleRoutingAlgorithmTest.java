@@ -17,14 +17,28 @@
  */
 package com.graphhopper.jsprit.core.algorithm;
 
+import com.graphhopper.jsprit.core.algorithm.acceptor.SchrimpfAcceptance;
+import com.graphhopper.jsprit.core.algorithm.listener.IterationEndsListener;
 import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.SearchStrategyModuleListener;
+import com.graphhopper.jsprit.core.algorithm.selector.SelectBest;
 import com.graphhopper.jsprit.core.algorithm.termination.PrematureAlgorithmTermination;
+import com.graphhopper.jsprit.core.problem.Location;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
@@ -182,4 +196,134 @@ public class VehicleRoutingAlgorithmTest {
         assertEquals(25, counter.getCountIterations());
     }
 
+    private static class RecordingSchrimpfAcceptance extends SchrimpfAcceptance {
+
+        private int iteration;
+
+        private final List<Integer> searchIterations = new ArrayList<Integer>();
+
+        private final List<Integer> acceptIterations = new ArrayList<Integer>();
+
+        RecordingSchrimpfAcceptance() {
+            super(1, 0.1);
+            setInitialThreshold(100.);
+        }
+
+        @Override
+        public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+            super.informIterationStarts(i, problem, solutions);
+            iteration = i;
+        }
+
+        @Override
+        public boolean acceptSolution(Collection<VehicleRoutingProblemSolution> solutions, VehicleRoutingProblemSolution newSolution) {
+            acceptIterations.add(iteration);
+            return super.acceptSolution(solutions, newSolution);
+        }
+
+    }
+
+    private static VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp, final RecordingSchrimpfAcceptance acceptor) {
+        SolutionCostCalculator objectiveFunction = new SolutionCostCalculator() {
+            @Override
+            public double getCosts(VehicleRoutingProblemSolution solution) {
+                return solution.getCost();
+            }
+        };
+        SearchStrategy strategy = new SearchStrategy("s", new SelectBest(), acceptor, objectiveFunction);
+        strategy.addModule(new SearchStrategyModule() {
+            @Override
+            public VehicleRoutingProblemSolution runAndGetSolution(VehicleRoutingProblemSolution vrpSolution) {
+                acceptor.searchIterations.add(acceptor.iteration);
+                return VehicleRoutingProblemSolution.copyOf(vrpSolution);
+            }
+
+            @Override
+            public String getName() {
+                return "recordIteration";
+            }
+
+            @Override
+            public void addModuleListener(SearchStrategyModuleListener moduleListener) {
+            }
+        });
+        SearchStrategyManager strategyManager = new SearchStrategyManager();
+        strategyManager.addStrategy(strategy, 1.);
+        VehicleRoutingAlgorithm algorithm = new VehicleRoutingAlgorithm(vrp, strategyManager, objectiveFunction);
+        algorithm.addListener(acceptor);
+        algorithm.addInitialSolution(new VehicleRoutingProblemSolution(Collections.<VehicleRoute>emptyList(), 10.));
+        return algorithm;
+    }
+
+    @Test
+    public void whenSearchingInParallel_eachAcceptorShouldUseThresholdOfItsOwnIterations() {
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance()
+            .addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build())
+            .addJob(Service.Builder.newInstance("s").setLocation(Location.newInstance(1, 1)).build()).build();
+        List<RecordingSchrimpfAcceptance> acceptors = new ArrayList<RecordingSchrimpfAcceptance>();
+        List<VehicleRoutingAlgorithm> workers = new ArrayList<VehicleRoutingAlgorithm>();
+        for (int w = 0; w < 3; w++) {
+            RecordingSchrimpfAcceptance acceptor = new RecordingSchrimpfAcceptance();
+            acceptors.add(acceptor);
+            workers.add(createAlgorithm(vrp, acceptor));
+        }
+        VehicleRoutingAlgorithm algorithm = workers.get(0);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        algorithm.setParallelSearch(executor, workers.subList(1, workers.size()));
+        algorithm.setMaxIterations(10);
+        try {
+            algorithm.searchSolutions();
+        } finally {
+            executor.shutdown();
+        }
+        //the threshold is a function of the iteration an acceptor is informed about
+        assertEquals(Arrays.asList(1, 4, 7, 10), acceptors.get(0).searchIterations);
+        assertEquals(Arrays.asList(2, 5, 8), acceptors.get(1).searchIterations);
+        assertEquals(Arrays.asList(3, 6, 9), acceptors.get(2).searchIterations);
+        for (RecordingSchrimpfAcceptance acceptor : acceptors) {
+            assertEquals(acceptor.searchIterations, acceptor.acceptIterations);
+        }
+    }
+
+    @Test
+    public void whenSearchingInParallel_listenersOfAlgorithmShouldBeInformedAboutEveryIterationInOrder() {
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance()
+            .addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build())
+            .addJob(Service.Builder.newInstance("s").setLocation(Location.newInstance(1, 1)).build()).build();
+        List<VehicleRoutingAlgorithm> workers = new ArrayList<VehicleRoutingAlgorithm>();
+        for (int w = 0; w < 3; w++) {
+            workers.add(createAlgorithm(vrp, new RecordingSchrimpfAcceptance()));
+        }
+        VehicleRoutingAlgorithm algorithm = workers.get(0);
+        final List<String> events = new ArrayList<String>();
+        class EventRecorder implements IterationStartsListener, IterationEndsListener {
+
+            @Override
+            public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                events.add("start" + i);
+            }
+
+            @Override
+            public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                events.add("end" + i);
+            }
+
+        }
+        algorithm.addListener(new EventRecorder());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        algorithm.setParallelSearch(executor, workers.subList(1, workers.size()));
+        algorithm.setMaxIterations(10);
+        try {
+            algorithm.searchSolutions();
+        } finally {
+            executor.shutdown();
+        }
+        List<String> expected = new ArrayList<String>();
+        for (int i = 1; i <= 10; i++) {
+            expected.add("start" + i);
+            expected.add("end" + i);
+        }
+        assertEquals(expected, events);
+    }
+
 }
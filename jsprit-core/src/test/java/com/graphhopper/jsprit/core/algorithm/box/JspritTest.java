@@ -20,19 +20,29 @@ package com.graphhopper.jsprit.core.algorithm.box;
 
 import com.graphhopper.jsprit.core.algorithm.SearchStrategy;
 import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
 import com.graphhopper.jsprit.core.algorithm.listener.StrategySelectedListener;
+import com.graphhopper.jsprit.core.algorithm.metrics.MetricsSink;
+import com.graphhopper.jsprit.core.algorithm.metrics.SolverMetrics;
 import com.graphhopper.jsprit.core.algorithm.recreate.InsertionData;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.BeforeJobInsertionListener;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.JobInsertedListener;
 import com.graphhopper.jsprit.core.algorithm.ruin.listener.RuinListener;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
 import com.graphhopper.jsprit.core.problem.Location;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
 import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
+import com.graphhopper.jsprit.core.util.Solutions;
 import junit.framework.Assert;
 import org.junit.Test;
 
@@ -477,6 +487,236 @@ public class JspritTest {
         Assert.assertTrue(true);
     }
 
+    @Test
+    public void whenRunningParallelSearch_allIterationsShouldBeReported() {
+        VehicleRoutingProblem vrp = createProblemWithServices(20);
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp)
+            .setProperty(Jsprit.Parameter.PARALLEL_SEARCH_WORKERS, "3").buildAlgorithm();
+        vra.setMaxIterations(50);
+        Assert.assertEquals(3, vra.getNuOfSearchWorkers());
+        final List<Integer> iterations = new ArrayList<Integer>();
+        final List<String> strategies = new ArrayList<String>();
+        vra.addListener(new IterationStartsListener() {
+            @Override
+            public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                iterations.add(i);
+            }
+        });
+        vra.addListener(new StrategySelectedListener() {
+            @Override
+            public void informSelectedStrategy(SearchStrategy.DiscoveredSolution discoveredSolution, VehicleRoutingProblem vehicleRoutingProblem, Collection<VehicleRoutingProblemSolution> vehicleRoutingProblemSolutions) {
+                strategies.add(discoveredSolution.getStrategyId());
+            }
+        });
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(vra.searchSolutions());
+        Assert.assertEquals(50, iterations.size());
+        for (int i = 0; i < iterations.size(); i++) {
+            Assert.assertEquals(i + 1, iterations.get(i).intValue());
+        }
+        Assert.assertEquals(50, strategies.size());
+        Assert.assertTrue(solution.getUnassignedJobs().isEmpty());
+    }
+
+    @Test
+    public void parallelSearchShouldBeReproducible() {
+        VehicleRoutingProblem vrp = createProblemWithServices(20);
+        List<Double> firstRecord = recordDiscoveredCosts(vrp);
+        List<Double> secondRecord = recordDiscoveredCosts(vrp);
+        Assert.assertEquals(firstRecord, secondRecord);
+    }
+
+    @Test
+    public void whenSearchingWithManyWorkers_discoveredRoutesShouldBeConsistent() {
+        final VehicleRoutingProblem vrp = createProblemWithServices(40);
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp)
+            .setProperty(Jsprit.Parameter.PARALLEL_SEARCH_WORKERS, "8").buildAlgorithm();
+        vra.setMaxIterations(400);
+        vra.addListener(new StrategySelectedListener() {
+            @Override
+            public void informSelectedStrategy(SearchStrategy.DiscoveredSolution discoveredSolution, VehicleRoutingProblem vehicleRoutingProblem, Collection<VehicleRoutingProblemSolution> vehicleRoutingProblemSolutions) {
+                assertConsistent(vrp, discoveredSolution.getSolution());
+                for (VehicleRoutingProblemSolution solution : vehicleRoutingProblemSolutions) {
+                    assertConsistent(vrp, solution);
+                }
+            }
+        });
+        vra.searchSolutions();
+    }
+
+    private void assertConsistent(VehicleRoutingProblem vrp, VehicleRoutingProblemSolution solution) {
+        Set<Job> jobs = new HashSet<Job>(solution.getUnassignedJobs());
+        for (VehicleRoute route : solution.getRoutes()) {
+            Set<Job> routeJobs = new HashSet<Job>();
+            TourActivity prevAct = route.getStart();
+            for (TourActivity act : route.getActivities()) {
+                Job job = ((TourActivity.JobActivity) act).getJob();
+                routeJobs.add(job);
+                Assert.assertTrue(jobs.add(job));
+                Assert.assertEquals(act, route.getActivities().get(route.getTourActivities().getActivityPositions(job)[0]));
+                double arrTime = prevAct.getEndTime() + vrp.getTransportCosts().getTransportTime(prevAct.getLocation(),
+                    act.getLocation(), prevAct.getEndTime(), route.getDriver(), route.getVehicle());
+                Assert.assertEquals(arrTime, act.getArrTime(), 0.01);
+                Assert.assertTrue(act.getEndTime() >= act.getArrTime());
+                prevAct = act;
+            }
+            Assert.assertEquals(routeJobs, new HashSet<Job>(route.getTourActivities().getJobs()));
+        }
+        Assert.assertEquals(vrp.getJobs().size(), jobs.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenSettingCustomStateManagerAndParallelSearch_itShouldThrowException() {
+        VehicleRoutingProblem vrp = createProblemWithServices(5);
+        StateManager stateManager = new StateManager(vrp);
+        Jsprit.Builder.newInstance(vrp)
+            .setStateAndConstraintManager(stateManager, new ConstraintManager(vrp, stateManager))
+            .setProperty(Jsprit.Parameter.PARALLEL_SEARCH_WORKERS, "2").buildAlgorithm();
+    }
+
+    @Test
+    public void whenCachingInsertionCosts_searchShouldBeIdentical() {
+        VehicleRoutingProblem vrp = createProblemWithServices(30);
+        VehicleRoutingAlgorithm withoutCache = Jsprit.Builder.newInstance(vrp).buildAlgorithm();
+        VehicleRoutingAlgorithm withCache = Jsprit.Builder.newInstance(vrp)
+            .setProperty(Jsprit.Parameter.INSERTION_COST_CACHE, "true").buildAlgorithm();
+        Assert.assertEquals(recordDiscoveredCosts(withoutCache), recordDiscoveredCosts(withCache));
+    }
+
+    @Test
+    public void whenEvaluatingObjectiveIncrementally_discoveredCostsShouldBeTheSame() {
+        VehicleRoutingProblem vrp = createProblemWithServices(30);
+        VehicleRoutingAlgorithm full = Jsprit.Builder.newInstance(vrp)
+            .setProperty(Jsprit.Parameter.INCREMENTAL_OBJECTIVE, "false").buildAlgorithm();
+        VehicleRoutingAlgorithm incremental = Jsprit.Builder.newInstance(vrp)
+            .setProperty(Jsprit.Parameter.INCREMENTAL_OBJECTIVE, "true").buildAlgorithm();
+        Assert.assertEquals(recordDiscoveredCosts(full), recordDiscoveredCosts(incremental));
+    }
+
+    @Test
+    public void whenRecordingMetrics_discoveredCostsShouldBeTheSame() {
+        VehicleRoutingProblem vrp = createProblemWithServices(30);
+        final Map<String, Long> published = new HashMap<>();
+        SolverMetrics metrics = new SolverMetrics(new MetricsSink() {
+            @Override
+            public void recordTime(String name, long count, long totalTimeNanos) {
+                increment(name, count);
+            }
+
+            @Override
+            public void increment(String name, long increment) {
+                Long n = published.get(name);
+                published.put(name, n == null ? increment : n + increment);
+            }
+        });
+        VehicleRoutingAlgorithm withoutMetrics = Jsprit.Builder.newInstance(vrp).buildAlgorithm();
+        VehicleRoutingAlgorithm withMetrics = Jsprit.Builder.newInstance(vrp).setMetrics(metrics).buildAlgorithm();
+        Assert.assertEquals(recordDiscoveredCosts(withoutMetrics), recordDiscoveredCosts(withMetrics));
+
+        Map<String, Long> counts = metrics.getCounts();
+        Assert.assertEquals(40, counts.get(SolverMetrics.SELECTION).longValue());
+        Assert.assertEquals(40, counts.get(SolverMetrics.OBJECTIVE).longValue());
+        long noRuins = 0;
+        long noRecreates = 0;
+        for (String name : counts.keySet()) {
+            if (name.startsWith(SolverMetrics.RUIN)) noRuins += counts.get(name);
+            if (name.startsWith(SolverMetrics.RECREATE)) noRecreates += counts.get(name);
+        }
+        Assert.assertEquals(40, noRuins);
+        Assert.assertEquals(40, noRecreates);
+        Assert.assertTrue(counts.get(SolverMetrics.INSERTION_DATA) > 0);
+        Assert.assertTrue(counts.get(SolverMetrics.STATE_UPDATE) > 0);
+        Assert.assertTrue(counts.get(SolverMetrics.CONSTRAINT + "VehicleDependentTimeWindowConstraints") > 0);
+        for (String name : counts.keySet()) {
+            if (counts.get(name) > 0) Assert.assertEquals(counts.get(name), published.get(name));
+        }
+    }
+
+    @Test
+    public void whenUsingGranularInsertion_allJobsShouldBeAssigned() {
+        VehicleRoutingProblem vrp = createProblemWithServices(30);
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp)
+            .setProperty(Jsprit.Parameter.GRANULAR_INSERTION_NEIGHBORS, "5").buildAlgorithm();
+        vra.setMaxIterations(50);
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(vra.searchSolutions());
+        Assert.assertTrue(solution.getUnassignedJobs().isEmpty());
+    }
+
+    @Test
+    public void whenUsingConcurrentShipmentInsertion_allJobsShouldBeAssigned() {
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        Random random = new Random(4711);
+        for (int i = 0; i < 40; i++) {
+            vrpBuilder.addJob(Shipment.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setPickupLocation(Location.newInstance(random.nextInt(100), random.nextInt(100)))
+                .setDeliveryLocation(Location.newInstance(random.nextInt(100), random.nextInt(100))).build());
+        }
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("type").addCapacityDimension(0, 10).build();
+        vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setType(type).setStartLocation(Location.newInstance(50, 50)).build());
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrpBuilder.build())
+            .setProperty(Jsprit.Parameter.THREADS, "4")
+            .setProperty(Jsprit.Parameter.CONCURRENT_SHIPMENT_INSERTION, "true").buildAlgorithm();
+        vra.setMaxIterations(50);
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(vra.searchSolutions());
+        Assert.assertTrue(solution.getUnassignedJobs().isEmpty());
+        Assert.assertEquals(1, solution.getRoutes().size());
+    }
+
+    @Test
+    public void whenUsingLowerBoundPruning_itShouldDiscoverSameSolutions() {
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        Random random = new Random(4711);
+        for (int i = 0; i < 60; i++) {
+            if (i % 4 == 0) {
+                vrpBuilder.addJob(Shipment.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                    .setPickupLocation(Location.newInstance(random.nextInt(100), random.nextInt(100)))
+                    .setDeliveryLocation(Location.newInstance(random.nextInt(100), random.nextInt(100))).build());
+            } else {
+                vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                    .setLocation(Location.newInstance(random.nextInt(100), random.nextInt(100))).build());
+            }
+        }
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("type").addCapacityDimension(0, 10).build();
+        vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setType(type).setStartLocation(Location.newInstance(50, 50)).build());
+        VehicleRoutingProblem vrp = vrpBuilder.build();
+        //insertion noise is drawn per evaluated position, i.e. skipping routes would change the random numbers
+        List<Double> expected = recordDiscoveredCosts(Jsprit.Builder.newInstance(vrp)
+            .setProperty(Jsprit.Parameter.INSERTION_NOISE_PROB, "0").buildAlgorithm());
+        List<Double> actual = recordDiscoveredCosts(Jsprit.Builder.newInstance(vrp)
+            .setProperty(Jsprit.Parameter.INSERTION_NOISE_PROB, "0")
+            .setProperty(Jsprit.Parameter.INSERTION_LOWER_BOUND, "true").buildAlgorithm());
+        Assert.assertEquals(expected, actual);
+    }
+
+    private List<Double> recordDiscoveredCosts(VehicleRoutingProblem vrp) {
+        return recordDiscoveredCosts(Jsprit.Builder.newInstance(vrp)
+            .setProperty(Jsprit.Parameter.PARALLEL_SEARCH_WORKERS, "4").buildAlgorithm());
+    }
+
+    private List<Double> recordDiscoveredCosts(VehicleRoutingAlgorithm vra) {
+        vra.setMaxIterations(40);
+        final List<Double> record = new ArrayList<Double>();
+        vra.addListener(new StrategySelectedListener() {
+            @Override
+            public void informSelectedStrategy(SearchStrategy.DiscoveredSolution discoveredSolution, VehicleRoutingProblem vehicleRoutingProblem, Collection<VehicleRoutingProblemSolution> vehicleRoutingProblemSolutions) {
+                record.add(discoveredSolution.getSolution().getCost());
+            }
+        });
+        vra.searchSolutions();
+        return record;
+    }
+
+    private VehicleRoutingProblem createProblemWithServices(int nuOfServices) {
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        Random random = new Random(4711);
+        for (int i = 0; i < nuOfServices; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(random.nextInt(100), random.nextInt(100))).build());
+        }
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("type").addCapacityDimension(0, 5).build();
+        vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setType(type).setStartLocation(Location.newInstance(50, 50)).build());
+        return vrpBuilder.build();
+    }
+
     @Test
     public void compare() {
         String s1 = "s2234";
@@ -0,0 +1,170 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.box;
+
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoods;
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoodsFactory;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class WarmStartTest {
+
+    private VehicleType type = VehicleTypeImpl.Builder.newInstance("type").addCapacityDimension(0, 10).build();
+
+    private VehicleImpl vehicle(String id, double x) {
+        return VehicleImpl.Builder.newInstance(id).setType(type).setStartLocation(Location.newInstance(x, 0)).build();
+    }
+
+    private Service service(String id, double x, double y) {
+        return Service.Builder.newInstance(id).addSizeDimension(0, 1).setLocation(Location.newInstance(x, y)).build();
+    }
+
+    private VehicleRoutingProblem createProblem() {
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance()
+            .setFleetSize(VehicleRoutingProblem.FleetSize.FINITE)
+            .addVehicle(vehicle("v1", 0)).addVehicle(vehicle("v2", 50));
+        for (int i = 0; i < 12; i++) {
+            vrpBuilder.addJob(service("s" + i, (i * 7) % 50, (i * 13) % 40));
+        }
+        vrpBuilder.addJob(Shipment.Builder.newInstance("sh").addSizeDimension(0, 1)
+            .setPickupLocation(Location.newInstance(10, 10)).setDeliveryLocation(Location.newInstance(30, 20)).build());
+        return vrpBuilder.build();
+    }
+
+    private VehicleRoutingProblemSolution solve(VehicleRoutingProblem vrp) {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setProperty(Jsprit.Parameter.ITERATIONS, "50").buildAlgorithm();
+        return Solutions.bestOf(vra.searchSolutions());
+    }
+
+    private static Set<String> assignedJobIds(VehicleRoutingProblemSolution solution) {
+        Set<String> ids = new HashSet<String>();
+        for (VehicleRoute route : solution.getRoutes()) {
+            for (TourActivity act : route.getActivities()) {
+                if (act instanceof TourActivity.JobActivity) ids.add(((TourActivity.JobActivity) act).getJob().getId());
+            }
+        }
+        return ids;
+    }
+
+    @Test
+    public void whenNothingChanges_translatedSolutionShouldKeepRoutes() {
+        VehicleRoutingProblem vrp = createProblem();
+        VehicleRoutingProblemSolution previous = solve(vrp);
+        Set<String> previouslyAssigned = assignedJobIds(previous);
+        WarmStart warmStart = WarmStart.Builder.newInstance(vrp, previous).build();
+        VehicleRoutingProblemSolution translated = warmStart.getSolution();
+        assertEquals(previous.getRoutes().size(), translated.getRoutes().size());
+        assertEquals(previouslyAssigned, assignedJobIds(translated));
+        assertTrue(warmStart.getFocusJobs().isEmpty());
+        for (VehicleRoute route : translated.getRoutes()) {
+            for (TourActivity act : route.getActivities()) {
+                assertSame(warmStart.getProblem().getJobs().get(((TourActivity.JobActivity) act).getJob().getId()), ((TourActivity.JobActivity) act).getJob());
+            }
+        }
+    }
+
+    @Test
+    public void whenJobsAndVehiclesChange_newSolutionShouldServeChangedProblem() {
+        VehicleRoutingProblem vrp = createProblem();
+        VehicleRoutingProblemSolution previous = solve(vrp);
+        Service added = service("new", 25, 25);
+        Service changed = service("s3", 40, 5);
+        WarmStart warmStart = WarmStart.Builder.newInstance(vrp, previous)
+            .removeJob("s0").removeJob("s3").addJob(changed).addJob(added)
+            .removeVehicle("v2").addVehicle(vehicle("v3", 20))
+            .setIterations(20).build();
+        VehicleRoutingProblem changedProblem = warmStart.getProblem();
+        assertEquals(13, changedProblem.getJobs().size());
+        assertFalse(changedProblem.getJobs().containsKey("s0"));
+        assertSame(changed, changedProblem.getJobs().get("s3"));
+
+        VehicleRoutingProblemSolution translated = warmStart.getSolution();
+        assertTrue(translated.getUnassignedJobs().contains(added));
+        assertTrue(translated.getUnassignedJobs().contains(changed));
+        for (VehicleRoute route : translated.getRoutes()) {
+            assertEquals("v1", route.getVehicle().getId());
+        }
+        assertTrue(warmStart.getFocusJobs().containsAll(translated.getUnassignedJobs()));
+
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(warmStart.createAlgorithm().searchSolutions());
+        assertTrue(solution.getUnassignedJobs().isEmpty());
+        Set<String> assigned = assignedJobIds(solution);
+        assertEquals(changedProblem.getJobs().keySet(), assigned);
+        for (VehicleRoute route : solution.getRoutes()) {
+            assertNotEquals("v2", route.getVehicle().getId());
+        }
+    }
+
+    @Test
+    public void whenPreviousNeighborhoodsAreSpecified_theyShouldBeCarriedOverAndUsed() {
+        VehicleRoutingProblem vrp = createProblem();
+        JobNeighborhoods neighborhoods = new JobNeighborhoodsFactory().createBoundedNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), 5);
+        neighborhoods.initialise();
+        VehicleRoutingProblemSolution previous = Solutions.bestOf(Jsprit.Builder.newInstance(vrp).setJobNeighborhoods(neighborhoods)
+            .setProperty(Jsprit.Parameter.ITERATIONS, "50").buildAlgorithm().searchSolutions());
+        Service added = service("new", 25, 25);
+        WarmStart warmStart = WarmStart.Builder.newInstance(vrp, previous).setJobNeighborhoods(neighborhoods)
+            .removeJob("s0").addJob(added).setIterations(20).build();
+        JobNeighborhoods carriedOver = warmStart.getJobNeighborhoods();
+        assertNotNull(carriedOver);
+        Iterator<Job> neighbors = carriedOver.getNearestNeighborsIterator(12, added);
+        int noNeighbors = 0;
+        while (neighbors.hasNext()) {
+            assertNotEquals("s0", neighbors.next().getId());
+            noNeighbors++;
+        }
+        assertEquals(12, noNeighbors);
+
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(warmStart.createAlgorithm().searchSolutions());
+        assertTrue(solution.getUnassignedJobs().isEmpty());
+        assertEquals(warmStart.getProblem().getJobs().keySet(), assignedJobIds(solution));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenRemovingUnknownJob_itShouldThrowException() {
+        VehicleRoutingProblem vrp = createProblem();
+        WarmStart.Builder.newInstance(vrp, solve(vrp)).removeJob("unknown");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenAddingExistingJob_itShouldThrowException() {
+        VehicleRoutingProblem vrp = createProblem();
+        Job job = vrp.getJobs().get("s1");
+        WarmStart.Builder.newInstance(vrp, solve(vrp)).addJob(job);
+    }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class CachedJobInsertionCostsCalculatorTest {
+
+    private static class CountingCalculator implements JobInsertionCostsCalculator {
+
+        int calls = 0;
+
+        InsertionData result;
+
+        @Override
+        public InsertionData getInsertionData(VehicleRoute currentRoute, Job newJob, Vehicle newVehicle, double newVehicleDepartureTime, Driver newDriver, double bestKnownCosts) {
+            calls++;
+            if (result instanceof InsertionData.NoInsertionFound) return result;
+            InsertionData iData = new InsertionData(result.getInsertionCost(), result.getPickupInsertionIndex(), result.getDeliveryInsertionIndex(), newVehicle, newDriver);
+            TourActivity act = vrp.copyAndGetActivities(newJob).get(0);
+            iData.getEvents().add(new InsertActivity(currentRoute, newVehicle, act, result.getDeliveryInsertionIndex()));
+            iData.getEvents().add(new SwitchVehicle(currentRoute, newVehicle, newVehicleDepartureTime));
+            return iData;
+        }
+    }
+
+    private static VehicleRoutingProblem vrp;
+
+    private Vehicle vehicle;
+
+    private Service s1;
+
+    private Service s2;
+
+    private CountingCalculator baseCalculator;
+
+    private InsertionCostsCache cache;
+
+    private CachedJobInsertionCostsCalculator calculator;
+
+    @Before
+    public void doBefore() {
+        vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build();
+        s1 = Service.Builder.newInstance("s1").setLocation(Location.newInstance(10, 0)).build();
+        s2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance(0, 10)).build();
+        vrp = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle).addJob(s1).addJob(s2).build();
+        baseCalculator = new CountingCalculator();
+        baseCalculator.result = new InsertionData(5., InsertionData.NO_INDEX, 1, vehicle, null);
+        cache = new InsertionCostsCache();
+        calculator = new CachedJobInsertionCostsCalculator(baseCalculator, cache);
+    }
+
+    private VehicleRoute createRoute() {
+        return VehicleRoute.Builder.newInstance(vehicle).setJobActivityFactory(vrp.getJobActivityFactory()).addService(s1).build();
+    }
+
+    @Test
+    public void whenRouteIsCopied_insertionDataShouldBeTakenFromCache() {
+        VehicleRoute route = createRoute();
+        VehicleRoute sameRoute = VehicleRoute.copyOf(route);
+        calculator.getInsertionData(route, s2, vehicle, 0., null, Double.MAX_VALUE);
+        InsertionData iData = calculator.getInsertionData(sameRoute, s2, vehicle, 0., null, Double.MAX_VALUE);
+        assertEquals(1, baseCalculator.calls);
+        assertEquals(1, cache.getNuOfHits());
+        assertEquals(5., iData.getInsertionCost(), 0.01);
+        assertEquals(1, iData.getDeliveryInsertionIndex());
+    }
+
+    @Test
+    public void cachedInsertionDataShouldReferToCurrentRoute() {
+        VehicleRoute route = createRoute();
+        VehicleRoute sameRoute = VehicleRoute.copyOnWrite(route);
+        InsertionData first = calculator.getInsertionData(route, s2, vehicle, 0., null, Double.MAX_VALUE);
+        InsertionData second = calculator.getInsertionData(sameRoute, s2, vehicle, 0., null, Double.MAX_VALUE);
+        InsertActivity firstInsertion = (InsertActivity) first.getEvents().get(0);
+        InsertActivity secondInsertion = (InsertActivity) second.getEvents().get(0);
+        assertSame(sameRoute, secondInsertion.getVehicleRoute());
+        assertSame(sameRoute, ((SwitchVehicle) second.getEvents().get(1)).getRoute());
+        assertNotSame(firstInsertion.getActivity(), secondInsertion.getActivity());
+        assertEquals(firstInsertion.getActivity().getIndex(), secondInsertion.getActivity().getIndex());
+    }
+
+    @Test
+    public void whenRouteHasChanged_insertionDataShouldBeCalculated() {
+        VehicleRoute route = createRoute();
+        calculator.getInsertionData(route, s2, vehicle, 0., null, Double.MAX_VALUE);
+        VehicleRoute otherRoute = VehicleRoute.copyOf(route);
+        otherRoute.getTourActivities().addActivity(vrp.copyAndGetActivities(s2).get(0));
+        calculator.getInsertionData(otherRoute, s2, vehicle, 0., null, Double.MAX_VALUE);
+        assertEquals(2, baseCalculator.calls);
+    }
+
+    @Test
+    public void whenSolutionCompletenessRatioHasChanged_insertionDataShouldBeCalculated() {
+        LocalActivityInsertionCostsCalculator localCalc = new LocalActivityInsertionCostsCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(), null);
+        calculator = new CachedJobInsertionCostsCalculator(baseCalculator, cache, localCalc);
+        VehicleRoute route = createRoute();
+        localCalc.setSolutionCompletenessRatio(0.5);
+        calculator.getInsertionData(route, s2, vehicle, 0., null, Double.MAX_VALUE);
+        localCalc.setSolutionCompletenessRatio(0.8);
+        calculator.getInsertionData(route, s2, vehicle, 0., null, Double.MAX_VALUE);
+        assertEquals(2, baseCalculator.calls);
+        localCalc.setSolutionCompletenessRatio(0.5);
+        calculator.getInsertionData(VehicleRoute.copyOf(route), s2, vehicle, 0., null, Double.MAX_VALUE);
+        assertEquals(2, baseCalculator.calls);
+    }
+
+    @Test
+    public void whenCachedInsertionIsNotCheaperThanBound_noInsertionShouldBeFound() {
+        VehicleRoute route = createRoute();
+        calculator.getInsertionData(route, s2, vehicle, 0., null, Double.MAX_VALUE);
+        InsertionData iData = calculator.getInsertionData(route, s2, vehicle, 0., null, 5.);
+        assertTrue(iData instanceof InsertionData.NoInsertionFound);
+        assertEquals(1, baseCalculator.calls);
+    }
+
+    @Test
+    public void whenNoInsertionFoundWithLowerBound_itShouldBeRecalculatedWithHigherBound() {
+        baseCalculator.result = new InsertionData.NoInsertionFound();
+        VehicleRoute route = createRoute();
+        calculator.getInsertionData(route, s2, vehicle, 0., null, 10.);
+        calculator.getInsertionData(route, s2, vehicle, 0., null, 8.);
+        assertEquals(1, baseCalculator.calls);
+        calculator.getInsertionData(route, s2, vehicle, 0., null, 20.);
+        assertEquals(2, baseCalculator.calls);
+    }
+
+    @Test
+    public void whenDisabled_insertionDataShouldAlwaysBeCalculated() {
+        cache.setEnabled(false);
+        calculator.getInsertionData(createRoute(), s2, vehicle, 0., null, Double.MAX_VALUE);
+        calculator.getInsertionData(createRoute(), s2, vehicle, 0., null, Double.MAX_VALUE);
+        assertEquals(2, baseCalculator.calls);
+        assertEquals(0, cache.getNuOfRoutes());
+    }
+
+    @Test
+    public void whenInsertionStarts_entriesOfRemovedRoutesShouldBeEvicted() {
+        VehicleRoute route = createRoute();
+        calculator.getInsertionData(route, s2, vehicle, 0., null, Double.MAX_VALUE);
+        calculator.getInsertionData(VehicleRoute.emptyRoute(), s2, vehicle, 0., null, Double.MAX_VALUE);
+        assertEquals(2, cache.getNuOfRoutes());
+        cache.informInsertionStarts(Arrays.asList(VehicleRoute.copyOf(route)), Collections.<Job>singletonList(s2));
+        assertEquals(2, cache.getNuOfRoutes());
+        cache.informInsertionStarts(Collections.<VehicleRoute>emptyList(), Collections.<Job>singletonList(s2));
+        assertEquals(1, cache.getNuOfRoutes());
+    }
+
+}
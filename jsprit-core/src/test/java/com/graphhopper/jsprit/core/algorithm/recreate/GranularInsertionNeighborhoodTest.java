@@ -0,0 +1,111 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoods;
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoodsFactory;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.EuclideanServiceDistance;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GranularInsertionNeighborhoodTest {
+
+    private VehicleRoutingProblem vrp;
+
+    private Service near;
+
+    private Service far;
+
+    private Service other;
+
+    private Service toInsert;
+
+    private VehicleRoute route;
+
+    private GranularInsertionNeighborhood neighborhood;
+
+    @Before
+    public void doBefore() {
+        near = Service.Builder.newInstance("near").setLocation(Location.newInstance(10, 1)).build();
+        far = Service.Builder.newInstance("far").setLocation(Location.newInstance(100, 0)).build();
+        other = Service.Builder.newInstance("other").setLocation(Location.newInstance(50, 50)).build();
+        toInsert = Service.Builder.newInstance("toInsert").setLocation(Location.newInstance(10, 0)).build();
+        VehicleImpl vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build();
+        vrp = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle).addJob(near).addJob(far).addJob(other).addJob(toInsert).build();
+        route = VehicleRoute.Builder.newInstance(vehicle).setJobActivityFactory(vrp.getJobActivityFactory())
+            .addService(far).addService(other).addService(near).build();
+        JobNeighborhoods jobNeighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp, new EuclideanServiceDistance());
+        jobNeighborhoods.initialise();
+        neighborhood = new GranularInsertionNeighborhood(vrp.getJobs().values(), jobNeighborhoods, 1);
+    }
+
+    @Test
+    public void positionsNextToStartAndEndShouldBeCandidates() {
+        TourActivity first = route.getActivities().get(0);
+        assertTrue(neighborhood.isCandidate(toInsert, route.getStart(), first));
+        TourActivity last = route.getActivities().get(2);
+        assertTrue(neighborhood.isCandidate(toInsert, last, route.getEnd()));
+    }
+
+    @Test
+    public void positionsNextToNeighborShouldBeCandidates() {
+        assertTrue(neighborhood.isCandidate(toInsert, route.getActivities().get(1), route.getActivities().get(2)));
+    }
+
+    @Test
+    public void positionsNotNextToNeighborShouldNotBeCandidates() {
+        assertFalse(neighborhood.isCandidate(toInsert, route.getActivities().get(0), route.getActivities().get(1)));
+    }
+
+    @Test
+    public void calculatorShouldOnlyEvaluateCandidatePositions() {
+        StateManager stateManager = new StateManager(vrp);
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        final List<Integer> evaluatedPositions = new ArrayList<>();
+        constraintManager.addConstraint(new HardActivityConstraint() {
+            @Override
+            public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
+                evaluatedPositions.add(iFacts.getActivityContext().getInsertionIndex());
+                return ConstraintsStatus.FULFILLED;
+            }
+        }, ConstraintManager.Priority.LOW);
+        ServiceInsertionCalculator calculator = new ServiceInsertionCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(),
+            new LocalActivityInsertionCostsCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(), stateManager), constraintManager);
+        calculator.setJobActivityFactory(vrp.getJobActivityFactory());
+        calculator.setGranularNeighborhood(neighborhood);
+        calculator.getInsertionData(route, toInsert, route.getVehicle(), 0., null, Double.MAX_VALUE);
+        assertEquals(Arrays.asList(0, 2, 3), evaluatedPositions);
+    }
+
+}
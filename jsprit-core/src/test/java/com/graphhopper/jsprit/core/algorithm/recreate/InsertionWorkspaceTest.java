@@ -0,0 +1,58 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class InsertionWorkspaceTest {
+
+    @Test
+    public void whenRequestingProbesOfSameJob_theyShouldBeReused() {
+        Service service = Service.Builder.newInstance("s").setLocation(Location.newInstance(0, 0)).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().addJob(service).build();
+        InsertionWorkspace workspace = new InsertionWorkspace();
+        List<AbstractActivity> probes = workspace.probeActivities(service, vrp.getJobActivityFactory());
+        assertEquals(1, probes.size());
+        assertSame(probes, workspace.probeActivities(service, vrp.getJobActivityFactory()));
+    }
+
+    @Test
+    public void whenAnotherJobHasSameIndex_probesShouldBeReplaced() {
+        Service service = Service.Builder.newInstance("s").setLocation(Location.newInstance(0, 0)).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().addJob(service).build();
+        Service changed = Service.Builder.newInstance("s").setLocation(Location.newInstance(10, 0)).build();
+        VehicleRoutingProblem changedVrp = VehicleRoutingProblem.Builder.newInstance().addJob(changed).build();
+        assertEquals(service.getIndex(), changed.getIndex());
+
+        InsertionWorkspace workspace = new InsertionWorkspace();
+        List<AbstractActivity> probes = workspace.probeActivities(service, vrp.getJobActivityFactory());
+        List<AbstractActivity> changedProbes = workspace.probeActivities(changed, changedVrp.getJobActivityFactory());
+        assertNotSame(probes, changedProbes);
+        assertEquals(10., changedProbes.get(0).getLocation().getCoordinate().getX(), 0.01);
+    }
+
+}
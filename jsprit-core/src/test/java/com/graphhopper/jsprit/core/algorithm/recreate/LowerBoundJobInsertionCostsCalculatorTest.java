@@ -0,0 +1,212 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionListeners;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
+import com.graphhopper.jsprit.core.problem.JobActivityFactory;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.driver.DriverImpl;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LowerBoundJobInsertionCostsCalculatorTest {
+
+    private static class CountingCalculator implements JobInsertionCostsCalculator {
+
+        private final JobInsertionCostsCalculator calculator;
+
+        private int noCalls = 0;
+
+        CountingCalculator(JobInsertionCostsCalculator calculator) {
+            this.calculator = calculator;
+        }
+
+        @Override
+        public InsertionData getInsertionData(VehicleRoute currentRoute, Job newJob, Vehicle newVehicle, double newVehicleDepartureTime, Driver newDriver, double bestKnownCosts) {
+            noCalls++;
+            return calculator.getInsertionData(currentRoute, newJob, newVehicle, newVehicleDepartureTime, newDriver, bestKnownCosts);
+        }
+    }
+
+    private VehicleRoutingProblem vrp;
+
+    private StateManager stateManager;
+
+    private JobInsertionCostsCalculator calculator;
+
+    private CountingCalculator countingCalculator;
+
+    private JobInsertionCostsCalculator lowerBoundCalculator;
+
+    private List<VehicleRoute> routes;
+
+    private List<Job> unassignedJobs;
+
+    private void createProblem(Random random, int noVehicles, int noJobsPerRoute, int noUnassignedJobs) {
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 1000).setCostPerDistance(1).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        List<VehicleImpl> vehicles = new ArrayList<VehicleImpl>();
+        for (int i = 0; i < noVehicles; i++) {
+            VehicleImpl vehicle = VehicleImpl.Builder.newInstance("v" + i).setStartLocation(randomLocation(random))
+                .setReturnToDepot(i % 2 == 0).setType(type).build();
+            vehicles.add(vehicle);
+            vrpBuilder.addVehicle(vehicle);
+        }
+        List<Job> jobs = new ArrayList<Job>();
+        for (int i = 0; i < noVehicles * noJobsPerRoute + noUnassignedJobs; i++) {
+            Job job;
+            if (i % 3 == 0) {
+                job = Shipment.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                    .setPickupLocation(randomLocation(random)).setDeliveryLocation(randomLocation(random)).build();
+            } else {
+                job = Service.Builder.newInstance("s" + i).addSizeDimension(0, 1).setLocation(randomLocation(random)).build();
+            }
+            jobs.add(job);
+            vrpBuilder.addJob(job);
+        }
+        vrp = vrpBuilder.build();
+
+        Inserter inserter = new Inserter(new InsertionListeners(), vrp);
+        routes = new ArrayList<VehicleRoute>();
+        for (int i = 0; i < noVehicles; i++) {
+            VehicleRoute route = VehicleRoute.emptyRoute();
+            route.setVehicleAndDepartureTime(vehicles.get(i), 0.);
+            for (int j = 0; j < noJobsPerRoute; j++) {
+                int index = route.getActivities().size();
+                inserter.insertJob(jobs.get(i * noJobsPerRoute + j), new InsertionData(0, index, index, vehicles.get(i), null), route);
+            }
+            routes.add(route);
+        }
+        unassignedJobs = jobs.subList(noVehicles * noJobsPerRoute, jobs.size());
+
+        stateManager = new StateManager(vrp);
+        stateManager.updateLoadStates();
+        stateManager.updateMaxLegCostStates();
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        constraintManager.addLoadConstraint();
+        stateManager.informInsertionStarts(routes, unassignedJobs);
+
+        JobActivityFactory activityFactory = new JobActivityFactory() {
+            @Override
+            public List<AbstractActivity> createActivities(Job job) {
+                return vrp.copyAndGetActivities(job);
+            }
+        };
+        ActivityInsertionCostsCalculator activityInsertionCosts = new LocalActivityInsertionCostsCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(), stateManager);
+        ServiceInsertionCalculator serviceInsertion = new ServiceInsertionCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(), activityInsertionCosts, constraintManager);
+        serviceInsertion.setJobActivityFactory(activityFactory);
+        ShipmentInsertionCalculator shipmentInsertion = new ShipmentInsertionCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(), activityInsertionCosts, constraintManager);
+        shipmentInsertion.setJobActivityFactory(activityFactory);
+        JobCalculatorSwitcher switcher = new JobCalculatorSwitcher();
+        switcher.put(Service.class, serviceInsertion);
+        switcher.put(Shipment.class, shipmentInsertion);
+        calculator = switcher;
+        countingCalculator = new CountingCalculator(switcher);
+        lowerBoundCalculator = new LowerBoundJobInsertionCostsCalculator(countingCalculator, vrp.getTransportCosts(), stateManager);
+    }
+
+    private static Location randomLocation(Random random) {
+        return Location.newInstance(random.nextInt(100), random.nextInt(100));
+    }
+
+    private InsertionData getInsertionData(JobInsertionCostsCalculator calculator, VehicleRoute route, Job job, double bestKnownCosts) {
+        return calculator.getInsertionData(route, job, route.getVehicle(), route.getDepartureTime(), DriverImpl.noDriver(), bestKnownCosts);
+    }
+
+    @Test
+    public void whenRouteIsFarAway_itShouldBeDiscarded() {
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 10).setCostPerDistance(1).build();
+        VehicleImpl vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).setType(type).build();
+        Service routeService = Service.Builder.newInstance("s1").addSizeDimension(0, 1).setLocation(Location.newInstance(10, 0)).build();
+        Service farService = Service.Builder.newInstance("s2").addSizeDimension(0, 1).setLocation(Location.newInstance(100, 0)).build();
+        Service nearService = Service.Builder.newInstance("s3").addSizeDimension(0, 1).setLocation(Location.newInstance(5, 0)).build();
+        vrp = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle).addJob(routeService).addJob(farService).addJob(nearService).build();
+        VehicleRoute route = VehicleRoute.emptyRoute();
+        route.setVehicleAndDepartureTime(vehicle, 0.);
+        new Inserter(new InsertionListeners(), vrp).insertJob(routeService, new InsertionData(0, 0, 0, vehicle, null), route);
+
+        stateManager = new StateManager(vrp);
+        stateManager.updateMaxLegCostStates();
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        stateManager.informInsertionStarts(Arrays.asList(route), Arrays.<Job>asList(farService, nearService));
+
+        ServiceInsertionCalculator serviceInsertion = new ServiceInsertionCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(),
+            new LocalActivityInsertionCostsCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(), stateManager), constraintManager);
+        serviceInsertion.setJobActivityFactory(new JobActivityFactory() {
+            @Override
+            public List<AbstractActivity> createActivities(Job job) {
+                return vrp.copyAndGetActivities(job);
+            }
+        });
+        countingCalculator = new CountingCalculator(serviceInsertion);
+        lowerBoundCalculator = new LowerBoundJobInsertionCostsCalculator(countingCalculator, vrp.getTransportCosts(), stateManager);
+
+        //detour to the far service is 180, i.e. its lower bound is 90 + 90 - 10 = 170
+        assertTrue(getInsertionData(lowerBoundCalculator, route, farService, 100.) instanceof InsertionData.NoInsertionFound);
+        assertEquals(0, countingCalculator.noCalls);
+        assertEquals(180., getInsertionData(lowerBoundCalculator, route, farService, Double.MAX_VALUE).getInsertionCost(), 0.01);
+        assertEquals(0., getInsertionData(lowerBoundCalculator, route, nearService, 100.).getInsertionCost(), 0.01);
+        assertEquals(2, countingCalculator.noCalls);
+    }
+
+    @Test
+    public void whenDiscardingRoutes_itShouldFindSameInsertionsAsWithoutLowerBound() {
+        Random random = new Random(4711);
+        int noCalls = 0;
+        int noEvaluations = 0;
+        for (int run = 0; run < 20; run++) {
+            createProblem(random, 6, 1 + random.nextInt(10), 30);
+            for (Job job : unassignedJobs) {
+                double bestKnownCosts = Double.MAX_VALUE;
+                for (VehicleRoute route : routes) {
+                    InsertionData expected = getInsertionData(calculator, route, job, bestKnownCosts);
+                    InsertionData actual = getInsertionData(lowerBoundCalculator, route, job, bestKnownCosts);
+                    assertEquals(expected instanceof InsertionData.NoInsertionFound, actual instanceof InsertionData.NoInsertionFound);
+                    assertEquals(expected.getInsertionCost(), actual.getInsertionCost(), 0.);
+                    assertEquals(expected.getPickupInsertionIndex(), actual.getPickupInsertionIndex());
+                    assertEquals(expected.getDeliveryInsertionIndex(), actual.getDeliveryInsertionIndex());
+                    if (!(expected instanceof InsertionData.NoInsertionFound)) bestKnownCosts = expected.getInsertionCost();
+                }
+            }
+            noCalls += countingCalculator.noCalls;
+            noEvaluations += routes.size() * unassignedJobs.size();
+        }
+        assertTrue(noCalls < noEvaluations);
+    }
+
+}
@@ -46,6 +46,10 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class RegretInsertionTest {
 
@@ -102,6 +106,38 @@ public class RegretInsertionTest {
         Assert.assertTrue(position.isCorrect());
     }
 
+    @Test
+    public void whenScoringJobsInBatches_insertionSequenceShouldBeTheSame() {
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        Random random = new Random(4711);
+        for (int i = 0; i < 60; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(random.nextInt(50), random.nextInt(50))).build());
+        }
+        vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build());
+        VehicleRoutingProblem vrp = vrpBuilder.build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        List<Job> sequential = insertAndGetSequence(vrp, executor, 1);
+        List<Job> batched = insertAndGetSequence(vrp, executor, 3);
+        executor.shutdown();
+        Assert.assertEquals(60, sequential.size());
+        Assert.assertEquals(sequential, batched);
+    }
+
+    private List<Job> insertAndGetSequence(VehicleRoutingProblem vrp, ExecutorService executor, int nuOfBatches) {
+        VehicleFleetManager fm = new FiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+        RegretInsertionConcurrentFast regretInsertion = new RegretInsertionConcurrentFast(getCalculator(vrp), vrp, executor, nuOfBatches, fm);
+        final List<Job> sequence = new ArrayList<Job>();
+        regretInsertion.addListener(new BeforeJobInsertionListener() {
+            @Override
+            public void informBeforeJobInsertion(Job job, InsertionData data, VehicleRoute route) {
+                sequence.add(job);
+            }
+        });
+        regretInsertion.insertJobs(new ArrayList<VehicleRoute>(), vrp.getJobs().values());
+        return sequence;
+    }
+
     @Test
     public void solutionWithFastRegretMustBeCorrect() {
         Service s1 = Service.Builder.newInstance("s1").setLocation(Location.newInstance(0, 10)).build();
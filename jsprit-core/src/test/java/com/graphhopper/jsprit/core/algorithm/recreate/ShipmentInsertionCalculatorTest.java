@@ -24,6 +24,7 @@ import com.graphhopper.jsprit.core.problem.JobActivityFactory;
 import com.graphhopper.jsprit.core.problem.Location;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.HardRouteConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.PickupAndDeliverShipmentLoadActivityLevelConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.ShipmentPickupsFirstConstraint;
@@ -31,6 +32,7 @@ import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingActivityCosts;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import com.graphhopper.jsprit.core.problem.driver.Driver;
 import com.graphhopper.jsprit.core.problem.driver.DriverImpl;
+import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.job.Pickup;
 import com.graphhopper.jsprit.core.problem.job.Service;
 import com.graphhopper.jsprit.core.problem.job.Shipment;
@@ -39,6 +41,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.DeliverShipment;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.PickupService;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.PickupShipment;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
@@ -51,7 +54,11 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -316,5 +323,127 @@ public class ShipmentInsertionCalculatorTest {
         assertEquals(3, iData.getDeliveryInsertionIndex());
     }
 
+    @Test
+    public void whenEvaluatingPickupPositionsConcurrently_itShouldFindSameInsertionAsSequentialEvaluation() {
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 3).setCostPerDistance(1).build();
+        VehicleImpl vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance("0,0")).setType(type).build();
+        Random random = new Random(4711);
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle).setRoutingCost(routingCosts);
+        List<Shipment> shipments = new ArrayList<Shipment>();
+        for (int i = 0; i < 30; i++) {
+            double pickupStart = random.nextInt(500);
+            Shipment shipment = Shipment.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setPickupLocation(Location.newInstance(random.nextInt(50) + "," + random.nextInt(50)))
+                .setDeliveryLocation(Location.newInstance(random.nextInt(50) + "," + random.nextInt(50)))
+                .setPickupTimeWindow(TimeWindow.newInstance(pickupStart, pickupStart + 3000)).build();
+            shipments.add(shipment);
+            vrpBuilder.addJob(shipment);
+        }
+        final VehicleRoutingProblem vrp = vrpBuilder.build();
+
+        VehicleRoute route = VehicleRoute.emptyRoute();
+        route.setVehicleAndDepartureTime(vehicle, 0.0);
+        Inserter inserter = new Inserter(new InsertionListeners(), vrp);
+        for (int i = 0; i < 20; i++) {
+            inserter.insertJob(shipments.get(i), new InsertionData(0, 2 * i, 2 * i, vehicle, null), route);
+        }
+
+        StateManager stateManager = new StateManager(vrp);
+        stateManager.updateLoadStates();
+        stateManager.updateTimeWindowStates();
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        constraintManager.addLoadConstraint();
+        constraintManager.addTimeWindowConstraint();
+        stateManager.informInsertionStarts(Arrays.asList(route), null);
+
+        JobActivityFactory activityFactory = new JobActivityFactory() {
+            @Override
+            public List<AbstractActivity> createActivities(Job job) {
+                return vrp.copyAndGetActivities(job);
+            }
+        };
+        ActivityInsertionCostsCalculator activityInsertionCosts = new LocalActivityInsertionCostsCalculator(routingCosts, activityCosts, stateManager);
+        ShipmentInsertionCalculator sequential = new ShipmentInsertionCalculator(routingCosts, activityCosts, activityInsertionCosts, constraintManager);
+        sequential.setJobActivityFactory(activityFactory);
+        ShipmentInsertionCalculator concurrent = new ShipmentInsertionCalculator(routingCosts, activityCosts, activityInsertionCosts, constraintManager);
+        concurrent.setJobActivityFactory(activityFactory);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        concurrent.setConcurrentMode(executor, 4, 0);
+        try {
+            for (int i = 20; i < 30; i++) {
+                Shipment shipment = shipments.get(i);
+                InsertionData expected = sequential.getInsertionData(route, shipment, vehicle, 0, DriverImpl.noDriver(), Double.MAX_VALUE);
+                InsertionData actual = concurrent.getInsertionData(route, shipment, vehicle, 0, DriverImpl.noDriver(), Double.MAX_VALUE);
+                assertEquals(expected.getInsertionCost(), actual.getInsertionCost(), 0.);
+                assertEquals(expected.getPickupInsertionIndex(), actual.getPickupInsertionIndex());
+                assertEquals(expected.getDeliveryInsertionIndex(), actual.getDeliveryInsertionIndex());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static class RecordingPickupConstraint implements HardActivityConstraint {
+
+        final List<Integer> relatedInsertionIndices = Collections.synchronizedList(new ArrayList<Integer>());
+
+        @Override
+        public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
+            if (newAct instanceof PickupShipment) {
+                relatedInsertionIndices.add(iFacts.getRelatedActivityContext() == null ? -1 : iFacts.getRelatedActivityContext().getInsertionIndex());
+            }
+            return ConstraintsStatus.FULFILLED;
+        }
+
+    }
+
+    @Test
+    public void whenEvaluatingPickupPositionsConcurrently_pickupsShouldBeCheckedWithSameRelatedContextAsSequentially() {
+        Random random = new Random(4711);
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle).setRoutingCost(routingCosts);
+        List<Shipment> shipments = new ArrayList<Shipment>();
+        for (int i = 0; i < 11; i++) {
+            Shipment shipment = Shipment.Builder.newInstance("s" + i)
+                .setPickupLocation(Location.newInstance(random.nextInt(50) + "," + random.nextInt(50)))
+                .setDeliveryLocation(Location.newInstance(random.nextInt(50) + "," + random.nextInt(50))).build();
+            shipments.add(shipment);
+            vrpBuilder.addJob(shipment);
+        }
+        final VehicleRoutingProblem vrp = vrpBuilder.build();
+        VehicleRoute route = VehicleRoute.emptyRoute();
+        route.setVehicleAndDepartureTime(vehicle, 0.0);
+        Inserter inserter = new Inserter(new InsertionListeners(), vrp);
+        for (int i = 0; i < 10; i++) {
+            inserter.insertJob(shipments.get(i), new InsertionData(0, 2 * i, 2 * i, vehicle, null), route);
+        }
+        JobActivityFactory activityFactory = new JobActivityFactory() {
+            @Override
+            public List<AbstractActivity> createActivities(Job job) {
+                return vrp.copyAndGetActivities(job);
+            }
+        };
+
+        RecordingPickupConstraint sequentialConstraint = new RecordingPickupConstraint();
+        ConstraintManager sequentialConstraints = new ConstraintManager(vrp, new StateManager(vrp));
+        sequentialConstraints.addConstraint(sequentialConstraint, ConstraintManager.Priority.HIGH);
+        ShipmentInsertionCalculator sequential = new ShipmentInsertionCalculator(routingCosts, activityCosts, activityInsertionCostsCalculator, sequentialConstraints);
+        sequential.setJobActivityFactory(activityFactory);
+
+        RecordingPickupConstraint concurrentConstraint = new RecordingPickupConstraint();
+        ConstraintManager concurrentConstraints = new ConstraintManager(vrp, new StateManager(vrp));
+        concurrentConstraints.addConstraint(concurrentConstraint, ConstraintManager.Priority.HIGH);
+        ShipmentInsertionCalculator concurrent = new ShipmentInsertionCalculator(routingCosts, activityCosts, activityInsertionCostsCalculator, concurrentConstraints);
+        concurrent.setJobActivityFactory(activityFactory);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        concurrent.setConcurrentMode(executor, 4, 0);
+        try {
+            sequential.getInsertionData(route, shipments.get(10), vehicle, 0, DriverImpl.noDriver(), Double.MAX_VALUE);
+            concurrent.getInsertionData(route, shipments.get(10), vehicle, 0, DriverImpl.noDriver(), Double.MAX_VALUE);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(21, sequentialConstraint.relatedInsertionIndices.size());
+        assertEquals(sequentialConstraint.relatedInsertionIndices, concurrentConstraint.relatedInsertionIndices);
+    }
 
 }
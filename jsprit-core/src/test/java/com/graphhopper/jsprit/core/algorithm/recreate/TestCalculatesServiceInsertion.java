@@ -33,6 +33,7 @@ import com.graphhopper.jsprit.core.problem.job.Service;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
@@ -47,6 +48,7 @@ import org.junit.Test;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.mockito.Mockito.mock;
 
 
@@ -175,6 +177,19 @@ public class TestCalculatesServiceInsertion {
         assertEquals(1, iData.getDeliveryInsertionIndex());
     }
 
+    @Test
+    public void insertedActivityShouldBeNewActivityForEachCall() {
+        VehicleRoute route = VehicleRoute.Builder.newInstance(vehicle, driver).setJobActivityFactory(vrp.getJobActivityFactory()).addService(first).addService(third).build();
+        states.informInsertionStarts(Arrays.asList(route), null);
+
+        InsertionData iData = serviceInsertion.getInsertionData(route, second, vehicle, vehicle.getEarliestDeparture(), null, Double.MAX_VALUE);
+        InsertionData iData2 = serviceInsertion.getInsertionData(route, second, vehicle, vehicle.getEarliestDeparture(), null, Double.MAX_VALUE);
+        InsertActivity insertion = (InsertActivity) iData.getEvents().get(0);
+        InsertActivity insertion2 = (InsertActivity) iData2.getEvents().get(0);
+        assertNotSame(insertion.getActivity(), insertion2.getActivity());
+        assertEquals(second, ((TourActivity.JobActivity) insertion.getActivity()).getJob());
+    }
+
     @Test
     public void whenInsertingThirdJobWithNewVehicle_itCalculatesMarginalCostChanges() {
         VehicleRoute route = VehicleRoute.Builder.newInstance(vehicle, driver).setJobActivityFactory(vrp.getJobActivityFactory()).addService(first).addService(third).build();
@@ -0,0 +1,100 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class VersionedInsertionDataQueueTest {
+
+    private VehicleRoute route1 = mock(VehicleRoute.class);
+
+    private VehicleRoute route2 = mock(VehicleRoute.class);
+
+    private Map<VehicleRoute, Integer> versions = new HashMap<>();
+
+    private VersionedInsertionData data(double cost, int version, VehicleRoute route) {
+        return new VersionedInsertionData(new InsertionData(cost, -1, 0, null, null), version, route);
+    }
+
+    private List<VersionedInsertionData> scan(VersionedInsertionDataQueue queue) {
+        List<VersionedInsertionData> scanned = new ArrayList<>();
+        VersionedInsertionData d;
+        while ((d = queue.next(versions)) != null) {
+            scanned.add(d);
+        }
+        queue.resetScan();
+        return scanned;
+    }
+
+    @Test
+    public void whenScanning_dataShouldBeOrderedByCostsAndThenBySequence() {
+        versions.put(route1, 0);
+        versions.put(route2, 0);
+        VersionedInsertionDataQueue queue = new VersionedInsertionDataQueue();
+        VersionedInsertionData d1 = data(3., 0, route1);
+        VersionedInsertionData d2 = data(1., 0, route2);
+        VersionedInsertionData d3 = data(3., 0, route2);
+        VersionedInsertionData d4 = data(2., 0, route1);
+        queue.add(d1);
+        queue.add(d2);
+        queue.add(d3);
+        queue.add(d4);
+        assertEquals(Arrays.asList(d2, d4, d1, d3), scan(queue));
+        assertEquals(Arrays.asList(d2, d4, d1, d3), scan(queue));
+    }
+
+    @Test
+    public void whenVersionIsOutdated_dataShouldBeRemoved() {
+        versions.put(route1, 0);
+        versions.put(route2, 0);
+        VersionedInsertionDataQueue queue = new VersionedInsertionDataQueue();
+        VersionedInsertionData d1 = data(1., 0, route1);
+        VersionedInsertionData d2 = data(2., 0, route2);
+        queue.add(d1);
+        queue.add(d2);
+        versions.put(route1, 1);
+        VersionedInsertionData d3 = data(3., 1, route1);
+        queue.add(d3);
+        assertEquals(Arrays.asList(d2, d3), scan(queue));
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void whenRoutesAreUpdatedRepeatedly_sizeShouldBeBounded() {
+        VersionedInsertionDataQueue queue = new VersionedInsertionDataQueue();
+        for (int round = 0; round < 1000; round++) {
+            versions.put(route1, round);
+            versions.put(route2, round);
+            queue.add(data(round % 7, round, route1));
+            queue.add(data(round % 5, round, route2));
+        }
+        assertTrue(queue.size() <= 32);
+        assertEquals(2, scan(queue).size());
+    }
+
+}
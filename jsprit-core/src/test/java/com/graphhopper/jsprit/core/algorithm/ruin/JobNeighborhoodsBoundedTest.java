@@ -0,0 +1,193 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.EuclideanServiceDistance;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class JobNeighborhoodsBoundedTest {
+
+    VehicleRoutingProblem vrp;
+
+    JobDistance jobDistance;
+
+    Service target;
+    Service s2;
+    Service s3;
+    Service s4;
+    Service s5;
+    Service s6;
+    Service s7;
+
+    @Before
+    public void doBefore() {
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        target = Service.Builder.newInstance("s1").addSizeDimension(0, 1).setLocation(Location.newInstance(0, 5)).build();
+        s2 = Service.Builder.newInstance("s2").addSizeDimension(0, 1).setLocation(Location.newInstance(0, 4)).build();
+        s3 = Service.Builder.newInstance("s3").addSizeDimension(0, 1).setLocation(Location.newInstance(0, 3)).build();
+        s4 = Service.Builder.newInstance("s4").addSizeDimension(0, 1).setLocation(Location.newInstance(0, 2)).build();
+
+        s5 = Service.Builder.newInstance("s5").addSizeDimension(0, 1).setLocation(Location.newInstance(0, 6)).build();
+        s6 = Service.Builder.newInstance("s6").addSizeDimension(0, 1).setLocation(Location.newInstance(0, 7)).build();
+        s7 = Service.Builder.newInstance("s7").addSizeDimension(0, 1).setLocation(Location.newInstance(0, 8)).build();
+
+        vrp = builder.addJob(target).addJob(s2).addJob(s3).addJob(s4).addJob(s5).addJob(s6).addJob(s7).build();
+
+        jobDistance = new EuclideanServiceDistance();
+    }
+
+    private List<Job> neighbors(JobNeighborhoods jn, int nNeighbors, Job job) {
+        Iterator<Job> iter = jn.getNearestNeighborsIterator(nNeighbors, job);
+        List<Job> neighbors = new ArrayList<>();
+        while (iter.hasNext()) {
+            neighbors.add(iter.next());
+        }
+        return neighbors;
+    }
+
+    @Test
+    public void whenRequestingNeighborhoodOfTargetJob_neighborsShouldBeCorrect() {
+        JobNeighborhoodsBounded jn = new JobNeighborhoodsBounded(vrp, jobDistance, 4);
+        jn.initialise();
+        assertEquals(Arrays.<Job>asList(s6, s5, target, s2), neighbors(jn, 4, s7));
+    }
+
+    @Test
+    public void whenDistancesAreEqual_neighborsShouldBeOrderedByIndex() {
+        JobNeighborhoodsBounded jn = new JobNeighborhoodsBounded(vrp, jobDistance, 2);
+        jn.initialise();
+        assertEquals(Arrays.<Job>asList(s2, s5), neighbors(jn, 2, target));
+    }
+
+    @Test
+    public void whenRequestingMoreNeighborsThanMemorized_neighborsShouldBeExtended() {
+        JobNeighborhoodsBounded jn = new JobNeighborhoodsBounded(vrp, jobDistance, 2);
+        jn.initialise();
+        assertEquals(Arrays.<Job>asList(s6, s5, target, s2, s3), neighbors(jn, 5, s7));
+        assertEquals(6, neighbors(jn, 100, s7).size());
+    }
+
+    @Test
+    public void maxDistanceShouldBeDistanceOfFarthestJobs() {
+        JobNeighborhoodsBounded jn = new JobNeighborhoodsBounded(vrp, jobDistance, 2);
+        jn.initialise();
+        assertEquals(6., jn.getMaxDistance(), 0.01);
+    }
+
+    @Test
+    public void whenInitialisedConcurrently_neighborsShouldBeTheSame() {
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        Random random = new Random(4711);
+        for (int i = 0; i < 200; i++) {
+            builder.addJob(Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(random.nextInt(20), random.nextInt(20))).build());
+        }
+        VehicleRoutingProblem vrp = builder.build();
+        JobNeighborhoodsBounded sequential = new JobNeighborhoodsBounded(vrp, jobDistance, 10);
+        sequential.initialise();
+        ExecutorService es = Executors.newFixedThreadPool(3);
+        JobNeighborhoodsBounded concurrent = new JobNeighborhoodsBounded(vrp, jobDistance, 10, es, 3);
+        concurrent.initialise();
+        es.shutdown();
+        for (Job job : vrp.getJobs().values()) {
+            assertEquals(neighbors(sequential, 10, job), neighbors(concurrent, 10, job));
+        }
+        assertEquals(sequential.getMaxDistance(), concurrent.getMaxDistance(), 0.);
+    }
+
+    @Test
+    public void whenCarriedOver_neighborsShouldBeTheSameAsComputedFromScratch() {
+        Random random = new Random(4711);
+        List<Service> services = new ArrayList<>();
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        for (int i = 0; i < 200; i++) {
+            Service service = Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(random.nextDouble() * 20, random.nextDouble() * 20)).build();
+            services.add(service);
+            builder.addJob(service);
+        }
+        JobNeighborhoodsBounded previous = new JobNeighborhoodsBounded(builder.build(), jobDistance, 10);
+        previous.initialise();
+
+        VehicleRoutingProblem.Builder changedBuilder = VehicleRoutingProblem.Builder.newInstance();
+        for (Service service : services.subList(20, 200)) {
+            changedBuilder.addJob(service);
+        }
+        for (int i = 0; i < 20; i++) {
+            changedBuilder.addJob(Service.Builder.newInstance("added" + i).setLocation(Location.newInstance(random.nextDouble() * 20, random.nextDouble() * 20)).build());
+        }
+        VehicleRoutingProblem changed = changedBuilder.build();
+        final int[] noDistances = new int[1];
+        JobDistance countingDistance = new JobDistance() {
+            @Override
+            public double getDistance(Job job1, Job job2) {
+                noDistances[0]++;
+                return jobDistance.getDistance(job1, job2);
+            }
+        };
+        JobNeighborhoodsBounded carriedOver = new JobNeighborhoodsBounded(changed, countingDistance, previous);
+        carriedOver.initialise();
+        int noCarryOverDistances = noDistances[0];
+        JobNeighborhoodsBounded fromScratch = new JobNeighborhoodsBounded(changed, jobDistance, 10);
+        fromScratch.initialise();
+
+        assertTrue(noCarryOverDistances < 200 * 199 / 2);
+        for (Job job : changed.getJobs().values()) {
+            assertEquals(neighbors(fromScratch, 10, job), neighbors(carriedOver, 10, job));
+        }
+    }
+
+    @Test
+    public void whenCarriedOver_farthestRemainingNeighborShouldBeKnownWithoutRecomputing() {
+        JobNeighborhoodsBounded previous = new JobNeighborhoodsBounded(vrp, jobDistance, 2);
+        previous.initialise();
+        Service added = Service.Builder.newInstance("added").setLocation(Location.newInstance(0, 20)).build();
+        VehicleRoutingProblem changed = VehicleRoutingProblem.Builder.newInstance().addJob(target).addJob(s2).addJob(s3)
+            .addJob(s4).addJob(s5).addJob(s6).addJob(s7).addJob(added).build();
+        final int[] noDistances = new int[1];
+        JobDistance countingDistance = new JobDistance() {
+            @Override
+            public double getDistance(Job job1, Job job2) {
+                noDistances[0]++;
+                return jobDistance.getDistance(job1, job2);
+            }
+        };
+        JobNeighborhoodsBounded carriedOver = new JobNeighborhoodsBounded(changed, countingDistance, previous);
+        carriedOver.initialise();
+        int noCarryOverDistances = noDistances[0];
+        assertEquals(Arrays.<Job>asList(s6, s5), neighbors(carriedOver, 2, s7));
+        assertEquals(noCarryOverDistances, noDistances[0]);
+    }
+
+}
@@ -30,8 +30,12 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 
@@ -141,6 +145,29 @@ public class JobNeighborhoodsOptimizedTest {
         assertEquals(2, services.size());
     }
 
-
+    @Test
+    public void whenInitialisedConcurrently_neighborsShouldBeTheSame() {
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        Random random = new Random(4711);
+        for (int i = 0; i < 100; i++) {
+            builder.addJob(Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(random.nextInt(20), random.nextInt(20))).build());
+        }
+        VehicleRoutingProblem vrp = builder.build();
+        JobNeighborhoods sequential = new JobNeighborhoodsOptimized(vrp, jobDistance, 20);
+        sequential.initialise();
+        ExecutorService es = Executors.newFixedThreadPool(3);
+        JobNeighborhoods concurrent = new JobNeighborhoodsOptimized(vrp, jobDistance, 20, es, 3);
+        concurrent.initialise();
+        es.shutdown();
+        for (Job job : vrp.getJobs().values()) {
+            Iterator<Job> sequentialIterator = sequential.getNearestNeighborsIterator(20, job);
+            Iterator<Job> concurrentIterator = concurrent.getNearestNeighborsIterator(20, job);
+            while (sequentialIterator.hasNext()) {
+                assertEquals(sequentialIterator.next(), concurrentIterator.next());
+            }
+            assertFalse(concurrentIterator.hasNext());
+        }
+        assertEquals(sequential.getMaxDistance(), concurrent.getMaxDistance(), 0.);
+    }
 
 }
@@ -213,5 +213,36 @@ public class RuinWorstTest {
 
     }
 
+    @Test
+    public void itShouldRemoveJobsInOrderOfUpdatedSavings() {
+        Service s1 = Service.Builder.newInstance("s1")
+            .setLocation(Location.Builder.newInstance().setCoordinate(Coordinate.newInstance(1, 1)).build()).build();
+        Service s2 = Service.Builder.newInstance("s2")
+            .setLocation(Location.Builder.newInstance().setCoordinate(Coordinate.newInstance(3, 1)).build()).build();
+        Service s3 = Service.Builder.newInstance("s3")
+            .setLocation(Location.Builder.newInstance().setCoordinate(Coordinate.newInstance(10, 10)).build()).build();
+        Shipment shipment = Shipment.Builder.newInstance("ship1")
+            .setPickupLocation(Location.Builder.newInstance().setCoordinate(Coordinate.newInstance(3, 1)).build())
+            .setDeliveryLocation(Location.Builder.newInstance().setCoordinate(Coordinate.newInstance(10, 10.1)).build()).build();
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v")
+            .setStartLocation(Location.Builder.newInstance().setCoordinate(Coordinate.newInstance(0, 0)).build()).build();
+        VehicleImpl v2 = VehicleImpl.Builder.newInstance("v2")
+            .setStartLocation(Location.Builder.newInstance().setCoordinate(Coordinate.newInstance(0, 0)).build()).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance()
+            .addJob(shipment).addJob(s1).addJob(s2).addJob(s3).addVehicle(v).addVehicle(v2).build();
+        RuinWorst worst = new RuinWorst(vrp, 10);
+
+        VehicleRoute route1 = VehicleRoute.Builder.newInstance(v)
+            .addService(s1).addService(s2).addService(s3)
+            .setJobActivityFactory(vrp.getJobActivityFactory()).build();
+        VehicleRoute route2 = VehicleRoute.Builder.newInstance(v2)
+            .addPickup(shipment).addDelivery(shipment).build();
+        Collection<Job> unassigned = worst.ruinRoutes(Arrays.asList(route1, route2));
+
+        assertEquals(Arrays.<Job>asList(shipment, s3, s2, s1), unassigned);
+        assertTrue(route1.isEmpty());
+        assertTrue(route2.isEmpty());
+    }
+
 
 }
@@ -0,0 +1,129 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.graphhopper.jsprit.core.algorithm.state;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.*;
+
+public class JobRouteIndexTest {
+
+    private VehicleRoutingProblem vrp;
+
+    private Service s1;
+
+    private Service s2;
+
+    private Service s3;
+
+    private Shipment shipment;
+
+    private VehicleRoute route1;
+
+    private VehicleRoute route2;
+
+    private Collection<VehicleRoute> routes;
+
+    @Before
+    public void doBefore() {
+        s1 = Service.Builder.newInstance("s1").setLocation(Location.newInstance(0, 10)).build();
+        s2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance(0, 20)).build();
+        s3 = Service.Builder.newInstance("s3").setLocation(Location.newInstance(0, 30)).build();
+        shipment = Shipment.Builder.newInstance("shipment").setPickupLocation(Location.newInstance(10, 0))
+            .setDeliveryLocation(Location.newInstance(20, 0)).build();
+        VehicleImpl v1 = VehicleImpl.Builder.newInstance("v1").setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleImpl v2 = VehicleImpl.Builder.newInstance("v2").setStartLocation(Location.newInstance(0, 0)).build();
+        vrp = VehicleRoutingProblem.Builder.newInstance().addJob(s1).addJob(s2).addJob(s3).addJob(shipment)
+            .addVehicle(v1).addVehicle(v2).build();
+        route1 = VehicleRoute.Builder.newInstance(v1).setJobActivityFactory(vrp.getJobActivityFactory())
+            .addService(s1).addService(s2).build();
+        route2 = VehicleRoute.Builder.newInstance(v2).setJobActivityFactory(vrp.getJobActivityFactory())
+            .addPickup(shipment).addService(s3).addDelivery(shipment).build();
+        routes = Arrays.asList(route1, route2);
+    }
+
+    @Test
+    public void whenRuinStarts_itShouldIndexRoutes() {
+        JobRouteIndex index = new JobRouteIndex(vrp);
+        index.ruinStarts(routes);
+        assertTrue(index.isIndexed(routes));
+        assertSame(route1, index.getRoute(s1));
+        assertSame(route1, index.getRoute(s2));
+        assertSame(route2, index.getRoute(s3));
+        assertSame(route2, index.getRoute(shipment));
+    }
+
+    @Test
+    public void whenJobIsRemoved_itShouldUpdateRoute() {
+        JobRouteIndex index = new JobRouteIndex(vrp);
+        index.ruinStarts(routes);
+        route2.getTourActivities().removeJob(shipment);
+        index.removed(shipment, route2);
+        assertNull(index.getRoute(shipment));
+        assertSame(route2, index.getRoute(s3));
+    }
+
+    @Test
+    public void whenJobIsInserted_itShouldUpdateRoute() {
+        JobRouteIndex index = new JobRouteIndex(vrp);
+        index.ruinStarts(routes);
+        route1.getTourActivities().removeJob(s1);
+        index.removed(s1, route1);
+        index.informInsertionStarts(routes, Arrays.<Job>asList(s1));
+        route2.getTourActivities().addActivity(1, vrp.copyAndGetActivities(s1).get(0));
+        index.informJobInserted(s1, route2, 0., 0.);
+        assertSame(route2, index.getRoute(s1));
+        assertSame(route1, index.getRoute(s2));
+    }
+
+    @Test
+    public void stateManagerIndexShouldFollowRuinAndInsertion() {
+        StateManager stateManager = new StateManager(vrp);
+        JobRouteIndex index = stateManager.getJobRouteIndex();
+        stateManager.ruinStarts(routes);
+        route1.getTourActivities().removeJob(s1);
+        stateManager.removed(s1, route1);
+        assertNull(index.getRoute(s1));
+        route2.getTourActivities().addActivity(1, vrp.copyAndGetActivities(s1).get(0));
+        stateManager.informJobInserted(s1, route2, 0., 0.);
+        assertSame(route2, index.getRoute(s1));
+        assertTrue(index.isIndexed(routes));
+    }
+
+    @Test
+    public void jobsNotInProblemShouldNotBeIndexed() {
+        Service other = Service.Builder.newInstance("other").setLocation(Location.newInstance(0, 10)).build();
+        JobRouteIndex index = new JobRouteIndex(vrp);
+        index.ruinStarts(routes);
+        assertNull(index.getRoute(other));
+        assertFalse(index.isIndexed(Arrays.asList(route1, route2)));
+    }
+
+}
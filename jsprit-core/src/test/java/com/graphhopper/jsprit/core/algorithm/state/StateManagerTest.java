@@ -356,4 +356,116 @@ public class StateManagerTest {
         }
         stateManager.putTypedInternalRouteState(route,myState,1.);
     }
+
+    @Test
+    public void whenDoubleActivityStateIsSet_itMustBeSetCorrectly() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock);
+        DoubleStateId id = stateManager.createDoubleStateId("myState");
+        stateManager.putActivityState(activity, id, 3.);
+        assertEquals(3., stateManager.getActivityState(activity, id, 0.), 0.01);
+        assertEquals(3., stateManager.getActivityState(activity, id, Double.class), 0.01);
+    }
+
+    @Test
+    public void whenDoubleActivityStateIsNotSet_itShouldReturnDefault() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock);
+        DoubleStateId id = stateManager.createDoubleStateId("myState");
+        assertEquals(5., stateManager.getActivityState(activity, id, 5.), 0.01);
+        assertNull(stateManager.getActivityState(activity, id, Double.class));
+    }
+
+    @Test
+    public void whenStateManagerIsCleared_doubleActivityStateShouldReturnDefault() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock);
+        DoubleStateId id = stateManager.createDoubleStateId("myState");
+        stateManager.putActivityState(activity, id, 3.);
+        stateManager.clear();
+        assertEquals(5., stateManager.getActivityState(activity, id, 5.), 0.01);
+    }
+
+    @Test
+    public void whenDoubleActivityStateIsNaN_itShouldNotBeTakenForAbsent() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock);
+        DoubleStateId id = stateManager.createDoubleStateId("myState");
+        stateManager.putActivityState(activity, id, Double.NaN);
+        assertTrue(Double.isNaN(stateManager.getActivityState(activity, id, 5.)));
+        assertTrue(Double.isNaN(stateManager.getActivityState(activity, id, Double.class)));
+    }
+
+    @Test
+    public void whenIntActivityStateIsMinValue_itShouldNotBeTakenForAbsent() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock);
+        IntStateId id = stateManager.createIntStateId("myState");
+        stateManager.putActivityState(activity, id, Integer.MIN_VALUE);
+        assertEquals(Integer.MIN_VALUE, stateManager.getActivityState(activity, id, 0));
+        stateManager.clear();
+        assertEquals(0, stateManager.getActivityState(activity, id, 0));
+    }
+
+    @Test
+    public void whenVehicleDependentIntActivityStateIsSet_itMustBeSetCorrectly() {
+        VehicleType type1 = VehicleTypeImpl.Builder.newInstance("t1").build();
+        VehicleType type2 = VehicleTypeImpl.Builder.newInstance("t2").build();
+        VehicleImpl v1 = VehicleImpl.Builder.newInstance("v1").setStartLocation(Location.newInstance("loc")).setType(type1).build();
+        VehicleImpl v2 = VehicleImpl.Builder.newInstance("v2").setStartLocation(Location.newInstance("loc")).setType(type2).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().addVehicle(v1).addVehicle(v2).build();
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrp);
+        IntStateId id = stateManager.createIntStateId("myState");
+        stateManager.putActivityState(activity, v1, id, 1);
+        stateManager.putActivityState(activity, v2, id, 2);
+        assertEquals(1, stateManager.getActivityState(activity, v1, id, 0));
+        assertEquals(2, stateManager.getActivityState(activity, v2, id, 0));
+        assertTrue(stateManager.hasActivityState(activity, v1, id));
+    }
+
+    @Test
+    public void whenInternalCapacityStateIsSet_itShouldBeReadableWithGenericMethod() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock);
+        Capacity capacity = Capacity.Builder.newInstance().addDimension(0, 500).build();
+        stateManager.putInternalTypedActivityState(activity, InternalStates.Typed.LOAD, capacity);
+        assertSame(capacity, stateManager.getActivityState(activity, InternalStates.Typed.LOAD));
+        assertSame(capacity, stateManager.getActivityState(activity, InternalStates.LOAD, Capacity.class));
+    }
+
+    @Test
+    public void internalStateIdsShouldKeepTheirTypeAndBeTheSameAsTypedIds() throws NoSuchFieldException {
+        assertEquals(StateId.class, InternalStates.class.getField("LOAD").getType());
+        assertEquals(StateId.class, InternalStates.class.getField("LATEST_OPERATION_START_TIME").getType());
+        assertSame(InternalStates.Typed.LOAD, InternalStates.LOAD);
+        assertSame(InternalStates.Typed.LATEST_OPERATION_START_TIME, InternalStates.LATEST_OPERATION_START_TIME);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenCreatingTypedStateWithNameOfStateOfOtherType_itShouldThrowException() {
+        StateManager stateManager = new StateManager(vrpMock);
+        stateManager.createStateId("myState");
+        stateManager.createDoubleStateId("myState");
+    }
+
+    @Test
+    public void whenCreatingManyDoubleStates_theyShouldBeStoredCorrectly() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock);
+        DoubleStateId myState = null;
+        for (int i = 0; i < 40; i++) {
+            myState = stateManager.createDoubleStateId("myState" + i);
+            stateManager.putActivityState(activity, myState, i);
+        }
+        assertEquals(39., stateManager.getActivityState(activity, myState, 0.), 0.01);
+    }
 }
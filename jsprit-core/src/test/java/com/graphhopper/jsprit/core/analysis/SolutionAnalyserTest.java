@@ -297,6 +297,16 @@ public class SolutionAnalyserTest {
         Assert.assertTrue(true);
     }
 
+    @Test
+    public void routeOfJobShouldWork() {
+        SolutionAnalyser analyser = new SolutionAnalyser(vrp, solution, vrp.getTransportCosts());
+        Iterator<VehicleRoute> iterator = solution.getRoutes().iterator();
+        VehicleRoute route1 = iterator.next();
+        VehicleRoute route2 = iterator.next();
+        Assert.assertSame(route1, analyser.getRoute(vrp.getJobs().get("ship1")));
+        Assert.assertSame(route2, analyser.getRoute(vrp.getJobs().get("s4")));
+    }
+
     @Test
     public void loadAtBeginningOfRoute1ShouldWork() {
         SolutionAnalyser analyser = new SolutionAnalyser(vrp, solution, vrp.getTransportCosts());
@@ -383,4 +383,31 @@ public class CapacityTest {
         Capacity cap2 = Capacity.Builder.newInstance().addDimension(0,10).addDimension(2, 1000).addDimension(1,100).build();
         Assert.assertTrue(cap1.equals(cap2));
     }
+
+    @Test
+    public void whenSumIsLessOrEqual_itShouldReturnTrue() {
+        Capacity cap1 = Capacity.Builder.newInstance().addDimension(0, 2).addDimension(1, 3).build();
+        Capacity cap2 = Capacity.Builder.newInstance().addDimension(0, 1).build();
+        Capacity limit = Capacity.Builder.newInstance().addDimension(0, 3).addDimension(1, 3).build();
+        assertTrue(Capacity.isSumLessOrEqual(cap1, cap2, limit));
+        assertEquals(Capacity.addup(cap1, cap2).isLessOrEqual(limit), Capacity.isSumLessOrEqual(cap1, cap2, limit));
+    }
+
+    @Test
+    public void whenSumExceedsOneDimension_itShouldReturnFalse() {
+        Capacity cap1 = Capacity.Builder.newInstance().addDimension(0, 2).addDimension(1, 3).build();
+        Capacity cap2 = Capacity.Builder.newInstance().addDimension(1, 1).build();
+        Capacity limit = Capacity.Builder.newInstance().addDimension(0, 3).addDimension(1, 3).build();
+        assertFalse(Capacity.isSumLessOrEqual(cap1, cap2, limit));
+    }
+
+    @Test
+    public void differenceShouldBeComparedLikeSubtractedCapacity() {
+        Capacity cap = Capacity.Builder.newInstance().addDimension(0, 5).build();
+        Capacity cap2subtract = Capacity.Builder.newInstance().addDimension(0, 1).addDimension(1, 2).build();
+        Capacity limit = Capacity.Builder.newInstance().addDimension(0, 4).build();
+        assertTrue(Capacity.isDifferenceLessOrEqual(cap, cap2subtract, limit));
+        assertFalse(Capacity.isDifferenceLessOrEqual(cap, Capacity.Builder.newInstance().build(), limit));
+        assertEquals(Capacity.subtract(cap, cap2subtract).isLessOrEqual(limit), Capacity.isDifferenceLessOrEqual(cap, cap2subtract, limit));
+    }
 }
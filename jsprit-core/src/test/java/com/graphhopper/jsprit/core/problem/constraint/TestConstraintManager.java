@@ -21,7 +21,11 @@ import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import org.junit.Test;
 
+import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -87,4 +91,57 @@ public class TestConstraintManager {
         assertEquals(2, man.getConstraints().size());
     }
 
+    private HardActivityConstraint constraint(final HardActivityConstraint.ConstraintsStatus status) {
+        return new HardActivityConstraint() {
+            @Override
+            public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
+                return status;
+            }
+        };
+    }
+
+    @Test
+    public void whenCountingEvaluations_statisticsShouldContainEvaluationsAndRejections() {
+        HardActivityConstraint fulfilled = constraint(HardActivityConstraint.ConstraintsStatus.FULFILLED);
+        HardActivityConstraint breaking = constraint(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED_BREAK);
+        HardActivityConstraint notEvaluated = constraint(HardActivityConstraint.ConstraintsStatus.FULFILLED);
+        ConstraintManager man = new ConstraintManager(mock(VehicleRoutingProblem.class), mock(RouteAndActivityStateGetter.class));
+        man.addConstraint(notEvaluated, ConstraintManager.Priority.HIGH);
+        man.addConstraint(fulfilled, ConstraintManager.Priority.CRITICAL);
+        man.addConstraint(breaking, ConstraintManager.Priority.CRITICAL);
+        man.setCountEvaluations(true);
+        List<HardActivityConstraint> failed = new ArrayList<HardActivityConstraint>();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED_BREAK, man.fulfilled(null, null, null, null, 0., failed));
+        }
+        assertEquals(Arrays.asList(breaking, breaking, breaking, breaking, breaking, breaking, breaking, breaking, breaking, breaking), failed);
+        List<ConstraintStatistics> statistics = man.getConstraintStatistics();
+        assertEquals(notEvaluated, statistics.get(0).getConstraint());
+        assertEquals(0, statistics.get(0).getNoEvaluations());
+        assertEquals(10, statistics.get(1).getNoEvaluations());
+        assertEquals(0, statistics.get(1).getNoRejections());
+        assertEquals(10, statistics.get(2).getNoEvaluations());
+        assertEquals(1., statistics.get(2).getRejectionRate(), 0.);
+    }
+
+    @Test
+    public void whenOrderingAdaptively_rejectingConstraintShouldBeEvaluatedFirst() {
+        HardActivityConstraint fulfilled = constraint(HardActivityConstraint.ConstraintsStatus.FULFILLED);
+        HardActivityConstraint rejecting = constraint(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED);
+        HardActivityConstraint lowPrio1 = constraint(HardActivityConstraint.ConstraintsStatus.FULFILLED);
+        HardActivityConstraint lowPrio2 = constraint(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED);
+        ConstraintManager man = new ConstraintManager(mock(VehicleRoutingProblem.class), mock(RouteAndActivityStateGetter.class));
+        man.addConstraint(fulfilled, ConstraintManager.Priority.HIGH);
+        man.addConstraint(rejecting, ConstraintManager.Priority.HIGH);
+        man.addConstraint(lowPrio1, ConstraintManager.Priority.LOW);
+        man.addConstraint(lowPrio2, ConstraintManager.Priority.LOW);
+        man.setAdaptiveConstraintOrdering(true);
+        for (int i = 0; i < HardActivityLevelConstraintManager.REORDERING_INTERVAL; i++) {
+            assertEquals(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED, man.fulfilled(null, null, null, null, 0.));
+        }
+        assertEquals(Arrays.asList(rejecting, fulfilled), man.getHighPrioHardActivityConstraints());
+        assertEquals(Arrays.asList(lowPrio1, lowPrio2), man.getLowPrioHardActivityConstraints());
+        assertEquals(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED, man.fulfilled(null, null, null, null, 0.));
+    }
+
 }
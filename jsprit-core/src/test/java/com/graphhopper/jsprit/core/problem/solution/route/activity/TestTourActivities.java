@@ -18,11 +18,14 @@
 package com.graphhopper.jsprit.core.problem.solution.route.activity;
 
 import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.job.Service;
 import com.graphhopper.jsprit.core.problem.job.Shipment;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Iterator;
+
 import static org.junit.Assert.*;
 
 
@@ -235,4 +238,158 @@ public class TestTourActivities {
         assertTrue(copiedTour.servesJob(s));
     }
 
+    @Test
+    public void whenCopyOnWriteIsChanged_originalShouldNotChange() {
+        Service service2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance("loc2")).build();
+        tour.addActivity(act);
+        tour.addActivity(ServiceActivity.newInstance(service2));
+
+        TourActivities copiedTour = TourActivities.copyOnWrite(tour);
+        assertSame(act, copiedTour.getActivities().get(0));
+
+        copiedTour.removeJob(service);
+        assertFalse(copiedTour.servesJob(service));
+        assertTrue(tour.servesJob(service));
+        assertEquals(2, tour.getActivities().size());
+        assertSame(act, tour.getActivities().get(0));
+        assertNotSame(tour.getActivities().get(1), copiedTour.getActivities().get(0));
+
+        tour.removeJob(service2);
+        assertTrue(copiedTour.servesJob(service2));
+    }
+
+    @Test
+    public void whenRemovingSharedActivityFromCopyOnWrite_itsDuplicateShouldBeRemoved() {
+        tour.addActivity(act);
+        TourActivities copiedTour = TourActivities.copyOnWrite(tour);
+
+        assertTrue(copiedTour.removeActivity(act));
+        assertTrue(copiedTour.isEmpty());
+        assertFalse(copiedTour.servesJob(service));
+        assertSame(act, tour.getActivities().get(0));
+    }
+
+    @Test
+    public void positionsShouldBeUpdatedWhenActivitiesAreAddedAndRemoved() {
+        Shipment s = Shipment.Builder.newInstance("s").setDeliveryLocation(Location.newInstance("delLoc"))
+            .setPickupLocation(Location.newInstance("pickLoc")).build();
+        Service service2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance("loc2")).build();
+        TourShipmentActivityFactory fac = new DefaultShipmentActivityFactory();
+        TourActivity pickupShipment = fac.createPickup(s);
+        TourActivity deliverShipment = fac.createDelivery(s);
+        TourActivity act2 = ServiceActivity.newInstance(service2);
+        tour.addActivity(pickupShipment);
+        tour.addActivity(deliverShipment);
+        assertArrayEquals(new int[]{0, 1}, tour.getActivityPositions(s));
+
+        tour.addActivity(1, act);
+        tour.addActivity(0, act2);
+        assertArrayEquals(new int[]{1, 3}, tour.getActivityPositions(s));
+        assertArrayEquals(new int[]{2}, tour.getActivityPositions(service));
+        assertArrayEquals(new int[]{0}, tour.getActivityPositions(service2));
+        assertEquals(3, tour.indexOf(deliverShipment));
+
+        tour.removeJob(service2);
+        assertArrayEquals(new int[]{0, 2}, tour.getActivityPositions(s));
+        assertEquals(1, tour.indexOf(act));
+        assertEquals(-1, tour.indexOf(act2));
+        assertEquals(0, tour.getActivityPositions(service2).length);
+
+        tour.removeActivity(pickupShipment);
+        assertArrayEquals(new int[]{1}, tour.getActivityPositions(s));
+        assertTrue(tour.servesJob(s));
+    }
+
+    @Test
+    public void whenRemovingActivityByIterator_jobAndPositionsShouldBeUpdated() {
+        Service service2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance("loc2")).build();
+        tour.addActivity(act);
+        tour.addActivity(ServiceActivity.newInstance(service2));
+        Iterator<TourActivity> iterator = tour.iterator();
+        iterator.next();
+        iterator.remove();
+        assertTrue(iterator.hasNext());
+        assertSame(service2, ((TourActivity.JobActivity) iterator.next()).getJob());
+        assertFalse(iterator.hasNext());
+        assertFalse(tour.servesJob(service));
+        assertArrayEquals(new int[]{0}, tour.getActivityPositions(service2));
+    }
+
+    @Test
+    public void whenJobIndicesChange_servesJobShouldStillWork() {
+        Service service2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance("loc2")).build();
+        Service service3 = Service.Builder.newInstance("s3").setLocation(Location.newInstance("loc3")).build();
+        VehicleRoutingProblem.Builder.newInstance().addJob(service).addJob(service2).addJob(service3);
+        tour.addActivity(act);
+        tour.addActivity(ServiceActivity.newInstance(service2));
+        assertTrue(tour.servesJob(service2));
+        assertFalse(tour.servesJob(service3));
+
+        VehicleRoutingProblem.Builder.newInstance().addJob(service3).addJob(service2).addJob(service);
+        assertTrue(tour.servesJob(service));
+        assertTrue(tour.servesJob(service2));
+        assertFalse(tour.servesJob(service3));
+        tour.removeJob(service);
+        assertFalse(tour.servesJob(service));
+        assertFalse(tour.servesJob(service3));
+    }
+
+    @Test
+    public void whenEqualJobOfOtherProblemIsLookedUp_itShouldBeServed() {
+        Service service2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance("loc2")).build();
+        Service equalService2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance("loc2")).build();
+        VehicleRoutingProblem.Builder.newInstance().addJob(service).addJob(service2);
+        VehicleRoutingProblem.Builder.newInstance().addJob(equalService2);
+        tour.addActivity(ServiceActivity.newInstance(service2));
+        assertTrue(tour.servesJob(equalService2));
+    }
+
+    @Test
+    public void positionsOfCopyOnWriteShouldBeCorrect() {
+        Service service2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance("loc2")).build();
+        tour.addActivity(ServiceActivity.newInstance(service2));
+        tour.addActivity(0, act);
+        TourActivities copiedTour = TourActivities.copyOnWrite(tour);
+        assertArrayEquals(new int[]{1}, copiedTour.getActivityPositions(service2));
+        assertEquals(0, copiedTour.indexOf(act));
+
+        copiedTour.removeJob(service);
+        assertArrayEquals(new int[]{0}, copiedTour.getActivityPositions(service2));
+        assertArrayEquals(new int[]{1}, tour.getActivityPositions(service2));
+    }
+
+    @Test
+    public void positionsOfSharedActivitiesShouldOnlyBeDeterminedOnce() {
+        Service service2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance("loc2")).build();
+        tour.addActivity(ServiceActivity.newInstance(service2));
+        tour.addActivity(0, act);
+        TourActivities copiedTour = TourActivities.copyOnWrite(tour);
+        int[] positions = tour.getActivityPositions(service2);
+        assertArrayEquals(new int[]{1}, positions);
+        assertSame(positions, tour.getActivityPositions(service2));
+        assertArrayEquals(new int[]{1}, copiedTour.getActivityPositions(service2));
+        assertArrayEquals(new int[]{0}, copiedTour.getActivityPositions(service));
+    }
+
+    @Test
+    public void versionShouldChangeWithActivitiesAndBeKeptByCopies() {
+        Service service2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance("loc2")).build();
+        assertEquals(0, tour.getVersion());
+        tour.addActivity(act);
+        long version = tour.getVersion();
+        assertNotEquals(0, version);
+        assertEquals(version, TourActivities.copyOf(tour).getVersion());
+
+        TourActivities copiedTour = TourActivities.copyOnWrite(tour);
+        assertEquals(version, copiedTour.getVersion());
+        copiedTour.addActivity(0, ServiceActivity.newInstance(service2));
+        assertNotEquals(version, copiedTour.getVersion());
+        assertEquals(version, tour.getVersion());
+
+        copiedTour.removeJob(service2);
+        assertNotEquals(version, copiedTour.getVersion());
+        copiedTour.removeActivity(copiedTour.getActivities().get(0));
+        assertEquals(0, copiedTour.getVersion());
+    }
+
 }
@@ -23,7 +23,10 @@ import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -109,5 +112,66 @@ public class FastVehicleRoutingTransportCostsMatrixTest {
         assertEquals(16., matrix.getTransportCost(loc(2), loc(1), 0.0, null, vehicle), 0.1);
     }
 
+    @Test
+    public void symmetricMatrixShouldOnlyStoreUpperTriangle() {
+        FastVehicleRoutingTransportCostsMatrix symmetric = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(100, true).build();
+        FastVehicleRoutingTransportCostsMatrix asymmetric = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(100, false).build();
+        assertEquals(5050, symmetric.getNoEntriesPerPlane());
+        assertEquals(10000, asymmetric.getNoEntriesPerPlane());
+    }
+
+    @Test
+    public void whenAddingAllRelationsToSymmetricMatrix_itShouldReturnCorrectValues() {
+        int n = 20;
+        Random random = new Random(1);
+        double[][] values = new double[n][n];
+        FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(n, true);
+        for (int from = 0; from < n; from++) {
+            for (int to = from; to < n; to++) {
+                values[from][to] = random.nextDouble();
+                values[to][from] = values[from][to];
+                matrixBuilder.addTransportTimeAndDistance(from, to, 2 * values[from][to], values[from][to]);
+            }
+        }
+        FastVehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        for (int from = 0; from < n; from++) {
+            for (int to = 0; to < n; to++) {
+                assertEquals(values[from][to], matrix.getDistance(from, to), 0.);
+                assertEquals(2 * values[from][to], matrix.getTransportTime(from, to), 0.);
+            }
+        }
+    }
+
+    @Test
+    public void whenUsingFloatPrecision_itShouldReturnCorrectValues() {
+        FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false, true);
+        matrixBuilder.addTransportTimeAndDistance(1, 2, 2.5, 1234.5);
+        matrixBuilder.addTransportTimeAndDistance(2, 1, 8., 10.1);
+        FastVehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        assertTrue(matrix.hasFloatPrecision());
+        assertEquals(2.5, matrix.getTransportTime(loc(1), loc(2), 0.0, null, null), 0.);
+        assertEquals(1234.5, matrix.getDistance(loc(1), loc(2), 0.0, null), 0.);
+        assertEquals(8., matrix.getTransportTime(2, 1), 0.);
+        assertEquals(10.1, matrix.getDistance(2, 1), 0.0001);
+    }
+
+    @Test
+    public void whenOnlyDistancesAreAdded_timeShouldBeZero() {
+        FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false);
+        matrixBuilder.addTransportDistance(1, 2, 2.);
+        FastVehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        assertEquals(0., matrix.getTransportTime(loc(1), loc(2), 0.0, null, null), 0.);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenAddingRelationWithIndexOutOfRange_itShouldThrowException() {
+        FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false).addTransportDistance(1, 3, 2.);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenRequestingRelationWithIndexOutOfRange_itShouldThrowException() {
+        FastVehicleRoutingTransportCostsMatrix matrix = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false).build();
+        matrix.getDistance(loc(1), loc(3), 0.0, null);
+    }
 
 }
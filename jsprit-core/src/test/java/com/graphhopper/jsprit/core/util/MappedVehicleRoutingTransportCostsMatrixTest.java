@@ -0,0 +1,140 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MappedVehicleRoutingTransportCostsMatrixTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Location loc(int index) {
+        return Location.Builder.newInstance().setIndex(index).build();
+    }
+
+    @Test
+    public void whenWritingAsymmetricMatrix_itShouldReadCorrectValues() throws IOException {
+        File file = folder.newFile("matrix.bin");
+        int n = 10;
+        Random random = new Random(1);
+        double[][] times = new double[n][n];
+        double[][] distances = new double[n][n];
+        MappedVehicleRoutingTransportCostsMatrix.Writer writer = MappedVehicleRoutingTransportCostsMatrix.Writer.newInstance(file, n, false, false);
+        for (int from = 0; from < n; from++) {
+            for (int to = 0; to < n; to++) {
+                times[from][to] = random.nextDouble();
+                distances[from][to] = random.nextDouble();
+                writer.addTransportTimeAndDistance(from, to, times[from][to], distances[from][to]);
+            }
+        }
+        writer.close();
+
+        MappedVehicleRoutingTransportCostsMatrix matrix = MappedVehicleRoutingTransportCostsMatrix.read(file);
+        assertEquals(n, matrix.getNoLocations());
+        for (int from = 0; from < n; from++) {
+            for (int to = 0; to < n; to++) {
+                assertEquals(times[from][to], matrix.getTransportTime(loc(from), loc(to), 0., null, null), 0.);
+                assertEquals(distances[from][to], matrix.getDistance(loc(from), loc(to), 0., null), 0.);
+            }
+        }
+        matrix.close();
+    }
+
+    @Test
+    public void whenWritingSymmetricMatrixWithFloatPrecision_itShouldReadCorrectValues() throws IOException {
+        File file = folder.newFile("matrix.bin");
+        MappedVehicleRoutingTransportCostsMatrix.Writer writer = MappedVehicleRoutingTransportCostsMatrix.Writer.newInstance(file, 3, true, true);
+        writer.addTransportDistance(1, 2, 20.);
+        writer.addTransportTime(2, 1, 2.);
+        writer.close();
+
+        MappedVehicleRoutingTransportCostsMatrix matrix = MappedVehicleRoutingTransportCostsMatrix.read(file);
+        assertTrue(matrix.isSymmetric());
+        assertTrue(matrix.hasFloatPrecision());
+        assertEquals(8 * 6 + MappedVehicleRoutingTransportCostsMatrix.HEADER_SIZE, file.length());
+        Vehicle vehicle = mock(Vehicle.class);
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("t").setCostPerDistance(1.).setCostPerTime(2.).build();
+        when(vehicle.getType()).thenReturn(type);
+        assertEquals(24., matrix.getTransportCost(loc(1), loc(2), 0.0, null, vehicle), 0.);
+        assertEquals(24., matrix.getTransportCost(loc(2), loc(1), 0.0, null, vehicle), 0.);
+        assertEquals(0., matrix.getDistance(0, 1), 0.);
+        matrix.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenRequestingRelationWithIndexOutOfRange_itShouldThrowException() throws IOException {
+        File file = folder.newFile("matrix.bin");
+        MappedVehicleRoutingTransportCostsMatrix.Writer.newInstance(file, 3, false, false).close();
+        MappedVehicleRoutingTransportCostsMatrix.read(file).getDistance(0, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenReadingOtherFile_itShouldThrowException() throws IOException {
+        File file = folder.newFile("other.bin");
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[100]);
+        out.close();
+        MappedVehicleRoutingTransportCostsMatrix.read(file);
+    }
+
+    private File writeHeader(int noLocations, int symmetricFlag, int length) throws IOException {
+        File file = folder.newFile("header.bin");
+        ByteBuffer header = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MappedVehicleRoutingTransportCostsMatrix.MAGIC).putInt(MappedVehicleRoutingTransportCostsMatrix.VERSION);
+        header.putInt(noLocations).put((byte) symmetricFlag).put((byte) 0);
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(header.array());
+        out.close();
+        return file;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenHeaderHasNegativeNumberOfLocations_itShouldThrowException() throws IOException {
+        MappedVehicleRoutingTransportCostsMatrix.read(writeHeader(-1, 1, MappedVehicleRoutingTransportCostsMatrix.HEADER_SIZE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenHeaderRequiresTooManyEntries_itShouldThrowException() throws IOException {
+        MappedVehicleRoutingTransportCostsMatrix.read(writeHeader(Integer.MAX_VALUE, 0, MappedVehicleRoutingTransportCostsMatrix.HEADER_SIZE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenFileIsShorterThanHeaderRequires_itShouldThrowException() throws IOException {
+        MappedVehicleRoutingTransportCostsMatrix.read(writeHeader(10, 0, MappedVehicleRoutingTransportCostsMatrix.HEADER_SIZE + 100));
+    }
+
+}
@@ -258,4 +258,46 @@ public class VehicleRoutingTransportCostsMatrixTest {
         assertEquals(1., matrix.getTransportCost(loc("to"), loc("from"), 0.0, null, vehicle), 0.1);
     }
 
+    @Test
+    public void whenLocationsHaveIndex_itShouldReturnValuesOfTheirIds() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(false);
+        matrixBuilder.addTransportTime("a", "b", 2.);
+        matrixBuilder.addTransportTime("c", "b", 3.);
+        VehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        Location b = Location.Builder.newInstance().setId("b").setIndex(1).build();
+        assertEquals(2., matrix.getTransportTime(Location.Builder.newInstance().setId("a").setIndex(0).build(), b, 0., null, null), 0.);
+        //same index, but other id
+        assertEquals(3., matrix.getTransportTime(Location.Builder.newInstance().setId("c").setIndex(0).build(), b, 0., null, null), 0.);
+        assertEquals(2., matrix.getTransportTime(Location.Builder.newInstance().setId("a").setIndex(0).build(), b, 0., null, null), 0.);
+    }
+
+    @Test
+    public void whenMatrixIsSparse_itShouldReturnValuesOfItsRelations() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(true);
+        for (int i = 0; i < 100; i++) {
+            matrixBuilder.addTransportDistance("" + i, "" + (i + 1), i);
+        }
+        VehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        assertEquals(5., matrix.getDistance("5", "6"), 0.);
+        assertEquals(5., matrix.getDistance("6", "5"), 0.);
+        assertEquals(99., matrix.getDistance(loc("99"), loc("100"), 0., null), 0.);
+        assertEquals(0., matrix.getTransportTime(loc("5"), loc("6"), 0., null, null), 0.);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenMatrixIsSparse_unknownRelationShouldThrowException() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(false);
+        for (int i = 0; i < 100; i++) {
+            matrixBuilder.addTransportTime("" + i, "" + (i + 1), i);
+        }
+        matrixBuilder.build().getTransportTime(loc("6"), loc("5"), 0., null, null);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenRequestingTimeOfUnknownLocation_itShouldThrowException() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(true);
+        matrixBuilder.addTransportTime("a", "b", 2.);
+        matrixBuilder.build().getTransportTime(loc("a"), loc("unknown"), 0., null, null);
+    }
+
 }